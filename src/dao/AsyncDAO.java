@@ -0,0 +1,256 @@
+package dao;
+
+import util.AppConfig;
+import util.ReadIntent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs blocking DAO calls on virtual threads and returns CompletableFutures, so the UI thread
+ * never waits on the database and independent queries overlap instead of running one by one.
+ *
+ * <pre>
+ * CompletableFuture&lt;List&lt;Employee&gt;&gt; employees = AsyncDAO.shared().call(employeeDAO::getAllEmployees);
+ * CompletableFuture&lt;List&lt;Attendance&gt;&gt; attendance = AsyncDAO.shared().call(
+ *         () -&gt; attendanceDAO.getAttendanceByEmployeeId(id), 5, TimeUnit.SECONDS);
+ * employees.thenCombine(attendance, ...).whenCompleteAsync(..., SwingUtilities::invokeLater);
+ * </pre>
+ *
+ * At most {@code maxConcurrentCalls} calls run at once (by default the pool's maximum size), so a
+ * large fan-out waits for a permit rather than for a pooled connection. A call that exceeds its
+ * timeout completes exceptionally with a TimeoutException and its thread is interrupted, which
+ * releases it if it is still waiting for a permit or a connection.
+ *
+ * A call runs under the {@link ReadIntent} that was active when it was submitted. It does not
+ * join the caller's {@link util.UnitOfWork}; each call borrows its own connection.
+ */
+public class AsyncDAO {
+    private static final Logger LOGGER = Logger.getLogger(AsyncDAO.class.getName());
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private static final AsyncDAO SHARED = new AsyncDAO(
+            AppConfig.get().getInt("async.maxConcurrentCalls", AppConfig.get().getInt("pool.maxSize", 10)),
+            AppConfig.get().getLong("async.timeoutMillis", DEFAULT_TIMEOUT_MILLIS));
+
+    /**
+     * A blocking DAO call
+     */
+    @FunctionalInterface
+    public interface DaoCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * A blocking DAO call made once per item of a fan-out
+     */
+    @FunctionalInterface
+    public interface DaoFunction<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxConcurrentCalls;
+    private final long defaultTimeoutMillis;
+
+    /**
+     * @param maxConcurrentCalls Calls allowed to run at once
+     * @param defaultTimeoutMillis Timeout for calls that do not give one; 0 for none
+     */
+    public AsyncDAO(int maxConcurrentCalls, long defaultTimeoutMillis) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Max concurrent calls must be positive");
+        }
+        if (defaultTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Default timeout cannot be negative");
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * Application-wide facade sized from the async.* settings
+     */
+    public static AsyncDAO shared() {
+        return SHARED;
+    }
+
+    /**
+     * Run a call with the default timeout
+     */
+    public <T> CompletableFuture<T> call(DaoCall<T> call) {
+        return call(call, defaultTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run a call, failing it with a TimeoutException if it takes longer than the timeout
+     * @param timeout Timeout, or 0 for none
+     */
+    public <T> CompletableFuture<T> call(DaoCall<T> call, long timeout, TimeUnit unit) {
+        if (call == null || unit == null) {
+            throw new IllegalArgumentException("Call and time unit cannot be null");
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ReadIntent readIntent = ReadIntent.current();
+        Future<?> task = executor.submit(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.cancel(false);
+                return;
+            }
+            try (ReadIntent resumed = ReadIntent.resume(readIntent)) {
+                result.complete(call.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+
+        if (timeout > 0) {
+            result.orTimeout(timeout, unit);
+        }
+        // Timed out or cancelled by the caller: stop waiting for a permit or connection
+        result.whenComplete((value, error) -> {
+            if (error != null && !task.isDone()) {
+                task.cancel(true);
+                if (unwrap(error) instanceof TimeoutException) {
+                    LOGGER.warning("DAO call timed out after " + unit.toMillis(timeout) + "ms");
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Make one call per item concurrently; the results keep the items' order.
+     * Fails with the first failure, cancelling the calls still running.
+     */
+    public <T, R> CompletableFuture<List<R>> forEach(Collection<T> items, DaoFunction<T, R> function) {
+        if (items == null || function == null) {
+            throw new IllegalArgumentException("Items and function cannot be null");
+        }
+        List<CompletableFuture<R>> calls = new ArrayList<>(items.size());
+        for (T item : items) {
+            calls.add(call(() -> function.apply(item)));
+        }
+        return allOf(calls);
+    }
+
+    /**
+     * Combine futures into one list in the same order.
+     * Fails with the first failure, cancelling the others.
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            if (error == null) {
+                List<T> results = new ArrayList<>(futures.size());
+                for (CompletableFuture<T> future : futures) {
+                    results.add(future.join());
+                }
+                result.complete(results);
+            }
+        });
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((value, error) -> {
+                if (error != null && result.completeExceptionally(unwrap(error))) {
+                    for (CompletableFuture<T> other : futures) {
+                        other.cancel(true);
+                    }
+                }
+            });
+        }
+        // Cancelling the combined future cancels the calls
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                for (CompletableFuture<T> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Wait for a future, rethrowing the call's own exception unwrapped
+     */
+    public static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * The underlying failure of a CompletionException or ExecutionException
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * A message for showing a failed call to the user
+     */
+    public static String describeFailure(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof TimeoutException) {
+            return "the database did not respond in time";
+        }
+        if (cause instanceof CancellationException) {
+            return "cancelled";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getActiveCallCount() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    public long getDefaultTimeoutMillis() {
+        return defaultTimeoutMillis;
+    }
+
+    /**
+     * Stop accepting calls and interrupt the running ones
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        LOGGER.log(Level.FINE, "Async DAO facade shut down");
+    }
+}
@@ -1,26 +1,59 @@
 package dao;
 
 import util.DBConnection;
+import util.DataChangeNotifier;
 import model.Attendance;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 
-public class AttendanceDAO {
+public class AttendanceDAO implements AttendanceRepository {
     private static final Logger logger = Logger.getLogger(AttendanceDAO.class.getName());
 
+    // Columns read by mapResultSetToAttendance, in the order it reads them
+    private static final ColumnIndex ATTENDANCE_COLUMNS = new ColumnIndex(
+            "id", "employee_id", "date", "log_in", "log_out");
+
+    private static final String SELECT_ATTENDANCE = "SELECT " + ATTENDANCE_COLUMNS.list() + " FROM attendance";
+
+    // All employees' records within a period, by employee then newest first
+    private static final String SELECT_ATTENDANCE_IN_RANGE =
+            SELECT_ATTENDANCE + " WHERE date >= ? AND date <= ? ORDER BY employee_id, date DESC";
+
+    // Insert, or replace the log times of the employee's record on that date
+    private static final String UPSERT_ATTENDANCE =
+            "INSERT INTO attendance (employee_id, date, log_in, log_out) VALUES (?, ?, ?, ?) AS new_row " +
+            "ON DUPLICATE KEY UPDATE log_in = new_row.log_in, log_out = new_row.log_out";
+
+    // Punches: start the day's record on log in, or keep the earliest log in / latest log out on
+    // it. A punch that would put the log out before the log in is ignored, and a log out needs a
+    // log in. LAST_INSERT_ID(id) makes the existing record's ID the generated key when one is updated.
+    // The update counts found rows, so a log out is applied exactly when one row is reported.
+    private static final String RECORD_LOG_IN =
+            "INSERT INTO attendance (employee_id, date, log_in) VALUES (?, ?, ?) AS punch " +
+            "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(attendance.id), " +
+            "log_in = IF(punch.log_in > attendance.log_out, attendance.log_in, " +
+            "LEAST(COALESCE(attendance.log_in, punch.log_in), punch.log_in))";
+
+    private static final String RECORD_LOG_OUT =
+            "UPDATE attendance SET id = LAST_INSERT_ID(id), log_out = GREATEST(COALESCE(log_out, ?), ?) " +
+            "WHERE employee_id = ? AND date = ? AND log_in IS NOT NULL AND log_in <= ?";
+
     public List<Attendance> getAttendanceByEmployeeId(int empId) {
         if (empId <= 0) {
             throw new IllegalArgumentException("Employee ID must be positive");
         }
 
         List<Attendance> list = new ArrayList<>();
-        String query = "SELECT * FROM attendance WHERE employee_id = ? ORDER BY date DESC";
+        String query = SELECT_ATTENDANCE + " WHERE employee_id = ? ORDER BY date DESC";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, empId);
@@ -52,9 +85,9 @@ public class AttendanceDAO {
         }
 
         List<Attendance> list = new ArrayList<>();
-        String query = "SELECT * FROM attendance WHERE employee_id = ? AND date >= ? AND date <= ? ORDER BY date DESC";
+        String query = SELECT_ATTENDANCE + " WHERE employee_id = ? AND date >= ? AND date <= ? ORDER BY date DESC";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, employeeId);
@@ -77,53 +110,120 @@ public class AttendanceDAO {
         return list;
     }
 
+    /**
+     * Retrieves attendance for all employees within a date range in one query,
+     * ordered by employee then date (newest first, as in the per-employee query)
+     */
+    public List<Attendance> getAttendanceBetweenDates(LocalDate periodStart, LocalDate periodEnd) {
+        if (periodStart == null || periodEnd == null) {
+            throw new IllegalArgumentException("Period start and end dates cannot be null");
+        }
+        if (periodStart.isAfter(periodEnd)) {
+            throw new IllegalArgumentException("Period start date cannot be after end date");
+        }
+
+        List<Attendance> list = new ArrayList<>();
 
-    public int insertAttendance(Attendance attendance) {
-        // ENHANCED: Comprehensive input validation
-        if (attendance == null) {
-            throw new IllegalArgumentException("Attendance cannot be null");
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ATTENDANCE_IN_RANGE)) {
+
+            bindRange(stmt, periodStart, periodEnd);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapResultSetToAttendance(rs));
+                }
+            }
+
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Error retrieving attendance between dates: " + periodStart + " and " + periodEnd, ex);
+            throw new RuntimeException("Failed to retrieve attendance records", ex);
         }
-        if (attendance.getEmployeeId() <= 0) {
-            throw new IllegalArgumentException("Employee ID must be positive, got: " + attendance.getEmployeeId());
+
+        return list;
+    }
+
+    /**
+     * Streaming form of getAttendanceByEmployeeId: records are passed to the consumer as they
+     * are read rather than collected
+     * @return number of records read
+     */
+    public long forEachAttendanceByEmployeeId(int empId, Consumer<? super Attendance> consumer) {
+        if (empId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
         }
-        if (attendance.getDate() == null) {
-            throw new IllegalArgumentException("Date cannot be null");
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
         }
-        if (attendance.getLogIn() == null) {
-            throw new IllegalArgumentException("Log in time cannot be null");
+
+        try {
+            return StreamingQuery.forEach(SELECT_ATTENDANCE + " WHERE employee_id = ? ORDER BY date DESC",
+                    stmt -> stmt.setInt(1, empId), this::mapResultSetToAttendance, consumer);
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Error streaming attendance for employee ID: " + empId, ex);
+            throw new RuntimeException("Failed to retrieve attendance records", ex);
         }
+    }
 
-        // ENHANCED: Validate date is not in the future
-        LocalDate today = LocalDate.now();
-        LocalDate attendanceDate = attendance.getDate().toLocalDate();
-        if (attendanceDate.isAfter(today)) {
-            throw new IllegalArgumentException("Attendance date cannot be in the future: " + attendanceDate);
+    /**
+     * Streaming form of getAttendanceBetweenDates, in the same order, for exports and analytics
+     * over long periods
+     * @return number of records read
+     */
+    public long forEachAttendanceInRange(LocalDate periodStart, LocalDate periodEnd, Consumer<? super Attendance> consumer) {
+        if (periodStart == null || periodEnd == null) {
+            throw new IllegalArgumentException("Period start and end dates cannot be null");
+        }
+        if (periodStart.isAfter(periodEnd)) {
+            throw new IllegalArgumentException("Period start date cannot be after end date");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
         }
 
-        // ENHANCED: Validate date is not too far in the past (optional business rule)
-        LocalDate maxPastDate = today.minusDays(30); // Allow up to 30 days past
-        if (attendanceDate.isBefore(maxPastDate)) {
-            throw new IllegalArgumentException("Attendance date is too far in the past: " + attendanceDate +
-                    ". Maximum allowed past date is: " + maxPastDate);
+        try {
+            return StreamingQuery.forEach(SELECT_ATTENDANCE_IN_RANGE,
+                    stmt -> bindRange(stmt, periodStart, periodEnd), this::mapResultSetToAttendance, consumer);
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Error streaming attendance between dates: " + periodStart + " and " + periodEnd, ex);
+            throw new RuntimeException("Failed to retrieve attendance records", ex);
         }
+    }
 
-        // ENHANCED: Validate log times
-        if (attendance.getLogOut() != null) {
-            LocalTime logIn = attendance.getLogIn().toLocalTime();
-            LocalTime logOut = attendance.getLogOut().toLocalTime();
+    /**
+     * Records of all employees within the period from one query, by employee ID in ascending
+     * order; employees without records are left out
+     */
+    public Map<Integer, List<Attendance>> getAttendanceGroupedByEmployee(LocalDate periodStart, LocalDate periodEnd) {
+        Map<Integer, List<Attendance>> grouped = new LinkedHashMap<>();
+        forEachAttendanceInRange(periodStart, periodEnd, new EmployeeGrouping(grouped));
+        return grouped;
+    }
 
-            if (logOut.isBefore(logIn)) {
-                throw new IllegalArgumentException("Log out time (" + logOut +
-                        ") cannot be before log in time (" + logIn + ")");
-            }
+    /**
+     * Records of all employees within the period, read lazily in the order of
+     * getAttendanceBetweenDates. Close the stream to release its connection.
+     */
+    public Stream<Attendance> streamAttendanceInRange(LocalDate periodStart, LocalDate periodEnd) {
+        if (periodStart == null || periodEnd == null) {
+            throw new IllegalArgumentException("Period start and end dates cannot be null");
+        }
+        if (periodStart.isAfter(periodEnd)) {
+            throw new IllegalArgumentException("Period start date cannot be after end date");
+        }
 
-            // Check for reasonable working hours (24 hours max)
-            long workingMinutes = java.time.Duration.between(logIn, logOut).toMinutes();
-            if (workingMinutes > 24 * 60) { // More than 24 hours
-                throw new IllegalArgumentException("Working hours cannot exceed 24 hours. " +
-                        "Log in: " + logIn + ", Log out: " + logOut);
-            }
+        try {
+            return StreamingQuery.stream(SELECT_ATTENDANCE_IN_RANGE,
+                    stmt -> bindRange(stmt, periodStart, periodEnd), this::mapResultSetToAttendance);
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Error streaming attendance between dates: " + periodStart + " and " + periodEnd, ex);
+            throw new RuntimeException("Failed to retrieve attendance records", ex);
         }
+    }
+
+
+    public int insertAttendance(Attendance attendance) {
+        validateNewAttendance(attendance);
 
         // ENHANCED: Check if employee exists
         try (Connection conn = DBConnection.getConnection();
@@ -189,6 +289,7 @@ public class AttendanceDAO {
                     logger.info(String.format("Successfully inserted attendance record with ID: %d for employee %d",
                             generatedId, attendance.getEmployeeId()));
 
+                    publishChange(attendance);
                     return generatedId;
                 } else {
                     throw new SQLException("Creating attendance failed, no ID obtained.");
@@ -220,6 +321,135 @@ public class AttendanceDAO {
     }
 
 
+    /**
+     * Write records in one JDBC batch and transaction, replacing the log times of any record
+     * the employee already has on the same date. Records are not validated here; employees
+     * must exist, as the foreign key rejects the whole batch otherwise.
+     * @return number of records written
+     */
+    public int upsertAttendanceBatch(List<Attendance> records) {
+        if (records == null) {
+            throw new IllegalArgumentException("Attendance records cannot be null");
+        }
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(UPSERT_ATTENDANCE)) {
+                for (Attendance attendance : records) {
+                    stmt.setInt(1, attendance.getEmployeeId());
+                    stmt.setDate(2, attendance.getDate());
+                    stmt.setTime(3, attendance.getLogIn());
+                    stmt.setTime(4, attendance.getLogOut());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Error writing batch of " + records.size() + " attendance records", ex);
+            throw new RuntimeException("Failed to import attendance records", ex);
+        }
+
+        publishRanges(records);
+        return records.size();
+    }
+
+    public int recordLogIn(int employeeId, LocalDateTime instant) {
+        return recordPunch(employeeId, instant, true);
+    }
+
+    public int recordLogOut(int employeeId, LocalDateTime instant) {
+        return recordPunch(employeeId, instant, false);
+    }
+
+    /**
+     * Write a punch in one statement. The employee is checked by the foreign key and the
+     * day's record found by the unique key on employee and date, not by queries beforehand.
+     * Only when the statement may have ignored the punch is the record read back, on the same
+     * connection, to tell why.
+     */
+    private int recordPunch(int employeeId, LocalDateTime instant, boolean logIn) {
+        if (employeeId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        if (instant == null) {
+            throw new IllegalArgumentException("Punch time cannot be null");
+        }
+        LocalDate date = instant.toLocalDate();
+        Time time = Time.valueOf(instant.toLocalTime().withNano(0));
+        String punch = logIn ? "log in" : "log out";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(logIn ? RECORD_LOG_IN : RECORD_LOG_OUT,
+                     Statement.RETURN_GENERATED_KEYS)) {
+
+            int affectedRows;
+            if (logIn) {
+                stmt.setInt(1, employeeId);
+                stmt.setDate(2, java.sql.Date.valueOf(date));
+                stmt.setTime(3, time);
+                // 2 when an existing record changed, 1 when inserted or left as it was
+                affectedRows = stmt.executeUpdate();
+            } else {
+                stmt.setTime(1, time);
+                stmt.setTime(2, time);
+                stmt.setInt(3, employeeId);
+                stmt.setDate(4, java.sql.Date.valueOf(date));
+                stmt.setTime(5, time);
+                affectedRows = stmt.executeUpdate();
+            }
+
+            if (logIn ? affectedRows != 2 : affectedRows == 0) {
+                Attendance record = readRecord(conn, employeeId, date);
+                if (!logIn && (record == null || record.getLogIn() == null)) {
+                    throw new IllegalArgumentException("Cannot clock out employee " + employeeId + " on " + date +
+                            ": no log in recorded");
+                }
+                boolean ignored = logIn
+                        ? record.getLogOut() != null && time.after(record.getLogOut())
+                        : time.before(record.getLogIn());
+                if (ignored) {
+                    logger.info("Ignored " + punch + " at " + time + " for employee " + employeeId + " on " + date);
+                    return 0;
+                }
+            }
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Recording " + punch + " failed, no ID obtained.");
+                }
+                int attendanceId = generatedKeys.getInt(1);
+                DataChangeNotifier.publish(DataChangeNotifier.Table.ATTENDANCE, employeeId, date);
+                return attendanceId;
+            }
+
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            throw new IllegalArgumentException("Employee ID " + employeeId +
+                    " does not exist in the system. Please verify the employee ID.", ex);
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, "Error recording " + punch + " for employee " + employeeId, ex);
+            throw new RuntimeException("Failed to record " + punch, ex);
+        }
+    }
+
+    private Attendance readRecord(Connection conn, int employeeId, LocalDate date) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_ATTENDANCE + " WHERE employee_id = ? AND date = ?")) {
+            stmt.setInt(1, employeeId);
+            stmt.setDate(2, java.sql.Date.valueOf(date));
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapResultSetToAttendance(rs) : null;
+            }
+        }
+    }
+
     public boolean updateAttendance(Attendance attendance) {
         if (attendance == null) {
             throw new IllegalArgumentException("Attendance cannot be null");
@@ -230,6 +460,9 @@ public class AttendanceDAO {
 
         String query = "UPDATE attendance SET employee_id = ?, date = ?, log_in = ?, log_out = ? WHERE id = ?";
 
+        // The update can move the record to another employee or date; both sides change
+        Attendance previous = DataChangeNotifier.hasListeners() ? getAttendanceById(attendance.getId()) : null;
+
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
@@ -240,6 +473,10 @@ public class AttendanceDAO {
             stmt.setInt(5, attendance.getId());
 
             int affectedRows = stmt.executeUpdate();
+            if (affectedRows > 0) {
+                publishChange(previous);
+                publishChange(attendance);
+            }
             return affectedRows > 0;
 
         } catch (SQLException ex) {
@@ -255,11 +492,16 @@ public class AttendanceDAO {
 
         String query = "DELETE FROM attendance WHERE id = ?";
 
+        Attendance previous = DataChangeNotifier.hasListeners() ? getAttendanceById(attendanceId) : null;
+
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, attendanceId);
             int affectedRows = stmt.executeUpdate();
+            if (affectedRows > 0) {
+                publishChange(previous);
+            }
             return affectedRows > 0;
 
         } catch (SQLException ex) {
@@ -268,14 +510,108 @@ public class AttendanceDAO {
         }
     }
 
+    /**
+     * Field checks made before an insert, shared with InMemoryAttendanceDAO
+     */
+    static void validateNewAttendance(Attendance attendance) {
+        validateAttendanceRecord(attendance);
+
+        // ENHANCED: Validate date is not too far in the past (optional business rule)
+        LocalDate maxPastDate = LocalDate.now().minusDays(30); // Allow up to 30 days past
+        LocalDate attendanceDate = attendance.getDate().toLocalDate();
+        if (attendanceDate.isBefore(maxPastDate)) {
+            throw new IllegalArgumentException("Attendance date is too far in the past: " + attendanceDate +
+                    ". Maximum allowed past date is: " + maxPastDate);
+        }
+    }
+
+    /**
+     * Checks every stored record must pass. Unlike validateNewAttendance there is no limit on
+     * how far back the date may be, so bulk imports of older time-clock data use this.
+     * @throws IllegalArgumentException naming the first problem found
+     */
+    public static void validateAttendanceRecord(Attendance attendance) {
+        // ENHANCED: Comprehensive input validation
+        if (attendance == null) {
+            throw new IllegalArgumentException("Attendance cannot be null");
+        }
+        if (attendance.getEmployeeId() <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive, got: " + attendance.getEmployeeId());
+        }
+        if (attendance.getDate() == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        if (attendance.getLogIn() == null) {
+            throw new IllegalArgumentException("Log in time cannot be null");
+        }
+
+        // ENHANCED: Validate date is not in the future
+        LocalDate today = LocalDate.now();
+        LocalDate attendanceDate = attendance.getDate().toLocalDate();
+        if (attendanceDate.isAfter(today)) {
+            throw new IllegalArgumentException("Attendance date cannot be in the future: " + attendanceDate);
+        }
+
+        // ENHANCED: Validate log times
+        if (attendance.getLogOut() != null) {
+            LocalTime logIn = attendance.getLogIn().toLocalTime();
+            LocalTime logOut = attendance.getLogOut().toLocalTime();
+
+            if (logOut.isBefore(logIn)) {
+                throw new IllegalArgumentException("Log out time (" + logOut +
+                        ") cannot be before log in time (" + logIn + ")");
+            }
+
+            // Check for reasonable working hours (24 hours max)
+            long workingMinutes = java.time.Duration.between(logIn, logOut).toMinutes();
+            if (workingMinutes > 24 * 60) { // More than 24 hours
+                throw new IllegalArgumentException("Working hours cannot exceed 24 hours. " +
+                        "Log in: " + logIn + ", Log out: " + logOut);
+            }
+        }
+    }
+
+    /**
+     * Notify listeners once per employee, for the span of dates the records cover
+     */
+    static void publishRanges(Collection<Attendance> records) {
+        if (!DataChangeNotifier.hasListeners()) {
+            return;
+        }
+        Map<Integer, LocalDate[]> spans = new HashMap<>();
+        for (Attendance attendance : records) {
+            LocalDate date = attendance.getDate().toLocalDate();
+            LocalDate[] span = spans.computeIfAbsent(attendance.getEmployeeId(), id -> new LocalDate[]{date, date});
+            if (date.isBefore(span[0])) {
+                span[0] = date;
+            } else if (date.isAfter(span[1])) {
+                span[1] = date;
+            }
+        }
+        for (Map.Entry<Integer, LocalDate[]> entry : spans.entrySet()) {
+            DataChangeNotifier.publish(DataChangeNotifier.Table.ATTENDANCE, entry.getKey(),
+                    entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    /**
+     * Notify listeners that an employee's attendance on a date changed
+     */
+    static void publishChange(Attendance attendance) {
+        if (attendance != null && attendance.getDate() != null) {
+            DataChangeNotifier.publish(DataChangeNotifier.Table.ATTENDANCE,
+                    attendance.getEmployeeId(), attendance.getDate().toLocalDate());
+        }
+    }
+
     public Attendance getAttendanceById(int attendanceId) {
         if (attendanceId <= 0) {
             throw new IllegalArgumentException("Attendance ID must be positive");
         }
 
-        String query = "SELECT * FROM attendance WHERE id = ?";
+        String query = SELECT_ATTENDANCE + " WHERE id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, attendanceId);
@@ -337,7 +673,7 @@ public class AttendanceDAO {
 
         String query = "SELECT COUNT(*) FROM attendance WHERE employee_id = ? AND date >= ? AND date <= ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, employeeId);
@@ -368,9 +704,9 @@ public class AttendanceDAO {
             throw new IllegalArgumentException("Attendance date cannot be null");
         }
 
-        String query = "SELECT * FROM attendance WHERE employee_id = ? AND date = ?";
+        String query = SELECT_ATTENDANCE + " WHERE employee_id = ? AND date = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, employeeId);
@@ -391,13 +727,45 @@ public class AttendanceDAO {
     }
 
 
+    private static void bindRange(PreparedStatement stmt, LocalDate periodStart, LocalDate periodEnd) throws SQLException {
+        stmt.setDate(1, java.sql.Date.valueOf(periodStart));
+        stmt.setDate(2, java.sql.Date.valueOf(periodEnd));
+    }
+
+    /**
+     * Reads by position; the row must come from a query selecting ATTENDANCE_COLUMNS
+     */
     private Attendance mapResultSetToAttendance(ResultSet rs) throws SQLException {
+        int[] c = ATTENDANCE_COLUMNS.positions(rs);
         Attendance attendance = new Attendance();
-        attendance.setId(rs.getInt("id")); // Using 'id' from database instead of 'attendance_id'
-        attendance.setEmployeeId(rs.getInt("employee_id"));
-        attendance.setDate(rs.getDate("date"));
-        attendance.setLogIn(rs.getTime("log_in")); // Using 'log_in' from database instead of 'login_time'
-        attendance.setLogOut(rs.getTime("log_out")); // Using 'log_out' from database instead of 'logout_time'
+        attendance.setId(rs.getInt(c[0])); // Using 'id' from database instead of 'attendance_id'
+        attendance.setEmployeeId(rs.getInt(c[1]));
+        attendance.setDate(rs.getDate(c[2]));
+        attendance.setLogIn(rs.getTime(c[3])); // Using 'log_in' from database instead of 'login_time'
+        attendance.setLogOut(rs.getTime(c[4])); // Using 'log_out' from database instead of 'logout_time'
         return attendance;
     }
+
+    /**
+     * Collects records arriving in employee order into one list per employee, looking the
+     * list up only when the employee changes
+     */
+    static final class EmployeeGrouping implements Consumer<Attendance> {
+        private final Map<Integer, List<Attendance>> grouped;
+        private int employeeId;
+        private List<Attendance> current;
+
+        EmployeeGrouping(Map<Integer, List<Attendance>> grouped) {
+            this.grouped = grouped;
+        }
+
+        @Override
+        public void accept(Attendance attendance) {
+            if (current == null || attendance.getEmployeeId() != employeeId) {
+                employeeId = attendance.getEmployeeId();
+                current = grouped.computeIfAbsent(employeeId, id -> new ArrayList<>());
+            }
+            current.add(attendance);
+        }
+    }
 }
\ No newline at end of file
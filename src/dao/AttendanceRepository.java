@@ -0,0 +1,100 @@
+package dao;
+
+import model.Attendance;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Daily attendance records, at most one per employee and date. Lists are ordered newest first;
+ * queries spanning employees are ordered by employee, then newest first.
+ */
+public interface AttendanceRepository {
+
+    List<Attendance> getAttendanceByEmployeeId(int empId);
+
+    /**
+     * @param periodStart First date, inclusive
+     * @param periodEnd Last date, inclusive
+     */
+    List<Attendance> getAttendanceByEmployeeIdBetweenDates(int employeeId, LocalDate periodStart, LocalDate periodEnd);
+
+    List<Attendance> getAttendanceBetweenDates(LocalDate periodStart, LocalDate periodEnd);
+
+    /**
+     * Records of every employee within the period, read together rather than one employee at a
+     * time. Keyed by employee ID in ascending order, each list newest first; employees without
+     * records in the period have no entry.
+     */
+    Map<Integer, List<Attendance>> getAttendanceGroupedByEmployee(LocalDate periodStart, LocalDate periodEnd);
+
+    /**
+     * Pass each of the employee's records to the consumer, without collecting them first
+     * @return number of records passed
+     */
+    long forEachAttendanceByEmployeeId(int empId, Consumer<? super Attendance> consumer);
+
+    /**
+     * Pass each record within the period to the consumer, in the order of getAttendanceBetweenDates
+     * @return number of records passed
+     */
+    long forEachAttendanceInRange(LocalDate periodStart, LocalDate periodEnd, Consumer<? super Attendance> consumer);
+
+    /**
+     * Records within the period, in the order of getAttendanceBetweenDates. The stream must be
+     * closed after use.
+     */
+    Stream<Attendance> streamAttendanceInRange(LocalDate periodStart, LocalDate periodEnd);
+
+    /**
+     * @return the generated ID, which is also set on the record
+     * @throws IllegalArgumentException if the record is invalid or one exists for the same date
+     */
+    int insertAttendance(Attendance attendance);
+
+    /**
+     * Insert the records all at once, replacing the log times of any record the employee already
+     * has on the same date. Records are not validated; a record of an unknown employee fails the
+     * whole call.
+     * @return number of records written
+     */
+    int upsertAttendanceBatch(List<Attendance> records);
+
+    /**
+     * Clock the employee in. Starts the record for the instant's date, or on an existing one keeps
+     * the earlier of its log in and this one. A log in after the day's log out is ignored.
+     * @return ID of the day's record, or 0 if the log in was ignored
+     * @throws IllegalArgumentException if the employee does not exist
+     */
+    int recordLogIn(int employeeId, LocalDateTime instant);
+
+    /**
+     * Clock the employee out. Sets the log out of the record for the instant's date, keeping the
+     * later one if it has a log out already. A log out before the day's log in is ignored.
+     * @return ID of the day's record, or 0 if the log out was ignored
+     * @throws IllegalArgumentException if the employee does not exist or has no log in that day
+     */
+    int recordLogOut(int employeeId, LocalDateTime instant);
+
+    boolean updateAttendance(Attendance attendance);
+
+    boolean deleteAttendance(int attendanceId);
+
+    /**
+     * @return the record, or null if there is none with this ID
+     */
+    Attendance getAttendanceById(int attendanceId);
+
+    boolean attendanceExistsForDate(int employeeId, LocalDate attendanceDate);
+
+    int countAttendanceDays(int employeeId, LocalDate periodStart, LocalDate periodEnd);
+
+    /**
+     * @return the record, or null if the employee has none on that date
+     */
+    Attendance getAttendanceByEmployeeAndDate(int employeeId, LocalDate attendanceDate);
+}
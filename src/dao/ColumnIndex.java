@@ -0,0 +1,67 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * The columns a row mapper reads, and their positions in the result set.
+ *
+ * A DAO selects {@link #list()} explicitly instead of SELECT *, and its mapper reads each column
+ * by the position {@link #positions(ResultSet)} returns rather than by name, which would cost the
+ * driver a label lookup per column per row. Positions are resolved from the result set metadata
+ * on first use and cached, so one instance serves one query shape: every query selecting this
+ * list from the same table or view.
+ */
+final class ColumnIndex {
+
+    private final String[] columns;
+    private final String list;
+    private volatile int[] positions;
+
+    ColumnIndex(String... columns) {
+        if (columns == null || columns.length == 0) {
+            throw new IllegalArgumentException("Columns cannot be empty");
+        }
+        this.columns = columns.clone();
+        this.list = String.join(", ", columns);
+    }
+
+    /**
+     * The columns as a SELECT list
+     */
+    String list() {
+        return list;
+    }
+
+    /**
+     * Result set positions of the columns, in the order they were given
+     * @throws SQLException if the result set lacks one of the columns
+     */
+    int[] positions(ResultSet rs) throws SQLException {
+        int[] resolved = positions;
+        if (resolved == null) {
+            resolved = resolve(rs.getMetaData());
+            positions = resolved;
+        }
+        return resolved;
+    }
+
+    private int[] resolve(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        int[] resolved = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            resolved[i] = find(metaData, count, columns[i]);
+        }
+        return resolved;
+    }
+
+    private static int find(ResultSetMetaData metaData, int count, String column) throws SQLException {
+        for (int position = 1; position <= count; position++) {
+            if (column.equalsIgnoreCase(metaData.getColumnLabel(position))) {
+                return position;
+            }
+        }
+        throw new SQLException("Column " + column + " is not in the result set");
+    }
+}
@@ -13,7 +13,7 @@ public class CompensationDetailsDAO {
     public CompensationDetails getById(int id) {
         String query = "SELECT * FROM compensation_details WHERE compensation_details_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -34,7 +34,7 @@ public class CompensationDetailsDAO {
     public CompensationDetails getCompensationDetailsByEmployeeId(int employeeId) {
         String query = "SELECT * FROM compensation_details WHERE employee_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, employeeId);
@@ -1,10 +1,13 @@
 package dao;
 
 import model.Deduction;
+import util.AppConfig;
 import util.DBConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.logging.Level;
@@ -13,9 +16,19 @@ import java.util.logging.Level;
  * Fixed DeductionDAO with concrete Deduction implementation
  * @author Enhanced by Assistant
  */
-public class DeductionDAO {
+public class DeductionDAO implements DeductionRepository {
     private static final Logger LOGGER = Logger.getLogger(DeductionDAO.class.getName());
 
+    // Columns read by mapResultSetToDeduction, in the order it reads them
+    private static final ColumnIndex DEDUCTION_COLUMNS = new ColumnIndex(
+            "deduction_id", "employee_id", "type", "amount", "description", "deduction_date");
+
+    private static final String SELECT_DEDUCTIONS = "SELECT " + DEDUCTION_COLUMNS.list() + " FROM deductions";
+
+    // Employees per delete in replacePeriodDeductions. Every chunk is padded to this size, so the
+    // SQL text stays the same whatever the headcount and the statement cache can reuse it.
+    private static final int DELETE_CHUNK_SIZE = 500;
+
     /**
      * Adds a deduction record to the database
      */
@@ -50,6 +63,134 @@ public class DeductionDAO {
         }
     }
 
+    /**
+     * Adds several deduction records in a single JDBC batch and transaction
+     */
+    public void addDeductions(List<? extends Deduction> deductions) throws SQLException {
+        if (deductions == null) {
+            throw new IllegalArgumentException("Deductions cannot be null");
+        }
+        if (deductions.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO deductions (employee_id, type, amount, description, deduction_date) VALUES (?, ?, ?, ?, ?)";
+
+        int batchSize = batchSize();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int pending = 0;
+                for (Deduction deduction : deductions) {
+                    stmt.setInt(1, deduction.getEmployeeId());
+                    stmt.setString(2, deduction.getType());
+                    stmt.setDouble(3, deduction.getAmount());
+                    stmt.setString(4, deduction.getDescription());
+                    stmt.setDate(5, deduction.getDeductionDate());
+                    stmt.addBatch();
+                    if (++pending == batchSize) {
+                        stmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    stmt.executeBatch();
+                }
+                conn.commit();
+                LOGGER.info("Successfully added " + deductions.size() + " deduction records");
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adding deduction batch", e);
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces the deductions of the given types dated deductionDate for the given employees.
+     * The delete and the batched insert run in one transaction, so repeating the call with the
+     * same records is idempotent.
+     */
+    public void replacePeriodDeductions(Collection<Integer> employeeIds, Collection<String> types,
+                                        Date deductionDate, List<? extends Deduction> records) throws SQLException {
+        if (employeeIds == null || types == null || deductionDate == null || records == null) {
+            throw new IllegalArgumentException("Employee IDs, types, date and records cannot be null");
+        }
+        if (employeeIds.isEmpty() || types.isEmpty()) {
+            throw new IllegalArgumentException("Employee IDs and types cannot be empty");
+        }
+
+        String deleteSql = "DELETE FROM deductions WHERE deduction_date = ?" +
+                " AND type IN (" + String.join(",", Collections.nCopies(types.size(), "?")) + ")" +
+                " AND employee_id IN (" + String.join(",", Collections.nCopies(DELETE_CHUNK_SIZE, "?")) + ")";
+        String insertSql = "INSERT INTO deductions (employee_id, type, amount, description, deduction_date) VALUES (?, ?, ?, ?, ?)";
+
+        int batchSize = batchSize();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+
+                int firstIdIndex = 2 + types.size();
+                delete.setDate(1, deductionDate);
+                int index = 2;
+                for (String type : types) {
+                    delete.setString(index++, type);
+                }
+
+                // Delete chunk by chunk, repeating the chunk's last ID in unused slots
+                int removed = 0;
+                int filled = 0;
+                int lastId = 0;
+                for (Integer employeeId : employeeIds) {
+                    lastId = employeeId;
+                    delete.setInt(firstIdIndex + filled, lastId);
+                    if (++filled == DELETE_CHUNK_SIZE) {
+                        removed += delete.executeUpdate();
+                        filled = 0;
+                    }
+                }
+                if (filled > 0) {
+                    for (; filled < DELETE_CHUNK_SIZE; filled++) {
+                        delete.setInt(firstIdIndex + filled, lastId);
+                    }
+                    removed += delete.executeUpdate();
+                }
+
+                int pending = 0;
+                for (Deduction deduction : records) {
+                    insert.setInt(1, deduction.getEmployeeId());
+                    insert.setString(2, deduction.getType());
+                    insert.setDouble(3, deduction.getAmount());
+                    insert.setString(4, deduction.getDescription());
+                    insert.setDate(5, deductionDate);
+                    insert.addBatch();
+                    if (++pending == batchSize) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+
+                conn.commit();
+                LOGGER.info(String.format("Replaced %d deduction records with %d for %s",
+                        removed, records.size(), deductionDate));
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error replacing period deductions", e);
+            throw e;
+        }
+    }
+
     /**
      * Retrieves all deductions for a specific employee
      */
@@ -58,32 +199,17 @@ public class DeductionDAO {
             throw new IllegalArgumentException("Employee ID must be positive");
         }
 
-        String sql = "SELECT * FROM deductions WHERE employee_id = ? ORDER BY deduction_date DESC";
+        String sql = SELECT_DEDUCTIONS + " WHERE employee_id = ? ORDER BY deduction_date DESC";
         List<Deduction> deductions = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, employeeId);
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                // Create concrete implementation of Deduction
-                ConcreteDeduction d = new ConcreteDeduction(
-                        rs.getInt("employee_id"),
-                        rs.getString("type"),
-                        rs.getDouble("amount"),
-                        rs.getString("description")
-                );
-                d.setDeductionId(rs.getInt("deduction_id"));
-
-                // Set deduction date if it exists in the database
-                Date deductionDate = rs.getDate("deduction_date");
-                if (deductionDate != null) {
-                    d.setDeductionDate(deductionDate);
-                }
-
-                deductions.add(d);
+                deductions.add(mapResultSetToDeduction(rs));
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving deductions for employee ID: " + employeeId, e);
@@ -162,29 +288,16 @@ public class DeductionDAO {
             throw new IllegalArgumentException("Deduction ID must be positive");
         }
 
-        String sql = "SELECT * FROM deductions WHERE deduction_id = ?";
+        String sql = SELECT_DEDUCTIONS + " WHERE deduction_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, deductionId);
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                ConcreteDeduction deduction = new ConcreteDeduction(
-                        rs.getInt("employee_id"),
-                        rs.getString("type"),
-                        rs.getDouble("amount"),
-                        rs.getString("description")
-                );
-                deduction.setDeductionId(rs.getInt("deduction_id"));
-
-                Date deductionDate = rs.getDate("deduction_date");
-                if (deductionDate != null) {
-                    deduction.setDeductionDate(deductionDate);
-                }
-
-                return deduction;
+                return mapResultSetToDeduction(rs);
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving deduction by ID: " + deductionId, e);
@@ -204,7 +317,7 @@ public class DeductionDAO {
 
         String sql = "SELECT COALESCE(SUM(amount), 0) as total FROM deductions WHERE employee_id = ? AND type = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, employeeId);
@@ -222,11 +335,40 @@ public class DeductionDAO {
         return 0.0;
     }
 
+    /**
+     * Reads by position; the row must come from a query selecting DEDUCTION_COLUMNS
+     */
+    private static Deduction mapResultSetToDeduction(ResultSet rs) throws SQLException {
+        int[] c = DEDUCTION_COLUMNS.positions(rs);
+        // Create concrete implementation of Deduction
+        ConcreteDeduction deduction = new ConcreteDeduction(
+                rs.getInt(c[1]),
+                rs.getString(c[2]),
+                rs.getDouble(c[3]),
+                rs.getString(c[4])
+        );
+        deduction.setDeductionId(rs.getInt(c[0]));
+
+        // Set deduction date if it exists in the database
+        Date deductionDate = rs.getDate(c[5]);
+        if (deductionDate != null) {
+            deduction.setDeductionDate(deductionDate);
+        }
+        return deduction;
+    }
+
+    /**
+     * Rows per executeBatch call, from the batch.size setting
+     */
+    private static int batchSize() {
+        return Math.max(1, AppConfig.get().getInt("batch.size", 500));
+    }
+
     /**
      * Concrete implementation of the abstract Deduction class
-     * This is used internally by the DAO to create Deduction instances from database records
+     * This is used internally by the DAOs to create Deduction instances from stored records
      */
-    private static class ConcreteDeduction extends Deduction {
+    static class ConcreteDeduction extends Deduction {
 
         public ConcreteDeduction() {
             super();
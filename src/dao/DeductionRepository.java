@@ -0,0 +1,44 @@
+package dao;
+
+import model.Deduction;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Deduction records written by committed payroll runs and by hand
+ */
+public interface DeductionRepository {
+
+    void addDeduction(Deduction deduction) throws SQLException;
+
+    /**
+     * Add several records at once; either all of them are stored or none
+     */
+    void addDeductions(List<? extends Deduction> deductions) throws SQLException;
+
+    /**
+     * Replace the deductions of the given types dated deductionDate for the given employees.
+     * Repeating the call with the same records is idempotent.
+     */
+    void replacePeriodDeductions(Collection<Integer> employeeIds, Collection<String> types,
+                                 Date deductionDate, List<? extends Deduction> records) throws SQLException;
+
+    /**
+     * @return the employee's deductions, newest first
+     */
+    List<Deduction> getDeductionsByEmployeeId(int employeeId) throws SQLException;
+
+    boolean updateDeduction(Deduction deduction) throws SQLException;
+
+    boolean deleteDeduction(int deductionId) throws SQLException;
+
+    /**
+     * @return the record, or null if there is none with this ID
+     */
+    Deduction getDeductionById(int deductionId) throws SQLException;
+
+    double getTotalDeductionsByType(int employeeId, String type) throws SQLException;
+}
@@ -1,6 +1,7 @@
 package dao;
 
 import util.DBConnection;
+import util.DataChangeNotifier;
 import model.Employee;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -10,18 +11,32 @@ import java.sql.Statement;
 import java.sql.Date;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class EmployeeDAO {
+public class EmployeeDAO implements EmployeeRepository {
     private static final Logger LOGGER = Logger.getLogger(EmployeeDAO.class.getName());
 
+    // Columns read by mapResultSetToEmployee, in the order it reads them
+    private static final ColumnIndex EMPLOYEE_COLUMNS = new ColumnIndex(
+            "employee_id", "last_name", "first_name", "birthday", "address", "phone_number",
+            "sss_number", "philhealth_number", "tin_number", "pagibig_number", "status", "position",
+            "immediate_supervisor", "basic_salary", "rice_subsidy", "phone_allowance",
+            "clothing_allowance", "gross_semi_monthly_rate", "hourly_rate");
+
+    private static final String SELECT_EMPLOYEES = "SELECT " + EMPLOYEE_COLUMNS.list() + " FROM employees";
+
     public List<Employee> getAllEmployees() {
         List<Employee> employees = new ArrayList<>();
-        String query = "SELECT * FROM employees ORDER BY last_name, first_name";
+        String query = SELECT_EMPLOYEES + " ORDER BY last_name, first_name";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -38,10 +53,29 @@ public class EmployeeDAO {
         return employees;
     }
 
+    /**
+     * Streaming form of getAllEmployees: employees are passed to the consumer as they are read
+     * rather than collected
+     * @return number of employees read
+     */
+    public long forEachEmployee(Consumer<? super Employee> consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+
+        try {
+            return StreamingQuery.forEach(SELECT_EMPLOYEES + " ORDER BY last_name, first_name", stmt -> { },
+                    this::mapResultSetToEmployee, consumer);
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "Error streaming all employees", ex);
+            throw new RuntimeException("Failed to fetch employees", ex);
+        }
+    }
+
     public Employee getEmployeeById(int employeeId) {
-        String query = "SELECT * FROM employees WHERE employee_id = ?";
+        String query = SELECT_EMPLOYEES + " WHERE employee_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, employeeId);
@@ -60,71 +94,51 @@ public class EmployeeDAO {
     }
 
     /**
-     * Enhanced insertEmployee method with comprehensive validation
-     * @param e Employee object to insert
-     * @return true if insertion was successful
-     * @throws IllegalArgumentException if validation fails
-     * @throws RuntimeException if database operation fails
+     * Fetch several employees in a single query
+     * @param employeeIds Employee IDs to load; unknown IDs are simply absent from the result
+     * @return Employees ordered by last name, first name
      */
-    public boolean insertEmployee(Employee e) {
-        if (e == null) {
-            throw new IllegalArgumentException("Employee cannot be null");
+    public List<Employee> getEmployeesByIds(Collection<Integer> employeeIds) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        // Validate required fields
-        if (e.getEmployeeId() <= 0) {
-            throw new IllegalArgumentException("Employee ID must be positive");
-        }
-        if (e.getFirstName() == null || e.getFirstName().trim().isEmpty()) {
-            throw new IllegalArgumentException("First name is required");
-        }
-        if (e.getLastName() == null || e.getLastName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Last name is required");
-        }
-        if (e.getBasicSalary() < 0) {
-            throw new IllegalArgumentException("Basic salary cannot be negative");
-        }
+        List<Employee> employees = new ArrayList<>();
+        String placeholders = String.join(",", Collections.nCopies(employeeIds.size(), "?"));
+        String query = SELECT_EMPLOYEES + " WHERE employee_id IN (" + placeholders + ") ORDER BY last_name, first_name";
 
-        // Additional validation for business rules
-        if (e.getFirstName().trim().length() > 50) {
-            throw new IllegalArgumentException("First name cannot exceed 50 characters");
-        }
-        if (e.getLastName().trim().length() > 50) {
-            throw new IllegalArgumentException("Last name cannot exceed 50 characters");
-        }
-        if (e.getPosition() != null && e.getPosition().trim().length() > 100) {
-            throw new IllegalArgumentException("Position cannot exceed 100 characters");
-        }
-        if (e.getRiceSubsidy() < 0) {
-            throw new IllegalArgumentException("Rice subsidy cannot be negative");
-        }
-        if (e.getPhoneAllowance() < 0) {
-            throw new IllegalArgumentException("Phone allowance cannot be negative");
-        }
-        if (e.getClothingAllowance() < 0) {
-            throw new IllegalArgumentException("Clothing allowance cannot be negative");
-        }
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
 
-        // Validate phone number format if provided
-        if (e.getPhoneNumber() != null && !e.getPhoneNumber().trim().isEmpty()) {
-            String phone = e.getPhoneNumber().trim();
-            if (phone.length() > 20) {
-                throw new IllegalArgumentException("Phone number cannot exceed 20 characters");
-            }
-            // Basic phone number validation (digits, spaces, hyphens, parentheses)
-            if (!phone.matches("[0-9\\s\\-\\(\\)\\+]+")) {
-                throw new IllegalArgumentException("Phone number contains invalid characters");
+            int index = 1;
+            for (Integer id : employeeIds) {
+                stmt.setInt(index++, id);
             }
-        }
 
-        // Validate status enum
-        if (e.getStatus() != null && !e.getStatus().trim().isEmpty()) {
-            String status = e.getStatus().trim();
-            if (!status.equals("Regular") && !status.equals("Probationary")) {
-                throw new IllegalArgumentException("Status must be either 'Regular' or 'Probationary'");
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    employees.add(mapResultSetToEmployee(rs));
+                }
             }
+
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "Error fetching employees by IDs", ex);
+            throw new RuntimeException("Failed to fetch employees", ex);
         }
 
+        return employees;
+    }
+
+    /**
+     * Enhanced insertEmployee method with comprehensive validation
+     * @param e Employee object to insert
+     * @return true if insertion was successful
+     * @throws IllegalArgumentException if validation fails
+     * @throws RuntimeException if database operation fails
+     */
+    public boolean insertEmployee(Employee e) {
+        validateNewEmployee(e);
+
         // Check for duplicate employee ID
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement checkStmt = conn.prepareStatement("SELECT 1 FROM employees WHERE employee_id = ?")) {
@@ -174,6 +188,7 @@ public class EmployeeDAO {
 
             if (result > 0) {
                 LOGGER.info("Successfully inserted employee: " + e.getEmployeeId() + " - " + e.getFullName());
+                DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.EMPLOYEE, e.getEmployeeId());
                 return true;
             } else {
                 LOGGER.warning("No rows affected when inserting employee: " + e.getEmployeeId());
@@ -197,23 +212,7 @@ public class EmployeeDAO {
     }
 
     public boolean updateEmployee(Employee e) {
-        if (e == null) {
-            throw new IllegalArgumentException("Employee cannot be null");
-        }
-        if (e.getEmployeeId() <= 0) {
-            throw new IllegalArgumentException("Employee ID must be positive");
-        }
-
-        // Apply similar validation as insertEmployee but for updates
-        if (e.getFirstName() == null || e.getFirstName().trim().isEmpty()) {
-            throw new IllegalArgumentException("First name is required");
-        }
-        if (e.getLastName() == null || e.getLastName().trim().isEmpty()) {
-            throw new IllegalArgumentException("Last name is required");
-        }
-        if (e.getBasicSalary() < 0) {
-            throw new IllegalArgumentException("Basic salary cannot be negative");
-        }
+        validateEmployeeUpdate(e);
 
         String sql = "UPDATE employees SET last_name=?, first_name=?, birthday=?, address=?, " +
                 "phone_number=?, sss_number=?, philhealth_number=?, tin_number=?, " +
@@ -248,6 +247,8 @@ public class EmployeeDAO {
 
             if (result > 0) {
                 LOGGER.info("Successfully updated employee: " + e.getEmployeeId() + " - " + e.getFullName());
+                // Rates and allowances apply to every period
+                DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.EMPLOYEE, e.getEmployeeId());
                 return true;
             } else {
                 LOGGER.warning("No employee found with ID: " + e.getEmployeeId() + " for update");
@@ -275,6 +276,7 @@ public class EmployeeDAO {
 
             if (result > 0) {
                 LOGGER.info("Successfully deleted employee with ID: " + employeeId);
+                DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.EMPLOYEE, employeeId);
                 return true;
             } else {
                 LOGGER.warning("No employee found with ID: " + employeeId + " for deletion");
@@ -299,9 +301,9 @@ public class EmployeeDAO {
         }
 
         List<Employee> employees = new ArrayList<>();
-        String query = "SELECT * FROM employees WHERE status = ? ORDER BY last_name, first_name";
+        String query = SELECT_EMPLOYEES + " WHERE status = ? ORDER BY last_name, first_name";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, status.trim());
@@ -326,9 +328,9 @@ public class EmployeeDAO {
         }
 
         List<Employee> employees = new ArrayList<>();
-        String query = "SELECT * FROM employees WHERE position = ? ORDER BY last_name, first_name";
+        String query = SELECT_EMPLOYEES + " WHERE position = ? ORDER BY last_name, first_name";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, position.trim());
@@ -353,9 +355,9 @@ public class EmployeeDAO {
         }
 
         List<Employee> employees = new ArrayList<>();
-        String query = "SELECT * FROM employees WHERE immediate_supervisor = ? ORDER BY last_name, first_name";
+        String query = SELECT_EMPLOYEES + " WHERE immediate_supervisor = ? ORDER BY last_name, first_name";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, supervisor.trim());
@@ -380,13 +382,13 @@ public class EmployeeDAO {
         }
 
         List<Employee> employees = new ArrayList<>();
-        String query = "SELECT * FROM employees WHERE " +
+        String query = SELECT_EMPLOYEES + " WHERE " +
                 "CONCAT(first_name, ' ', last_name) LIKE ? OR " +
                 "employee_id LIKE ? OR " +
                 "position LIKE ? " +
                 "ORDER BY last_name, first_name";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             String searchPattern = "%" + searchTerm.trim() + "%";
@@ -410,34 +412,123 @@ public class EmployeeDAO {
     }
 
     /**
-     * Enhanced mapResultSetToEmployee with better null handling
+     * Field checks made before an insert, shared with InMemoryEmployeeDAO
+     * @throws IllegalArgumentException if validation fails
+     */
+    static void validateNewEmployee(Employee e) {
+        if (e == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+
+        // Validate required fields
+        if (e.getEmployeeId() <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        if (e.getFirstName() == null || e.getFirstName().trim().isEmpty()) {
+            throw new IllegalArgumentException("First name is required");
+        }
+        if (e.getLastName() == null || e.getLastName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Last name is required");
+        }
+        if (e.getBasicSalary() < 0) {
+            throw new IllegalArgumentException("Basic salary cannot be negative");
+        }
+
+        // Additional validation for business rules
+        if (e.getFirstName().trim().length() > 50) {
+            throw new IllegalArgumentException("First name cannot exceed 50 characters");
+        }
+        if (e.getLastName().trim().length() > 50) {
+            throw new IllegalArgumentException("Last name cannot exceed 50 characters");
+        }
+        if (e.getPosition() != null && e.getPosition().trim().length() > 100) {
+            throw new IllegalArgumentException("Position cannot exceed 100 characters");
+        }
+        if (e.getRiceSubsidy() < 0) {
+            throw new IllegalArgumentException("Rice subsidy cannot be negative");
+        }
+        if (e.getPhoneAllowance() < 0) {
+            throw new IllegalArgumentException("Phone allowance cannot be negative");
+        }
+        if (e.getClothingAllowance() < 0) {
+            throw new IllegalArgumentException("Clothing allowance cannot be negative");
+        }
+
+        // Validate phone number format if provided
+        if (e.getPhoneNumber() != null && !e.getPhoneNumber().trim().isEmpty()) {
+            String phone = e.getPhoneNumber().trim();
+            if (phone.length() > 20) {
+                throw new IllegalArgumentException("Phone number cannot exceed 20 characters");
+            }
+            // Basic phone number validation (digits, spaces, hyphens, parentheses)
+            if (!phone.matches("[0-9\\s\\-\\(\\)\\+]+")) {
+                throw new IllegalArgumentException("Phone number contains invalid characters");
+            }
+        }
+
+        // Validate status enum
+        if (e.getStatus() != null && !e.getStatus().trim().isEmpty()) {
+            String status = e.getStatus().trim();
+            if (!status.equals("Regular") && !status.equals("Probationary")) {
+                throw new IllegalArgumentException("Status must be either 'Regular' or 'Probationary'");
+            }
+        }
+    }
+
+    /**
+     * Field checks made before an update
+     */
+    static void validateEmployeeUpdate(Employee e) {
+        if (e == null) {
+            throw new IllegalArgumentException("Employee cannot be null");
+        }
+        if (e.getEmployeeId() <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+
+        // Apply similar validation as insertEmployee but for updates
+        if (e.getFirstName() == null || e.getFirstName().trim().isEmpty()) {
+            throw new IllegalArgumentException("First name is required");
+        }
+        if (e.getLastName() == null || e.getLastName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Last name is required");
+        }
+        if (e.getBasicSalary() < 0) {
+            throw new IllegalArgumentException("Basic salary cannot be negative");
+        }
+    }
+
+    /**
+     * Enhanced mapResultSetToEmployee with better null handling.
+     * Reads by position; the row must come from a query selecting EMPLOYEE_COLUMNS.
      */
     private Employee mapResultSetToEmployee(ResultSet rs) throws SQLException {
+        int[] c = EMPLOYEE_COLUMNS.positions(rs);
         Employee e = new Employee();
-        e.setEmployeeId(rs.getInt("employee_id"));
-        e.setLastName(rs.getString("last_name"));
-        e.setFirstName(rs.getString("first_name"));
+        e.setEmployeeId(rs.getInt(c[0]));
+        e.setLastName(rs.getString(c[1]));
+        e.setFirstName(rs.getString(c[2]));
 
-        java.sql.Date birthday = rs.getDate("birthday");
+        java.sql.Date birthday = rs.getDate(c[3]);
         if (birthday != null) {
             e.setBirthday(birthday.toLocalDate());
         }
 
-        e.setAddress(rs.getString("address"));
-        e.setPhoneNumber(rs.getString("phone_number"));
-        e.setSssNumber(rs.getString("sss_number"));
-        e.setPhilhealthNumber(rs.getString("philhealth_number"));
-        e.setTinNumber(rs.getString("tin_number"));
-        e.setPagibigNumber(rs.getString("pagibig_number"));
-        e.setStatus(rs.getString("status"));
-        e.setPosition(rs.getString("position"));
-        e.setImmediateSupervisor(rs.getString("immediate_supervisor"));
-        e.setBasicSalary(rs.getDouble("basic_salary"));
-        e.setRiceSubsidy(rs.getDouble("rice_subsidy"));
-        e.setPhoneAllowance(rs.getDouble("phone_allowance"));
-        e.setClothingAllowance(rs.getDouble("clothing_allowance"));
-        e.setGrossSemiMonthlyRate(rs.getDouble("gross_semi_monthly_rate"));
-        e.setHourlyRate(rs.getDouble("hourly_rate"));
+        e.setAddress(rs.getString(c[4]));
+        e.setPhoneNumber(rs.getString(c[5]));
+        e.setSssNumber(rs.getString(c[6]));
+        e.setPhilhealthNumber(rs.getString(c[7]));
+        e.setTinNumber(rs.getString(c[8]));
+        e.setPagibigNumber(rs.getString(c[9]));
+        e.setStatus(rs.getString(c[10]));
+        e.setPosition(rs.getString(c[11]));
+        e.setImmediateSupervisor(rs.getString(c[12]));
+        e.setBasicSalary(rs.getDouble(c[13]));
+        e.setRiceSubsidy(rs.getDouble(c[14]));
+        e.setPhoneAllowance(rs.getDouble(c[15]));
+        e.setClothingAllowance(rs.getDouble(c[16]));
+        e.setGrossSemiMonthlyRate(rs.getDouble(c[17]));
+        e.setHourlyRate(rs.getDouble(c[18]));
 
         return e;
     }
@@ -454,7 +545,7 @@ public class EmployeeDAO {
 
         String query = "SELECT 1 FROM employees WHERE employee_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, employeeId);
@@ -468,6 +559,30 @@ public class EmployeeDAO {
         }
     }
 
+    /**
+     * IDs of all employees, for checking many records against in memory instead of calling
+     * employeeExists for each
+     */
+    public Set<Integer> getAllEmployeeIds() {
+        Set<Integer> ids = new HashSet<>();
+        String query = "SELECT employee_id FROM employees";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(query);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "Error fetching employee IDs", ex);
+            throw new RuntimeException("Failed to fetch employee IDs", ex);
+        }
+
+        return ids;
+    }
+
     /**
      * Get the count of employees by status
      * @param status Employment status
@@ -480,7 +595,7 @@ public class EmployeeDAO {
 
         String query = "SELECT COUNT(*) FROM employees WHERE status = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, status.trim());
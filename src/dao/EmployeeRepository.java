@@ -0,0 +1,60 @@
+package dao;
+
+import model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Employee records. {@link EmployeeDAO} reads and writes the database;
+ * {@link InMemoryEmployeeDAO} keeps them in memory for offline runs and benchmarks.
+ * Lists are ordered by last name, then first name.
+ */
+public interface EmployeeRepository {
+
+    List<Employee> getAllEmployees();
+
+    /**
+     * Pass each employee to the consumer in list order, without collecting them first
+     * @return number of employees passed
+     */
+    long forEachEmployee(Consumer<? super Employee> consumer);
+
+    /**
+     * @return the employee, or null if there is none with this ID
+     */
+    Employee getEmployeeById(int employeeId);
+
+    /**
+     * @param employeeIds Employee IDs to load; unknown IDs are simply absent from the result
+     */
+    List<Employee> getEmployeesByIds(Collection<Integer> employeeIds);
+
+    /**
+     * @throws IllegalArgumentException if the employee is invalid or the ID is taken
+     */
+    boolean insertEmployee(Employee e);
+
+    boolean updateEmployee(Employee e);
+
+    boolean deleteEmployee(int employeeId);
+
+    List<Employee> getEmployeesByStatus(String status);
+
+    List<Employee> getEmployeesByPosition(String position);
+
+    List<Employee> getEmployeesBySupervisor(String supervisor);
+
+    /**
+     * Employees whose full name, ID or position contains the term; all employees for a blank term
+     */
+    List<Employee> searchEmployees(String searchTerm);
+
+    boolean employeeExists(int employeeId);
+
+    Set<Integer> getAllEmployeeIds();
+
+    int getEmployeeCountByStatus(String status);
+}
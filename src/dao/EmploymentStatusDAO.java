@@ -9,7 +9,7 @@ public class EmploymentStatusDAO {
     public EmploymentStatus getStatusById(int statusId) {
         String query = "SELECT * FROM employment_status WHERE employment_status_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, statusId);
@@ -13,7 +13,7 @@ public class GovernmentContributionsDAO {
     public GovernmentContributions getById(int id) {
         String query = "SELECT * FROM government_contributions WHERE contribution_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, id);
@@ -34,7 +34,7 @@ public class GovernmentContributionsDAO {
     public GovernmentContributions getByEmployeeId(int employeeId) {
         String query = "SELECT * FROM government_contributions WHERE employee_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, employeeId);
@@ -0,0 +1,446 @@
+package dao;
+
+import model.Attendance;
+import util.DataChangeNotifier;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Attendance held in memory, for running the payroll pipeline and load tests without a database.
+ *
+ * Each employee's records are kept in a map sorted by date, so period queries are range lookups
+ * rather than scans. As in the database there is at most one record per employee and date.
+ * The store keeps its own copies of the records; writes publish the same change events as
+ * {@link AttendanceDAO} and apply the same insert checks.
+ */
+public class InMemoryAttendanceDAO implements AttendanceRepository {
+    private static final Logger logger = Logger.getLogger(InMemoryAttendanceDAO.class.getName());
+
+    private final EmployeeRepository employees;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Attendance> byId = new HashMap<>();
+    private final NavigableMap<Integer, NavigableMap<LocalDate, Attendance>> byEmployee = new TreeMap<>();
+    private int lastId;
+
+    public InMemoryAttendanceDAO() {
+        this(null);
+    }
+
+    /**
+     * @param employees Store checked for the employee on insert, as the database's foreign key
+     *                  would; null to skip the check
+     */
+    public InMemoryAttendanceDAO(EmployeeRepository employees) {
+        this.employees = employees;
+    }
+
+    /**
+     * Add records without the insert checks, as a database import would. Records without an ID
+     * get one; a record replaces any other of the same employee and date.
+     */
+    public void load(Collection<Attendance> records) {
+        if (records == null) {
+            throw new IllegalArgumentException("Attendance records cannot be null");
+        }
+        lock.writeLock().lock();
+        try {
+            for (Attendance record : records) {
+                if (record.getEmployeeId() <= 0 || record.getDate() == null) {
+                    throw new IllegalArgumentException("Attendance needs an employee and a date");
+                }
+                Attendance stored = copy(record);
+                if (stored.getId() <= 0) {
+                    stored.setId(++lastId);
+                    record.setId(stored.getId());
+                } else {
+                    lastId = Math.max(lastId, stored.getId());
+                    remove(stored.getId());
+                }
+                Attendance replaced = recordOn(stored.getEmployeeId(), stored.getDate().toLocalDate());
+                if (replaced != null) {
+                    remove(replaced.getId());
+                }
+                add(stored);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loaded " + records.size() + " attendance records into memory");
+        DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.ATTENDANCE, 0);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Attendance> getAttendanceByEmployeeId(int empId) {
+        if (empId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDate, Attendance> dates = byEmployee.get(empId);
+            return dates != null ? copyAll(dates.descendingMap().values()) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Attendance> getAttendanceByEmployeeIdBetweenDates(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        if (employeeId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        validateDateRange(periodStart, periodEnd);
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDate, Attendance> dates = byEmployee.get(employeeId);
+            return dates != null ? copyAll(range(dates, periodStart, periodEnd)) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Attendance> getAttendanceBetweenDates(LocalDate periodStart, LocalDate periodEnd) {
+        validateDateRange(periodStart, periodEnd);
+        List<Attendance> list = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (NavigableMap<LocalDate, Attendance> dates : byEmployee.values()) {
+                for (Attendance attendance : range(dates, periodStart, periodEnd)) {
+                    list.add(copy(attendance));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return list;
+    }
+
+    public Map<Integer, List<Attendance>> getAttendanceGroupedByEmployee(LocalDate periodStart, LocalDate periodEnd) {
+        Map<Integer, List<Attendance>> grouped = new LinkedHashMap<>();
+        getAttendanceBetweenDates(periodStart, periodEnd).forEach(new AttendanceDAO.EmployeeGrouping(grouped));
+        return grouped;
+    }
+
+    // The streaming forms work on copies, so consumers may write to the store
+
+    public long forEachAttendanceByEmployeeId(int empId, Consumer<? super Attendance> consumer) {
+        return forEach(getAttendanceByEmployeeId(empId), consumer);
+    }
+
+    public long forEachAttendanceInRange(LocalDate periodStart, LocalDate periodEnd, Consumer<? super Attendance> consumer) {
+        return forEach(getAttendanceBetweenDates(periodStart, periodEnd), consumer);
+    }
+
+    public Stream<Attendance> streamAttendanceInRange(LocalDate periodStart, LocalDate periodEnd) {
+        return getAttendanceBetweenDates(periodStart, periodEnd).stream();
+    }
+
+    public int insertAttendance(Attendance attendance) {
+        AttendanceDAO.validateNewAttendance(attendance);
+        if (employees != null && !employees.employeeExists(attendance.getEmployeeId())) {
+            throw new IllegalArgumentException("Employee ID " + attendance.getEmployeeId() +
+                    " does not exist in the system. Please verify the employee ID.");
+        }
+
+        int generatedId;
+        lock.writeLock().lock();
+        try {
+            Attendance existing = recordOn(attendance.getEmployeeId(), attendance.getDate().toLocalDate());
+            if (existing != null) {
+                throw new IllegalArgumentException("Attendance record already exists for employee " +
+                        attendance.getEmployeeId() + " on date " + attendance.getDate() +
+                        ". Existing record ID: " + existing.getId());
+            }
+            generatedId = ++lastId;
+            Attendance stored = copy(attendance);
+            stored.setId(generatedId);
+            add(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        attendance.setId(generatedId);
+        AttendanceDAO.publishChange(attendance);
+        return generatedId;
+    }
+
+    public int upsertAttendanceBatch(List<Attendance> records) {
+        if (records == null) {
+            throw new IllegalArgumentException("Attendance records cannot be null");
+        }
+        List<Attendance> stored = copyAll(records);
+        if (employees != null) {
+            for (Attendance attendance : stored) {
+                if (!employees.employeeExists(attendance.getEmployeeId())) {
+                    // The foreign key rejects the whole batch in the database
+                    throw new RuntimeException("Failed to import attendance records");
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Attendance attendance : stored) {
+                Attendance existing = recordOn(attendance.getEmployeeId(), attendance.getDate().toLocalDate());
+                if (existing != null) {
+                    attendance.setId(existing.getId());
+                    remove(existing.getId());
+                } else {
+                    attendance.setId(++lastId);
+                }
+                add(attendance);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        AttendanceDAO.publishRanges(records);
+        return records.size();
+    }
+
+    public int recordLogIn(int employeeId, LocalDateTime instant) {
+        return recordPunch(employeeId, instant, true);
+    }
+
+    public int recordLogOut(int employeeId, LocalDateTime instant) {
+        return recordPunch(employeeId, instant, false);
+    }
+
+    private int recordPunch(int employeeId, LocalDateTime instant, boolean logIn) {
+        if (employeeId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        if (instant == null) {
+            throw new IllegalArgumentException("Punch time cannot be null");
+        }
+        if (employees != null && !employees.employeeExists(employeeId)) {
+            throw new IllegalArgumentException("Employee ID " + employeeId +
+                    " does not exist in the system. Please verify the employee ID.");
+        }
+        LocalDate date = instant.toLocalDate();
+        Time time = Time.valueOf(instant.toLocalTime().withNano(0));
+
+        int attendanceId;
+        lock.writeLock().lock();
+        try {
+            // Same rules as the statements in AttendanceDAO
+            Attendance record = recordOn(employeeId, date);
+            if (!logIn && (record == null || record.getLogIn() == null)) {
+                throw new IllegalArgumentException("Cannot clock out employee " + employeeId + " on " + date +
+                        ": no log in recorded");
+            }
+            if (record == null) {
+                record = new Attendance(employeeId, Date.valueOf(date), time, null);
+                record.setId(++lastId);
+                add(record);
+            } else if (logIn) {
+                if (record.getLogOut() != null && time.after(record.getLogOut())) {
+                    return 0;
+                }
+                if (record.getLogIn() == null || time.before(record.getLogIn())) {
+                    record.setLogIn(time);
+                }
+            } else {
+                if (time.before(record.getLogIn())) {
+                    return 0;
+                }
+                if (record.getLogOut() == null || time.after(record.getLogOut())) {
+                    record.setLogOut(time);
+                }
+            }
+            attendanceId = record.getId();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        DataChangeNotifier.publish(DataChangeNotifier.Table.ATTENDANCE, employeeId, date);
+        return attendanceId;
+    }
+
+    public boolean updateAttendance(Attendance attendance) {
+        if (attendance == null) {
+            throw new IllegalArgumentException("Attendance cannot be null");
+        }
+        if (attendance.getId() <= 0) {
+            throw new IllegalArgumentException("Attendance ID must be positive");
+        }
+        if (attendance.getDate() == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+
+        Attendance previous;
+        lock.writeLock().lock();
+        try {
+            previous = byId.get(attendance.getId());
+            if (previous == null) {
+                return false;
+            }
+            Attendance other = recordOn(attendance.getEmployeeId(), attendance.getDate().toLocalDate());
+            if (other != null && other.getId() != attendance.getId()) {
+                // The unique key on employee and date rejects this in the database
+                throw new RuntimeException("Failed to update attendance record");
+            }
+            remove(previous.getId());
+            add(copy(attendance));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        AttendanceDAO.publishChange(previous);
+        AttendanceDAO.publishChange(attendance);
+        return true;
+    }
+
+    public boolean deleteAttendance(int attendanceId) {
+        if (attendanceId <= 0) {
+            throw new IllegalArgumentException("Attendance ID must be positive");
+        }
+        Attendance previous;
+        lock.writeLock().lock();
+        try {
+            previous = remove(attendanceId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        AttendanceDAO.publishChange(previous);
+        return previous != null;
+    }
+
+    public Attendance getAttendanceById(int attendanceId) {
+        if (attendanceId <= 0) {
+            throw new IllegalArgumentException("Attendance ID must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            Attendance attendance = byId.get(attendanceId);
+            return attendance != null ? copy(attendance) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean attendanceExistsForDate(int employeeId, LocalDate attendanceDate) {
+        return find(employeeId, attendanceDate) != null;
+    }
+
+    public int countAttendanceDays(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        if (employeeId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        validateDateRange(periodStart, periodEnd);
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDate, Attendance> dates = byEmployee.get(employeeId);
+            return dates != null ? dates.subMap(periodStart, true, periodEnd, true).size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Attendance getAttendanceByEmployeeAndDate(int employeeId, LocalDate attendanceDate) {
+        Attendance attendance = find(employeeId, attendanceDate);
+        return attendance != null ? copy(attendance) : null;
+    }
+
+    private Attendance find(int employeeId, LocalDate attendanceDate) {
+        if (employeeId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        if (attendanceDate == null) {
+            throw new IllegalArgumentException("Attendance date cannot be null");
+        }
+        lock.readLock().lock();
+        try {
+            return recordOn(employeeId, attendanceDate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long forEach(List<Attendance> records, Consumer<? super Attendance> consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+        records.forEach(consumer);
+        return records.size();
+    }
+
+    private Attendance recordOn(int employeeId, LocalDate date) {
+        NavigableMap<LocalDate, Attendance> dates = byEmployee.get(employeeId);
+        return dates != null ? dates.get(date) : null;
+    }
+
+    // Index maintenance; callers hold the write lock
+
+    private void add(Attendance attendance) {
+        byId.put(attendance.getId(), attendance);
+        byEmployee.computeIfAbsent(attendance.getEmployeeId(), id -> new TreeMap<>())
+                .put(attendance.getDate().toLocalDate(), attendance);
+    }
+
+    private Attendance remove(int attendanceId) {
+        Attendance attendance = byId.remove(attendanceId);
+        if (attendance != null) {
+            NavigableMap<LocalDate, Attendance> dates = byEmployee.get(attendance.getEmployeeId());
+            dates.remove(attendance.getDate().toLocalDate());
+            if (dates.isEmpty()) {
+                byEmployee.remove(attendance.getEmployeeId());
+            }
+        }
+        return attendance;
+    }
+
+    /**
+     * Records of one employee within the period, newest first
+     */
+    private static Collection<Attendance> range(NavigableMap<LocalDate, Attendance> dates,
+                                                LocalDate periodStart, LocalDate periodEnd) {
+        return dates.subMap(periodStart, true, periodEnd, true).descendingMap().values();
+    }
+
+    private static void validateDateRange(LocalDate periodStart, LocalDate periodEnd) {
+        if (periodStart == null || periodEnd == null) {
+            throw new IllegalArgumentException("Period start and end dates cannot be null");
+        }
+        if (periodStart.isAfter(periodEnd)) {
+            throw new IllegalArgumentException("Period start date cannot be after end date");
+        }
+    }
+
+    private static List<Attendance> copyAll(Collection<Attendance> records) {
+        List<Attendance> copies = new ArrayList<>(records.size());
+        for (Attendance attendance : records) {
+            copies.add(copy(attendance));
+        }
+        return copies;
+    }
+
+    private static Attendance copy(Attendance source) {
+        Attendance attendance = new Attendance();
+        attendance.setId(source.getId());
+        attendance.setEmployeeId(source.getEmployeeId());
+        attendance.setDate(source.getDate());
+        attendance.setLogIn(source.getLogIn());
+        attendance.setLogOut(source.getLogOut());
+        return attendance;
+    }
+}
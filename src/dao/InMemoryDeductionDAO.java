@@ -0,0 +1,247 @@
+package dao;
+
+import model.Deduction;
+import util.Money;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * Deductions held in memory, for running committed payroll pipelines and load tests without a
+ * database.
+ *
+ * Records are indexed by ID and by employee. Like {@link DeductionDAO}, the store keeps the stored
+ * values rather than the objects passed in, and returns plain Deduction records. Batch writes are
+ * all-or-nothing, as the DAO's transactions are.
+ */
+public class InMemoryDeductionDAO implements DeductionRepository {
+    private static final Logger LOGGER = Logger.getLogger(InMemoryDeductionDAO.class.getName());
+
+    // Newest first, records without a date last, as ORDER BY deduction_date DESC sorts them
+    private static final Comparator<Deduction> NEWEST_FIRST = Comparator
+            .comparing(Deduction::getDeductionDate, Comparator.nullsFirst(Comparator.<Date>naturalOrder()))
+            .thenComparingInt(Deduction::getDeductionId)
+            .reversed();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Deduction> byId = new HashMap<>();
+    private final Map<Integer, Map<Integer, Deduction>> byEmployee = new HashMap<>();
+    private int lastId;
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void addDeduction(Deduction deduction) {
+        if (deduction == null) {
+            throw new IllegalArgumentException("Deduction cannot be null");
+        }
+        Deduction stored = copy(deduction);
+        lock.writeLock().lock();
+        try {
+            stored.setDeductionId(++lastId);
+            add(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        deduction.setDeductionId(stored.getDeductionId());
+    }
+
+    public void addDeductions(List<? extends Deduction> deductions) {
+        if (deductions == null) {
+            throw new IllegalArgumentException("Deductions cannot be null");
+        }
+        List<Deduction> stored = copyAll(deductions, null);
+        lock.writeLock().lock();
+        try {
+            for (Deduction deduction : stored) {
+                deduction.setDeductionId(++lastId);
+                add(deduction);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void replacePeriodDeductions(Collection<Integer> employeeIds, Collection<String> types,
+                                        Date deductionDate, List<? extends Deduction> records) {
+        if (employeeIds == null || types == null || deductionDate == null || records == null) {
+            throw new IllegalArgumentException("Employee IDs, types, date and records cannot be null");
+        }
+        if (employeeIds.isEmpty() || types.isEmpty()) {
+            throw new IllegalArgumentException("Employee IDs and types cannot be empty");
+        }
+
+        List<Deduction> stored = copyAll(records, deductionDate);
+        Set<String> replacedTypes = new HashSet<>(types);
+        int removed = 0;
+        lock.writeLock().lock();
+        try {
+            for (Integer employeeId : employeeIds) {
+                Map<Integer, Deduction> deductions = byEmployee.get(employeeId);
+                if (deductions == null) {
+                    continue;
+                }
+                Iterator<Deduction> it = deductions.values().iterator();
+                while (it.hasNext()) {
+                    Deduction deduction = it.next();
+                    if (deductionDate.equals(deduction.getDeductionDate()) && replacedTypes.contains(deduction.getType())) {
+                        it.remove();
+                        byId.remove(deduction.getDeductionId());
+                        removed++;
+                    }
+                }
+            }
+            for (Deduction deduction : stored) {
+                deduction.setDeductionId(++lastId);
+                add(deduction);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.fine(String.format("Replaced %d deduction records with %d for %s",
+                removed, records.size(), deductionDate));
+    }
+
+    public List<Deduction> getDeductionsByEmployeeId(int employeeId) {
+        if (employeeId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        List<Deduction> deductions;
+        lock.readLock().lock();
+        try {
+            Map<Integer, Deduction> stored = byEmployee.get(employeeId);
+            deductions = stored != null ? copyAll(stored.values(), null) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+        deductions.sort(NEWEST_FIRST);
+        return deductions;
+    }
+
+    public boolean updateDeduction(Deduction deduction) {
+        if (deduction == null || deduction.getDeductionId() <= 0) {
+            throw new IllegalArgumentException("Invalid deduction or deduction ID");
+        }
+        Deduction updated = copy(deduction);
+        lock.writeLock().lock();
+        try {
+            Deduction previous = remove(deduction.getDeductionId());
+            if (previous == null) {
+                return false;
+            }
+            // The date is not part of an update
+            updated.setDeductionDate(previous.getDeductionDate());
+            add(updated);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean deleteDeduction(int deductionId) {
+        if (deductionId <= 0) {
+            throw new IllegalArgumentException("Deduction ID must be positive");
+        }
+        lock.writeLock().lock();
+        try {
+            return remove(deductionId) != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Deduction getDeductionById(int deductionId) {
+        if (deductionId <= 0) {
+            throw new IllegalArgumentException("Deduction ID must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            Deduction deduction = byId.get(deductionId);
+            return deduction != null ? copy(deduction) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double getTotalDeductionsByType(int employeeId, String type) {
+        if (employeeId <= 0 || type == null || type.trim().isEmpty()) {
+            throw new IllegalArgumentException("Invalid employee ID or deduction type");
+        }
+        long totalCentavos = 0;
+        lock.readLock().lock();
+        try {
+            Map<Integer, Deduction> deductions = byEmployee.get(employeeId);
+            if (deductions != null) {
+                for (Deduction deduction : deductions.values()) {
+                    if (deduction.getType().equalsIgnoreCase(type.trim())) {
+                        totalCentavos += deduction.getAmountCentavos();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Money.toPesos(totalCentavos);
+    }
+
+    // Index maintenance; callers hold the write lock
+
+    private void add(Deduction deduction) {
+        byId.put(deduction.getDeductionId(), deduction);
+        byEmployee.computeIfAbsent(deduction.getEmployeeId(), id -> new LinkedHashMap<>())
+                .put(deduction.getDeductionId(), deduction);
+    }
+
+    private Deduction remove(int deductionId) {
+        Deduction deduction = byId.remove(deductionId);
+        if (deduction != null) {
+            Map<Integer, Deduction> deductions = byEmployee.get(deduction.getEmployeeId());
+            deductions.remove(deductionId);
+            if (deductions.isEmpty()) {
+                byEmployee.remove(deduction.getEmployeeId());
+            }
+        }
+        return deduction;
+    }
+
+    /**
+     * @param date Date to store the copies with, or null to keep each record's own
+     */
+    private static List<Deduction> copyAll(Collection<? extends Deduction> deductions, Date date) {
+        List<Deduction> copies = new ArrayList<>(deductions.size());
+        for (Deduction deduction : deductions) {
+            Deduction copy = copy(deduction);
+            if (date != null) {
+                copy.setDeductionDate(date);
+            }
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static Deduction copy(Deduction source) {
+        DeductionDAO.ConcreteDeduction deduction = new DeductionDAO.ConcreteDeduction(
+                source.getEmployeeId(), source.getType(), source.getAmount(), source.getDescription());
+        deduction.setDeductionId(source.getDeductionId());
+        deduction.setDeductionDate(source.getDeductionDate());
+        return deduction;
+    }
+}
@@ -0,0 +1,345 @@
+package dao;
+
+import model.Employee;
+import util.DataChangeNotifier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Employees held in memory, for running the payroll pipeline and load tests without a database.
+ *
+ * Records are indexed by ID, by name order and by status, position and supervisor, so lookups
+ * never scan the whole workforce. The store keeps its own copies: changing an object passed in
+ * or returned has no effect until it is written back with updateEmployee. Writes publish the
+ * same change events as {@link EmployeeDAO}; string matching ignores case, as MySQL does.
+ */
+public class InMemoryEmployeeDAO implements EmployeeRepository {
+    private static final Logger LOGGER = Logger.getLogger(InMemoryEmployeeDAO.class.getName());
+
+    private static final Comparator<String> TEXT_ORDER = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+    private static final Comparator<Employee> NAME_ORDER = Comparator
+            .comparing(Employee::getLastName, TEXT_ORDER)
+            .thenComparing(Employee::getFirstName, TEXT_ORDER)
+            .thenComparingInt(Employee::getEmployeeId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Employee> byId = new HashMap<>();
+    private final NavigableSet<Employee> byName = new TreeSet<>(NAME_ORDER);
+    private final Map<String, NavigableSet<Employee>> byStatus = new HashMap<>();
+    private final Map<String, NavigableSet<Employee>> byPosition = new HashMap<>();
+    private final Map<String, NavigableSet<Employee>> bySupervisor = new HashMap<>();
+
+    /**
+     * Add or replace employees without the insert checks, as a database import would
+     */
+    public void load(Collection<Employee> employees) {
+        if (employees == null) {
+            throw new IllegalArgumentException("Employees cannot be null");
+        }
+        lock.writeLock().lock();
+        try {
+            for (Employee employee : employees) {
+                if (employee.getEmployeeId() <= 0) {
+                    throw new IllegalArgumentException("Employee ID must be positive");
+                }
+                Employee stored = copy(employee);
+                remove(stored.getEmployeeId());
+                add(stored);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Loaded " + employees.size() + " employees into memory");
+        DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.EMPLOYEE, 0);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Employee> getAllEmployees() {
+        lock.readLock().lock();
+        try {
+            return copyAll(byName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Works on a copy, so the consumer may write to the store
+     */
+    public long forEachEmployee(Consumer<? super Employee> consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+        List<Employee> employees = getAllEmployees();
+        employees.forEach(consumer);
+        return employees.size();
+    }
+
+    public Employee getEmployeeById(int employeeId) {
+        lock.readLock().lock();
+        try {
+            Employee employee = byId.get(employeeId);
+            return employee != null ? copy(employee) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Employee> getEmployeesByIds(Collection<Integer> employeeIds) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        NavigableSet<Employee> found = new TreeSet<>(NAME_ORDER);
+        lock.readLock().lock();
+        try {
+            for (Integer id : employeeIds) {
+                Employee employee = byId.get(id);
+                if (employee != null) {
+                    found.add(employee);
+                }
+            }
+            return copyAll(found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean insertEmployee(Employee e) {
+        EmployeeDAO.validateNewEmployee(e);
+        lock.writeLock().lock();
+        try {
+            if (byId.containsKey(e.getEmployeeId())) {
+                throw new IllegalArgumentException("Employee ID " + e.getEmployeeId() + " already exists");
+            }
+            Employee stored = copy(e);
+            if (stored.getStatus() == null || stored.getStatus().trim().isEmpty()) {
+                stored.setStatus("Regular");
+            }
+            add(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.EMPLOYEE, e.getEmployeeId());
+        return true;
+    }
+
+    public boolean updateEmployee(Employee e) {
+        EmployeeDAO.validateEmployeeUpdate(e);
+        lock.writeLock().lock();
+        try {
+            if (remove(e.getEmployeeId()) == null) {
+                return false;
+            }
+            add(copy(e));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.EMPLOYEE, e.getEmployeeId());
+        return true;
+    }
+
+    public boolean deleteEmployee(int employeeId) {
+        if (employeeId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        lock.writeLock().lock();
+        try {
+            if (remove(employeeId) == null) {
+                return false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.EMPLOYEE, employeeId);
+        return true;
+    }
+
+    public List<Employee> getEmployeesByStatus(String status) {
+        if (status == null || status.trim().isEmpty()) {
+            throw new IllegalArgumentException("Status cannot be null or empty");
+        }
+        return lookup(byStatus, status);
+    }
+
+    public List<Employee> getEmployeesByPosition(String position) {
+        if (position == null || position.trim().isEmpty()) {
+            throw new IllegalArgumentException("Position cannot be null or empty");
+        }
+        return lookup(byPosition, position);
+    }
+
+    public List<Employee> getEmployeesBySupervisor(String supervisor) {
+        if (supervisor == null || supervisor.trim().isEmpty()) {
+            throw new IllegalArgumentException("Supervisor cannot be null or empty");
+        }
+        return lookup(bySupervisor, supervisor);
+    }
+
+    public List<Employee> searchEmployees(String searchTerm) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return getAllEmployees();
+        }
+        String term = key(searchTerm);
+        List<Employee> employees = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Employee employee : byName) {
+                if (key(employee.getFullName()).contains(term)
+                        || String.valueOf(employee.getEmployeeId()).contains(term)
+                        || employee.getPosition() != null && key(employee.getPosition()).contains(term)) {
+                    employees.add(copy(employee));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return employees;
+    }
+
+    public boolean employeeExists(int employeeId) {
+        lock.readLock().lock();
+        try {
+            return byId.containsKey(employeeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Set<Integer> getAllEmployeeIds() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(byId.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getEmployeeCountByStatus(String status) {
+        if (status == null || status.trim().isEmpty()) {
+            throw new IllegalArgumentException("Status cannot be null or empty");
+        }
+        lock.readLock().lock();
+        try {
+            NavigableSet<Employee> matches = byStatus.get(key(status));
+            return matches != null ? matches.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index maintenance; callers hold the write lock
+
+    private void add(Employee employee) {
+        byId.put(employee.getEmployeeId(), employee);
+        byName.add(employee);
+        index(byStatus, employee.getStatus(), employee);
+        index(byPosition, employee.getPosition(), employee);
+        index(bySupervisor, employee.getImmediateSupervisor(), employee);
+    }
+
+    private Employee remove(int employeeId) {
+        Employee employee = byId.remove(employeeId);
+        if (employee != null) {
+            byName.remove(employee);
+            unindex(byStatus, employee.getStatus(), employee);
+            unindex(byPosition, employee.getPosition(), employee);
+            unindex(bySupervisor, employee.getImmediateSupervisor(), employee);
+        }
+        return employee;
+    }
+
+    private static void index(Map<String, NavigableSet<Employee>> index, String value, Employee employee) {
+        if (value != null) {
+            index.computeIfAbsent(key(value), k -> new TreeSet<>(NAME_ORDER)).add(employee);
+        }
+    }
+
+    private static void unindex(Map<String, NavigableSet<Employee>> index, String value, Employee employee) {
+        if (value == null) {
+            return;
+        }
+        NavigableSet<Employee> employees = index.get(key(value));
+        if (employees != null) {
+            employees.remove(employee);
+            if (employees.isEmpty()) {
+                index.remove(key(value));
+            }
+        }
+    }
+
+    private List<Employee> lookup(Map<String, NavigableSet<Employee>> index, String value) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Employee> matches = index.get(key(value));
+            return matches != null ? copyAll(matches) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Employee> copyAll(Collection<Employee> employees) {
+        List<Employee> copies = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            copies.add(copy(employee));
+        }
+        return copies;
+    }
+
+    /**
+     * Field-by-field copy with strings trimmed, as the JDBC DAO stores them
+     */
+    static Employee copy(Employee source) {
+        Employee e = new Employee();
+        e.setEmployeeId(source.getEmployeeId());
+        e.setLastName(trim(source.getLastName()));
+        e.setFirstName(trim(source.getFirstName()));
+        e.setBirthday(source.getBirthday());
+        e.setAddress(trim(source.getAddress()));
+        e.setPhoneNumber(trim(source.getPhoneNumber()));
+        e.setSssNumber(trim(source.getSssNumber()));
+        e.setPhilhealthNumber(trim(source.getPhilhealthNumber()));
+        e.setTinNumber(trim(source.getTinNumber()));
+        e.setPagibigNumber(trim(source.getPagibigNumber()));
+        e.setStatus(trim(source.getStatus()));
+        e.setPosition(trim(source.getPosition()));
+        e.setImmediateSupervisor(trim(source.getImmediateSupervisor()));
+        e.setBasicSalary(source.getBasicSalary());
+        e.setRiceSubsidy(source.getRiceSubsidy());
+        e.setPhoneAllowance(source.getPhoneAllowance());
+        e.setClothingAllowance(source.getClothingAllowance());
+        e.setGrossSemiMonthlyRate(source.getGrossSemiMonthlyRate());
+        e.setHourlyRate(source.getHourlyRate());
+        return e;
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+}
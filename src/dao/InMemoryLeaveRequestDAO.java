@@ -0,0 +1,354 @@
+package dao;
+
+import model.LeaveRequest;
+import util.DataChangeNotifier;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Leave requests held in memory, for running the payroll pipeline and load tests without a database.
+ *
+ * Requests are indexed by employee and by status, sorted by start date. Approved leaves also have
+ * an index of their own; since no approved leave is longer than the longest one seen, a period
+ * query only looks at leaves starting that far before the period. The store keeps its own copies;
+ * writes publish the same change events as {@link LeaveRequestDAO} and apply the same checks.
+ */
+public class InMemoryLeaveRequestDAO implements LeaveRequestRepository {
+    private static final Logger logger = Logger.getLogger(InMemoryLeaveRequestDAO.class.getName());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, LeaveRequest> byId = new HashMap<>();
+    // Keyed by orderKey(start date, id)
+    private final NavigableMap<Integer, NavigableMap<Long, LeaveRequest>> byEmployee = new TreeMap<>();
+    private final NavigableMap<Integer, NavigableMap<Long, LeaveRequest>> approvedByEmployee = new TreeMap<>();
+    private final Map<String, NavigableMap<Long, LeaveRequest>> byStatus = new HashMap<>();
+    private long longestApprovedDays;
+    private int lastId;
+
+    /**
+     * Add requests without the insert checks, as a database import would.
+     * Requests without an ID get one; a request with a known ID replaces it.
+     */
+    public void load(Collection<LeaveRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Leave requests cannot be null");
+        }
+        lock.writeLock().lock();
+        try {
+            for (LeaveRequest request : requests) {
+                LeaveRequestDAO.validateLeaveRequestForInsert(request);
+                LeaveRequest stored = copy(request);
+                if (stored.getStatus() == null) {
+                    stored.setStatus(LeaveRequest.STATUS_PENDING);
+                }
+                if (stored.getLeaveId() <= 0) {
+                    stored.setLeaveId(++lastId);
+                    request.setLeaveId(stored.getLeaveId());
+                } else {
+                    lastId = Math.max(lastId, stored.getLeaveId());
+                    remove(stored.getLeaveId());
+                }
+                add(stored);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loaded " + requests.size() + " leave requests into memory");
+        DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.LEAVE_REQUEST, 0);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LeaveRequest> getLeaveRequestsByEmployeeId(int empId) {
+        LeaveRequestDAO.validateEmployeeId(empId);
+        return newestFirst(byEmployee, empId);
+    }
+
+    public List<LeaveRequest> getApprovedLeavesByEmployeeId(int empId) {
+        LeaveRequestDAO.validateEmployeeId(empId);
+        return newestFirst(approvedByEmployee, empId);
+    }
+
+    public List<LeaveRequest> getApprovedLeavesByEmployeeIdAndDateRange(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        LeaveRequestDAO.validateEmployeeId(employeeId);
+        LeaveRequestDAO.validateDateRange(periodStart, periodEnd);
+        List<LeaveRequest> approvedLeaves = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collectApproved(employeeId, periodStart, periodEnd, approvedLeaves);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return approvedLeaves;
+    }
+
+    public List<LeaveRequest> getApprovedLeavesByDateRange(LocalDate periodStart, LocalDate periodEnd) {
+        LeaveRequestDAO.validateDateRange(periodStart, periodEnd);
+        List<LeaveRequest> approvedLeaves = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Integer employeeId : approvedByEmployee.keySet()) {
+                collectApproved(employeeId, periodStart, periodEnd, approvedLeaves);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return approvedLeaves;
+    }
+
+    public List<LeaveRequest> getLeaveRequestsByStatus(String status) {
+        LeaveRequestDAO.validateStatus(status);
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, LeaveRequest> requests = byStatus.get(statusKey(status));
+            return requests != null ? copyAll(requests.descendingMap().values()) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Works on a copy, so the consumer may write to the store
+     */
+    public long forEachLeaveRequestByStatus(String status, Consumer<? super LeaveRequest> consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+        List<LeaveRequest> requests = getLeaveRequestsByStatus(status);
+        requests.forEach(consumer);
+        return requests.size();
+    }
+
+    public int insertLeaveRequest(LeaveRequest leaveRequest) {
+        LeaveRequestDAO.validateLeaveRequestForInsert(leaveRequest);
+        int generatedId;
+        lock.writeLock().lock();
+        try {
+            generatedId = ++lastId;
+            LeaveRequest stored = copy(leaveRequest);
+            stored.setLeaveId(generatedId);
+            if (stored.getStatus() == null) {
+                stored.setStatus(LeaveRequest.STATUS_PENDING);
+            }
+            add(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        leaveRequest.setLeaveId(generatedId);
+        LeaveRequestDAO.publishChange(leaveRequest);
+        return generatedId;
+    }
+
+    public boolean updateLeaveStatus(int leaveId, String status) {
+        LeaveRequestDAO.validateLeaveId(leaveId);
+        LeaveRequestDAO.validateStatus(status);
+        LeaveRequest previous;
+        lock.writeLock().lock();
+        try {
+            previous = remove(leaveId);
+            if (previous == null) {
+                return false;
+            }
+            LeaveRequest updated = copy(previous);
+            updated.setStatus(status.trim());
+            add(updated);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Payroll only counts approved leave, so only approvals and revoked approvals matter
+        if (LeaveRequestDAO.isApproved(previous.getStatus()) || LeaveRequestDAO.isApproved(status)) {
+            LeaveRequestDAO.publishRange(previous);
+        }
+        return true;
+    }
+
+    public boolean updateLeaveRequest(LeaveRequest leaveRequest) {
+        LeaveRequestDAO.validateLeaveRequestForUpdate(leaveRequest);
+        if (leaveRequest.getStatus() == null) {
+            // The status column is NOT NULL
+            throw new RuntimeException("Failed to update leave request");
+        }
+        LeaveRequest previous;
+        lock.writeLock().lock();
+        try {
+            previous = remove(leaveRequest.getLeaveId());
+            if (previous == null) {
+                return false;
+            }
+            add(copy(leaveRequest));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LeaveRequestDAO.publishChange(previous);
+        LeaveRequestDAO.publishChange(leaveRequest);
+        return true;
+    }
+
+    public boolean deleteLeaveRequest(int leaveId) {
+        LeaveRequestDAO.validateLeaveId(leaveId);
+        LeaveRequest previous;
+        lock.writeLock().lock();
+        try {
+            previous = remove(leaveId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LeaveRequestDAO.publishChange(previous);
+        return previous != null;
+    }
+
+    public Optional<LeaveRequest> getLeaveRequestById(int leaveId) {
+        LeaveRequestDAO.validateLeaveId(leaveId);
+        lock.readLock().lock();
+        try {
+            LeaveRequest request = byId.get(leaveId);
+            return request != null ? Optional.of(copy(request)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasOverlappingLeave(int employeeId, LocalDate startDate, LocalDate endDate, Integer excludeLeaveId) {
+        LeaveRequestDAO.validateEmployeeId(employeeId);
+        LeaveRequestDAO.validateDateRange(startDate, endDate);
+        lock.readLock().lock();
+        try {
+            for (LeaveRequest request : approvedOverlapping(employeeId, startDate, endDate)) {
+                if (excludeLeaveId == null || request.getLeaveId() != excludeLeaveId) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<LeaveRequest> newestFirst(Map<Integer, NavigableMap<Long, LeaveRequest>> index, int employeeId) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, LeaveRequest> requests = index.get(employeeId);
+            return requests != null ? copyAll(requests.descendingMap().values()) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the lock
+
+    private void collectApproved(int employeeId, LocalDate periodStart, LocalDate periodEnd, List<LeaveRequest> into) {
+        for (LeaveRequest request : approvedOverlapping(employeeId, periodStart, periodEnd)) {
+            into.add(copy(request));
+        }
+    }
+
+    /**
+     * Approved leaves of one employee overlapping the period, newest first
+     */
+    private List<LeaveRequest> approvedOverlapping(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        NavigableMap<Long, LeaveRequest> approved = approvedByEmployee.get(employeeId);
+        List<LeaveRequest> overlapping = new ArrayList<>();
+        if (approved == null) {
+            return overlapping;
+        }
+        // A leave starting earlier than this cannot reach into the period
+        LocalDate earliestStart = periodStart.minusDays(longestApprovedDays);
+        for (LeaveRequest request : approved.subMap(orderKey(earliestStart, 0), true,
+                orderKey(periodEnd, Integer.MAX_VALUE), true).descendingMap().values()) {
+            if (!request.getEndDate().toLocalDate().isBefore(periodStart)) {
+                overlapping.add(request);
+            }
+        }
+        return overlapping;
+    }
+
+    private void add(LeaveRequest request) {
+        long key = orderKey(request);
+        byId.put(request.getLeaveId(), request);
+        byEmployee.computeIfAbsent(request.getEmployeeId(), id -> new TreeMap<>()).put(key, request);
+        byStatus.computeIfAbsent(statusKey(request.getStatus()), s -> new TreeMap<>()).put(key, request);
+        if (LeaveRequestDAO.isApproved(request.getStatus())) {
+            approvedByEmployee.computeIfAbsent(request.getEmployeeId(), id -> new TreeMap<>()).put(key, request);
+            longestApprovedDays = Math.max(longestApprovedDays, ChronoUnit.DAYS.between(
+                    request.getStartDate().toLocalDate(), request.getEndDate().toLocalDate()));
+        }
+    }
+
+    private LeaveRequest remove(int leaveId) {
+        LeaveRequest request = byId.remove(leaveId);
+        if (request != null) {
+            long key = orderKey(request);
+            unindex(byEmployee, request.getEmployeeId(), key);
+            unindex(approvedByEmployee, request.getEmployeeId(), key);
+            unindex(byStatus, statusKey(request.getStatus()), key);
+        }
+        return request;
+    }
+
+    private static <K> void unindex(Map<K, NavigableMap<Long, LeaveRequest>> index, K indexKey, long key) {
+        NavigableMap<Long, LeaveRequest> requests = index.get(indexKey);
+        if (requests != null) {
+            requests.remove(key);
+            if (requests.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
+    }
+
+    private static String statusKey(String status) {
+        return status.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long orderKey(LeaveRequest request) {
+        return orderKey(request.getStartDate().toLocalDate(), request.getLeaveId());
+    }
+
+    /**
+     * Sorts by start date, then by ID among requests starting on the same date
+     */
+    private static long orderKey(LocalDate date, int id) {
+        return date.toEpochDay() * (1L << 31) + id;
+    }
+
+    private static List<LeaveRequest> copyAll(Collection<LeaveRequest> requests) {
+        List<LeaveRequest> copies = new ArrayList<>(requests.size());
+        for (LeaveRequest request : requests) {
+            copies.add(copy(request));
+        }
+        return copies;
+    }
+
+    private static LeaveRequest copy(LeaveRequest source) {
+        LeaveRequest request = new LeaveRequest();
+        request.setLeaveId(source.getLeaveId());
+        request.setEmployeeId(source.getEmployeeId());
+        request.setLeaveType(source.getLeaveType());
+        request.setStartDate(source.getStartDate());
+        request.setEndDate(source.getEndDate());
+        if (source.getStatus() != null) {
+            request.setStatus(source.getStatus());
+        }
+        return request;
+    }
+}
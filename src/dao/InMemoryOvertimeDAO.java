@@ -0,0 +1,262 @@
+package dao;
+
+import model.Overtime;
+import util.DataChangeNotifier;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+/**
+ * Overtime held in memory, for running the payroll pipeline and load tests without a database.
+ *
+ * Each employee's records are kept sorted by date and ID, so period queries and totals are range
+ * lookups. The store keeps its own copies of the records; writes publish the same change events
+ * as {@link OvertimeDAO} and apply the same checks.
+ */
+public class InMemoryOvertimeDAO implements OvertimeRepository {
+    private static final Logger logger = Logger.getLogger(InMemoryOvertimeDAO.class.getName());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Overtime> byId = new HashMap<>();
+    // Per employee, keyed by orderKey(date, id)
+    private final NavigableMap<Integer, NavigableMap<Long, Overtime>> byEmployee = new TreeMap<>();
+    private int lastId;
+
+    /**
+     * Add records without the insert checks, as a database import would.
+     * Records without an ID get one; a record with a known ID replaces it.
+     */
+    public void load(Collection<Overtime> records) {
+        if (records == null) {
+            throw new IllegalArgumentException("Overtime records cannot be null");
+        }
+        lock.writeLock().lock();
+        try {
+            for (Overtime record : records) {
+                if (record.getEmployeeId() <= 0 || record.getDate() == null) {
+                    throw new IllegalArgumentException("Overtime needs an employee and a date");
+                }
+                Overtime stored = copy(record);
+                if (stored.getOvertimeId() <= 0) {
+                    stored.setOvertimeId(++lastId);
+                    record.setOvertimeId(stored.getOvertimeId());
+                } else {
+                    lastId = Math.max(lastId, stored.getOvertimeId());
+                    remove(stored.getOvertimeId());
+                }
+                add(stored);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loaded " + records.size() + " overtime records into memory");
+        DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.OVERTIME, 0);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Overtime> getOvertimeByEmployeeId(int empId) {
+        OvertimeDAO.validateEmployeeId(empId);
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Overtime> records = byEmployee.get(empId);
+            return records != null ? copyAll(records.descendingMap().values()) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Overtime> getOvertimeByEmployeeIdAndDateRange(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        OvertimeDAO.validateEmployeeId(employeeId);
+        OvertimeDAO.validateDateRange(periodStart, periodEnd);
+        lock.readLock().lock();
+        try {
+            return copyAll(range(employeeId, periodStart, periodEnd));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Overtime> getOvertimeByDateRange(LocalDate periodStart, LocalDate periodEnd) {
+        OvertimeDAO.validateDateRange(periodStart, periodEnd);
+        List<Overtime> overtimeList = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Integer employeeId : byEmployee.keySet()) {
+                for (Overtime overtime : range(employeeId, periodStart, periodEnd)) {
+                    overtimeList.add(copy(overtime));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return overtimeList;
+    }
+
+    public Overtime getOvertimeById(int overtimeId) {
+        if (overtimeId <= 0) {
+            throw new IllegalArgumentException("Overtime ID must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            Overtime overtime = byId.get(overtimeId);
+            return overtime != null ? copy(overtime) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int insertOvertime(Overtime overtime) {
+        OvertimeDAO.validateOvertimeForInsert(overtime);
+        int generatedId;
+        lock.writeLock().lock();
+        try {
+            generatedId = ++lastId;
+            Overtime stored = copy(overtime);
+            stored.setOvertimeId(generatedId);
+            add(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        overtime.setOvertimeId(generatedId);
+        OvertimeDAO.publishChange(overtime);
+        return generatedId;
+    }
+
+    public boolean updateOvertime(Overtime overtime) {
+        OvertimeDAO.validateOvertimeForUpdate(overtime);
+        Overtime previous;
+        lock.writeLock().lock();
+        try {
+            previous = remove(overtime.getOvertimeId());
+            if (previous == null) {
+                return false;
+            }
+            add(copy(overtime));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        OvertimeDAO.publishChange(previous);
+        OvertimeDAO.publishChange(overtime);
+        return true;
+    }
+
+    public boolean deleteOvertime(int overtimeId) {
+        if (overtimeId <= 0) {
+            throw new IllegalArgumentException("Overtime ID must be positive");
+        }
+        Overtime previous;
+        lock.writeLock().lock();
+        try {
+            previous = remove(overtimeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        OvertimeDAO.publishChange(previous);
+        return previous != null;
+    }
+
+    public double getTotalOvertimeHours(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        OvertimeDAO.validateEmployeeId(employeeId);
+        OvertimeDAO.validateDateRange(periodStart, periodEnd);
+        double total = 0;
+        lock.readLock().lock();
+        try {
+            for (Overtime overtime : range(employeeId, periodStart, periodEnd)) {
+                total += overtime.getHours();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return total;
+    }
+
+    public int getOvertimeCount(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        OvertimeDAO.validateEmployeeId(employeeId);
+        OvertimeDAO.validateDateRange(periodStart, periodEnd);
+        lock.readLock().lock();
+        try {
+            return range(employeeId, periodStart, periodEnd).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index maintenance; callers hold the lock
+
+    private void add(Overtime overtime) {
+        byId.put(overtime.getOvertimeId(), overtime);
+        byEmployee.computeIfAbsent(overtime.getEmployeeId(), id -> new TreeMap<>())
+                .put(orderKey(overtime), overtime);
+    }
+
+    private Overtime remove(int overtimeId) {
+        Overtime overtime = byId.remove(overtimeId);
+        if (overtime != null) {
+            NavigableMap<Long, Overtime> records = byEmployee.get(overtime.getEmployeeId());
+            records.remove(orderKey(overtime));
+            if (records.isEmpty()) {
+                byEmployee.remove(overtime.getEmployeeId());
+            }
+        }
+        return overtime;
+    }
+
+    /**
+     * One employee's records within the period, newest first
+     */
+    private Collection<Overtime> range(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        NavigableMap<Long, Overtime> records = byEmployee.get(employeeId);
+        if (records == null) {
+            return new ArrayList<>();
+        }
+        return records.subMap(orderKey(periodStart, 0), true, orderKey(periodEnd, Integer.MAX_VALUE), true)
+                .descendingMap().values();
+    }
+
+    private static long orderKey(Overtime overtime) {
+        return orderKey(overtime.getDate().toLocalDate(), overtime.getOvertimeId());
+    }
+
+    /**
+     * Sorts by date, then by ID among records of the same date
+     */
+    private static long orderKey(LocalDate date, int id) {
+        return date.toEpochDay() * (1L << 31) + id;
+    }
+
+    private static List<Overtime> copyAll(Collection<Overtime> records) {
+        List<Overtime> copies = new ArrayList<>(records.size());
+        for (Overtime overtime : records) {
+            copies.add(copy(overtime));
+        }
+        return copies;
+    }
+
+    private static Overtime copy(Overtime source) {
+        Overtime overtime = new Overtime();
+        overtime.setOvertimeId(source.getOvertimeId());
+        overtime.setEmployeeId(source.getEmployeeId());
+        overtime.setDate(source.getDate());
+        overtime.setHours(source.getHours());
+        overtime.setReason(source.getReason());
+        overtime.setApproved(source.isApproved());
+        return overtime;
+    }
+}
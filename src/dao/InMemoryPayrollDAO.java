@@ -0,0 +1,209 @@
+package dao;
+
+import model.Payroll;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Saved payrolls held in memory, for running report pipelines and load tests without a database.
+ *
+ * Each employee's payrolls are kept sorted by period start and ID. The store keeps copies of the
+ * columns {@link PayrollDAO} saves, so a payroll read back looks as it would from the database.
+ */
+public class InMemoryPayrollDAO implements PayrollRepository {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Payroll> byId = new HashMap<>();
+    // Per employee, keyed by orderKey(period start, id)
+    private final Map<Integer, NavigableMap<Long, Payroll>> byEmployee = new HashMap<>();
+    private int lastId;
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Payroll> getPayrollByEmployeeId(int empId) {
+        if (empId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Payroll> payrolls = byEmployee.get(empId);
+            return payrolls != null ? copyAll(payrolls.descendingMap().values()) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Payroll> getPayrollByEmployeeIdAndDateRange(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        if (employeeId <= 0) {
+            throw new IllegalArgumentException("Employee ID must be positive");
+        }
+        if (periodStart == null || periodEnd == null) {
+            throw new IllegalArgumentException("Period dates cannot be null");
+        }
+        List<Payroll> payrollList = new ArrayList<>();
+        if (periodStart.isAfter(periodEnd)) {
+            return payrollList;
+        }
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Payroll> payrolls = byEmployee.get(employeeId);
+            if (payrolls == null) {
+                return payrollList;
+            }
+            for (Payroll payroll : payrolls.subMap(orderKey(periodStart, 0), true,
+                    orderKey(periodEnd, Integer.MAX_VALUE), true).descendingMap().values()) {
+                if (!payroll.getPeriodEnd().toLocalDate().isAfter(periodEnd)) {
+                    payrollList.add(copy(payroll));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return payrollList;
+    }
+
+    public int insertPayroll(Payroll payroll) {
+        if (payroll == null) {
+            throw new IllegalArgumentException("Payroll cannot be null");
+        }
+        Payroll stored = copy(payroll);
+        lock.writeLock().lock();
+        try {
+            stored.setPayrollId(++lastId);
+            add(stored);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        payroll.setPayrollId(stored.getPayrollId());
+        return stored.getPayrollId();
+    }
+
+    public boolean updatePayroll(Payroll payroll) {
+        if (payroll == null) {
+            throw new IllegalArgumentException("Payroll cannot be null");
+        }
+        if (payroll.getPayrollId() <= 0) {
+            throw new IllegalArgumentException("Payroll ID must be positive");
+        }
+        Payroll stored = copy(payroll);
+        lock.writeLock().lock();
+        try {
+            if (remove(payroll.getPayrollId()) == null) {
+                return false;
+            }
+            add(stored);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean deletePayroll(int payrollId) {
+        if (payrollId <= 0) {
+            throw new IllegalArgumentException("Payroll ID must be positive");
+        }
+        lock.writeLock().lock();
+        try {
+            return remove(payrollId) != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Payroll getPayrollById(int payrollId) {
+        if (payrollId <= 0) {
+            throw new IllegalArgumentException("Payroll ID must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            Payroll payroll = byId.get(payrollId);
+            return payroll != null ? copy(payroll) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index maintenance; callers hold the write lock
+
+    private void add(Payroll payroll) {
+        byId.put(payroll.getPayrollId(), payroll);
+        byEmployee.computeIfAbsent(payroll.getEmployeeId(), id -> new TreeMap<>()).put(orderKey(payroll), payroll);
+    }
+
+    private Payroll remove(int payrollId) {
+        Payroll payroll = byId.remove(payrollId);
+        if (payroll != null) {
+            NavigableMap<Long, Payroll> payrolls = byEmployee.get(payroll.getEmployeeId());
+            payrolls.remove(orderKey(payroll));
+            if (payrolls.isEmpty()) {
+                byEmployee.remove(payroll.getEmployeeId());
+            }
+        }
+        return payroll;
+    }
+
+    private static long orderKey(Payroll payroll) {
+        return orderKey(payroll.getPeriodStart().toLocalDate(), payroll.getPayrollId());
+    }
+
+    /**
+     * Sorts by period start, then by ID among payrolls starting on the same date
+     */
+    private static long orderKey(LocalDate date, int id) {
+        return date.toEpochDay() * (1L << 31) + id;
+    }
+
+    private static List<Payroll> copyAll(Collection<Payroll> payrolls) {
+        List<Payroll> copies = new ArrayList<>(payrolls.size());
+        for (Payroll payroll : payrolls) {
+            copies.add(copy(payroll));
+        }
+        return copies;
+    }
+
+    /**
+     * Copy of the saved columns only, matching PayrollDAO's mapping
+     */
+    private static Payroll copy(Payroll source) {
+        Payroll payroll = new Payroll();
+        payroll.setPayrollId(source.getPayrollId());
+        payroll.setEmployeeId(source.getEmployeeId());
+        payroll.setPeriodStart(source.getPeriodStart());
+        payroll.setPeriodEnd(source.getPeriodEnd());
+        payroll.setMonthlyRate(source.getMonthlyRate());
+        payroll.setDaysWorked(source.getDaysWorked());
+        payroll.setOvertimeHours(source.getOvertimeHours());
+        payroll.setGrossPay(source.getGrossPay());
+        payroll.setTotalDeductions(source.getTotalDeductions());
+        payroll.setNetPay(source.getNetPay());
+        payroll.setGrossEarnings(source.getGrossEarnings());
+        payroll.setLateDeduction(source.getLateDeduction());
+        payroll.setUndertimeDeduction(source.getUndertimeDeduction());
+        payroll.setUnpaidLeaveDeduction(source.getUnpaidLeaveDeduction());
+        payroll.setOvertimePay(source.getOvertimePay());
+        payroll.setRiceSubsidy(source.getRiceSubsidy());
+        payroll.setPhoneAllowance(source.getPhoneAllowance());
+        payroll.setClothingAllowance(source.getClothingAllowance());
+        payroll.setSss(source.getSss());
+        payroll.setPhilhealth(source.getPhilhealth());
+        payroll.setPagibig(source.getPagibig());
+        payroll.setTax(source.getTax());
+        return payroll;
+    }
+}
@@ -1,25 +1,33 @@
 package dao;
 
 import util.DBConnection;
+import util.DataChangeNotifier;
 import model.LeaveRequest;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
-public class LeaveRequestDAO {
+public class LeaveRequestDAO implements LeaveRequestRepository {
     private static final Logger logger = Logger.getLogger(LeaveRequestDAO.class.getName());
 
+    // Columns read by mapResultSetToLeaveRequest, in the order it reads them
+    private static final ColumnIndex LEAVE_REQUEST_COLUMNS = new ColumnIndex(
+            "leave_id", "employee_id", "leave_type", "start_date", "end_date", "status");
+
     // SQL Queries as constants for better maintainability
+    private static final String SELECT_LEAVE_REQUESTS =
+            "SELECT " + LEAVE_REQUEST_COLUMNS.list() + " FROM leave_request ";
+
     private static final String SELECT_BY_EMPLOYEE_ID =
-            "SELECT * FROM leave_request WHERE employee_id = ? ORDER BY start_date DESC";
+            SELECT_LEAVE_REQUESTS + "WHERE employee_id = ? ORDER BY start_date DESC";
 
     private static final String SELECT_APPROVED_BY_EMPLOYEE_ID =
-            "SELECT * FROM leave_request WHERE employee_id = ? AND status = ? ORDER BY start_date DESC";
+            SELECT_LEAVE_REQUESTS + "WHERE employee_id = ? AND status = ? ORDER BY start_date DESC";
 
-    private static final String SELECT_APPROVED_BY_EMPLOYEE_AND_DATE_RANGE = """
-        SELECT * FROM leave_request 
+    private static final String SELECT_APPROVED_BY_EMPLOYEE_AND_DATE_RANGE = SELECT_LEAVE_REQUESTS + """
         WHERE employee_id = ? AND status = ? 
         AND ((start_date >= ? AND start_date <= ?) 
              OR (end_date >= ? AND end_date <= ?)
@@ -27,8 +35,16 @@ public class LeaveRequestDAO {
         ORDER BY start_date DESC
         """;
 
+    private static final String SELECT_APPROVED_BY_DATE_RANGE = SELECT_LEAVE_REQUESTS + """
+        WHERE status = ? 
+        AND ((start_date >= ? AND start_date <= ?) 
+             OR (end_date >= ? AND end_date <= ?)
+             OR (start_date <= ? AND end_date >= ?))
+        ORDER BY employee_id, start_date DESC
+        """;
+
     private static final String SELECT_BY_STATUS =
-            "SELECT * FROM leave_request WHERE status = ? ORDER BY start_date DESC";
+            SELECT_LEAVE_REQUESTS + "WHERE status = ? ORDER BY start_date DESC";
 
     private static final String INSERT_LEAVE_REQUEST =
             "INSERT INTO leave_request (employee_id, leave_type, start_date, end_date, status) VALUES (?, ?, ?, ?, ?)";
@@ -43,7 +59,7 @@ public class LeaveRequestDAO {
             "DELETE FROM leave_request WHERE leave_id = ?";
 
     private static final String SELECT_BY_ID =
-            "SELECT * FROM leave_request WHERE leave_id = ?";
+            SELECT_LEAVE_REQUESTS + "WHERE leave_id = ?";
 
     private static final String CHECK_OVERLAPPING_LEAVE = """
         SELECT COUNT(*) FROM leave_request 
@@ -70,7 +86,7 @@ public class LeaveRequestDAO {
 
         List<LeaveRequest> leaveRequests = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_EMPLOYEE_ID)) {
 
             stmt.setInt(1, empId);
@@ -101,7 +117,7 @@ public class LeaveRequestDAO {
 
         List<LeaveRequest> approvedLeaves = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_APPROVED_BY_EMPLOYEE_ID)) {
 
             stmt.setInt(1, empId);
@@ -136,7 +152,7 @@ public class LeaveRequestDAO {
 
         List<LeaveRequest> approvedLeaves = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_APPROVED_BY_EMPLOYEE_AND_DATE_RANGE)) {
 
             // Convert LocalDate to java.sql.Date for database operations
@@ -168,6 +184,48 @@ public class LeaveRequestDAO {
         return approvedLeaves;
     }
 
+    /**
+     * Retrieves approved leave requests for all employees overlapping a date range in one query
+     * @param periodStart Start date of the period
+     * @param periodEnd End date of the period
+     * @return List of approved leave requests ordered by employee
+     * @throws IllegalArgumentException if parameters are invalid
+     * @throws RuntimeException if database error occurs
+     */
+    public List<LeaveRequest> getApprovedLeavesByDateRange(LocalDate periodStart, LocalDate periodEnd) {
+        validateDateRange(periodStart, periodEnd);
+
+        List<LeaveRequest> approvedLeaves = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_APPROVED_BY_DATE_RANGE)) {
+
+            java.sql.Date sqlStartDate = java.sql.Date.valueOf(periodStart);
+            java.sql.Date sqlEndDate = java.sql.Date.valueOf(periodEnd);
+
+            stmt.setString(1, STATUS_APPROVED);
+            stmt.setDate(2, sqlStartDate);
+            stmt.setDate(3, sqlEndDate);
+            stmt.setDate(4, sqlStartDate);
+            stmt.setDate(5, sqlEndDate);
+            stmt.setDate(6, sqlStartDate);
+            stmt.setDate(7, sqlEndDate);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    approvedLeaves.add(mapResultSetToLeaveRequest(rs));
+                }
+            }
+
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, String.format(
+                    "Error retrieving approved leaves between dates: %s and %s", periodStart, periodEnd), ex);
+            throw new RuntimeException("Failed to retrieve approved leave requests for date range", ex);
+        }
+
+        return approvedLeaves;
+    }
+
     /**
      * Retrieves leave requests by status
      * @param status Leave request status
@@ -180,7 +238,7 @@ public class LeaveRequestDAO {
 
         List<LeaveRequest> leaveRequests = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_STATUS)) {
 
             stmt.setString(1, status.trim());
@@ -199,6 +257,26 @@ public class LeaveRequestDAO {
         return leaveRequests;
     }
 
+    /**
+     * Streaming form of getLeaveRequestsByStatus: requests are passed to the consumer as they
+     * are read rather than collected
+     * @return number of requests read
+     */
+    public long forEachLeaveRequestByStatus(String status, Consumer<? super LeaveRequest> consumer) {
+        validateStatus(status);
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null");
+        }
+
+        try {
+            return StreamingQuery.forEach(SELECT_BY_STATUS, stmt -> stmt.setString(1, status.trim()),
+                    this::mapResultSetToLeaveRequest, consumer);
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, String.format("Error streaming leave requests by status: %s", status), ex);
+            throw new RuntimeException("Failed to retrieve leave requests by status: " + status, ex);
+        }
+    }
+
     /**
      * ENHANCED: Inserts a new leave request with comprehensive error handling
      * @param leaveRequest Leave request to insert
@@ -265,6 +343,7 @@ public class LeaveRequestDAO {
                     leaveRequest.setLeaveId(generatedId);
                     logger.info(String.format("Successfully inserted leave request with ID: %d for employee %d",
                             generatedId, leaveRequest.getEmployeeId()));
+                    publishChange(leaveRequest);
                     return generatedId;
                 } else {
                     throw new SQLException("Creating leave request failed, no ID obtained.");
@@ -307,6 +386,8 @@ public class LeaveRequestDAO {
         validateLeaveId(leaveId);
         validateStatus(status);
 
+        LeaveRequest previous = DataChangeNotifier.hasListeners() ? getLeaveRequestById(leaveId).orElse(null) : null;
+
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS)) {
 
@@ -318,6 +399,10 @@ public class LeaveRequestDAO {
 
             if (updated) {
                 logger.info(String.format("Successfully updated leave request %d status to %s", leaveId, status));
+                // Payroll only counts approved leave, so only approvals and revoked approvals matter
+                if (previous != null && (isApproved(previous.getStatus()) || isApproved(status))) {
+                    publishRange(previous);
+                }
             } else {
                 logger.warning(String.format("No leave request found with ID: %d", leaveId));
             }
@@ -340,6 +425,10 @@ public class LeaveRequestDAO {
     public boolean updateLeaveRequest(LeaveRequest leaveRequest) {
         validateLeaveRequestForUpdate(leaveRequest);
 
+        // The update can change the employee, dates or status; both the old and new leave matter
+        LeaveRequest previous = DataChangeNotifier.hasListeners()
+                ? getLeaveRequestById(leaveRequest.getLeaveId()).orElse(null) : null;
+
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(UPDATE_LEAVE_REQUEST)) {
 
@@ -355,6 +444,8 @@ public class LeaveRequestDAO {
 
             if (updated) {
                 logger.info(String.format("Successfully updated leave request with ID: %d", leaveRequest.getLeaveId()));
+                publishChange(previous);
+                publishChange(leaveRequest);
             } else {
                 logger.warning(String.format("No leave request found with ID: %d", leaveRequest.getLeaveId()));
             }
@@ -377,6 +468,8 @@ public class LeaveRequestDAO {
     public boolean deleteLeaveRequest(int leaveId) {
         validateLeaveId(leaveId);
 
+        LeaveRequest previous = DataChangeNotifier.hasListeners() ? getLeaveRequestById(leaveId).orElse(null) : null;
+
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(DELETE_LEAVE_REQUEST)) {
 
@@ -386,6 +479,7 @@ public class LeaveRequestDAO {
 
             if (deleted) {
                 logger.info(String.format("Successfully deleted leave request with ID: %d", leaveId));
+                publishChange(previous);
             } else {
                 logger.warning(String.format("No leave request found with ID: %d", leaveId));
             }
@@ -398,6 +492,29 @@ public class LeaveRequestDAO {
         }
     }
 
+    /**
+     * Notifies listeners that an approved leave changed
+     * @param leaveRequest Changed leave request, ignored if null or not approved
+     */
+    static void publishChange(LeaveRequest leaveRequest) {
+        if (leaveRequest != null && isApproved(leaveRequest.getStatus())) {
+            publishRange(leaveRequest);
+        }
+    }
+
+    static void publishRange(LeaveRequest leaveRequest) {
+        if (leaveRequest.getStartDate() == null || leaveRequest.getEndDate() == null) {
+            DataChangeNotifier.publishEmployeeChange(DataChangeNotifier.Table.LEAVE_REQUEST, leaveRequest.getEmployeeId());
+            return;
+        }
+        DataChangeNotifier.publish(DataChangeNotifier.Table.LEAVE_REQUEST, leaveRequest.getEmployeeId(),
+                leaveRequest.getStartDate().toLocalDate(), leaveRequest.getEndDate().toLocalDate());
+    }
+
+    static boolean isApproved(String status) {
+        return status != null && STATUS_APPROVED.equalsIgnoreCase(status.trim());
+    }
+
     /**
      * Retrieves leave request by ID
      * @param leaveId Leave request ID
@@ -408,7 +525,7 @@ public class LeaveRequestDAO {
     public Optional<LeaveRequest> getLeaveRequestById(int leaveId) {
         validateLeaveId(leaveId);
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID)) {
 
             stmt.setInt(1, leaveId);
@@ -479,42 +596,43 @@ public class LeaveRequestDAO {
     }
 
     /**
-     * Maps ResultSet to LeaveRequest object
-     * @param rs ResultSet from database
+     * Maps ResultSet to LeaveRequest object, reading by position
+     * @param rs ResultSet from a query selecting LEAVE_REQUEST_COLUMNS
      * @return LeaveRequest object
      * @throws SQLException if database access error occurs
      */
     private LeaveRequest mapResultSetToLeaveRequest(ResultSet rs) throws SQLException {
+        int[] c = LEAVE_REQUEST_COLUMNS.positions(rs);
         LeaveRequest lr = new LeaveRequest();
-        lr.setLeaveId(rs.getInt("leave_id"));
-        lr.setEmployeeId(rs.getInt("employee_id"));
-        lr.setLeaveType(rs.getString("leave_type"));
-        lr.setStartDate(rs.getDate("start_date"));
-        lr.setEndDate(rs.getDate("end_date"));
-        lr.setStatus(rs.getString("status"));
+        lr.setLeaveId(rs.getInt(c[0]));
+        lr.setEmployeeId(rs.getInt(c[1]));
+        lr.setLeaveType(rs.getString(c[2]));
+        lr.setStartDate(rs.getDate(c[3]));
+        lr.setEndDate(rs.getDate(c[4]));
+        lr.setStatus(rs.getString(c[5]));
         return lr;
     }
 
     // Validation helper methods
-    private void validateEmployeeId(int empId) {
+    static void validateEmployeeId(int empId) {
         if (empId <= 0) {
             throw new IllegalArgumentException("Employee ID must be positive, got: " + empId);
         }
     }
 
-    private void validateLeaveId(int leaveId) {
+    static void validateLeaveId(int leaveId) {
         if (leaveId <= 0) {
             throw new IllegalArgumentException("Leave ID must be positive, got: " + leaveId);
         }
     }
 
-    private void validateStatus(String status) {
+    static void validateStatus(String status) {
         if (status == null || status.trim().isEmpty()) {
             throw new IllegalArgumentException("Status cannot be null or empty");
         }
     }
 
-    private void validateDateRange(LocalDate periodStart, LocalDate periodEnd) {
+    static void validateDateRange(LocalDate periodStart, LocalDate periodEnd) {
         if (periodStart == null || periodEnd == null) {
             throw new IllegalArgumentException("Period start and end dates cannot be null");
         }
@@ -523,7 +641,7 @@ public class LeaveRequestDAO {
         }
     }
 
-    private void validateLeaveRequestForInsert(LeaveRequest leaveRequest) {
+    static void validateLeaveRequestForInsert(LeaveRequest leaveRequest) {
         if (leaveRequest == null) {
             throw new IllegalArgumentException("Leave request cannot be null");
         }
@@ -536,7 +654,7 @@ public class LeaveRequestDAO {
         }
     }
 
-    private void validateLeaveRequestForUpdate(LeaveRequest leaveRequest) {
+    static void validateLeaveRequestForUpdate(LeaveRequest leaveRequest) {
         validateLeaveRequestForInsert(leaveRequest);
         validateLeaveId(leaveRequest.getLeaveId());
     }
@@ -0,0 +1,50 @@
+package dao;
+
+import model.LeaveRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Leave requests. Lists are ordered by start date, newest first; queries spanning employees are
+ * ordered by employee first. Range queries return the leaves that overlap the inclusive range.
+ */
+public interface LeaveRequestRepository {
+
+    List<LeaveRequest> getLeaveRequestsByEmployeeId(int empId);
+
+    List<LeaveRequest> getApprovedLeavesByEmployeeId(int empId);
+
+    List<LeaveRequest> getApprovedLeavesByEmployeeIdAndDateRange(int employeeId, LocalDate periodStart, LocalDate periodEnd);
+
+    List<LeaveRequest> getApprovedLeavesByDateRange(LocalDate periodStart, LocalDate periodEnd);
+
+    List<LeaveRequest> getLeaveRequestsByStatus(String status);
+
+    /**
+     * Pass each request with the status to the consumer, without collecting them first
+     * @return number of requests passed
+     */
+    long forEachLeaveRequestByStatus(String status, Consumer<? super LeaveRequest> consumer);
+
+    /**
+     * @return the generated ID, which is also set on the request; a missing status becomes Pending
+     */
+    int insertLeaveRequest(LeaveRequest leaveRequest);
+
+    boolean updateLeaveStatus(int leaveId, String status);
+
+    boolean updateLeaveRequest(LeaveRequest leaveRequest);
+
+    boolean deleteLeaveRequest(int leaveId);
+
+    Optional<LeaveRequest> getLeaveRequestById(int leaveId);
+
+    /**
+     * Whether an approved leave of the employee overlaps the range
+     * @param excludeLeaveId Leave to ignore (the one being edited), or null
+     */
+    boolean hasOverlappingLeave(int employeeId, LocalDate startDate, LocalDate endDate, Integer excludeLeaveId);
+}
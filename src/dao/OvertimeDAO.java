@@ -1,6 +1,7 @@
 package dao;
 
 import util.DBConnection;
+import util.DataChangeNotifier;
 import model.Overtime;
 import java.sql.*;
 import java.time.LocalDate;
@@ -13,17 +14,28 @@ import java.util.logging.Level;
  * Handles all database operations related to overtime records
  * @author rejoice
  */
-public class OvertimeDAO {
+public class OvertimeDAO implements OvertimeRepository {
     private static final Logger logger = Logger.getLogger(OvertimeDAO.class.getName());
     
+    // Columns read by mapResultSetToOvertime, in the order it reads them
+    private static final ColumnIndex OVERTIME_COLUMNS = new ColumnIndex(
+        "overtime_id", "employee_id", "date", "hours", "reason", "approved");
+
     // SQL Query constants for better maintainability
+    private static final String SELECT_OVERTIME = 
+        "SELECT " + OVERTIME_COLUMNS.list() + " FROM overtime ";
+
     private static final String SELECT_BY_EMPLOYEE_ID = 
-        "SELECT overtime_id, employee_id, date, hours, reason, approved FROM overtime WHERE employee_id = ? ORDER BY date DESC";
+        SELECT_OVERTIME + "WHERE employee_id = ? ORDER BY date DESC";
     
     private static final String SELECT_BY_EMPLOYEE_ID_AND_DATE_RANGE = 
-        "SELECT overtime_id, employee_id, date, hours, reason, approved FROM overtime " +
+        SELECT_OVERTIME +
         "WHERE employee_id = ? AND date >= ? AND date <= ? ORDER BY date DESC";
     
+    private static final String SELECT_BY_DATE_RANGE = 
+        SELECT_OVERTIME +
+        "WHERE date >= ? AND date <= ? ORDER BY employee_id, date DESC";
+    
     private static final String INSERT_OVERTIME = 
         "INSERT INTO overtime (employee_id, date, hours, reason, approved) VALUES (?, ?, ?, ?, ?)";
     
@@ -38,7 +50,7 @@ public class OvertimeDAO {
         "WHERE employee_id = ? AND date >= ? AND date <= ?";
     
     private static final String SELECT_BY_ID = 
-        "SELECT overtime_id, employee_id, date, hours, reason, approved FROM overtime WHERE overtime_id = ?";
+        SELECT_OVERTIME + "WHERE overtime_id = ?";
     
     /**
      * Retrieves all overtime records for a specific employee
@@ -52,7 +64,7 @@ public class OvertimeDAO {
         
         List<Overtime> overtimeList = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_EMPLOYEE_ID)) {
 
             stmt.setInt(1, empId);
@@ -87,7 +99,7 @@ public class OvertimeDAO {
         
         List<Overtime> overtimeList = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_EMPLOYEE_ID_AND_DATE_RANGE)) {
 
             stmt.setInt(1, employeeId);
@@ -111,6 +123,40 @@ public class OvertimeDAO {
         return overtimeList;
     }
     
+    /**
+     * Retrieves overtime records for all employees within a date range in one query
+     * @param periodStart Start date of the period (inclusive)
+     * @param periodEnd End date of the period (inclusive)
+     * @return List of overtime records ordered by employee, empty list if none found
+     * @throws IllegalArgumentException if parameters are invalid
+     * @throws RuntimeException if database error occurs
+     */
+    public List<Overtime> getOvertimeByDateRange(LocalDate periodStart, LocalDate periodEnd) {
+        validateDateRange(periodStart, periodEnd);
+        
+        List<Overtime> overtimeList = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_BY_DATE_RANGE)) {
+
+            stmt.setDate(1, java.sql.Date.valueOf(periodStart));
+            stmt.setDate(2, java.sql.Date.valueOf(periodEnd));
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    overtimeList.add(mapResultSetToOvertime(rs));
+                }
+            }
+
+        } catch (SQLException ex) {
+            logger.log(Level.SEVERE, 
+                String.format("Error retrieving overtime between dates: %s and %s", periodStart, periodEnd), ex);
+            throw new RuntimeException("Failed to retrieve overtime records for date range", ex);
+        }
+
+        return overtimeList;
+    }
+    
     /**
      * Retrieves a single overtime record by ID
      * @param overtimeId Overtime record ID
@@ -123,7 +169,7 @@ public class OvertimeDAO {
             throw new IllegalArgumentException("Overtime ID must be positive");
         }
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID)) {
             
             stmt.setInt(1, overtimeId);
@@ -171,6 +217,7 @@ public class OvertimeDAO {
                     int generatedId = generatedKeys.getInt(1);
                     overtime.setOvertimeId(generatedId);
                     logger.info("Successfully inserted overtime record with ID: " + generatedId);
+                    publishChange(overtime);
                     return generatedId;
                 } else {
                     throw new SQLException("Creating overtime failed, no ID obtained");
@@ -193,6 +240,9 @@ public class OvertimeDAO {
     public boolean updateOvertime(Overtime overtime) {
         validateOvertimeForUpdate(overtime);
         
+        // The update can move the record to another employee or date; both sides change
+        Overtime previous = DataChangeNotifier.hasListeners() ? getOvertimeById(overtime.getOvertimeId()) : null;
+        
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(UPDATE_OVERTIME)) {
             
@@ -208,6 +258,8 @@ public class OvertimeDAO {
             
             if (success) {
                 logger.info("Successfully updated overtime record with ID: " + overtime.getOvertimeId());
+                publishChange(previous);
+                publishChange(overtime);
             } else {
                 logger.warning("No overtime record found with ID: " + overtime.getOvertimeId());
             }
@@ -232,6 +284,8 @@ public class OvertimeDAO {
             throw new IllegalArgumentException("Overtime ID must be positive");
         }
         
+        Overtime previous = DataChangeNotifier.hasListeners() ? getOvertimeById(overtimeId) : null;
+        
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(DELETE_OVERTIME)) {
             
@@ -242,6 +296,7 @@ public class OvertimeDAO {
             
             if (success) {
                 logger.info("Successfully deleted overtime record with ID: " + overtimeId);
+                publishChange(previous);
             } else {
                 logger.warning("No overtime record found with ID: " + overtimeId);
             }
@@ -254,6 +309,17 @@ public class OvertimeDAO {
         }
     }
     
+    /**
+     * Notifies listeners that an employee's overtime on a date changed
+     * @param overtime Changed record, ignored if null
+     */
+    static void publishChange(Overtime overtime) {
+        if (overtime != null && overtime.getDate() != null) {
+            DataChangeNotifier.publish(DataChangeNotifier.Table.OVERTIME,
+                    overtime.getEmployeeId(), overtime.getDate().toLocalDate());
+        }
+    }
+    
     /**
      * Calculates total overtime hours for an employee within a date range
      * @param employeeId Employee ID
@@ -267,7 +333,7 @@ public class OvertimeDAO {
         validateEmployeeId(employeeId);
         validateDateRange(periodStart, periodEnd);
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_TOTAL_HOURS)) {
             
             stmt.setInt(1, employeeId);
@@ -303,7 +369,7 @@ public class OvertimeDAO {
         
         String query = "SELECT COUNT(*) as count FROM overtime WHERE employee_id = ? AND date >= ? AND date <= ?";
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setInt(1, employeeId);
@@ -324,15 +390,15 @@ public class OvertimeDAO {
         return 0;
     }
     
-    // Private helper methods for validation
+    // Validation helpers, shared with InMemoryOvertimeDAO
     
-    private void validateEmployeeId(int employeeId) {
+    static void validateEmployeeId(int employeeId) {
         if (employeeId <= 0) {
             throw new IllegalArgumentException("Employee ID must be positive");
         }
     }
     
-    private void validateDateRange(LocalDate periodStart, LocalDate periodEnd) {
+    static void validateDateRange(LocalDate periodStart, LocalDate periodEnd) {
         if (periodStart == null || periodEnd == null) {
             throw new IllegalArgumentException("Period start and end dates cannot be null");
         }
@@ -341,7 +407,7 @@ public class OvertimeDAO {
         }
     }
     
-    private void validateOvertimeForInsert(Overtime overtime) {
+    static void validateOvertimeForInsert(Overtime overtime) {
         if (overtime == null) {
             throw new IllegalArgumentException("Overtime cannot be null");
         }
@@ -356,7 +422,7 @@ public class OvertimeDAO {
         }
     }
     
-    private void validateOvertimeForUpdate(Overtime overtime) {
+    static void validateOvertimeForUpdate(Overtime overtime) {
         validateOvertimeForInsert(overtime);
         if (overtime.getOvertimeId() <= 0) {
             throw new IllegalArgumentException("Overtime ID must be positive for updates");
@@ -364,19 +430,20 @@ public class OvertimeDAO {
     }
     
     /**
-     * Maps ResultSet to Overtime object
-     * @param rs ResultSet from database
+     * Maps ResultSet to Overtime object, reading by position
+     * @param rs ResultSet from a query selecting OVERTIME_COLUMNS
      * @return Overtime object
      * @throws SQLException if database access error occurs
      */
     private Overtime mapResultSetToOvertime(ResultSet rs) throws SQLException {
+        int[] c = OVERTIME_COLUMNS.positions(rs);
         Overtime overtime = new Overtime();
-        overtime.setOvertimeId(rs.getInt("overtime_id"));
-        overtime.setEmployeeId(rs.getInt("employee_id"));
-        overtime.setDate(rs.getDate("date"));
-        overtime.setHours(rs.getDouble("hours"));
-        overtime.setReason(rs.getString("reason"));
-        overtime.setApproved(rs.getBoolean("approved"));
+        overtime.setOvertimeId(rs.getInt(c[0]));
+        overtime.setEmployeeId(rs.getInt(c[1]));
+        overtime.setDate(rs.getDate(c[2]));
+        overtime.setHours(rs.getDouble(c[3]));
+        overtime.setReason(rs.getString(c[4]));
+        overtime.setApproved(rs.getBoolean(c[5]));
         return overtime;
     }
 }
\ No newline at end of file
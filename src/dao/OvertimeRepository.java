@@ -0,0 +1,37 @@
+package dao;
+
+import model.Overtime;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Overtime records. Lists are ordered newest first; queries spanning employees are ordered by
+ * employee, then newest first. Date ranges are inclusive.
+ */
+public interface OvertimeRepository {
+
+    List<Overtime> getOvertimeByEmployeeId(int empId);
+
+    List<Overtime> getOvertimeByEmployeeIdAndDateRange(int employeeId, LocalDate periodStart, LocalDate periodEnd);
+
+    List<Overtime> getOvertimeByDateRange(LocalDate periodStart, LocalDate periodEnd);
+
+    /**
+     * @return the record, or null if there is none with this ID
+     */
+    Overtime getOvertimeById(int overtimeId);
+
+    /**
+     * @return the generated ID, which is also set on the record
+     */
+    int insertOvertime(Overtime overtime);
+
+    boolean updateOvertime(Overtime overtime);
+
+    boolean deleteOvertime(int overtimeId);
+
+    double getTotalOvertimeHours(int employeeId, LocalDate periodStart, LocalDate periodEnd);
+
+    int getOvertimeCount(int employeeId, LocalDate periodStart, LocalDate periodEnd);
+}
@@ -63,7 +63,7 @@ public class PayrollCalculatorDAO {
         String query = "SELECT COALESCE(SUM(gross_pay), 0) FROM payroll " +
                 "WHERE employee_id = ? AND period_start >= ? AND period_end <= ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, employeeId);
@@ -82,4 +82,4 @@ public class PayrollCalculatorDAO {
 
         return 0.0;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -12,21 +12,25 @@ import java.util.logging.Level;
  * Data Access Object for Payroll operations
  * @author rejoice
  */
-public class PayrollDAO {
+public class PayrollDAO implements PayrollRepository {
     private static final Logger logger = Logger.getLogger(PayrollDAO.class.getName());
     
+    // Columns read by mapResultSetToPayroll, in the order it reads them
+    private static final ColumnIndex PAYROLL_COLUMNS = new ColumnIndex(
+        "payroll_id", "employee_id", "period_start", "period_end", "monthly_rate", "days_worked",
+        "overtime_hours", "gross_pay", "total_deductions", "net_pay", "gross_earnings", "late_deduction",
+        "undertime_deduction", "unpaid_leave_deduction", "overtime_pay", "rice_subsidy", "phone_allowance",
+        "clothing_allowance", "sss", "philhealth", "pagibig", "tax");
+
     // SQL Query constants
+    private static final String SELECT_PAYROLL = 
+        "SELECT " + PAYROLL_COLUMNS.list() + " FROM payroll ";
+
     private static final String SELECT_BY_EMPLOYEE_ID = 
-        "SELECT payroll_id, employee_id, period_start, period_end, monthly_rate, days_worked, " +
-        "overtime_hours, gross_pay, total_deductions, net_pay, gross_earnings, late_deduction, " +
-        "undertime_deduction, unpaid_leave_deduction, overtime_pay, rice_subsidy, phone_allowance, " +
-        "clothing_allowance, sss, philhealth, pagibig, tax FROM payroll WHERE employee_id = ? ORDER BY period_start DESC";
+        SELECT_PAYROLL + "WHERE employee_id = ? ORDER BY period_start DESC";
     
     private static final String SELECT_BY_DATE_RANGE = 
-        "SELECT payroll_id, employee_id, period_start, period_end, monthly_rate, days_worked, " +
-        "overtime_hours, gross_pay, total_deductions, net_pay, gross_earnings, late_deduction, " +
-        "undertime_deduction, unpaid_leave_deduction, overtime_pay, rice_subsidy, phone_allowance, " +
-        "clothing_allowance, sss, philhealth, pagibig, tax FROM payroll " +
+        SELECT_PAYROLL +
         "WHERE employee_id = ? AND period_start >= ? AND period_end <= ? ORDER BY period_start DESC";
     
     private static final String INSERT_PAYROLL = 
@@ -45,10 +49,7 @@ public class PayrollDAO {
     private static final String DELETE_PAYROLL = "DELETE FROM payroll WHERE payroll_id = ?";
     
     private static final String SELECT_BY_ID = 
-        "SELECT payroll_id, employee_id, period_start, period_end, monthly_rate, days_worked, " +
-        "overtime_hours, gross_pay, total_deductions, net_pay, gross_earnings, late_deduction, " +
-        "undertime_deduction, unpaid_leave_deduction, overtime_pay, rice_subsidy, phone_allowance, " +
-        "clothing_allowance, sss, philhealth, pagibig, tax FROM payroll WHERE payroll_id = ?";
+        SELECT_PAYROLL + "WHERE payroll_id = ?";
 
     /**
      * Retrieves all payroll records for a specific employee
@@ -62,7 +63,7 @@ public class PayrollDAO {
         
         List<Payroll> payrollList = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_EMPLOYEE_ID)) {
 
             stmt.setInt(1, empId);
@@ -99,7 +100,7 @@ public class PayrollDAO {
         
         List<Payroll> payrollList = new ArrayList<>();
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_DATE_RANGE)) {
 
             stmt.setInt(1, employeeId);
@@ -219,7 +220,7 @@ public class PayrollDAO {
             throw new IllegalArgumentException("Payroll ID must be positive");
         }
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID)) {
             
             stmt.setInt(1, payrollId);
@@ -269,35 +270,36 @@ public class PayrollDAO {
     }
 
     /**
-     * Maps ResultSet to Payroll object
-     * @param rs ResultSet from database
+     * Maps ResultSet to Payroll object, reading by position
+     * @param rs ResultSet from a query selecting PAYROLL_COLUMNS
      * @return Payroll object
      * @throws SQLException if database access error occurs
      */
     private Payroll mapResultSetToPayroll(ResultSet rs) throws SQLException {
+        int[] c = PAYROLL_COLUMNS.positions(rs);
         Payroll payroll = new Payroll();
-        payroll.setPayrollId(rs.getInt("payroll_id"));
-        payroll.setEmployeeId(rs.getInt("employee_id"));
-        payroll.setPeriodStart(rs.getDate("period_start"));
-        payroll.setPeriodEnd(rs.getDate("period_end"));
-        payroll.setMonthlyRate(rs.getDouble("monthly_rate"));
-        payroll.setDaysWorked(rs.getInt("days_worked"));
-        payroll.setOvertimeHours(rs.getDouble("overtime_hours"));
-        payroll.setGrossPay(rs.getDouble("gross_pay"));
-        payroll.setTotalDeductions(rs.getDouble("total_deductions"));
-        payroll.setNetPay(rs.getDouble("net_pay"));
-        payroll.setGrossEarnings(rs.getDouble("gross_earnings"));
-        payroll.setLateDeduction(rs.getDouble("late_deduction"));
-        payroll.setUndertimeDeduction(rs.getDouble("undertime_deduction"));
-        payroll.setUnpaidLeaveDeduction(rs.getDouble("unpaid_leave_deduction"));
-        payroll.setOvertimePay(rs.getDouble("overtime_pay"));
-        payroll.setRiceSubsidy(rs.getDouble("rice_subsidy"));
-        payroll.setPhoneAllowance(rs.getDouble("phone_allowance"));
-        payroll.setClothingAllowance(rs.getDouble("clothing_allowance"));
-        payroll.setSss(rs.getDouble("sss"));
-        payroll.setPhilhealth(rs.getDouble("philhealth"));
-        payroll.setPagibig(rs.getDouble("pagibig"));
-        payroll.setTax(rs.getDouble("tax"));
+        payroll.setPayrollId(rs.getInt(c[0]));
+        payroll.setEmployeeId(rs.getInt(c[1]));
+        payroll.setPeriodStart(rs.getDate(c[2]));
+        payroll.setPeriodEnd(rs.getDate(c[3]));
+        payroll.setMonthlyRate(rs.getDouble(c[4]));
+        payroll.setDaysWorked(rs.getInt(c[5]));
+        payroll.setOvertimeHours(rs.getDouble(c[6]));
+        payroll.setGrossPay(rs.getDouble(c[7]));
+        payroll.setTotalDeductions(rs.getDouble(c[8]));
+        payroll.setNetPay(rs.getDouble(c[9]));
+        payroll.setGrossEarnings(rs.getDouble(c[10]));
+        payroll.setLateDeduction(rs.getDouble(c[11]));
+        payroll.setUndertimeDeduction(rs.getDouble(c[12]));
+        payroll.setUnpaidLeaveDeduction(rs.getDouble(c[13]));
+        payroll.setOvertimePay(rs.getDouble(c[14]));
+        payroll.setRiceSubsidy(rs.getDouble(c[15]));
+        payroll.setPhoneAllowance(rs.getDouble(c[16]));
+        payroll.setClothingAllowance(rs.getDouble(c[17]));
+        payroll.setSss(rs.getDouble(c[18]));
+        payroll.setPhilhealth(rs.getDouble(c[19]));
+        payroll.setPagibig(rs.getDouble(c[20]));
+        payroll.setTax(rs.getDouble(c[21]));
         return payroll;
     }
 }
\ No newline at end of file
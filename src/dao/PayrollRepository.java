@@ -0,0 +1,33 @@
+package dao;
+
+import model.Payroll;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Saved payroll records. Lists are ordered by period start, newest first.
+ */
+public interface PayrollRepository {
+
+    List<Payroll> getPayrollByEmployeeId(int empId);
+
+    /**
+     * Payrolls whose period lies entirely within the range
+     */
+    List<Payroll> getPayrollByEmployeeIdAndDateRange(int employeeId, LocalDate periodStart, LocalDate periodEnd);
+
+    /**
+     * @return the generated ID, which is also set on the record
+     */
+    int insertPayroll(Payroll payroll);
+
+    boolean updatePayroll(Payroll payroll);
+
+    boolean deletePayroll(int payrollId);
+
+    /**
+     * @return the record, or null if there is none with this ID
+     */
+    Payroll getPayrollById(int payrollId);
+}
@@ -10,7 +10,7 @@ public class PositionDAO {
     public Position getPositionById(int positionId) {
         String query = "SELECT * FROM position WHERE position_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, positionId);
@@ -0,0 +1,83 @@
+package dao;
+
+/**
+ * The set of stores a payroll service reads and writes.
+ *
+ * {@link #jdbc()} is the MySQL-backed set the application uses; {@link #inMemory()} holds
+ * everything in memory, for running the payroll and report pipelines without a database.
+ */
+public final class Repositories {
+
+    private final EmployeeRepository employees;
+    private final AttendanceRepository attendance;
+    private final OvertimeRepository overtime;
+    private final LeaveRequestRepository leaveRequests;
+    private final DeductionRepository deductions;
+    private final PayrollRepository payrolls;
+    private final boolean usesDatabase;
+
+    /**
+     * @param usesDatabase Whether the stores read through DBConnection, so that services may open
+     *                     a database snapshot around their reads
+     */
+    public Repositories(EmployeeRepository employees, AttendanceRepository attendance,
+                        OvertimeRepository overtime, LeaveRequestRepository leaveRequests,
+                        DeductionRepository deductions, PayrollRepository payrolls, boolean usesDatabase) {
+        if (employees == null || attendance == null || payrolls == null) {
+            throw new IllegalArgumentException("Employee, attendance and payroll stores cannot be null");
+        }
+        this.employees = employees;
+        this.attendance = attendance;
+        this.overtime = overtime;
+        this.leaveRequests = leaveRequests;
+        this.deductions = deductions;
+        this.payrolls = payrolls;
+        this.usesDatabase = usesDatabase;
+    }
+
+    public static Repositories jdbc() {
+        return new Repositories(new EmployeeDAO(), new AttendanceDAO(), new OvertimeDAO(),
+                new LeaveRequestDAO(), new DeductionDAO(), new PayrollDAO(), true);
+    }
+
+    /**
+     * Fresh, empty in-memory stores. Attendance inserts check the employee store, as the
+     * database's foreign key does.
+     */
+    public static Repositories inMemory() {
+        InMemoryEmployeeDAO employees = new InMemoryEmployeeDAO();
+        return new Repositories(employees, new InMemoryAttendanceDAO(employees), new InMemoryOvertimeDAO(),
+                new InMemoryLeaveRequestDAO(), new InMemoryDeductionDAO(), new InMemoryPayrollDAO(), false);
+    }
+
+    public EmployeeRepository getEmployees() {
+        return employees;
+    }
+
+    public AttendanceRepository getAttendance() {
+        return attendance;
+    }
+
+    /** May be null, in which case overtime is not counted */
+    public OvertimeRepository getOvertime() {
+        return overtime;
+    }
+
+    /** May be null, in which case leave is not counted */
+    public LeaveRequestRepository getLeaveRequests() {
+        return leaveRequests;
+    }
+
+    /** May be null, in which case committed runs save no deduction records */
+    public DeductionRepository getDeductions() {
+        return deductions;
+    }
+
+    public PayrollRepository getPayrolls() {
+        return payrolls;
+    }
+
+    public boolean usesDatabase() {
+        return usesDatabase;
+    }
+}
@@ -0,0 +1,156 @@
+package dao;
+
+import util.AppConfig;
+import util.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read queries whose rows are handed over one at a time instead of collected into a list.
+ *
+ * Statements are given the query.fetchSize setting as fetch size. With the connection's
+ * useCursorFetch property on, the driver then reads through a server-side cursor, that many rows
+ * per round trip, so memory use does not grow with the result. The read connection stays
+ * borrowed until the rows have been read, or the stream closed.
+ */
+final class StreamingQuery {
+    private static final Logger LOGGER = Logger.getLogger(StreamingQuery.class.getName());
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    @FunctionalInterface
+    interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private StreamingQuery() {
+    }
+
+    /**
+     * Rows per round trip, from the query.fetchSize setting
+     */
+    static int fetchSize() {
+        return Math.max(1, AppConfig.get().getInt("query.fetchSize", DEFAULT_FETCH_SIZE));
+    }
+
+    /**
+     * Pass each row to the consumer as it is read
+     * @return number of rows read
+     */
+    static <T> long forEach(String sql, Binder binder, RowMapper<T> mapper, Consumer<? super T> consumer)
+            throws SQLException {
+        long rows = 0;
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = prepare(conn, sql, binder);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(mapper.map(rs));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Lazily read rows. The stream must be closed, e.g. with try-with-resources, to give the
+     * connection back; read errors surface as RuntimeException.
+     */
+    static <T> Stream<T> stream(String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+        Connection conn = DBConnection.getReadConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs;
+        try {
+            stmt = prepare(conn, sql, binder);
+            rs = stmt.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            close(null, stmt, conn);
+            throw e;
+        }
+        Cursor<T> cursor = new Cursor<>(conn, stmt, rs, mapper);
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    private static PreparedStatement prepare(Connection conn, String sql, Binder binder) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            stmt.setFetchSize(fetchSize());
+            binder.bind(stmt);
+            return stmt;
+        } catch (SQLException | RuntimeException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    private static void close(ResultSet rs, PreparedStatement stmt, Connection conn) {
+        for (AutoCloseable resource : new AutoCloseable[]{rs, stmt}) {
+            try {
+                if (resource != null) {
+                    resource.close();
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Error closing streamed query", e);
+            }
+        }
+        DBConnection.closeConnection(conn);
+    }
+
+    /**
+     * Spliterator over an open result set, closing it once exhausted or when the stream is closed
+     */
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+        private boolean closed;
+
+        Cursor(Connection conn, PreparedStatement stmt, ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.conn = conn;
+            this.stmt = stmt;
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException("Failed to read streamed rows", e);
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                StreamingQuery.close(rs, stmt, conn);
+            }
+        }
+    }
+}
@@ -56,7 +56,6 @@ public class AttendanceReport {
         int totalEmployees = attendanceData.size();
         int totalPresentDays = 0;
         int totalLateDays = 0;
-        int totalAbsentDays = 0;
         double totalWorkHours = 0.0;
 
         for (List<Attendance> attendanceList : attendanceData.values()) {
@@ -70,9 +69,17 @@ public class AttendanceReport {
             }
         }
 
+        calculateSummaryStatistics(totalEmployees, totalPresentDays, totalLateDays, totalWorkHours);
+    }
+
+    /**
+     * Calculate summary statistics from totals counted elsewhere, for reports without per-record data
+     */
+    public void calculateSummaryStatistics(int totalEmployees, int totalPresentDays, int totalLateDays,
+                                           double totalWorkHours) {
         // Calculate working days in period
         int workingDays = calculateWorkingDays(periodStart, periodEnd);
-        totalAbsentDays = (totalEmployees * workingDays) - totalPresentDays;
+        int totalAbsentDays = (totalEmployees * workingDays) - totalPresentDays;
 
         summary.setTotalEmployees(totalEmployees);
         summary.setTotalPresentDays(totalPresentDays);
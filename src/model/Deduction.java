@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
+import util.Money;
 
 /**
  * Enhanced Deduction model class
@@ -15,7 +16,7 @@ public abstract class Deduction {
     protected int deductionId;
     protected int employeeId;
     protected String type;
-    protected double amount;
+    protected long amount; // centavos (see util.Money)
     protected String description;
     protected Date deductionDate;
 
@@ -80,6 +81,10 @@ public abstract class Deduction {
     }
 
     public double getAmount() {
+        return Money.toPesos(amount);
+    }
+
+    public long getAmountCentavos() {
         return amount;
     }
 
@@ -87,7 +92,7 @@ public abstract class Deduction {
         if (amount < 0) {
             throw new IllegalArgumentException("Amount cannot be negative");
         }
-        this.amount = amount;
+        this.amount = Money.toCentavos(amount);
     }
 
     public String getDescription() {
@@ -112,7 +117,7 @@ public abstract class Deduction {
     }
 
     public String getFormattedAmount() {
-        return String.format("%.2f", amount);
+        return String.format("%.2f", getAmount());
     }
 
     @Override
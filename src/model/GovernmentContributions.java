@@ -3,14 +3,16 @@ package model;
 
 import java.time.LocalDate;
 import java.util.Objects;
+import util.Money;
 
 public class GovernmentContributions {
     private int contributionId;
     private int employeeId;
-    private double sss;
-    private double philhealth;
-    private double pagibig;
-    private double tax;
+    // Amounts in centavos (see util.Money)
+    private long sss;
+    private long philhealth;
+    private long pagibig;
+    private long tax;
     private String tin; // Tax Identification Number
     private LocalDate contributionPeriod;
 
@@ -47,6 +49,10 @@ public class GovernmentContributions {
     }
 
     public double getSss() {
+        return Money.toPesos(sss);
+    }
+
+    public long getSssCentavos() {
         return sss;
     }
 
@@ -54,10 +60,14 @@ public class GovernmentContributions {
         if (sss < 0) {
             throw new IllegalArgumentException("SSS contribution cannot be negative");
         }
-        this.sss = sss;
+        this.sss = Money.toCentavos(sss);
     }
 
     public double getPhilhealth() {
+        return Money.toPesos(philhealth);
+    }
+
+    public long getPhilhealthCentavos() {
         return philhealth;
     }
 
@@ -65,10 +75,14 @@ public class GovernmentContributions {
         if (philhealth < 0) {
             throw new IllegalArgumentException("PhilHealth contribution cannot be negative");
         }
-        this.philhealth = philhealth;
+        this.philhealth = Money.toCentavos(philhealth);
     }
 
     public double getPagibig() {
+        return Money.toPesos(pagibig);
+    }
+
+    public long getPagibigCentavos() {
         return pagibig;
     }
 
@@ -76,10 +90,14 @@ public class GovernmentContributions {
         if (pagibig < 0) {
             throw new IllegalArgumentException("Pag-IBIG contribution cannot be negative");
         }
-        this.pagibig = pagibig;
+        this.pagibig = Money.toCentavos(pagibig);
     }
 
     public double getTax() {
+        return Money.toPesos(tax);
+    }
+
+    public long getTaxCentavos() {
         return tax;
     }
 
@@ -87,7 +105,7 @@ public class GovernmentContributions {
         if (tax < 0) {
             throw new IllegalArgumentException("Tax cannot be negative");
         }
-        this.tax = tax;
+        this.tax = Money.toCentavos(tax);
     }
 
     public String getTin() {
@@ -111,11 +129,11 @@ public class GovernmentContributions {
 
     // Utility methods
     public double getTotalContributions() {
-        return sss + philhealth + pagibig + tax;
+        return Money.toPesos(sss + philhealth + pagibig + tax);
     }
 
     public double getTotalMandatoryContributions() {
-        return sss + philhealth + pagibig; // Excluding tax
+        return Money.toPesos(sss + philhealth + pagibig); // Excluding tax
     }
 
     private boolean isValidTin(String tin) {
@@ -154,10 +172,10 @@ public class GovernmentContributions {
         return "GovernmentContributions{" +
                 "contributionId=" + contributionId +
                 ", employeeId=" + employeeId +
-                ", sss=" + sss +
-                ", philhealth=" + philhealth +
-                ", pagibig=" + pagibig +
-                ", tax=" + tax +
+                ", sss=" + Money.format(sss) +
+                ", philhealth=" + Money.format(philhealth) +
+                ", pagibig=" + Money.format(pagibig) +
+                ", tax=" + Money.format(tax) +
                 ", tin='" + tin + '\'' +
                 ", total=" + getTotalContributions() +
                 ", period=" + contributionPeriod +
@@ -3,6 +3,7 @@ package model;
 import java.sql.Date;
 import java.sql.Time;
 import java.time.LocalDate;
+import util.Money;
 
 /**
  * Enhanced Payroll model class aligned with DAO and PayrollCalculator usage
@@ -13,27 +14,28 @@ public class Payroll {
     private int employeeId;
     private Date periodStart;
     private Date periodEnd;
+    // Rates are kept exact; every amount below is in centavos (see util.Money)
     private double monthlyRate;
     private int daysWorked;
     private double overtimeHours;
-    private double grossPay;
-    private double totalDeductions;
-    private double netPay;
+    private long grossPay;
+    private long totalDeductions;
+    private long netPay;
     
     // Enhanced payroll components to match PayrollCalculator
-    private double grossEarnings;
+    private long grossEarnings;
     private double dailyRate;
-    private double lateDeduction;
-    private double undertimeDeduction;
-    private double unpaidLeaveDeduction;
-    private double overtimePay;
-    private double riceSubsidy;
-    private double phoneAllowance;
-    private double clothingAllowance;
-    private double sss;
-    private double philhealth;
-    private double pagibig;
-    private double tax;
+    private long lateDeduction;
+    private long undertimeDeduction;
+    private long unpaidLeaveDeduction;
+    private long overtimePay;
+    private long riceSubsidy;
+    private long phoneAllowance;
+    private long clothingAllowance;
+    private long sss;
+    private long philhealth;
+    private long pagibig;
+    private long tax;
     
     // Additional fields for better tracking
     private int unpaidLeaveCount;
@@ -148,6 +150,10 @@ public class Payroll {
     }
 
     public double getGrossPay() {
+        return Money.toPesos(grossPay);
+    }
+
+    public long getGrossPayCentavos() {
         return grossPay;
     }
 
@@ -155,10 +161,14 @@ public class Payroll {
         if (grossPay < 0) {
             throw new IllegalArgumentException("Gross pay cannot be negative");
         }
-        this.grossPay = grossPay;
+        this.grossPay = Money.toCentavos(grossPay);
     }
 
     public double getTotalDeductions() {
+        return Money.toPesos(totalDeductions);
+    }
+
+    public long getTotalDeductionsCentavos() {
         return totalDeductions;
     }
 
@@ -166,15 +176,19 @@ public class Payroll {
         if (totalDeductions < 0) {
             throw new IllegalArgumentException("Total deductions cannot be negative");
         }
-        this.totalDeductions = totalDeductions;
+        this.totalDeductions = Money.toCentavos(totalDeductions);
     }
 
     public double getNetPay() {
+        return Money.toPesos(netPay);
+    }
+
+    public long getNetPayCentavos() {
         return netPay;
     }
 
     public void setNetPay(double netPay) {
-        this.netPay = netPay;
+        this.netPay = Money.toCentavos(netPay);
     }
 
     public int getUnpaidLeaveCount() {
@@ -190,6 +204,10 @@ public class Payroll {
 
     // Earnings component getters and setters
     public double getGrossEarnings() {
+        return Money.toPesos(grossEarnings);
+    }
+
+    public long getGrossEarningsCentavos() {
         return grossEarnings;
     }
 
@@ -197,10 +215,14 @@ public class Payroll {
         if (grossEarnings < 0) {
             throw new IllegalArgumentException("Gross earnings cannot be negative");
         }
-        this.grossEarnings = grossEarnings;
+        this.grossEarnings = Money.toCentavos(grossEarnings);
     }
 
     public double getOvertimePay() {
+        return Money.toPesos(overtimePay);
+    }
+
+    public long getOvertimePayCentavos() {
         return overtimePay;
     }
 
@@ -208,10 +230,14 @@ public class Payroll {
         if (overtimePay < 0) {
             throw new IllegalArgumentException("Overtime pay cannot be negative");
         }
-        this.overtimePay = overtimePay;
+        this.overtimePay = Money.toCentavos(overtimePay);
     }
 
     public double getRiceSubsidy() {
+        return Money.toPesos(riceSubsidy);
+    }
+
+    public long getRiceSubsidyCentavos() {
         return riceSubsidy;
     }
 
@@ -219,10 +245,14 @@ public class Payroll {
         if (riceSubsidy < 0) {
             throw new IllegalArgumentException("Rice subsidy cannot be negative");
         }
-        this.riceSubsidy = riceSubsidy;
+        this.riceSubsidy = Money.toCentavos(riceSubsidy);
     }
 
     public double getPhoneAllowance() {
+        return Money.toPesos(phoneAllowance);
+    }
+
+    public long getPhoneAllowanceCentavos() {
         return phoneAllowance;
     }
 
@@ -230,10 +260,14 @@ public class Payroll {
         if (phoneAllowance < 0) {
             throw new IllegalArgumentException("Phone allowance cannot be negative");
         }
-        this.phoneAllowance = phoneAllowance;
+        this.phoneAllowance = Money.toCentavos(phoneAllowance);
     }
 
     public double getClothingAllowance() {
+        return Money.toPesos(clothingAllowance);
+    }
+
+    public long getClothingAllowanceCentavos() {
         return clothingAllowance;
     }
 
@@ -241,11 +275,15 @@ public class Payroll {
         if (clothingAllowance < 0) {
             throw new IllegalArgumentException("Clothing allowance cannot be negative");
         }
-        this.clothingAllowance = clothingAllowance;
+        this.clothingAllowance = Money.toCentavos(clothingAllowance);
     }
 
     // Deduction component getters and setters
     public double getLateDeduction() {
+        return Money.toPesos(lateDeduction);
+    }
+
+    public long getLateDeductionCentavos() {
         return lateDeduction;
     }
 
@@ -253,10 +291,14 @@ public class Payroll {
         if (lateDeduction < 0) {
             throw new IllegalArgumentException("Late deduction cannot be negative");
         }
-        this.lateDeduction = lateDeduction;
+        this.lateDeduction = Money.toCentavos(lateDeduction);
     }
 
     public double getUndertimeDeduction() {
+        return Money.toPesos(undertimeDeduction);
+    }
+
+    public long getUndertimeDeductionCentavos() {
         return undertimeDeduction;
     }
 
@@ -264,10 +306,14 @@ public class Payroll {
         if (undertimeDeduction < 0) {
             throw new IllegalArgumentException("Undertime deduction cannot be negative");
         }
-        this.undertimeDeduction = undertimeDeduction;
+        this.undertimeDeduction = Money.toCentavos(undertimeDeduction);
     }
 
     public double getUnpaidLeaveDeduction() {
+        return Money.toPesos(unpaidLeaveDeduction);
+    }
+
+    public long getUnpaidLeaveDeductionCentavos() {
         return unpaidLeaveDeduction;
     }
 
@@ -275,10 +321,14 @@ public class Payroll {
         if (unpaidLeaveDeduction < 0) {
             throw new IllegalArgumentException("Unpaid leave deduction cannot be negative");
         }
-        this.unpaidLeaveDeduction = unpaidLeaveDeduction;
+        this.unpaidLeaveDeduction = Money.toCentavos(unpaidLeaveDeduction);
     }
 
     public double getSss() {
+        return Money.toPesos(sss);
+    }
+
+    public long getSssCentavos() {
         return sss;
     }
 
@@ -286,10 +336,14 @@ public class Payroll {
         if (sss < 0) {
             throw new IllegalArgumentException("SSS contribution cannot be negative");
         }
-        this.sss = sss;
+        this.sss = Money.toCentavos(sss);
     }
 
     public double getPhilhealth() {
+        return Money.toPesos(philhealth);
+    }
+
+    public long getPhilhealthCentavos() {
         return philhealth;
     }
 
@@ -297,10 +351,14 @@ public class Payroll {
         if (philhealth < 0) {
             throw new IllegalArgumentException("PhilHealth contribution cannot be negative");
         }
-        this.philhealth = philhealth;
+        this.philhealth = Money.toCentavos(philhealth);
     }
 
     public double getPagibig() {
+        return Money.toPesos(pagibig);
+    }
+
+    public long getPagibigCentavos() {
         return pagibig;
     }
 
@@ -308,10 +366,14 @@ public class Payroll {
         if (pagibig < 0) {
             throw new IllegalArgumentException("Pag-IBIG contribution cannot be negative");
         }
-        this.pagibig = pagibig;
+        this.pagibig = Money.toCentavos(pagibig);
     }
 
     public double getTax() {
+        return Money.toPesos(tax);
+    }
+
+    public long getTaxCentavos() {
         return tax;
     }
 
@@ -319,7 +381,7 @@ public class Payroll {
         if (tax < 0) {
             throw new IllegalArgumentException("Tax cannot be negative");
         }
-        this.tax = tax;
+        this.tax = Money.toCentavos(tax);
     }
 
     // LocalDate compatibility methods - Fixed to work with your PayrollCalculator
@@ -355,17 +417,18 @@ public class Payroll {
     public void calculateBasicPay() {
         if (dailyRate > 0 && daysWorked >= 0) {
             double basicPay = daysWorked * dailyRate;
-            this.grossEarnings = basicPay;
+            this.grossEarnings = Money.toCentavos(basicPay);
         }
     }
 
     public void calculateOvertimePay() {
         if (dailyRate > 0 && totalOvertimeHours > 0) {
             double hourlyRate = dailyRate / 8.0; // 8 hours per day
-            this.overtimePay = totalOvertimeHours * hourlyRate * 1.25; // 125% of hourly rate
+            this.overtimePay = Money.toCentavos(totalOvertimeHours * hourlyRate * 1.25); // 125% of hourly rate
         }
     }
 
+    // Totals add already-rounded centavos, so they never drift from their components
     public void calculateGrossPay() {
         // Calculate gross pay as sum of all earnings
         this.grossPay = grossEarnings + overtimePay + riceSubsidy + phoneAllowance + clothingAllowance;
@@ -384,15 +447,15 @@ public class Payroll {
 
     // Utility methods for payroll processing
     public double getTotalEarnings() {
-        return grossEarnings + overtimePay + riceSubsidy + phoneAllowance + clothingAllowance;
+        return Money.toPesos(grossEarnings + overtimePay + riceSubsidy + phoneAllowance + clothingAllowance);
     }
 
     public double getTotalGovernmentContributions() {
-        return sss + philhealth + pagibig;
+        return Money.toPesos(sss + philhealth + pagibig);
     }
 
     public double getTotalTimeDeductions() {
-        return lateDeduction + undertimeDeduction + unpaidLeaveDeduction;
+        return Money.toPesos(lateDeduction + undertimeDeduction + unpaidLeaveDeduction);
     }
 
     // Validation method
@@ -413,9 +476,9 @@ public class Payroll {
                 ", periodStart=" + periodStart +
                 ", periodEnd=" + periodEnd +
                 ", daysWorked=" + daysWorked +
-                ", grossPay=" + grossPay +
-                ", totalDeductions=" + totalDeductions +
-                ", netPay=" + netPay +
+                ", grossPay=" + Money.format(grossPay) +
+                ", totalDeductions=" + Money.format(totalDeductions) +
+                ", netPay=" + Money.format(netPay) +
                 '}';
     }
 
@@ -427,12 +490,12 @@ public class Payroll {
                 "\n  period=" + periodStart + " to " + periodEnd +
                 "\n  daysWorked=" + daysWorked +
                 "\n  dailyRate=" + dailyRate +
-                "\n  grossEarnings=" + grossEarnings +
-                "\n  overtimePay=" + overtimePay +
-                "\n  allowances=" + (riceSubsidy + phoneAllowance + clothingAllowance) +
-                "\n  grossPay=" + grossPay +
-                "\n  deductions=" + totalDeductions +
-                "\n  netPay=" + netPay +
+                "\n  grossEarnings=" + Money.format(grossEarnings) +
+                "\n  overtimePay=" + Money.format(overtimePay) +
+                "\n  allowances=" + Money.format(riceSubsidy + phoneAllowance + clothingAllowance) +
+                "\n  grossPay=" + Money.format(grossPay) +
+                "\n  deductions=" + Money.format(totalDeductions) +
+                "\n  netPay=" + Money.format(netPay) +
                 "\n}";
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Objects;
+import util.Money;
 
 public class PayrollReport {
     private String reportId;
@@ -131,19 +132,21 @@ public class PayrollReport {
         return payrollData != null ? payrollData.size() : 0;
     }
 
+    // Totals are summed in centavos so they match the rows exactly
+
     public double getTotalGrossPay() {
         if (payrollData == null) return 0.0;
-        return payrollData.stream().mapToDouble(Payroll::getGrossPay).sum();
+        return Money.toPesos(payrollData.stream().mapToLong(Payroll::getGrossPayCentavos).sum());
     }
 
     public double getTotalDeductions() {
         if (payrollData == null) return 0.0;
-        return payrollData.stream().mapToDouble(Payroll::getTotalDeductions).sum();
+        return Money.toPesos(payrollData.stream().mapToLong(Payroll::getTotalDeductionsCentavos).sum());
     }
 
     public double getTotalNetPay() {
         if (payrollData == null) return 0.0;
-        return payrollData.stream().mapToDouble(Payroll::getNetPay).sum();
+        return Money.toPesos(payrollData.stream().mapToLong(Payroll::getNetPayCentavos).sum());
     }
 
     @Override
@@ -172,38 +175,53 @@ public class PayrollReport {
 
     // Inner class for report summary
     public static class ReportSummary {
-        private double totalGrossPay;
-        private double totalDeductions;
-        private double totalNetPay;
-        private double totalSSSContributions;
-        private double totalPhilHealthContributions;
-        private double totalPagIBIGContributions;
-        private double totalTax;
+        // Totals in centavos (see util.Money)
+        private long totalGrossPay;
+        private long totalDeductions;
+        private long totalNetPay;
+        private long totalSSSContributions;
+        private long totalPhilHealthContributions;
+        private long totalPagIBIGContributions;
+        private long totalTax;
         private int totalEmployees;
 
         // Constructors, getters, and setters
         public ReportSummary() {}
 
-        public double getTotalGrossPay() { return totalGrossPay; }
-        public void setTotalGrossPay(double totalGrossPay) { this.totalGrossPay = totalGrossPay; }
-
-        public double getTotalDeductions() { return totalDeductions; }
-        public void setTotalDeductions(double totalDeductions) { this.totalDeductions = totalDeductions; }
-
-        public double getTotalNetPay() { return totalNetPay; }
-        public void setTotalNetPay(double totalNetPay) { this.totalNetPay = totalNetPay; }
-
-        public double getTotalSSSContributions() { return totalSSSContributions; }
-        public void setTotalSSSContributions(double totalSSSContributions) { this.totalSSSContributions = totalSSSContributions; }
-
-        public double getTotalPhilHealthContributions() { return totalPhilHealthContributions; }
-        public void setTotalPhilHealthContributions(double totalPhilHealthContributions) { this.totalPhilHealthContributions = totalPhilHealthContributions; }
-
-        public double getTotalPagIBIGContributions() { return totalPagIBIGContributions; }
-        public void setTotalPagIBIGContributions(double totalPagIBIGContributions) { this.totalPagIBIGContributions = totalPagIBIGContributions; }
-
-        public double getTotalTax() { return totalTax; }
-        public void setTotalTax(double totalTax) { this.totalTax = totalTax; }
+        public double getTotalGrossPay() { return Money.toPesos(totalGrossPay); }
+        public void setTotalGrossPay(double totalGrossPay) { this.totalGrossPay = Money.toCentavos(totalGrossPay); }
+        public long getTotalGrossPayCentavos() { return totalGrossPay; }
+        public void setTotalGrossPayCentavos(long totalGrossPay) { this.totalGrossPay = totalGrossPay; }
+
+        public double getTotalDeductions() { return Money.toPesos(totalDeductions); }
+        public void setTotalDeductions(double totalDeductions) { this.totalDeductions = Money.toCentavos(totalDeductions); }
+        public long getTotalDeductionsCentavos() { return totalDeductions; }
+        public void setTotalDeductionsCentavos(long totalDeductions) { this.totalDeductions = totalDeductions; }
+
+        public double getTotalNetPay() { return Money.toPesos(totalNetPay); }
+        public void setTotalNetPay(double totalNetPay) { this.totalNetPay = Money.toCentavos(totalNetPay); }
+        public long getTotalNetPayCentavos() { return totalNetPay; }
+        public void setTotalNetPayCentavos(long totalNetPay) { this.totalNetPay = totalNetPay; }
+
+        public double getTotalSSSContributions() { return Money.toPesos(totalSSSContributions); }
+        public void setTotalSSSContributions(double totalSSSContributions) { this.totalSSSContributions = Money.toCentavos(totalSSSContributions); }
+        public long getTotalSSSContributionsCentavos() { return totalSSSContributions; }
+        public void setTotalSSSContributionsCentavos(long totalSSSContributions) { this.totalSSSContributions = totalSSSContributions; }
+
+        public double getTotalPhilHealthContributions() { return Money.toPesos(totalPhilHealthContributions); }
+        public void setTotalPhilHealthContributions(double totalPhilHealthContributions) { this.totalPhilHealthContributions = Money.toCentavos(totalPhilHealthContributions); }
+        public long getTotalPhilHealthContributionsCentavos() { return totalPhilHealthContributions; }
+        public void setTotalPhilHealthContributionsCentavos(long totalPhilHealthContributions) { this.totalPhilHealthContributions = totalPhilHealthContributions; }
+
+        public double getTotalPagIBIGContributions() { return Money.toPesos(totalPagIBIGContributions); }
+        public void setTotalPagIBIGContributions(double totalPagIBIGContributions) { this.totalPagIBIGContributions = Money.toCentavos(totalPagIBIGContributions); }
+        public long getTotalPagIBIGContributionsCentavos() { return totalPagIBIGContributions; }
+        public void setTotalPagIBIGContributionsCentavos(long totalPagIBIGContributions) { this.totalPagIBIGContributions = totalPagIBIGContributions; }
+
+        public double getTotalTax() { return Money.toPesos(totalTax); }
+        public void setTotalTax(double totalTax) { this.totalTax = Money.toCentavos(totalTax); }
+        public long getTotalTaxCentavos() { return totalTax; }
+        public void setTotalTaxCentavos(long totalTax) { this.totalTax = totalTax; }
 
         public int getTotalEmployees() { return totalEmployees; }
         public void setTotalEmployees(int totalEmployees) { this.totalEmployees = totalEmployees; }
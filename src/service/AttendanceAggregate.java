@@ -0,0 +1,152 @@
+package service;
+
+import model.Attendance;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Single-pass attendance aggregation for payroll.
+ *
+ * Computes days worked, work minutes, late and undertime minutes and incomplete punches in one
+ * walk over the records using second-of-day integers, without converting each punch to
+ * LocalTime or Duration. Results match the per-record rules previously used by PayrollCalculator:
+ * - a day counts as worked when it has a log in
+ * - work minutes are the truncated minutes between log in and log out (both required)
+ * - a log in after the late threshold is late by the whole minutes since the standard start
+ * - a log out before the standard end is short by the whole minutes until the standard end
+ *
+ * Not thread-safe; use one instance per employee calculation.
+ */
+public final class AttendanceAggregate {
+
+    /** Marker for a missing punch in {@link #accept(int, int)} */
+    public static final int NO_PUNCH = -1;
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final int standardStartSecond;
+    private final int lateThresholdSecond;
+    private final int standardEndSecond;
+    private final TimeZone timeZone;
+
+    private int recordCount;
+    private int validDays;
+    private int incompletePunches;
+    private int lateDays;
+    private int undertimeDays;
+    private long totalWorkMinutes;
+    private long lateMinutes;
+    private long undertimeMinutes;
+
+    /**
+     * Aggregate using the company schedule: 08:00 start, late after 08:15, 17:00 end
+     */
+    public AttendanceAggregate() {
+        this(LocalTime.of(8, 0), LocalTime.of(8, 15), LocalTime.of(17, 0));
+    }
+
+    public AttendanceAggregate(LocalTime standardStart, LocalTime lateThreshold, LocalTime standardEnd) {
+        if (standardStart == null || lateThreshold == null || standardEnd == null) {
+            throw new IllegalArgumentException("Schedule times cannot be null");
+        }
+        this.standardStartSecond = standardStart.toSecondOfDay();
+        this.lateThresholdSecond = lateThreshold.toSecondOfDay();
+        this.standardEndSecond = standardEnd.toSecondOfDay();
+        // java.sql.Time values are wall-clock times in the JVM default zone; resolve it once
+        this.timeZone = TimeZone.getDefault();
+    }
+
+    /**
+     * Aggregate a list of attendance records with the company schedule
+     */
+    public static AttendanceAggregate of(List<Attendance> records) {
+        AttendanceAggregate aggregate = new AttendanceAggregate();
+        aggregate.addAll(records);
+        return aggregate;
+    }
+
+    public AttendanceAggregate addAll(List<Attendance> records) {
+        for (int i = 0, n = records.size(); i < n; i++) {
+            add(records.get(i));
+        }
+        return this;
+    }
+
+    public void add(Attendance attendance) {
+        accept(secondOfDay(attendance.getLogIn()), secondOfDay(attendance.getLogOut()));
+    }
+
+    /**
+     * Accumulate one day's punches
+     * @param logInSecond Log in as second of day, or {@link #NO_PUNCH}
+     * @param logOutSecond Log out as second of day, or {@link #NO_PUNCH}
+     */
+    public void accept(int logInSecond, int logOutSecond) {
+        recordCount++;
+
+        boolean hasLogIn = logInSecond != NO_PUNCH;
+        boolean hasLogOut = logOutSecond != NO_PUNCH;
+
+        if (hasLogIn != hasLogOut) {
+            incompletePunches++;
+        }
+
+        if (hasLogIn) {
+            validDays++;
+            if (logInSecond > lateThresholdSecond) {
+                lateDays++;
+                lateMinutes += (logInSecond - standardStartSecond) / 60;
+            }
+        }
+
+        if (hasLogOut && logOutSecond < standardEndSecond) {
+            undertimeDays++;
+            undertimeMinutes += (standardEndSecond - logOutSecond) / 60;
+        }
+
+        if (hasLogIn && hasLogOut) {
+            totalWorkMinutes += (logOutSecond - logInSecond) / 60;
+        }
+    }
+
+    /**
+     * Wall-clock second of day of a java.sql.Time, or {@link #NO_PUNCH} for null.
+     * Equivalent to time.toLocalTime().toSecondOfDay() without the intermediate objects.
+     */
+    public int secondOfDay(Time time) {
+        if (time == null) {
+            return NO_PUNCH;
+        }
+        long millis = time.getTime();
+        long localMillis = millis + timeZone.getOffset(millis);
+        return (int) (Math.floorMod(localMillis, SECONDS_PER_DAY * 1000L) / 1000);
+    }
+
+    public int getRecordCount() { return recordCount; }
+    public int getValidDays() { return validDays; }
+    public int getIncompletePunches() { return incompletePunches; }
+    public int getLateDays() { return lateDays; }
+    public int getUndertimeDays() { return undertimeDays; }
+    public long getTotalWorkMinutes() { return totalWorkMinutes; }
+    public long getLateMinutes() { return lateMinutes; }
+    public long getUndertimeMinutes() { return undertimeMinutes; }
+
+    public double getTotalWorkHours() {
+        return totalWorkMinutes / 60.0;
+    }
+
+    @Override
+    public String toString() {
+        return "AttendanceAggregate{" +
+                "records=" + recordCount +
+                ", validDays=" + validDays +
+                ", workMinutes=" + totalWorkMinutes +
+                ", lateMinutes=" + lateMinutes +
+                ", undertimeMinutes=" + undertimeMinutes +
+                ", incompletePunches=" + incompletePunches +
+                '}';
+    }
+}
@@ -0,0 +1,413 @@
+package service;
+
+import dao.AttendanceRepository;
+import dao.EmployeeRepository;
+import dao.LeaveRequestRepository;
+import dao.Repositories;
+import model.Attendance;
+import model.LeaveRequest;
+import util.DataChangeNotifier;
+import util.DataChangeNotifier.DataChangeEvent;
+import util.ReadIntent;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ * Per-employee day bitmaps of a period's attendance, for workforce-wide questions such as who
+ * was absent on given dates or who was late more than N times, answered without loading records.
+ *
+ * Each employee has four {@link DayBitmap}s keyed by epoch day:
+ * - present: a record with a log in
+ * - late: a log in after 08:00, as {@link Attendance#isLate()}
+ * - undertime: a log out before 17:00, as {@link Attendance#hasUndertime()}
+ * - on leave: covered by an approved leave request
+ *
+ * The index subscribes to {@link DataChangeNotifier}. Attendance, leave and employee changes
+ * within the period are queued by the listener, which stays quick as listeners must, and the
+ * affected employee and dates are reloaded before the next query. Close the index to unsubscribe.
+ *
+ * Loads always read the primary, even under a caller's {@link ReadIntent}: a change event is
+ * consumed when its reload runs, so bits read from a lagging replica would never be corrected.
+ */
+public class AttendanceBitmapIndex implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AttendanceBitmapIndex.class.getName());
+
+    private final EmployeeRepository employeeDAO;
+    private final AttendanceRepository attendanceDAO;
+    private final LeaveRequestRepository leaveDAO;
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+
+    private final Map<Integer, EmployeeDays> employees = new TreeMap<>();
+    private final Queue<DataChangeEvent> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final DataChangeNotifier.DataChangeListener listener = this::onDataChanged;
+
+    private AttendanceBitmapIndex(Repositories repositories, LocalDate periodStart, LocalDate periodEnd) {
+        this.employeeDAO = repositories.getEmployees();
+        this.attendanceDAO = repositories.getAttendance();
+        this.leaveDAO = repositories.getLeaveRequests();
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+    }
+
+    /**
+     * Build the index of a period and start following changes to it
+     */
+    public static AttendanceBitmapIndex build(Repositories repositories, LocalDate periodStart, LocalDate periodEnd) {
+        if (repositories == null) {
+            throw new IllegalArgumentException("Repositories cannot be null");
+        }
+        if (periodStart == null || periodEnd == null) {
+            throw new IllegalArgumentException("Period start and end dates cannot be null");
+        }
+        if (periodStart.isAfter(periodEnd)) {
+            throw new IllegalArgumentException("Period start date cannot be after end date");
+        }
+
+        AttendanceBitmapIndex index = new AttendanceBitmapIndex(repositories, periodStart, periodEnd);
+        // Subscribe first, so that writes made while loading are queued rather than missed
+        DataChangeNotifier.addListener(index.listener);
+        try (ReadIntent primary = ReadIntent.beginPrimaryOnly()) {
+            synchronized (index) {
+                long startNanos = System.nanoTime();
+                index.reloadEmployees();
+                index.reloadAttendance(0, periodStart, periodEnd);
+                index.reloadLeave(0, periodStart, periodEnd);
+                LOGGER.info(String.format("Indexed attendance of %d employees for %s to %s in %d ms",
+                        index.employees.size(), periodStart, periodEnd, (System.nanoTime() - startNanos) / 1_000_000));
+            }
+        } catch (RuntimeException e) {
+            DataChangeNotifier.removeListener(index.listener);
+            throw e;
+        }
+        return index;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public synchronized int getEmployeeCount() {
+        applyPendingChanges();
+        return employees.size();
+    }
+
+    /**
+     * Employees with neither attendance nor approved leave on the date
+     */
+    public int[] getAbsentEmployees(LocalDate date) {
+        return getAbsentEmployees(Collections.singletonList(date));
+    }
+
+    /**
+     * Employees with neither attendance nor approved leave on any of the dates, in ascending order
+     */
+    public synchronized int[] getAbsentEmployees(Collection<LocalDate> dates) {
+        if (dates == null || dates.isEmpty()) {
+            throw new IllegalArgumentException("Dates cannot be empty");
+        }
+        DayBitmap query = new DayBitmap();
+        for (LocalDate date : dates) {
+            query.set(dayOf(checkInPeriod(date)));
+        }
+        applyPendingChanges();
+
+        int[] matches = new int[employees.size()];
+        int count = 0;
+        for (Map.Entry<Integer, EmployeeDays> entry : employees.entrySet()) {
+            EmployeeDays days = entry.getValue();
+            if (!days.present.intersects(query) && !days.onLeave.intersects(query)) {
+                matches[count++] = entry.getKey();
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Employees late on more than the given number of days within the range, in ascending order
+     */
+    public synchronized int[] getEmployeesLateMoreThan(int times, LocalDate from, LocalDate to) {
+        if (times < 0) {
+            throw new IllegalArgumentException("Times cannot be negative");
+        }
+        int first = dayOf(checkInPeriod(from));
+        int last = dayOf(checkInPeriod(to));
+        applyPendingChanges();
+
+        int[] matches = new int[employees.size()];
+        int count = 0;
+        for (Map.Entry<Integer, EmployeeDays> entry : employees.entrySet()) {
+            if (entry.getValue().late.count(first, last) > times) {
+                matches[count++] = entry.getKey();
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    public synchronized int countPresentDays(int employeeId, LocalDate from, LocalDate to) {
+        EmployeeDays days = daysOf(employeeId);
+        return days != null ? days.present.count(dayOf(checkInPeriod(from)), dayOf(checkInPeriod(to))) : 0;
+    }
+
+    public synchronized int countLateDays(int employeeId, LocalDate from, LocalDate to) {
+        EmployeeDays days = daysOf(employeeId);
+        return days != null ? days.late.count(dayOf(checkInPeriod(from)), dayOf(checkInPeriod(to))) : 0;
+    }
+
+    public synchronized int countUndertimeDays(int employeeId, LocalDate from, LocalDate to) {
+        EmployeeDays days = daysOf(employeeId);
+        return days != null ? days.undertime.count(dayOf(checkInPeriod(from)), dayOf(checkInPeriod(to))) : 0;
+    }
+
+    public synchronized int countLeaveDays(int employeeId, LocalDate from, LocalDate to) {
+        EmployeeDays days = daysOf(employeeId);
+        return days != null ? days.onLeave.count(dayOf(checkInPeriod(from)), dayOf(checkInPeriod(to))) : 0;
+    }
+
+    /**
+     * Percentage of employee working days with attendance within the range, where working days
+     * are Monday to Friday, as in AttendanceReport's summary
+     */
+    public synchronized double getAttendanceRate(LocalDate from, LocalDate to) {
+        int first = dayOf(checkInPeriod(from));
+        int last = dayOf(checkInPeriod(to));
+        applyPendingChanges();
+
+        long presentDays = 0;
+        for (EmployeeDays days : employees.values()) {
+            presentDays += days.present.count(first, last);
+        }
+        long possibleDays = (long) employees.size() * countWorkingDays(from, to);
+        return possibleDays > 0 ? (double) presentDays / possibleDays * 100 : 0.0;
+    }
+
+    /**
+     * Attendance rate of each calendar month overlapping the range, clipped to the range
+     */
+    public synchronized Map<YearMonth, Double> getAttendanceRateByMonth(LocalDate from, LocalDate to) {
+        checkInPeriod(from);
+        checkInPeriod(to);
+        Map<YearMonth, Double> rates = new LinkedHashMap<>();
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            LocalDate monthStart = month.atDay(1).isBefore(from) ? from : month.atDay(1);
+            LocalDate monthEnd = month.atEndOfMonth().isAfter(to) ? to : month.atEndOfMonth();
+            rates.put(month, getAttendanceRate(monthStart, monthEnd));
+        }
+        return rates;
+    }
+
+    /**
+     * Stop following changes
+     */
+    @Override
+    public void close() {
+        DataChangeNotifier.removeListener(listener);
+    }
+
+    // Change tracking
+
+    private void onDataChanged(DataChangeEvent event) {
+        if (event.getTable() == DataChangeNotifier.Table.OVERTIME) {
+            return;
+        }
+        if (event.getTable() != DataChangeNotifier.Table.EMPLOYEE
+                && !event.affects(event.getEmployeeId(), periodStart, periodEnd)) {
+            return;
+        }
+        pendingChanges.add(event);
+    }
+
+    /**
+     * Reload what the queued changes touched; callers hold the lock
+     */
+    private void applyPendingChanges() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        try (ReadIntent primary = ReadIntent.beginPrimaryOnly()) {
+            DataChangeEvent event;
+            while ((event = pendingChanges.poll()) != null) {
+                applyChange(event);
+            }
+        }
+    }
+
+    private void applyChange(DataChangeEvent event) {
+        int employeeId = event.isAllEmployees() ? 0 : event.getEmployeeId();
+        LocalDate from = event.getFromDate() == null || event.getFromDate().isBefore(periodStart)
+                ? periodStart : event.getFromDate();
+        LocalDate to = event.getToDate() == null || event.getToDate().isAfter(periodEnd)
+                ? periodEnd : event.getToDate();
+        switch (event.getTable()) {
+            case EMPLOYEE:
+                reloadEmployees();
+                break;
+            case ATTENDANCE:
+                reloadAttendance(employeeId, from, to);
+                break;
+            case LEAVE_REQUEST:
+                reloadLeave(employeeId, from, to);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Loading; callers hold the lock
+
+    /**
+     * Add employees that are new and drop those that were deleted
+     */
+    private void reloadEmployees() {
+        Set<Integer> ids = employeeDAO.getAllEmployeeIds();
+        employees.keySet().retainAll(ids);
+        for (Integer id : ids) {
+            employees.computeIfAbsent(id, k -> new EmployeeDays());
+        }
+    }
+
+    /**
+     * Rebuild the attendance bitmaps of one employee, or all employees for 0, between two dates
+     */
+    private void reloadAttendance(int employeeId, LocalDate from, LocalDate to) {
+        int first = dayOf(from);
+        int last = dayOf(to);
+        if (employeeId > 0) {
+            EmployeeDays days = employees.get(employeeId);
+            if (days == null) {
+                return;
+            }
+            days.clearAttendance(first, last);
+            for (Attendance attendance : attendanceDAO.getAttendanceByEmployeeIdBetweenDates(employeeId, from, to)) {
+                days.add(attendance);
+            }
+        } else {
+            for (EmployeeDays days : employees.values()) {
+                days.clearAttendance(first, last);
+            }
+            attendanceDAO.forEachAttendanceInRange(from, to, attendance -> {
+                EmployeeDays days = employees.get(attendance.getEmployeeId());
+                if (days != null) {
+                    days.add(attendance);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rebuild the leave bitmap of one employee, or all employees for 0, between two dates
+     */
+    private void reloadLeave(int employeeId, LocalDate from, LocalDate to) {
+        if (leaveDAO == null) {
+            return;
+        }
+        int first = dayOf(from);
+        int last = dayOf(to);
+        if (employeeId > 0) {
+            EmployeeDays days = employees.get(employeeId);
+            if (days == null) {
+                return;
+            }
+            days.onLeave.clear(first, last);
+            for (LeaveRequest leave : leaveDAO.getApprovedLeavesByEmployeeIdAndDateRange(employeeId, from, to)) {
+                days.addLeave(leave, first, last);
+            }
+        } else {
+            for (EmployeeDays days : employees.values()) {
+                days.onLeave.clear(first, last);
+            }
+            for (LeaveRequest leave : leaveDAO.getApprovedLeavesByDateRange(from, to)) {
+                EmployeeDays days = employees.get(leave.getEmployeeId());
+                if (days != null) {
+                    days.addLeave(leave, first, last);
+                }
+            }
+        }
+    }
+
+    private EmployeeDays daysOf(int employeeId) {
+        applyPendingChanges();
+        return employees.get(employeeId);
+    }
+
+    private LocalDate checkInPeriod(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        if (date.isBefore(periodStart) || date.isAfter(periodEnd)) {
+            throw new IllegalArgumentException("Date " + date + " is outside the indexed period " +
+                    periodStart + " to " + periodEnd);
+        }
+        return date;
+    }
+
+    private static int dayOf(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+
+    private static int countWorkingDays(LocalDate from, LocalDate to) {
+        int workingDays = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                workingDays++;
+            }
+        }
+        return workingDays;
+    }
+
+    /**
+     * One employee's bitmaps
+     */
+    private static final class EmployeeDays {
+        final DayBitmap present = new DayBitmap();
+        final DayBitmap late = new DayBitmap();
+        final DayBitmap undertime = new DayBitmap();
+        final DayBitmap onLeave = new DayBitmap();
+
+        void add(Attendance attendance) {
+            int day = dayOf(attendance.getDate().toLocalDate());
+            if (attendance.isPresent()) {
+                present.set(day);
+            }
+            if (attendance.isLate()) {
+                late.set(day);
+            }
+            if (attendance.hasUndertime()) {
+                undertime.set(day);
+            }
+        }
+
+        /**
+         * Mark the leave's days that fall between first and last
+         */
+        void addLeave(LeaveRequest leave, int first, int last) {
+            int start = Math.max(first, dayOf(leave.getStartDateAsLocalDate()));
+            int end = Math.min(last, dayOf(leave.getEndDateAsLocalDate()));
+            for (int day = start; day <= end; day++) {
+                onLeave.set(day);
+            }
+        }
+
+        void clearAttendance(int first, int last) {
+            present.clear(first, last);
+            late.clear(first, last);
+            undertime.clear(first, last);
+        }
+    }
+}
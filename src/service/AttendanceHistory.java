@@ -0,0 +1,294 @@
+package service;
+
+import dao.AttendanceRepository;
+import model.Attendance;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact, read-only attendance history for analytics over long periods.
+ *
+ * Each day is kept as three ints, epoch day and log in and log out as second of day
+ * ({@link AttendanceAggregate#NO_PUNCH} when missing), in direct buffers outside the heap: 12 bytes
+ * a day, against well over 100 for an Attendance with its Date and Time objects, and nothing for
+ * the collector to trace. Rows are sorted by employee, then date, and stored column by column in
+ * fixed-size segments, with an index of where each employee's rows start. A range scan is two
+ * binary searches followed by a sequential read, and feeds {@link AttendanceAggregate} directly.
+ *
+ * Built once, with {@link #load} or a {@link Builder}, and safe for concurrent reads afterwards.
+ * The off-heap memory is released when the history is no longer referenced.
+ */
+public final class AttendanceHistory {
+
+    /**
+     * Receives the days of a scan, oldest first
+     */
+    @FunctionalInterface
+    public interface DayVisitor {
+        /**
+         * @param logInSecond Log in as second of day, or {@link AttendanceAggregate#NO_PUNCH}
+         * @param logOutSecond Log out as second of day, or {@link AttendanceAggregate#NO_PUNCH}
+         */
+        void visit(int epochDay, int logInSecond, int logOutSecond);
+    }
+
+    private static final int SEGMENT_SHIFT = 16;
+    private static final int SEGMENT_ROWS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_ROWS - 1;
+
+    // Byte offsets of the columns within a segment
+    private static final int DAY_COLUMN = 0;
+    private static final int LOG_IN_COLUMN = SEGMENT_ROWS * Integer.BYTES;
+    private static final int LOG_OUT_COLUMN = 2 * SEGMENT_ROWS * Integer.BYTES;
+    private static final int SEGMENT_BYTES = 3 * SEGMENT_ROWS * Integer.BYTES;
+
+    private final ByteBuffer[] segments;
+    private final int[] employeeIds;
+    // firstRows[i] is the first row of employeeIds[i]; firstRows[employeeCount] is the row count
+    private final int[] firstRows;
+    private final int rows;
+
+    private AttendanceHistory(ByteBuffer[] segments, int[] employeeIds, int[] firstRows, int rows) {
+        this.segments = segments;
+        this.employeeIds = employeeIds;
+        this.firstRows = firstRows;
+        this.rows = rows;
+    }
+
+    /**
+     * Load every record within the period, streamed from the store so that only the compact form
+     * is kept
+     */
+    public static AttendanceHistory load(AttendanceRepository attendanceDAO, LocalDate periodStart, LocalDate periodEnd) {
+        if (attendanceDAO == null) {
+            throw new IllegalArgumentException("Attendance store cannot be null");
+        }
+        Builder builder = new Builder();
+        attendanceDAO.forEachAttendanceInRange(periodStart, periodEnd, builder::add);
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Number of days held
+     */
+    public int size() {
+        return rows;
+    }
+
+    public int getEmployeeCount() {
+        return employeeIds.length;
+    }
+
+    /**
+     * IDs of the employees with at least one day, in ascending order
+     */
+    public int[] getEmployeeIds() {
+        return employeeIds.clone();
+    }
+
+    /**
+     * Off-heap bytes held by the segments
+     */
+    public long getMemoryBytes() {
+        return (long) segments.length * SEGMENT_BYTES;
+    }
+
+    /**
+     * Visit the employee's days within the period, oldest first
+     * @return number of days visited
+     */
+    public int scan(int employeeId, LocalDate periodStart, LocalDate periodEnd, DayVisitor visitor) {
+        if (periodStart == null || periodEnd == null) {
+            throw new IllegalArgumentException("Period start and end dates cannot be null");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null");
+        }
+        int index = Arrays.binarySearch(employeeIds, employeeId);
+        if (index < 0 || periodStart.isAfter(periodEnd)) {
+            return 0;
+        }
+        int end = firstRows[index + 1];
+        int from = firstDayAtOrAfter(firstRows[index], end, (int) periodStart.toEpochDay());
+        int to = firstDayAtOrAfter(from, end, (int) periodEnd.toEpochDay() + 1);
+        for (int row = from; row < to; row++) {
+            ByteBuffer segment = segments[row >>> SEGMENT_SHIFT];
+            int offset = (row & SEGMENT_MASK) * Integer.BYTES;
+            visitor.visit(segment.getInt(DAY_COLUMN + offset), segment.getInt(LOG_IN_COLUMN + offset),
+                    segment.getInt(LOG_OUT_COLUMN + offset));
+        }
+        return to - from;
+    }
+
+    /**
+     * Add the employee's days within the period to an aggregate
+     * @return the aggregate
+     */
+    public AttendanceAggregate aggregate(int employeeId, LocalDate periodStart, LocalDate periodEnd,
+                                         AttendanceAggregate aggregate) {
+        if (aggregate == null) {
+            throw new IllegalArgumentException("Aggregate cannot be null");
+        }
+        scan(employeeId, periodStart, periodEnd, (epochDay, logIn, logOut) -> aggregate.accept(logIn, logOut));
+        return aggregate;
+    }
+
+    /**
+     * First row in [from, to) whose day is at least epochDay, or to if there is none
+     */
+    private int firstDayAtOrAfter(int from, int to, int epochDay) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (day(middle) < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int day(int row) {
+        return segments[row >>> SEGMENT_SHIFT].getInt(DAY_COLUMN + (row & SEGMENT_MASK) * Integer.BYTES);
+    }
+
+    @Override
+    public String toString() {
+        return "AttendanceHistory{" +
+                "days=" + rows +
+                ", employees=" + employeeIds.length +
+                ", memoryBytes=" + getMemoryBytes() +
+                '}';
+    }
+
+    /**
+     * Collects days into segments. Records must be added grouped by employee, in ascending
+     * employee order as the range queries return them; each employee's days may come in any
+     * order and are sorted when the next employee starts.
+     */
+    public static final class Builder {
+        private final List<ByteBuffer> segments = new ArrayList<>();
+        private int[] employeeIds = new int[64];
+        private int[] firstRows = new int[65];
+        private int employeeCount;
+        private int rows;
+
+        // The current employee's days, packed as (epoch day, log in + 1, log out + 1) so that
+        // sorting the longs sorts by day
+        private int currentEmployeeId;
+        private long[] pending = new long[64];
+        private int pendingCount;
+        private boolean built;
+
+        private Builder() {
+        }
+
+        public Builder add(Attendance attendance) {
+            if (attendance == null) {
+                throw new IllegalArgumentException("Attendance cannot be null");
+            }
+            return add(attendance.getEmployeeId(), attendance.getDate().toLocalDate(),
+                    attendance.getLogIn() != null ? attendance.getLogIn().toLocalTime() : null,
+                    attendance.getLogOut() != null ? attendance.getLogOut().toLocalTime() : null);
+        }
+
+        /**
+         * @param logIn Log in, or null if there was none
+         * @param logOut Log out, or null if there was none
+         */
+        public Builder add(int employeeId, LocalDate date, LocalTime logIn, LocalTime logOut) {
+            if (built) {
+                throw new IllegalStateException("History has already been built");
+            }
+            if (employeeId <= 0) {
+                throw new IllegalArgumentException("Employee ID must be positive");
+            }
+            if (date == null) {
+                throw new IllegalArgumentException("Date cannot be null");
+            }
+            if (employeeId != currentEmployeeId) {
+                if (employeeId < currentEmployeeId) {
+                    throw new IllegalArgumentException("Records must be added in ascending employee order");
+                }
+                flushEmployee();
+                currentEmployeeId = employeeId;
+            }
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = (date.toEpochDay() << 36)
+                    | ((long) (secondOfDay(logIn) + 1) << 18) | (secondOfDay(logOut) + 1);
+            return this;
+        }
+
+        public AttendanceHistory build() {
+            if (built) {
+                throw new IllegalStateException("History has already been built");
+            }
+            flushEmployee();
+            built = true;
+            firstRows[employeeCount] = rows;
+            return new AttendanceHistory(segments.toArray(new ByteBuffer[0]),
+                    Arrays.copyOf(employeeIds, employeeCount), Arrays.copyOf(firstRows, employeeCount + 1), rows);
+        }
+
+        private void flushEmployee() {
+            if (pendingCount == 0) {
+                return;
+            }
+            Arrays.sort(pending, 0, pendingCount);
+            if (employeeCount + 1 == employeeIds.length) {
+                employeeIds = Arrays.copyOf(employeeIds, employeeIds.length * 2);
+                firstRows = Arrays.copyOf(firstRows, firstRows.length * 2);
+            }
+            employeeIds[employeeCount] = currentEmployeeId;
+            firstRows[employeeCount] = rows;
+            employeeCount++;
+
+            long previousDay = Long.MIN_VALUE;
+            for (int i = 0; i < pendingCount; i++) {
+                long packed = pending[i];
+                long day = packed >> 36;
+                if (day == previousDay) {
+                    throw new IllegalArgumentException("More than one record for employee " + currentEmployeeId +
+                            " on " + LocalDate.ofEpochDay(day));
+                }
+                previousDay = day;
+                append((int) day, (int) ((packed >>> 18) & 0x3FFFF) - 1, (int) (packed & 0x3FFFF) - 1);
+            }
+            pendingCount = 0;
+        }
+
+        private void append(int epochDay, int logInSecond, int logOutSecond) {
+            if (rows == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Attendance history is full");
+            }
+            int index = rows & SEGMENT_MASK;
+            if (index == 0) {
+                segments.add(ByteBuffer.allocateDirect(SEGMENT_BYTES).order(ByteOrder.nativeOrder()));
+            }
+            ByteBuffer segment = segments.get(segments.size() - 1);
+            int offset = index * Integer.BYTES;
+            segment.putInt(DAY_COLUMN + offset, epochDay);
+            segment.putInt(LOG_IN_COLUMN + offset, logInSecond);
+            segment.putInt(LOG_OUT_COLUMN + offset, logOutSecond);
+            rows++;
+        }
+
+        private static int secondOfDay(LocalTime time) {
+            return time != null ? time.toSecondOfDay() : AttendanceAggregate.NO_PUNCH;
+        }
+    }
+}
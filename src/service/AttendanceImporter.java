@@ -0,0 +1,330 @@
+package service;
+
+import dao.AttendanceDAO;
+import dao.AttendanceRepository;
+import dao.EmployeeDAO;
+import dao.EmployeeRepository;
+import dao.Repositories;
+import model.Attendance;
+import util.AppConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Bulk import of attendance from CSV files and time-clock exports.
+ *
+ * The input is read a line at a time. Two kinds of rows are accepted:
+ * - daily records, employee_id,date,log_in[,log_out]
+ * - clock punches, employee_id,date time; each employee's first punch of a day becomes the log in
+ *   and the last one the log out
+ * Dates are yyyy-MM-dd or M/d/yyyy and times H:mm or H:mm:ss. A header line, blank lines and lines
+ * starting with # are skipped.
+ *
+ * Employee IDs are checked against a set loaded once per import, rows pass the same checks as any
+ * stored record (but not the 30-day limit on manual entries), and valid records are written in
+ * batches of batch.size as upserts on employee and date, so re-running an import is harmless.
+ * Rejected rows are written with their line number and reason to a side file.
+ *
+ * Daily records are streamed: memory holds at most one batch. Punch rows are folded as they are
+ * read into one first/last entry per employee and day, but those entries are only written when
+ * the input ends, because an export may list a day's punches anywhere in the file. A punch
+ * export therefore needs memory for its employee-days (not its rows) until it is written.
+ */
+public class AttendanceImporter {
+    private static final Logger LOGGER = Logger.getLogger(AttendanceImporter.class.getName());
+
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("H:mm[:ss]");
+
+    private final EmployeeRepository employeeDAO;
+    private final AttendanceRepository attendanceDAO;
+
+    public AttendanceImporter() {
+        this.employeeDAO = new EmployeeDAO();
+        this.attendanceDAO = new AttendanceDAO();
+    }
+
+    public AttendanceImporter(Repositories repositories) {
+        if (repositories == null) {
+            throw new IllegalArgumentException("Repositories cannot be null");
+        }
+        this.employeeDAO = repositories.getEmployees();
+        this.attendanceDAO = repositories.getAttendance();
+    }
+
+    /**
+     * Import a file, writing rejected rows to rejectsFile
+     * @param rejectsFile File for rejected rows, replaced if it exists; null to only count them
+     */
+    public ImportResult importFile(Path source, Path rejectsFile) throws IOException {
+        if (source == null) {
+            throw new IllegalArgumentException("Source file cannot be null");
+        }
+        try (Reader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             Writer rejects = rejectsFile != null ? Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8) : null) {
+            ImportResult result = importFrom(reader, rejects);
+            LOGGER.info("Imported attendance from " + source + ": " + result);
+            return result;
+        }
+    }
+
+    /**
+     * Import from a reader. Batches written before a database error stay written.
+     * @param rejects Receives rejected rows as CSV; may be null
+     */
+    public ImportResult importFrom(Reader source, Writer rejects) throws IOException {
+        if (source == null) {
+            throw new IllegalArgumentException("Source cannot be null");
+        }
+        long startNanos = System.nanoTime();
+        int batchSize = Math.max(1, AppConfig.get().getInt("batch.size", 500));
+        Batch batch = new Batch(employeeDAO.getAllEmployeeIds(), batchSize, rejects);
+
+        // Punches are folded per employee and day and written when the input ends
+        Map<String, Punches> punches = new LinkedHashMap<>();
+
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        boolean firstRow = true;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] fields = split(trimmed);
+            if (firstRow) {
+                firstRow = false;
+                if (!isInteger(fields[0])) {
+                    continue; // header
+                }
+            }
+            batch.result.rowsRead++;
+
+            try {
+                int employeeId = parseEmployeeId(fields[0]);
+                if (fields.length == 2) {
+                    LocalDateTime punch = parseTimestamp(fields[1]);
+                    String key = employeeId + "|" + punch.toLocalDate();
+                    Punches day = punches.get(key);
+                    if (day == null) {
+                        day = new Punches(employeeId, punch.toLocalDate(), lineNumber);
+                        punches.put(key, day);
+                    }
+                    day.add(punch.toLocalTime());
+                } else if (fields.length == 3 || fields.length == 4) {
+                    Attendance attendance = new Attendance(employeeId, Date.valueOf(parseDate(fields[1])),
+                            Time.valueOf(parseTime(fields[2])),
+                            fields.length == 4 && !fields[3].isEmpty() ? Time.valueOf(parseTime(fields[3])) : null);
+                    batch.add(attendance, lineNumber, line);
+                } else {
+                    batch.reject(lineNumber, "Expected 2, 3 or 4 fields, got " + fields.length, line);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                batch.reject(lineNumber, e.getMessage(), line);
+            }
+        }
+
+        for (Punches day : punches.values()) {
+            batch.add(day.toAttendance(), day.firstLine, day.employeeId + "," + day.date + " (" + day.count + " punches)");
+        }
+        batch.flush();
+
+        batch.result.elapsedNanos = System.nanoTime() - startNanos;
+        return batch.result;
+    }
+
+    private static String[] split(String line) {
+        String[] fields = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i].trim();
+            if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+                field = field.substring(1, field.length() - 1).trim();
+            }
+            fields[i] = field;
+        }
+        return fields;
+    }
+
+    private static boolean isInteger(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseEmployeeId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid employee ID: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return value.indexOf('/') >= 0 ? LocalDate.parse(value, US_DATE) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    private static LocalTime parseTime(String value) {
+        try {
+            return LocalTime.parse(value, TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time: " + value);
+        }
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        int separator = Math.max(value.indexOf('T'), value.indexOf(' '));
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid punch time: " + value);
+        }
+        return LocalDateTime.of(parseDate(value.substring(0, separator)), parseTime(value.substring(separator + 1).trim()));
+    }
+
+    private static String csv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Valid records waiting to be written, plus the counts so far
+     */
+    private final class Batch {
+        final Set<Integer> employeeIds;
+        final int size;
+        final Writer rejects;
+        final List<Attendance> pending;
+        final ImportResult result = new ImportResult();
+
+        Batch(Set<Integer> employeeIds, int size, Writer rejects) throws IOException {
+            this.employeeIds = employeeIds;
+            this.size = size;
+            this.rejects = rejects;
+            this.pending = new ArrayList<>(size);
+            if (rejects != null) {
+                rejects.write("line,reason,row" + System.lineSeparator());
+            }
+        }
+
+        void add(Attendance attendance, int lineNumber, String row) throws IOException {
+            if (!employeeIds.contains(attendance.getEmployeeId())) {
+                reject(lineNumber, "Unknown employee ID: " + attendance.getEmployeeId(), row);
+                return;
+            }
+            try {
+                AttendanceDAO.validateAttendanceRecord(attendance);
+            } catch (IllegalArgumentException e) {
+                reject(lineNumber, e.getMessage(), row);
+                return;
+            }
+            pending.add(attendance);
+            if (pending.size() == size) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!pending.isEmpty()) {
+                result.rowsImported += attendanceDAO.upsertAttendanceBatch(pending);
+                result.batches++;
+                pending.clear();
+            }
+        }
+
+        void reject(int lineNumber, String reason, String row) throws IOException {
+            result.rowsRejected++;
+            if (rejects != null) {
+                rejects.write(lineNumber + "," + csv(reason) + "," + csv(row) + System.lineSeparator());
+            }
+        }
+    }
+
+    /**
+     * One employee's punches on one day
+     */
+    private static final class Punches {
+        final int employeeId;
+        final LocalDate date;
+        final int firstLine;
+        LocalTime first;
+        LocalTime last;
+        int count;
+
+        Punches(int employeeId, LocalDate date, int firstLine) {
+            this.employeeId = employeeId;
+            this.date = date;
+            this.firstLine = firstLine;
+        }
+
+        void add(LocalTime time) {
+            if (first == null || time.isBefore(first)) {
+                first = time;
+            }
+            if (last == null || time.isAfter(last)) {
+                last = time;
+            }
+            count++;
+        }
+
+        Attendance toAttendance() {
+            return new Attendance(employeeId, Date.valueOf(date), Time.valueOf(first),
+                    count > 1 ? Time.valueOf(last) : null);
+        }
+    }
+
+    /**
+     * Counts and timing of one import. Punches count as rows read but are imported per day, so
+     * imported and rejected need not add up to rows read.
+     */
+    public static class ImportResult {
+        private long rowsRead;
+        private long rowsImported;
+        private long rowsRejected;
+        private int batches;
+        private long elapsedNanos;
+
+        public long getRowsRead() { return rowsRead; }
+        public long getRowsImported() { return rowsImported; }
+        public long getRowsRejected() { return rowsRejected; }
+        public int getBatches() { return batches; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos > 0 ? rowsRead * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows read, %d imported in %d batches, %d rejected, %d ms (%.0f rows/s)",
+                    rowsRead, rowsImported, batches, rowsRejected, getElapsedMillis(), getRowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Structured trace of payroll calculations.
+ *
+ * Replaces per-employee INFO logging in PayrollCalculator. Callers check {@link #isTraced(int)}
+ * before building an event, so a disabled trace costs one volatile read and no formatting.
+ * Employees are traced when explicitly opted in or when they fall in the sample; sampling is
+ * by employee ID, so a sampled employee is traced on every run.
+ *
+ * Events go into a bounded queue and are formatted and logged by a background thread; when the
+ * queue is full new events are dropped and counted rather than slowing the calculation down.
+ * The most recent events are also kept in memory for {@link #getRecentEvents()}.
+ *
+ * Configured with system properties (payroll.trace.enabled, payroll.trace.employees,
+ * payroll.trace.sampleRate, payroll.trace.attendanceHistory) or the setters at runtime.
+ */
+public final class CalculationTrace {
+    private static final Logger LOGGER = Logger.getLogger(CalculationTrace.class.getName());
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 8_192;
+    private static final int DEFAULT_RECENT_EVENTS = 500;
+
+    /**
+     * Calculation steps and how their values are printed
+     */
+    public enum Step {
+        ATTENDANCE("attendance %s to %s: %d records, %d valid days, %.2f hours, %d incomplete punches, daily rate %.2f, basic pay %.2f"),
+        NO_ATTENDANCE("no valid attendance in period %s to %s"),
+        ATTENDANCE_HISTORY("attendance history: date %s, log in %s, log out %s"),
+        OVERTIME("overtime: %.2f hours, pay %.2f"),
+        ALLOWANCES("allowances - rice %.2f, phone %.2f, clothing %.2f"),
+        TIME_DEDUCTIONS("deductions - late %.2f (%d min), undertime %.2f (%d min), unpaid leave %.2f (%d days)"),
+        CONTRIBUTIONS("contributions (rates effective %s) - SSS %.2f, PhilHealth %.2f, Pag-IBIG %.2f, tax %.2f"),
+        SUMMARY("summary %s to %s: %d days worked, daily rate %.2f, basic pay %.2f, gross %.2f, net %.2f");
+
+        private final String template;
+
+        Step(String template) {
+            this.template = template;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+    }
+
+    /**
+     * One recorded step. Values are kept raw and only formatted when the event is written out.
+     */
+    public static final class TraceEvent {
+        private final long timestampMillis;
+        private final int employeeId;
+        private final Step step;
+        private final Object[] values;
+
+        TraceEvent(long timestampMillis, int employeeId, Step step, Object[] values) {
+            this.timestampMillis = timestampMillis;
+            this.employeeId = employeeId;
+            this.step = step;
+            this.values = values;
+        }
+
+        public long getTimestampMillis() { return timestampMillis; }
+        public int getEmployeeId() { return employeeId; }
+        public Step getStep() { return step; }
+
+        public Object getValue(int index) {
+            return values[index];
+        }
+
+        public String format() {
+            return "Employee " + employeeId + " " + String.format(step.getTemplate(), values);
+        }
+
+        @Override
+        public String toString() {
+            return format();
+        }
+    }
+
+    private static final CalculationTrace SHARED = new CalculationTrace(DEFAULT_QUEUE_CAPACITY, DEFAULT_RECENT_EVENTS);
+
+    static {
+        SHARED.configureFromSystemProperties();
+    }
+
+    private final BlockingQueue<TraceEvent> queue;
+    private final TraceEvent[] recent;
+    private int recentNext;
+    private long recentCount;
+
+    private volatile boolean enabled;
+    private volatile Set<Integer> tracedEmployees = Collections.emptySet();
+    private volatile double sampleRate;
+    private volatile boolean attendanceHistoryEnabled;
+
+    private final AtomicLong recordedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private Thread writer;
+
+    public CalculationTrace(int queueCapacity, int recentEvents) {
+        if (queueCapacity <= 0 || recentEvents < 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive and recent events non-negative");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.recent = new TraceEvent[recentEvents];
+    }
+
+    public static CalculationTrace shared() {
+        return SHARED;
+    }
+
+    private void configureFromSystemProperties() {
+        enabled = Boolean.getBoolean("payroll.trace.enabled");
+        attendanceHistoryEnabled = Boolean.getBoolean("payroll.trace.attendanceHistory");
+
+        String employees = System.getProperty("payroll.trace.employees");
+        if (employees != null && !employees.trim().isEmpty()) {
+            Set<Integer> ids = new HashSet<>();
+            for (String id : employees.split(",")) {
+                try {
+                    ids.add(Integer.parseInt(id.trim()));
+                } catch (NumberFormatException e) {
+                    LOGGER.warning("Ignoring invalid employee ID in payroll.trace.employees: " + id);
+                }
+            }
+            setTracedEmployees(ids);
+        }
+
+        String rate = System.getProperty("payroll.trace.sampleRate");
+        if (rate != null) {
+            try {
+                setSampleRate(Double.parseDouble(rate.trim()));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("Ignoring invalid payroll.trace.sampleRate: " + rate);
+            }
+        }
+    }
+
+    // Configuration
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Employees traced on every calculation, in addition to the sample
+     */
+    public void setTracedEmployees(Collection<Integer> employeeIds) {
+        tracedEmployees = employeeIds == null || employeeIds.isEmpty()
+                ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(employeeIds));
+    }
+
+    public Set<Integer> getTracedEmployees() {
+        return tracedEmployees;
+    }
+
+    /**
+     * Fraction of employees traced, from 0 (only opted-in employees) to 1 (everyone)
+     */
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Whether a calculation that finds no attendance also loads and traces the employee's
+     * whole attendance history. Costs an extra query per such employee, so it is off by default.
+     */
+    public boolean isAttendanceHistoryEnabled() {
+        return enabled && attendanceHistoryEnabled;
+    }
+
+    public void setAttendanceHistoryEnabled(boolean attendanceHistoryEnabled) {
+        this.attendanceHistoryEnabled = attendanceHistoryEnabled;
+    }
+
+    // Recording
+
+    /**
+     * Guard for {@link #record}; false whenever tracing is off
+     */
+    public boolean isTraced(int employeeId) {
+        if (!enabled) {
+            return false;
+        }
+        if (tracedEmployees.contains(employeeId)) {
+            return true;
+        }
+        double rate = sampleRate;
+        if (rate <= 0) {
+            return false;
+        }
+        // Spread consecutive IDs over [0, 1) so the sample does not follow ID order
+        long hash = (employeeId * 0x9E3779B97F4A7C15L) >>> 11;
+        return hash * 0x1.0p-53 < rate;
+    }
+
+    /**
+     * Queue an event; never blocks. Callers should check {@link #isTraced(int)} first.
+     * @param values Arguments for the step's template
+     */
+    public void record(int employeeId, Step step, Object... values) {
+        TraceEvent event = new TraceEvent(System.currentTimeMillis(), employeeId, step, values);
+        if (queue.offer(event)) {
+            recordedCount.incrementAndGet();
+            ensureWriter();
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private synchronized void ensureWriter() {
+        if (writer != null) {
+            return;
+        }
+        writer = new Thread(this::drain, "payroll-calculation-trace");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void drain() {
+        List<TraceEvent> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch);
+            for (TraceEvent event : batch) {
+                write(event);
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(TraceEvent event) {
+        try {
+            LOGGER.info(event.format());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not write calculation trace event " + event.getStep(), e);
+        }
+        if (recent.length > 0) {
+            synchronized (recent) {
+                recent[recentNext] = event;
+                recentNext = (recentNext + 1) % recent.length;
+                recentCount++;
+            }
+        }
+    }
+
+    // Inspection
+
+    /**
+     * Most recently written events, oldest first
+     */
+    public List<TraceEvent> getRecentEvents() {
+        synchronized (recent) {
+            int size = (int) Math.min(recentCount, recent.length);
+            List<TraceEvent> events = new ArrayList<>(size);
+            int start = (recentNext - size + recent.length) % Math.max(recent.length, 1);
+            for (int i = 0; i < size; i++) {
+                events.add(recent[(start + i) % recent.length]);
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Recent events of one employee, oldest first
+     */
+    public List<TraceEvent> getRecentEvents(int employeeId) {
+        List<TraceEvent> events = new ArrayList<>();
+        for (TraceEvent event : getRecentEvents()) {
+            if (event.getEmployeeId() == employeeId) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    public long getRecordedCount() {
+        return recordedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public String getStats() {
+        return String.format("CalculationTrace: %s, %d traced employees, sample rate %.3f, recorded=%d, dropped=%d, queued=%d",
+                enabled ? "enabled" : "disabled", tracedEmployees.size(), sampleRate,
+                recordedCount.get(), droppedCount.get(), queue.size());
+    }
+}
@@ -0,0 +1,351 @@
+package service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Statutory contributions (SSS, PhilHealth, Pag-IBIG) and withholding tax from effective-dated
+ * rate tables.
+ *
+ * Tables are read from statutory-rates.properties (or the file named by the
+ * {@code payroll.rates.file} system property) and compiled into sorted primitive arrays, so
+ * each lookup is a binary search over the bracket bounds. A payroll period uses the version in
+ * effect on its end date, which lets past periods be recomputed with the rates of their time.
+ */
+public class ContributionEngine {
+    private static final Logger LOGGER = Logger.getLogger(ContributionEngine.class.getName());
+
+    public static final String RATES_FILE_PROPERTY = "payroll.rates.file";
+    private static final String DEFAULT_RESOURCE = "statutory-rates.properties";
+    private static final String KEY_PREFIX = "rates.";
+
+    private final NavigableMap<LocalDate, RateTable> tables;
+
+    private ContributionEngine(NavigableMap<LocalDate, RateTable> tables) {
+        if (tables.isEmpty()) {
+            throw new IllegalArgumentException("No statutory rate tables defined");
+        }
+        this.tables = Collections.unmodifiableNavigableMap(tables);
+    }
+
+    private static final class SharedHolder {
+        static final ContributionEngine INSTANCE = loadDefault();
+    }
+
+    /**
+     * Application-wide engine, loaded on first use
+     */
+    public static ContributionEngine shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Load the override file if {@value #RATES_FILE_PROPERTY} is set, otherwise the bundled tables
+     */
+    public static ContributionEngine loadDefault() {
+        String file = System.getProperty(RATES_FILE_PROPERTY);
+        try {
+            if (file != null && !file.trim().isEmpty()) {
+                return load(Paths.get(file.trim()));
+            }
+            try (InputStream in = ContributionEngine.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Statutory rate tables not found: " + DEFAULT_RESOURCE);
+                }
+                Properties properties = new Properties();
+                properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                return fromProperties(properties);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read statutory rate tables: " + e.getMessage(), e);
+        }
+    }
+
+    public static ContributionEngine load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        LOGGER.info("Loaded statutory rate tables from " + file);
+        return fromProperties(properties);
+    }
+
+    /**
+     * Compile every table version found under rates.&lt;yyyy-MM-dd&gt;.* keys
+     * @throws IllegalArgumentException if a version is missing settings or its brackets are malformed
+     */
+    public static ContributionEngine fromProperties(Properties properties) {
+        NavigableMap<LocalDate, RateTable> tables = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(KEY_PREFIX)) {
+                continue;
+            }
+            int dot = key.indexOf('.', KEY_PREFIX.length());
+            if (dot < 0) {
+                continue;
+            }
+            String version = key.substring(KEY_PREFIX.length(), dot);
+            LocalDate effectiveDate;
+            try {
+                effectiveDate = LocalDate.parse(version);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid effective date in rate key: " + key, e);
+            }
+            if (!tables.containsKey(effectiveDate)) {
+                tables.put(effectiveDate, RateTable.compile(effectiveDate, properties, KEY_PREFIX + version + "."));
+            }
+        }
+        return new ContributionEngine(tables);
+    }
+
+    /**
+     * Rate table in effect on a date; dates before the earliest version use the earliest one
+     */
+    public RateTable forDate(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        Map.Entry<LocalDate, RateTable> entry = tables.floorEntry(date);
+        return entry != null ? entry.getValue() : tables.firstEntry().getValue();
+    }
+
+    /**
+     * Rate table for a payroll period, chosen by the period's end date
+     */
+    public RateTable forPeriod(LocalDate periodStart, LocalDate periodEnd) {
+        return forDate(periodEnd != null ? periodEnd : periodStart);
+    }
+
+    public NavigableMap<LocalDate, RateTable> getTables() {
+        return tables;
+    }
+
+    /**
+     * Contributions for many monthly salaries at once, using the table in effect on a date
+     */
+    public Contributions calculate(double[] monthlySalaries, LocalDate date) {
+        return forDate(date).calculate(monthlySalaries);
+    }
+
+    /**
+     * One version of the statutory tables, compiled to primitive arrays
+     */
+    public static final class RateTable {
+        private final LocalDate effectiveDate;
+
+        // SSS: amount[i] applies up to upper[i]; the last amount applies above every bound
+        private final double[] sssUpper;
+        private final double[] sssAmount;
+
+        private final double philhealthRate;
+        private final double philhealthEmployeeShare;
+        private final double philhealthMin;
+        private final double philhealthMax;
+
+        private final double[] pagibigUpper;
+        private final double[] pagibigRate;
+        private final double pagibigMax;
+
+        // Annual tax: base[i] + (income - upper[i - 1]) * rate[i]
+        private final double[] taxUpper;
+        private final double[] taxBase;
+        private final double[] taxRate;
+
+        private RateTable(LocalDate effectiveDate, double[] sssUpper, double[] sssAmount,
+                          double philhealthRate, double philhealthEmployeeShare, double philhealthMin,
+                          double philhealthMax, double[] pagibigUpper, double[] pagibigRate, double pagibigMax,
+                          double[] taxUpper, double[] taxBase, double[] taxRate) {
+            this.effectiveDate = effectiveDate;
+            this.sssUpper = sssUpper;
+            this.sssAmount = sssAmount;
+            this.philhealthRate = philhealthRate;
+            this.philhealthEmployeeShare = philhealthEmployeeShare;
+            this.philhealthMin = philhealthMin;
+            this.philhealthMax = philhealthMax;
+            this.pagibigUpper = pagibigUpper;
+            this.pagibigRate = pagibigRate;
+            this.pagibigMax = pagibigMax;
+            this.taxUpper = taxUpper;
+            this.taxBase = taxBase;
+            this.taxRate = taxRate;
+        }
+
+        static RateTable compile(LocalDate effectiveDate, Properties properties, String prefix) {
+            double[] sssUpper = bounds(properties, prefix + "sss.bracket.upper");
+            double[] sssAmount = perBracket(properties, prefix + "sss.bracket.amount", sssUpper);
+            double[] pagibigUpper = bounds(properties, prefix + "pagibig.bracket.upper");
+            double[] pagibigRate = perBracket(properties, prefix + "pagibig.bracket.rate", pagibigUpper);
+            double[] taxUpper = bounds(properties, prefix + "tax.bracket.upper");
+            double[] taxBase = perBracket(properties, prefix + "tax.bracket.base", taxUpper);
+            double[] taxRate = perBracket(properties, prefix + "tax.bracket.rate", taxUpper);
+
+            return new RateTable(effectiveDate, sssUpper, sssAmount,
+                    number(properties, prefix + "philhealth.rate"),
+                    number(properties, prefix + "philhealth.employeeShare"),
+                    number(properties, prefix + "philhealth.min"),
+                    number(properties, prefix + "philhealth.max"),
+                    pagibigUpper, pagibigRate, number(properties, prefix + "pagibig.max"),
+                    taxUpper, taxBase, taxRate);
+        }
+
+        /**
+         * Index of the bracket containing value: the first bound at or above it
+         */
+        private static int bracket(double[] upper, double value) {
+            int index = Arrays.binarySearch(upper, value);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        public LocalDate getEffectiveDate() {
+            return effectiveDate;
+        }
+
+        public double sss(double monthlySalary) {
+            return sssAmount[bracket(sssUpper, monthlySalary)];
+        }
+
+        public double philhealth(double monthlySalary) {
+            double employeeShare = monthlySalary * philhealthRate * philhealthEmployeeShare;
+            if (employeeShare < philhealthMin) return philhealthMin;
+            if (employeeShare > philhealthMax) return philhealthMax;
+            return employeeShare;
+        }
+
+        public double pagibig(double monthlySalary) {
+            return Math.min(monthlySalary * pagibigRate[bracket(pagibigUpper, monthlySalary)], pagibigMax);
+        }
+
+        /**
+         * Monthly withholding tax, computed on the annualized monthly salary
+         */
+        public double monthlyTax(double monthlySalary) {
+            double annualSalary = monthlySalary * 12;
+            int index = bracket(taxUpper, annualSalary);
+            double excessOver = index == 0 ? 0.0 : taxUpper[index - 1];
+            double annualTax = taxBase[index] + (annualSalary - excessOver) * taxRate[index];
+            return annualTax / 12;
+        }
+
+        /**
+         * Evaluate many salaries at once; each contribution is computed in its own pass over the array
+         */
+        public Contributions calculate(double[] monthlySalaries) {
+            if (monthlySalaries == null) {
+                throw new IllegalArgumentException("Salaries cannot be null");
+            }
+            int n = monthlySalaries.length;
+            double[] sss = new double[n];
+            double[] philhealth = new double[n];
+            double[] pagibig = new double[n];
+            double[] tax = new double[n];
+
+            for (int i = 0; i < n; i++) sss[i] = sss(monthlySalaries[i]);
+            for (int i = 0; i < n; i++) philhealth[i] = philhealth(monthlySalaries[i]);
+            for (int i = 0; i < n; i++) pagibig[i] = pagibig(monthlySalaries[i]);
+            for (int i = 0; i < n; i++) tax[i] = monthlyTax(monthlySalaries[i]);
+
+            return new Contributions(effectiveDate, sss, philhealth, pagibig, tax);
+        }
+
+        private static double[] bounds(Properties properties, String key) {
+            double[] values = numbers(properties, key);
+            for (int i = 1; i < values.length; i++) {
+                if (values[i] <= values[i - 1]) {
+                    throw new IllegalArgumentException("Bracket bounds must be strictly ascending: " + key);
+                }
+            }
+            return values;
+        }
+
+        private static double[] perBracket(Properties properties, String key, double[] upper) {
+            double[] values = numbers(properties, key);
+            if (values.length != upper.length + 1) {
+                throw new IllegalArgumentException(String.format(
+                        "%s needs %d values (one per bracket), found %d", key, upper.length + 1, values.length));
+            }
+            return values;
+        }
+
+        private static double[] numbers(Properties properties, String key) {
+            String value = required(properties, key);
+            String[] parts = value.split(",");
+            double[] values = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                values[i] = parse(key, parts[i]);
+            }
+            return values;
+        }
+
+        private static double number(Properties properties, String key) {
+            return parse(key, required(properties, key));
+        }
+
+        private static String required(Properties properties, String key) {
+            String value = properties.getProperty(key);
+            if (value == null || value.trim().isEmpty()) {
+                throw new IllegalArgumentException("Missing statutory rate setting: " + key);
+            }
+            return value;
+        }
+
+        private static double parse(String key, String value) {
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number '" + value.trim() + "' in " + key, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "RateTable{effective=" + effectiveDate +
+                    ", sssBrackets=" + sssAmount.length +
+                    ", taxBrackets=" + taxRate.length + "}";
+        }
+    }
+
+    /**
+     * Contributions for an array of salaries, index-aligned with the input
+     */
+    public static final class Contributions {
+        private final LocalDate effectiveDate;
+        private final double[] sss;
+        private final double[] philhealth;
+        private final double[] pagibig;
+        private final double[] tax;
+
+        Contributions(LocalDate effectiveDate, double[] sss, double[] philhealth, double[] pagibig, double[] tax) {
+            this.effectiveDate = effectiveDate;
+            this.sss = sss;
+            this.philhealth = philhealth;
+            this.pagibig = pagibig;
+            this.tax = tax;
+        }
+
+        public LocalDate getEffectiveDate() { return effectiveDate; }
+        public int size() { return sss.length; }
+        public double getSss(int index) { return sss[index]; }
+        public double getPhilhealth(int index) { return philhealth[index]; }
+        public double getPagibig(int index) { return pagibig[index]; }
+        public double getTax(int index) { return tax[index]; }
+
+        public double getTotal(int index) {
+            return sss[index] + philhealth[index] + pagibig[index] + tax[index];
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Set of days, as epoch days, stored sparsely: only the 64-day words holding at least one day
+ * are kept, as sorted word keys with their bits. A year of daily flags takes six words, and an
+ * empty stretch takes nothing.
+ *
+ * Not thread-safe; {@link AttendanceBitmapIndex} guards its bitmaps.
+ */
+final class DayBitmap {
+
+    private int[] keys = new int[8];
+    private long[] words = new long[8];
+    private int size;
+
+    void set(int day) {
+        int key = day >> 6;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertWord(index, key);
+        }
+        words[index] |= 1L << day;
+    }
+
+    /**
+     * Remove the days from first to last, inclusive
+     */
+    void clear(int first, int last) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            long word = words[i] & ~rangeMask(keys[i], first, last);
+            if (word != 0) {
+                keys[kept] = keys[i];
+                words[kept] = word;
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    /**
+     * Number of days from first to last, inclusive
+     */
+    int count(int first, int last) {
+        if (first > last) {
+            return 0;
+        }
+        int count = 0;
+        int lastKey = last >> 6;
+        for (int i = firstWordAtOrAfter(first >> 6); i < size && keys[i] <= lastKey; i++) {
+            count += Long.bitCount(words[i] & rangeMask(keys[i], first, last));
+        }
+        return count;
+    }
+
+    /**
+     * Whether the two sets share a day
+     */
+    boolean intersects(DayBitmap other) {
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                if ((words[i] & other.words[j]) != 0) {
+                    return true;
+                }
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bits of the word with the given key that fall within first to last, inclusive
+     */
+    private static long rangeMask(int key, int first, int last) {
+        int firstKey = first >> 6;
+        int lastKey = last >> 6;
+        if (key < firstKey || key > lastKey) {
+            return 0;
+        }
+        long mask = -1L;
+        if (key == firstKey) {
+            mask &= -1L << first;
+        }
+        if (key == lastKey) {
+            mask &= -1L >>> (63 - (last & 63));
+        }
+        return mask;
+    }
+
+    private int firstWordAtOrAfter(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void insertWord(int index, int key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            words = Arrays.copyOf(words, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(words, index, words, index + 1, size - index);
+        keys[index] = key;
+        words[index] = 0;
+        size++;
+    }
+}
@@ -0,0 +1,214 @@
+package service;
+
+import model.Payroll;
+import util.AppConfig;
+import util.DataChangeNotifier;
+import util.DataChangeNotifier.DataChangeEvent;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded LRU cache of calculated payroll, keyed by employee and period.
+ *
+ * Entries are invalidated when a DAO publishes a {@link DataChangeEvent} for the employee that
+ * overlaps the cached period. Every change is stamped with an increasing version, which guards
+ * against caching a result computed from data that changed mid-calculation: callers read
+ * {@link #currentVersion()} before loading data and pass it to {@link #put}, which drops the
+ * result if the employee's data changed after that point.
+ *
+ * Cached Payroll objects are shared between callers and must be treated as read-only.
+ */
+public class PayrollCache {
+    private static final Logger LOGGER = Logger.getLogger(PayrollCache.class.getName());
+
+    private static final int DEFAULT_MAX_ENTRIES = 5_000;
+    private static final String MAX_ENTRIES_KEY = "cache.payroll.maxEntries";
+
+    private static final PayrollCache SHARED =
+            new PayrollCache(AppConfig.get().getInt(MAX_ENTRIES_KEY, DEFAULT_MAX_ENTRIES));
+
+    static {
+        DataChangeNotifier.addListener(SHARED::onDataChanged);
+        AppConfig.addListener((previous, current) -> {
+            int size = current.getInt(MAX_ENTRIES_KEY, DEFAULT_MAX_ENTRIES);
+            if (size > 0 && size != SHARED.getMaxEntries()) {
+                SHARED.setMaxEntries(size);
+            }
+        });
+    }
+
+    private int maxEntries;
+    private final LinkedHashMap<Key, Payroll> entries;
+    private final Map<Integer, Long> employeeVersions = new HashMap<>();
+    private long versionCounter;
+    private long globalVersion;
+
+    // Statistics
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+    private long stalePutCount;
+
+    /**
+     * Create a standalone cache. It is not subscribed to data changes; call
+     * {@link #onDataChanged} yourself or use {@link #shared()}.
+     */
+    public PayrollCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, Payroll>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Payroll> eldest) {
+                if (size() > PayrollCache.this.maxEntries) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Change the capacity, evicting the least recently used entries if it shrinks
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        Iterator<Key> eldest = entries.keySet().iterator();
+        while (entries.size() > maxEntries) {
+            eldest.next();
+            eldest.remove();
+            evictionCount++;
+        }
+        LOGGER.info("Payroll cache capacity set to " + maxEntries);
+    }
+
+    /**
+     * Application-wide cache, invalidated by DAO writes
+     */
+    public static PayrollCache shared() {
+        return SHARED;
+    }
+
+    public synchronized Payroll get(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        Payroll payroll = entries.get(new Key(employeeId, periodStart, periodEnd));
+        if (payroll != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return payroll;
+    }
+
+    /**
+     * Version of the data as a whole; read it before loading the data a result is computed from
+     */
+    public synchronized long currentVersion() {
+        return versionCounter;
+    }
+
+    /**
+     * Cache a result unless the employee's data changed after versionAtLoad
+     * @return true if the result was cached
+     */
+    public synchronized boolean put(Payroll payroll, LocalDate periodStart, LocalDate periodEnd, long versionAtLoad) {
+        int employeeId = payroll.getEmployeeId();
+        Long employeeVersion = employeeVersions.get(employeeId);
+        if (globalVersion > versionAtLoad || (employeeVersion != null && employeeVersion > versionAtLoad)) {
+            stalePutCount++;
+            return false;
+        }
+        entries.put(new Key(employeeId, periodStart, periodEnd), payroll);
+        return true;
+    }
+
+    /**
+     * Drop the entries a data change can affect
+     */
+    public synchronized void onDataChanged(DataChangeEvent event) {
+        long version = ++versionCounter;
+        if (event.isAllEmployees()) {
+            globalVersion = version;
+        } else {
+            employeeVersions.put(event.getEmployeeId(), version);
+        }
+
+        int removed = 0;
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            Key key = it.next();
+            if (event.affects(key.employeeId, key.periodStart, key.periodEnd)) {
+                it.remove();
+                removed++;
+            }
+        }
+        invalidationCount += removed;
+
+        if (removed > 0 && LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("Invalidated %d cached payrolls after %s", removed, event));
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidationCount += entries.size();
+        entries.clear();
+        globalVersion = ++versionCounter;
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized int getMaxEntries() { return maxEntries; }
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getMissCount() { return missCount; }
+    public synchronized long getEvictionCount() { return evictionCount; }
+    public synchronized long getInvalidationCount() { return invalidationCount; }
+
+    public synchronized double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    public synchronized String getStats() {
+        return String.format("PayrollCache: size=%d/%d, hits=%d, misses=%d (%.1f%% hit rate), evictions=%d, invalidations=%d, stale puts=%d",
+                entries.size(), maxEntries, hitCount, missCount, getHitRate() * 100,
+                evictionCount, invalidationCount, stalePutCount);
+    }
+
+    private static final class Key {
+        final int employeeId;
+        final LocalDate periodStart;
+        final LocalDate periodEnd;
+
+        Key(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+            this.employeeId = employeeId;
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return employeeId == other.employeeId &&
+                    periodStart.equals(other.periodStart) &&
+                    periodEnd.equals(other.periodEnd);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(employeeId, periodStart, periodEnd);
+        }
+    }
+}
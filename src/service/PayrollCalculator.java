@@ -1,24 +1,40 @@
 package service;
 
 import dao.AttendanceDAO;
+import dao.AttendanceRepository;
 import dao.EmployeeDAO;
+import dao.EmployeeRepository;
 import dao.LeaveRequestDAO;
+import dao.LeaveRequestRepository;
 import dao.OvertimeDAO;
+import dao.OvertimeRepository;
 import dao.DeductionDAO;
+import dao.DeductionRepository;
+import dao.Repositories;
 import model.Attendance;
 import model.Employee;
 import model.LeaveRequest;
 import model.Overtime;
 import model.Payroll;
 import model.Deduction;
+import util.ReadIntent;
+import util.UnitOfWork;
 
 import java.sql.Date;
-import java.sql.Time;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,16 +50,33 @@ public class PayrollCalculator {
     private static final LocalTime LATE_THRESHOLD_TIME = LocalTime.of(8, 15);
     private static final LocalTime STANDARD_LOGOUT_TIME = LocalTime.of(17, 0);
 
+    // Deduction types written by a committed payroll run
+    private static final List<String> PAYROLL_DEDUCTION_TYPES =
+            List.of(Deduction.TYPE_LATE, Deduction.TYPE_UNDERTIME, Deduction.TYPE_UNPAID_LEAVE);
+
     // DAO instances
-    private final EmployeeDAO employeeDAO;
-    private final AttendanceDAO attendanceDAO;
-    private LeaveRequestDAO leaveDAO;
-    private OvertimeDAO overtimeDAO;
-    private DeductionDAO deductionDAO;
+    private final EmployeeRepository employeeDAO;
+    private final AttendanceRepository attendanceDAO;
+    private LeaveRequestRepository leaveDAO;
+    private OvertimeRepository overtimeDAO;
+    private DeductionRepository deductionDAO;
+
+    // Whether loads can share a database snapshot
+    private final boolean usesDatabase;
+
+    // Effective-dated SSS, PhilHealth, Pag-IBIG and tax tables
+    private final ContributionEngine contributionEngine = ContributionEngine.shared();
+
+    // Per-employee calculation details, off unless enabled
+    private final CalculationTrace trace = CalculationTrace.shared();
+
+    // Preview results, invalidated by DAO writes
+    private final PayrollCache payrollCache = PayrollCache.shared();
 
     public PayrollCalculator() {
         this.employeeDAO = new EmployeeDAO();
         this.attendanceDAO = new AttendanceDAO();
+        this.usesDatabase = true;
 
         // Initialize optional DAOs with proper error handling
         try {
@@ -72,456 +105,727 @@ public class PayrollCalculator {
     }
 
     /**
-     * Calculate comprehensive payroll for an employee within a specific period
+     * Calculator over the given stores, e.g. {@link Repositories#inMemory()} to run payroll
+     * without a database. Absent optional stores are skipped as in the default constructor.
+     */
+    public PayrollCalculator(Repositories repositories) {
+        if (repositories == null) {
+            throw new IllegalArgumentException("Repositories cannot be null");
+        }
+        this.employeeDAO = repositories.getEmployees();
+        this.attendanceDAO = repositories.getAttendance();
+        this.leaveDAO = repositories.getLeaveRequests();
+        this.overtimeDAO = repositories.getOvertime();
+        this.deductionDAO = repositories.getDeductions();
+        this.usesDatabase = repositories.usesDatabase();
+    }
+
+    /**
+     * How a calculation treats the database.
+     * PREVIEW is pure: nothing is written, safe for dashboards and reports. Results may come from
+     * the payroll cache.
+     * COMMIT always recalculates from the database and persists the period's deduction records,
+     * replacing any written by an earlier commit. The fresh result refreshes the cache.
+     */
+    public enum CalculationMode {
+        PREVIEW,
+        COMMIT
+    }
+
+    /**
+     * Calculate comprehensive payroll for an employee within a specific period (preview only)
      * Main fix is in the attendance-based earnings calculation
      */
     public Payroll calculatePayroll(int employeeId, LocalDate periodStart, LocalDate periodEnd)
             throws PayrollCalculationException {
+        return calculatePayroll(employeeId, periodStart, periodEnd, CalculationMode.PREVIEW);
+    }
+
+    /**
+     * Calculate comprehensive payroll for an employee, persisting deductions in COMMIT mode
+     */
+    public Payroll calculatePayroll(int employeeId, LocalDate periodStart, LocalDate periodEnd, CalculationMode mode)
+            throws PayrollCalculationException {
 
         try {
             validateInputs(employeeId, periodStart, periodEnd);
 
-            // Get employee information
-            Employee employee = getEmployeeWithValidation(employeeId);
+            if (mode == CalculationMode.PREVIEW) {
+                Payroll cached = payrollCache.get(employeeId, periodStart, periodEnd);
+                if (cached != null) {
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine(String.format("Using cached payroll for employee %d, %s to %s",
+                                employeeId, periodStart, periodEnd));
+                    }
+                    return cached;
+                }
+            }
+            long version = payrollCache.currentVersion();
+
+            // Load the employee and the period's data once, from one snapshot on one connection;
+            // the computation itself does no I/O
+            Employee employee;
+            List<Attendance> attendanceList;
+            List<Overtime> overtimeList;
+            List<LeaveRequest> approvedLeaves;
+            boolean fromReplica;
+            try (ReadIntent readScope = readScope(mode);
+                 UnitOfWork snapshot = beginSnapshot()) {
+                employee = getEmployeeWithValidation(employeeId);
+                attendanceList = attendanceDAO.getAttendanceByEmployeeIdBetweenDates(employeeId, periodStart, periodEnd);
+                overtimeList = loadOvertime(employeeId, periodStart, periodEnd);
+                approvedLeaves = loadApprovedLeaves(employeeId, periodStart, periodEnd);
+                if (snapshot != null) {
+                    snapshot.commit();
+                }
+                fromReplica = readScope != null && readScope.isReplicaUsed();
+            }
 
-            // Initialize payroll object
-            Payroll payroll = new Payroll(employeeId, Date.valueOf(periodStart), Date.valueOf(periodEnd));
+            Payroll payroll = computePayroll(employee, attendanceList, overtimeList, approvedLeaves,
+                    periodStart, periodEnd);
 
-            // Set basic salary information from employee record
-            double monthlySalary = employee.getBasicSalary();
-            double dailyRate = calculateDailyRate(monthlySalary);
+            if (payroll.getDaysWorked() == 0 && trace.isAttendanceHistoryEnabled() && trace.isTraced(employeeId)) {
+                traceAttendanceHistory(employeeId);
+            }
 
-            payroll.setMonthlyRate(monthlySalary);
-            payroll.setDailyRate(dailyRate);
+            if (mode == CalculationMode.COMMIT) {
+                commitDeductions(Collections.singletonList(payroll), Collections.singleton(employeeId),
+                        periodStart, periodEnd);
+            }
+            if (!fromReplica) {
+                payrollCache.put(payroll, periodStart, periodEnd, version);
+            }
 
-            // Calculate attendance-based earnings with better debugging
-            calculateAttendanceBasedEarningsFixed(payroll, employeeId, periodStart, periodEnd, dailyRate);
+            if (trace.isTraced(employeeId)) {
+                trace.record(employeeId, CalculationTrace.Step.SUMMARY, periodStart, periodEnd,
+                        payroll.getDaysWorked(), payroll.getDailyRate(), payroll.getGrossEarnings(),
+                        payroll.getGrossPay(), payroll.getNetPay());
+            }
 
-            // Calculate overtime earnings (if overtime table exists)
-            calculateOvertimeEarnings(payroll, employeeId, periodStart, periodEnd, dailyRate);
+            return payroll;
 
-            // Calculate allowances and benefits (from employee record)
-            calculateAllowancesAndBenefits(payroll, employee);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, String.format("Failed to calculate payroll for employee %d", employeeId), e);
+            throw new PayrollCalculationException("Failed to calculate payroll: " + e.getMessage(), e);
+        }
+    }
 
-            // Calculate time-based deductions
-            calculateTimeBasedDeductions(payroll, employeeId, periodStart, periodEnd, dailyRate);
+    /**
+     * Calculate payroll for many employees at once.
+     * Employees, attendance, overtime and approved leave for the whole period are loaded with one
+     * query per table and grouped by employee in memory, so the number of database round trips
+     * does not grow with headcount. Employees that fail are reported in the result instead of
+     * aborting the run.
+     * @param employeeIds Employee IDs to calculate; result order follows this collection
+     * @throws PayrollCalculationException if the period is invalid or the bulk load fails
+     */
+    public BatchResult calculatePayrollBatch(Collection<Integer> employeeIds, LocalDate periodStart, LocalDate periodEnd)
+            throws PayrollCalculationException {
+        return calculatePayrollBatch(employeeIds, periodStart, periodEnd, CalculationMode.PREVIEW);
+    }
 
-            // Calculate government contributions and tax
-            calculateGovernmentContributionsAndTax(payroll, monthlySalary);
+    public BatchResult calculatePayrollBatch(Collection<Integer> employeeIds, LocalDate periodStart, LocalDate periodEnd,
+                                             CalculationMode mode) throws PayrollCalculationException {
 
-            // Final calculations
-            payroll.calculateGrossPay();
-            payroll.calculateTotalDeductions();
-            payroll.calculateNetPay();
+        validatePeriod(periodStart, periodEnd);
+        Set<Integer> ids = new LinkedHashSet<>(employeeIds);
 
-            // Validate final payroll
-            validatePayroll(payroll);
+        Map<Integer, Employee> employeesById = new HashMap<>();
+        try (ReadIntent readScope = readScope(mode)) {
+            for (Employee employee : employeeDAO.getEmployeesByIds(ids)) {
+                employeesById.put(employee.getEmployeeId(), employee);
+            }
+        } catch (Exception e) {
+            throw new PayrollCalculationException("Failed to load employees: " + e.getMessage(), e);
+        }
 
-            // Log detailed calculation results
-            LOGGER.info(String.format("=== PAYROLL CALCULATION SUMMARY ==="));
-            LOGGER.info(String.format("Employee ID: %d", employeeId));
-            LOGGER.info(String.format("Period: %s to %s", periodStart, periodEnd));
-            LOGGER.info(String.format("Days Worked: %d", payroll.getDaysWorked()));
-            LOGGER.info(String.format("Daily Rate: %.2f", dailyRate));
-            LOGGER.info(String.format("Basic Pay: %.2f", payroll.getGrossEarnings()));
-            LOGGER.info(String.format("Gross Pay: %.2f", payroll.getGrossPay()));
-            LOGGER.info(String.format("Net Pay: %.2f", payroll.getNetPay()));
-            LOGGER.info(String.format("====================================="));
+        List<Employee> employees = new ArrayList<>(ids.size());
+        BatchResult missing = new BatchResult();
+        for (Integer id : ids) {
+            Employee employee = employeesById.get(id);
+            if (employee != null) {
+                employees.add(employee);
+            } else {
+                missing.addFailure(id, new PayrollCalculationException("Employee not found with ID: " + id));
+            }
+        }
 
-            return payroll;
+        BatchResult result = calculatePayrollBatchForEmployees(employees, periodStart, periodEnd, mode);
+        if (missing.getFailureCount() == 0) {
+            return result;
+        }
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, String.format("Failed to calculate payroll for employee %d", employeeId), e);
-            throw new PayrollCalculationException("Failed to calculate payroll: " + e.getMessage(), e);
+        // Re-assemble in the caller's order
+        BatchResult ordered = new BatchResult();
+        for (Integer id : ids) {
+            if (result.getPayrolls().containsKey(id)) {
+                ordered.addPayroll(result.getPayrolls().get(id));
+            } else if (result.getFailures().containsKey(id)) {
+                ordered.addFailure(id, result.getFailures().get(id));
+            } else {
+                ordered.addFailure(id, missing.getFailures().get(id));
+            }
         }
+        return ordered;
     }
 
     /**
-     * Calculate attendance-based earnings using actual attendance data
-     * This method has been enhanced to properly handle the days worked calculation
+     * Calculate payroll for employees the caller has already loaded (e.g. from getAllEmployees()),
+     * skipping the employee lookup query
      */
-    private void calculateAttendanceBasedEarningsFixed(Payroll payroll, int employeeId,
-                                                       LocalDate periodStart, LocalDate periodEnd, double dailyRate) {
+    public BatchResult calculatePayrollBatchForEmployees(List<Employee> employees, LocalDate periodStart, LocalDate periodEnd)
+            throws PayrollCalculationException {
+        return calculatePayrollBatchForEmployees(employees, periodStart, periodEnd, CalculationMode.PREVIEW);
+    }
 
-        LOGGER.info(String.format("=== ATTENDANCE CALCULATION DEBUG ==="));
-        LOGGER.info(String.format("Employee ID: %d", employeeId));
-        LOGGER.info(String.format("Period: %s to %s", periodStart, periodEnd));
-        LOGGER.info(String.format("Daily Rate: %.2f", dailyRate));
+    public BatchResult calculatePayrollBatchForEmployees(List<Employee> employees, LocalDate periodStart,
+                                                         LocalDate periodEnd, CalculationMode mode)
+            throws PayrollCalculationException {
 
-        try {
-            // Get attendance data with enhanced logging
-            List<Attendance> attendanceList = attendanceDAO.getAttendanceByEmployeeIdBetweenDates(
-                    employeeId, periodStart, periodEnd);
-
-            LOGGER.info(String.format("Raw attendance records found: %d", attendanceList.size()));
-
-            // Filter valid attendance records (both log in and log out present)
-            int validAttendanceDays = 0;
-            double totalValidHours = 0.0;
-
-            for (Attendance attendance : attendanceList) {
-                LOGGER.info(String.format("Processing attendance: Date=%s, LogIn=%s, LogOut=%s",
-                        attendance.getDate(),
-                        attendance.getLogIn(),
-                        attendance.getLogOut()));
-
-                // Only count days with valid log in time (log out can be optional)
-                if (attendance.getLogIn() != null) {
-                    validAttendanceDays++;
-
-                    // Calculate work hours for this day
-                    double workHours = attendance.getWorkHours();
-                    totalValidHours += workHours;
-
-                    LOGGER.info(String.format("Valid attendance day #%d: %.2f hours",
-                            validAttendanceDays, workHours));
-                } else {
-                    LOGGER.warning(String.format("Invalid attendance record (no log in): %s",
-                            attendance.getDate()));
+        validatePeriod(periodStart, periodEnd);
+
+        // Previews reuse cached results and only load data for the employees that missed
+        Map<Integer, Payroll> cached = new HashMap<>();
+        Set<Integer> ids = new HashSet<>();
+        for (Employee employee : employees) {
+            int employeeId = employee.getEmployeeId();
+            Payroll payroll = mode == CalculationMode.PREVIEW
+                    ? payrollCache.get(employeeId, periodStart, periodEnd) : null;
+            if (payroll != null) {
+                cached.put(employeeId, payroll);
+            } else {
+                ids.add(employeeId);
+            }
+        }
+        long version = payrollCache.currentVersion();
+
+        Map<Integer, List<Attendance>> attendanceByEmployee = Collections.emptyMap();
+        Map<Integer, List<Overtime>> overtimeByEmployee = Collections.emptyMap();
+        Map<Integer, List<LeaveRequest>> leavesByEmployee = Collections.emptyMap();
+        boolean fromReplica = false;
+        if (!ids.isEmpty()) {
+            try (ReadIntent readScope = readScope(mode);
+                 UnitOfWork snapshot = beginSnapshot()) {
+                attendanceByEmployee = loadAttendanceByEmployee(periodStart, periodEnd, ids);
+                overtimeByEmployee = loadOvertimeByEmployee(periodStart, periodEnd, ids);
+                leavesByEmployee = loadApprovedLeavesByEmployee(periodStart, periodEnd, ids);
+                if (snapshot != null) {
+                    snapshot.commit();
                 }
+                fromReplica = readScope != null && readScope.isReplicaUsed();
+            } catch (SQLException e) {
+                throw new PayrollCalculationException("Failed to load payroll data: " + e.getMessage(), e);
             }
+        }
 
-            // Set the correct days worked
-            payroll.setDaysWorked(validAttendanceDays);
+        BatchResult result = new BatchResult();
 
-            // Calculate basic pay based on actual days worked
-            double basicPay = validAttendanceDays * dailyRate;
-            payroll.setGrossEarnings(basicPay);
+        for (Employee employee : employees) {
+            int employeeId = employee.getEmployeeId();
+            Payroll cachedPayroll = cached.get(employeeId);
+            if (cachedPayroll != null) {
+                result.addPayroll(cachedPayroll);
+                continue;
+            }
+            try {
+                Payroll payroll = computePayroll(employee,
+                        attendanceByEmployee.getOrDefault(employeeId, Collections.emptyList()),
+                        overtimeByEmployee.getOrDefault(employeeId, Collections.emptyList()),
+                        leavesByEmployee.getOrDefault(employeeId, Collections.emptyList()),
+                        periodStart, periodEnd);
+                result.addPayroll(payroll);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error calculating payroll for employee " + employeeId, e);
+                result.addFailure(employeeId, e);
+            }
+        }
 
-            LOGGER.info(String.format("FINAL ATTENDANCE CALCULATION:"));
-            LOGGER.info(String.format("- Total attendance records: %d", attendanceList.size()));
-            LOGGER.info(String.format("- Valid attendance days: %d", validAttendanceDays));
-            LOGGER.info(String.format("- Total valid hours: %.2f", totalValidHours));
-            LOGGER.info(String.format("- Daily rate: %.2f", dailyRate));
-            LOGGER.info(String.format("- Basic pay: %.2f", basicPay));
-            LOGGER.info(String.format("===================================="));
+        if (mode == CalculationMode.COMMIT) {
+            commitDeductions(result, periodStart, periodEnd);
+        }
+        if (!fromReplica) {
+            cacheResults(result, periodStart, periodEnd, version);
+        }
 
-            // Handle edge cases
-            if (validAttendanceDays == 0) {
-                LOGGER.warning(String.format("No valid attendance found for employee %d in period %s to %s",
-                        employeeId, periodStart, periodEnd));
-
-                // Still show available attendance data for debugging
-                LOGGER.info("Available attendance data for this employee:");
-                List<Attendance> allAttendance = attendanceDAO.getAttendanceByEmployeeId(employeeId);
-                for (Attendance att : allAttendance) {
-                    LOGGER.info(String.format("- Date: %s, LogIn: %s, LogOut: %s",
-                            att.getDate(), att.getLogIn(), att.getLogOut()));
-                }
-            }
+        LOGGER.info(String.format("Batch payroll for %s to %s: %d calculated (%d cached), %d failed",
+                periodStart, periodEnd, result.getSuccessCount(), cached.size(), result.getFailureCount()));
+        return result;
+    }
 
-        } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error calculating attendance-based earnings", e);
-            // Set defaults in case of error
-            payroll.setDaysWorked(0);
-            payroll.setGrossEarnings(0.0);
+    /**
+     * Preview payroll with attendance taken from a loaded history instead of the attendance
+     * table, e.g. to recompute many past periods from one load. Overtime and leave are still
+     * read from their stores; results are neither cached nor committed.
+     */
+    public BatchResult previewPayrollBatchFromHistory(List<Employee> employees, AttendanceHistory history,
+                                                     LocalDate periodStart, LocalDate periodEnd)
+            throws PayrollCalculationException {
+        if (employees == null || history == null) {
+            throw new IllegalArgumentException("Employees and attendance history cannot be null");
+        }
+        validatePeriod(periodStart, periodEnd);
 
-            // Re-throw to let caller handle the error
-            throw new RuntimeException("Failed to calculate attendance-based earnings: " + e.getMessage(), e);
+        Set<Integer> ids = new HashSet<>();
+        for (Employee employee : employees) {
+            ids.add(employee.getEmployeeId());
+        }
+        Map<Integer, List<Overtime>> overtimeByEmployee;
+        Map<Integer, List<LeaveRequest>> leavesByEmployee;
+        try (ReadIntent readScope = readScope(CalculationMode.PREVIEW);
+             UnitOfWork snapshot = beginSnapshot()) {
+            overtimeByEmployee = loadOvertimeByEmployee(periodStart, periodEnd, ids);
+            leavesByEmployee = loadApprovedLeavesByEmployee(periodStart, periodEnd, ids);
+            if (snapshot != null) {
+                snapshot.commit();
+            }
+        } catch (SQLException e) {
+            throw new PayrollCalculationException("Failed to load payroll data: " + e.getMessage(), e);
         }
+
+        BatchResult result = new BatchResult();
+        for (Employee employee : employees) {
+            int employeeId = employee.getEmployeeId();
+            try {
+                AttendanceAggregate attendance = history.aggregate(employeeId, periodStart, periodEnd,
+                        new AttendanceAggregate(STANDARD_LOGIN_TIME, LATE_THRESHOLD_TIME, STANDARD_LOGOUT_TIME));
+                result.addPayroll(computePayroll(employee, attendance,
+                        overtimeByEmployee.getOrDefault(employeeId, Collections.emptyList()),
+                        leavesByEmployee.getOrDefault(employeeId, Collections.emptyList()),
+                        periodStart, periodEnd));
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error calculating payroll for employee " + employeeId, e);
+                result.addFailure(employeeId, e);
+            }
+        }
+        return result;
     }
 
     /**
-     * Calculate daily rate from monthly salary
+     * Read-only snapshot for a group of loads, or null when the stores are not in the database
      */
-    private double calculateDailyRate(double monthlySalary) {
-        return monthlySalary / STANDARD_WORKING_DAYS_PER_MONTH;
+    UnitOfWork beginSnapshot() throws SQLException {
+        return usesDatabase ? UnitOfWork.beginReadOnlySnapshot() : null;
     }
 
     /**
-     * Calculate hourly rate from daily rate
+     * Read scope for a calculation's loads. Previews follow the caller's read intent and may be
+     * served by the read replica; their results are then not cached, since the replica can lag
+     * behind writes the cache has already seen. Commits always read the primary.
+     * @return scope to close after loading, or null when the caller has no read intent
      */
-    private double calculateHourlyRate(double dailyRate) {
-        return dailyRate / STANDARD_WORKING_HOURS_PER_DAY;
+    private static ReadIntent readScope(CalculationMode mode) {
+        ReadIntent current = ReadIntent.current();
+        if (current == null) {
+            return null;
+        }
+        if (current.isPrimaryOnly()) {
+            return ReadIntent.beginPrimaryOnly();
+        }
+        return mode == CalculationMode.PREVIEW
+                ? ReadIntent.begin(current.getMaxStalenessMillis()) : ReadIntent.beginPrimaryOnly();
     }
 
     /**
-     * Calculate overtime earnings with better error handling
+     * Store a run's payrolls in the cache unless their data changed after version was read
      */
-    private void calculateOvertimeEarnings(Payroll payroll, int employeeId,
-                                           LocalDate periodStart, LocalDate periodEnd, double dailyRate) {
-
-        if (overtimeDAO == null) {
-            LOGGER.info("Overtime table not available, setting overtime pay to 0");
-            payroll.setTotalOvertimeHours(0.0);
-            payroll.setOvertimePay(0.0);
-            return;
+    void cacheResults(BatchResult result, LocalDate periodStart, LocalDate periodEnd, long version) {
+        for (Payroll payroll : result.getPayrolls().values()) {
+            payrollCache.put(payroll, periodStart, periodEnd, version);
         }
+    }
 
-        try {
-            List<Overtime> overtimeList = overtimeDAO.getOvertimeByEmployeeIdAndDateRange(
-                    employeeId, periodStart, periodEnd);
-
-            double totalOvertimeHours = overtimeList.stream()
-                    .filter(Overtime::isApproved) // Only count approved overtime
-                    .mapToDouble(Overtime::getHours)
-                    .sum();
-
-            double hourlyRate = calculateHourlyRate(dailyRate);
-            double overtimePay = totalOvertimeHours * hourlyRate * OVERTIME_RATE_MULTIPLIER;
-
-            payroll.setTotalOvertimeHours(totalOvertimeHours);
-            payroll.setOvertimePay(overtimePay);
-
-            LOGGER.info(String.format("Employee %d overtime: %.2f hours, pay: %.2f",
-                    employeeId, totalOvertimeHours, overtimePay));
-        } catch (Exception e) {
-            LOGGER.warning("Error accessing overtime data, setting overtime pay to 0: " + e.getMessage());
-            payroll.setTotalOvertimeHours(0.0);
-            payroll.setOvertimePay(0.0);
-        }
+    PayrollCache getPayrollCache() {
+        return payrollCache;
     }
 
     /**
-     * Calculate allowances and benefits from employee record
+     * Pure payroll computation from already-loaded data. Performs no database access.
+     * Each amount is rounded to centavos once, when it is set on the payroll; the totals are
+     * exact sums of those centavos.
      */
-    private void calculateAllowancesAndBenefits(Payroll payroll, Employee employee) {
-        payroll.setRiceSubsidy(employee.getRiceSubsidy());
-        payroll.setPhoneAllowance(employee.getPhoneAllowance());
-        payroll.setClothingAllowance(employee.getClothingAllowance());
-
-        LOGGER.info(String.format("Employee %d allowances - Rice: %.2f, Phone: %.2f, Clothing: %.2f",
-                employee.getEmployeeId(), employee.getRiceSubsidy(),
-                employee.getPhoneAllowance(), employee.getClothingAllowance()));
+    Payroll computePayroll(Employee employee, List<Attendance> attendanceList, List<Overtime> overtimeList,
+                           List<LeaveRequest> approvedLeaves, LocalDate periodStart, LocalDate periodEnd)
+            throws PayrollCalculationException {
+        // Single pass over the period's attendance, shared by earnings and deductions
+        return computePayroll(employee, new AttendanceAggregate(STANDARD_LOGIN_TIME, LATE_THRESHOLD_TIME,
+                STANDARD_LOGOUT_TIME).addAll(attendanceList), overtimeList, approvedLeaves, periodStart, periodEnd);
     }
 
     /**
-     * Calculate time-based deductions with better error handling
+     * Payroll computation from the period's attendance already aggregated with the company schedule
      */
-    private void calculateTimeBasedDeductions(Payroll payroll, int employeeId,
-                                              LocalDate periodStart, LocalDate periodEnd, double dailyRate) {
+    private Payroll computePayroll(Employee employee, AttendanceAggregate attendance, List<Overtime> overtimeList,
+                                   List<LeaveRequest> approvedLeaves, LocalDate periodStart, LocalDate periodEnd)
+            throws PayrollCalculationException {
 
-        // Get attendance records
-        List<Attendance> attendanceList = attendanceDAO.getAttendanceByEmployeeIdBetweenDates(
-                employeeId, periodStart, periodEnd);
+        validateEmployee(employee);
+        int employeeId = employee.getEmployeeId();
 
-        double lateDeduction = calculateLateDeduction(attendanceList, dailyRate);
-        double undertimeDeduction = calculateUndertimeDeduction(attendanceList, dailyRate);
+        // Initialize payroll object
+        Payroll payroll = new Payroll(employeeId, Date.valueOf(periodStart), Date.valueOf(periodEnd));
 
-        payroll.setLateDeduction(lateDeduction);
-        payroll.setUndertimeDeduction(undertimeDeduction);
+        // Set basic salary information from employee record
+        double monthlySalary = employee.getBasicSalary();
+        double dailyRate = calculateDailyRate(monthlySalary);
 
-        // Calculate unpaid leave deduction with better error handling
-        double unpaidLeaveDeduction = 0.0;
-        int unpaidLeaveCount = 0;
+        payroll.setMonthlyRate(monthlySalary);
+        payroll.setDailyRate(dailyRate);
 
-        if (leaveDAO != null) {
-            try {
-                List<LeaveRequest> approvedLeaves = leaveDAO.getApprovedLeavesByEmployeeIdAndDateRange(
-                        employeeId, periodStart, periodEnd);
+        // Calculate attendance-based earnings
+        calculateAttendanceBasedEarningsFixed(payroll, attendance, periodStart, periodEnd, dailyRate);
 
-                unpaidLeaveCount = (int) approvedLeaves.stream()
-                        .filter(leave -> "Unpaid".equalsIgnoreCase(leave.getLeaveType()))
-                        .mapToLong(LeaveRequest::getLeaveDays)
-                        .sum();
+        // Calculate overtime earnings (if overtime table exists)
+        calculateOvertimeEarnings(payroll, overtimeList, dailyRate);
 
-                unpaidLeaveDeduction = unpaidLeaveCount * dailyRate;
+        // Calculate allowances and benefits (from employee record)
+        calculateAllowancesAndBenefits(payroll, employee);
 
-                LOGGER.info(String.format("Employee %d unpaid leave: %d days, deduction: %.2f",
-                        employeeId, unpaidLeaveCount, unpaidLeaveDeduction));
-            } catch (Exception e) {
-                LOGGER.warning("Error accessing leave request data: " + e.getMessage());
-            }
-        } else {
-            LOGGER.info("Leave request table not available, setting unpaid leave deduction to 0");
-        }
+        // Calculate time-based deductions
+        calculateTimeBasedDeductions(payroll, attendance, approvedLeaves, dailyRate);
 
-        payroll.setUnpaidLeaveCount(unpaidLeaveCount);
-        payroll.setUnpaidLeaveDeduction(unpaidLeaveDeduction);
+        // Calculate government contributions and tax
+        calculateGovernmentContributionsAndTax(payroll, monthlySalary,
+                contributionEngine.forPeriod(periodStart, periodEnd));
 
-        // Save deductions into the database with better error handling
-        if (deductionDAO != null) {
-            try {
-                saveDeductionRecords(employeeId, periodStart, periodEnd, lateDeduction, undertimeDeduction, unpaidLeaveDeduction);
-            } catch (Exception e) {
-                LOGGER.warning(String.format("Could not save deduction records for employee %d: %s", employeeId, e.getMessage()));
+        // Final calculations
+        payroll.calculateGrossPay();
+        payroll.calculateTotalDeductions();
+        payroll.calculateNetPay();
+
+        // Validate final payroll
+        validatePayroll(payroll);
+
+        return payroll;
+    }
+
+    /**
+     * Calculate attendance-based earnings using actual attendance data
+     * Days worked are the days with a log in (log out can be optional)
+     */
+    private void calculateAttendanceBasedEarningsFixed(Payroll payroll, AttendanceAggregate attendance,
+                                                       LocalDate periodStart, LocalDate periodEnd, double dailyRate) {
+
+        int employeeId = payroll.getEmployeeId();
+        int validAttendanceDays = attendance.getValidDays();
+
+        // Set the correct days worked
+        payroll.setDaysWorked(validAttendanceDays);
+
+        // Calculate basic pay based on actual days worked
+        double basicPay = validAttendanceDays * dailyRate;
+        payroll.setGrossEarnings(basicPay);
+
+        if (trace.isTraced(employeeId)) {
+            trace.record(employeeId, CalculationTrace.Step.ATTENDANCE, periodStart, periodEnd,
+                    attendance.getRecordCount(), validAttendanceDays, attendance.getTotalWorkHours(),
+                    attendance.getIncompletePunches(), dailyRate, basicPay);
+            // Handle edge cases
+            if (validAttendanceDays == 0) {
+                trace.record(employeeId, CalculationTrace.Step.NO_ATTENDANCE, periodStart, periodEnd);
             }
-        } else {
-            LOGGER.info("Deduction table not available, skipping deduction record saving");
         }
-
-        LOGGER.info(String.format("Employee %d deductions - Late: %.2f, Undertime: %.2f, Unpaid Leave: %.2f",
-                employeeId, lateDeduction, undertimeDeduction, unpaidLeaveDeduction));
     }
 
     /**
-     * Helper method to save deduction records with better error handling
+     * Trace the employee's full attendance history to help diagnose an empty period.
+     * Opt-in diagnostic (see CalculationTrace#setAttendanceHistoryEnabled), only used by the
+     * single-employee path; the batch path must not issue per-employee queries.
      */
-    private void saveDeductionRecords(int employeeId, LocalDate periodStart, LocalDate periodEnd,
-                                      double lateDeduction, double undertimeDeduction, double unpaidLeaveDeduction) {
+    private void traceAttendanceHistory(int employeeId) {
         try {
-            if (lateDeduction > 0) {
-                SimpleDeduction lateDeductionRecord = new SimpleDeduction(
-                        employeeId, "Late", lateDeduction,
-                        "Late arrival deduction for period " + periodStart + " to " + periodEnd);
-                lateDeductionRecord.setDeductionDate(Date.valueOf(periodEnd));
-                try {
-                    deductionDAO.addDeduction(lateDeductionRecord);
-                } catch (SQLException e) {
-                    LOGGER.warning("Failed to save late deduction record: " + e.getMessage());
-                }
+            List<Attendance> allAttendance = attendanceDAO.getAttendanceByEmployeeId(employeeId);
+            for (Attendance att : allAttendance) {
+                trace.record(employeeId, CalculationTrace.Step.ATTENDANCE_HISTORY,
+                        att.getDate(), att.getLogIn(), att.getLogOut());
             }
+        } catch (Exception e) {
+            LOGGER.warning("Could not load attendance history for employee " + employeeId + ": " + e.getMessage());
+        }
+    }
 
-            if (undertimeDeduction > 0) {
-                SimpleDeduction undertimeDeductionRecord = new SimpleDeduction(
-                        employeeId, "Undertime", undertimeDeduction,
-                        "Undertime deduction for period " + periodStart + " to " + periodEnd);
-                undertimeDeductionRecord.setDeductionDate(Date.valueOf(periodEnd));
-                try {
-                    deductionDAO.addDeduction(undertimeDeductionRecord);
-                } catch (SQLException e) {
-                    LOGGER.warning("Failed to save undertime deduction record: " + e.getMessage());
-                }
-            }
+    // Data loading helpers. Optional tables degrade to "no records" exactly as before.
 
-            if (unpaidLeaveDeduction > 0) {
-                SimpleDeduction unpaidDeductionRecord = new SimpleDeduction(
-                        employeeId, "UnpaidLeave", unpaidLeaveDeduction,
-                        "Unpaid leave deduction for period " + periodStart + " to " + periodEnd);
-                unpaidDeductionRecord.setDeductionDate(Date.valueOf(periodEnd));
-                try {
-                    deductionDAO.addDeduction(unpaidDeductionRecord);
-                } catch (SQLException e) {
-                    LOGGER.warning("Failed to save unpaid leave deduction record: " + e.getMessage());
-                }
-            }
+    private List<Overtime> loadOvertime(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        if (overtimeDAO == null) {
+            LOGGER.info("Overtime table not available, setting overtime pay to 0");
+            return Collections.emptyList();
+        }
+        try {
+            return overtimeDAO.getOvertimeByEmployeeIdAndDateRange(employeeId, periodStart, periodEnd);
         } catch (Exception e) {
-            LOGGER.warning("Error saving deduction records: " + e.getMessage());
+            LOGGER.warning("Error accessing overtime data, setting overtime pay to 0: " + e.getMessage());
+            return Collections.emptyList();
         }
     }
 
-    /**
-     * Simple concrete implementation of Deduction for database storage
-     */
-    private static class SimpleDeduction extends Deduction {
-        public SimpleDeduction(int employeeId, String type, double amount, String description) {
-            super(employeeId, type, amount, description);
+    private List<Overtime> loadOvertime(LocalDate periodStart, LocalDate periodEnd) {
+        if (overtimeDAO == null) {
+            LOGGER.info("Overtime table not available, setting overtime pay to 0");
+            return Collections.emptyList();
+        }
+        try {
+            return overtimeDAO.getOvertimeByDateRange(periodStart, periodEnd);
+        } catch (Exception e) {
+            LOGGER.warning("Error accessing overtime data, setting overtime pay to 0: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    private List<LeaveRequest> loadApprovedLeaves(int employeeId, LocalDate periodStart, LocalDate periodEnd) {
+        if (leaveDAO == null) {
+            LOGGER.info("Leave request table not available, setting unpaid leave deduction to 0");
+            return Collections.emptyList();
         }
+        try {
+            return leaveDAO.getApprovedLeavesByEmployeeIdAndDateRange(employeeId, periodStart, periodEnd);
+        } catch (Exception e) {
+            LOGGER.warning("Error accessing leave request data: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
 
-        @Override
-        public void calculateDeduction() {
-            // Already calculated, no additional calculation needed
+    private List<LeaveRequest> loadApprovedLeaves(LocalDate periodStart, LocalDate periodEnd) {
+        if (leaveDAO == null) {
+            LOGGER.info("Leave request table not available, setting unpaid leave deduction to 0");
+            return Collections.emptyList();
+        }
+        try {
+            return leaveDAO.getApprovedLeavesByDateRange(periodStart, periodEnd);
+        } catch (Exception e) {
+            LOGGER.warning("Error accessing leave request data: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    // Bulk loaders shared by the batch path and PayrollRunExecutor: one query per table
+
+    Map<Integer, List<Attendance>> loadAttendanceByEmployee(LocalDate periodStart, LocalDate periodEnd,
+                                                           Set<Integer> employeeIds) throws PayrollCalculationException {
+        try {
+            return groupByEmployee(attendanceDAO.getAttendanceBetweenDates(periodStart, periodEnd),
+                    Attendance::getEmployeeId, employeeIds);
+        } catch (Exception e) {
+            throw new PayrollCalculationException("Failed to load attendance: " + e.getMessage(), e);
+        }
+    }
+
+    Map<Integer, List<Overtime>> loadOvertimeByEmployee(LocalDate periodStart, LocalDate periodEnd,
+                                                       Set<Integer> employeeIds) {
+        return groupByEmployee(loadOvertime(periodStart, periodEnd), Overtime::getEmployeeId, employeeIds);
+    }
+
+    Map<Integer, List<LeaveRequest>> loadApprovedLeavesByEmployee(LocalDate periodStart, LocalDate periodEnd,
+                                                                 Set<Integer> employeeIds) {
+        return groupByEmployee(loadApprovedLeaves(periodStart, periodEnd), LeaveRequest::getEmployeeId, employeeIds);
+    }
+
+    List<Employee> loadAllEmployees() throws PayrollCalculationException {
+        try {
+            return employeeDAO.getAllEmployees();
+        } catch (Exception e) {
+            throw new PayrollCalculationException("Failed to load employees: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Calculate government contributions and tax using standard rates
+     * Group rows by employee, keeping the rows' original order.
+     * If employeeIds is null every employee is kept.
      */
-    private void calculateGovernmentContributionsAndTax(Payroll payroll, double monthlySalary) {
-        double sss = calculateSSSContribution(monthlySalary);
-        double philhealth = calculatePhilHealthContribution(monthlySalary);
-        double pagibig = calculatePagIBIGContribution(monthlySalary);
-        double tax = calculateIncomeTax(monthlySalary);
+    private static <T> Map<Integer, List<T>> groupByEmployee(List<T> rows, ToIntFunction<T> employeeIdOf,
+                                                             Set<Integer> employeeIds) {
+        Map<Integer, List<T>> grouped = new HashMap<>();
+        for (T row : rows) {
+            int employeeId = employeeIdOf.applyAsInt(row);
+            if (employeeIds == null || employeeIds.contains(employeeId)) {
+                grouped.computeIfAbsent(employeeId, k -> new ArrayList<>()).add(row);
+            }
+        }
+        return grouped;
+    }
 
-        payroll.setSss(sss);
-        payroll.setPhilhealth(philhealth);
-        payroll.setPagibig(pagibig);
-        payroll.setTax(tax);
+    /**
+     * Calculate daily rate from monthly salary
+     */
+    private double calculateDailyRate(double monthlySalary) {
+        return monthlySalary / STANDARD_WORKING_DAYS_PER_MONTH;
+    }
 
-        LOGGER.info(String.format("Employee %d contributions - SSS: %.2f, PhilHealth: %.2f, Pag-IBIG: %.2f, Tax: %.2f",
-                payroll.getEmployeeId(), sss, philhealth, pagibig, tax));
+    /**
+     * Calculate hourly rate from daily rate
+     */
+    private double calculateHourlyRate(double dailyRate) {
+        return dailyRate / STANDARD_WORKING_HOURS_PER_DAY;
     }
 
     /**
-     * Enhanced late deduction calculation using actual log_in times
+     * Calculate overtime earnings from the period's overtime records
      */
-    private double calculateLateDeduction(List<Attendance> attendanceList, double dailyRate) {
-        double totalLateDeduction = 0.0;
+    private void calculateOvertimeEarnings(Payroll payroll, List<Overtime> overtimeList, double dailyRate) {
+        double totalOvertimeHours = 0.0;
+        for (int i = 0, n = overtimeList.size(); i < n; i++) {
+            Overtime overtime = overtimeList.get(i);
+            if (overtime.isApproved()) { // Only count approved overtime
+                totalOvertimeHours += overtime.getHours();
+            }
+        }
+
         double hourlyRate = calculateHourlyRate(dailyRate);
+        double overtimePay = totalOvertimeHours * hourlyRate * OVERTIME_RATE_MULTIPLIER;
 
-        for (Attendance attendance : attendanceList) {
-            if (attendance.getLogIn() != null) {
-                LocalTime loginTime = attendance.getLogIn().toLocalTime();
+        payroll.setTotalOvertimeHours(totalOvertimeHours);
+        payroll.setOvertimePay(overtimePay);
 
-                if (loginTime.isAfter(LATE_THRESHOLD_TIME)) {
-                    long minutesLate = ChronoUnit.MINUTES.between(STANDARD_LOGIN_TIME, loginTime);
-                    double hoursLate = minutesLate / 60.0;
-                    totalLateDeduction += hoursLate * hourlyRate;
-                }
-            }
+        if (trace.isTraced(payroll.getEmployeeId())) {
+            trace.record(payroll.getEmployeeId(), CalculationTrace.Step.OVERTIME, totalOvertimeHours, overtimePay);
         }
+    }
+
+    /**
+     * Calculate allowances and benefits from employee record
+     */
+    private void calculateAllowancesAndBenefits(Payroll payroll, Employee employee) {
+        payroll.setRiceSubsidy(employee.getRiceSubsidy());
+        payroll.setPhoneAllowance(employee.getPhoneAllowance());
+        payroll.setClothingAllowance(employee.getClothingAllowance());
 
-        return totalLateDeduction;
+        if (trace.isTraced(employee.getEmployeeId())) {
+            trace.record(employee.getEmployeeId(), CalculationTrace.Step.ALLOWANCES, employee.getRiceSubsidy(),
+                    employee.getPhoneAllowance(), employee.getClothingAllowance());
+        }
     }
 
     /**
-     * Enhanced undertime deduction calculation using actual log_out times
+     * Calculate time-based deductions from the period's attendance and approved leave
      */
-    private double calculateUndertimeDeduction(List<Attendance> attendanceList, double dailyRate) {
-        double totalUndertimeDeduction = 0.0;
+    private void calculateTimeBasedDeductions(Payroll payroll, AttendanceAggregate attendance,
+                                              List<LeaveRequest> approvedLeaves, double dailyRate) {
+
         double hourlyRate = calculateHourlyRate(dailyRate);
+        double lateDeduction = attendance.getLateMinutes() / 60.0 * hourlyRate;
+        double undertimeDeduction = attendance.getUndertimeMinutes() / 60.0 * hourlyRate;
 
-        for (Attendance attendance : attendanceList) {
-            if (attendance.getLogOut() != null) {
-                LocalTime logoutTime = attendance.getLogOut().toLocalTime();
+        payroll.setLateDeduction(lateDeduction);
+        payroll.setUndertimeDeduction(undertimeDeduction);
 
-                if (logoutTime.isBefore(STANDARD_LOGOUT_TIME)) {
-                    long minutesShort = ChronoUnit.MINUTES.between(logoutTime, STANDARD_LOGOUT_TIME);
-                    double hoursShort = minutesShort / 60.0;
-                    totalUndertimeDeduction += hoursShort * hourlyRate;
-                }
+        // Calculate unpaid leave deduction
+        long unpaidLeaveDays = 0;
+        for (int i = 0, n = approvedLeaves.size(); i < n; i++) {
+            LeaveRequest leave = approvedLeaves.get(i);
+            if ("Unpaid".equalsIgnoreCase(leave.getLeaveType())) {
+                unpaidLeaveDays += leave.getLeaveDays();
             }
         }
+        int unpaidLeaveCount = (int) unpaidLeaveDays;
 
-        return totalUndertimeDeduction;
+        double unpaidLeaveDeduction = unpaidLeaveCount * dailyRate;
+
+        payroll.setUnpaidLeaveCount(unpaidLeaveCount);
+        payroll.setUnpaidLeaveDeduction(unpaidLeaveDeduction);
+
+        if (trace.isTraced(payroll.getEmployeeId())) {
+            trace.record(payroll.getEmployeeId(), CalculationTrace.Step.TIME_DEDUCTIONS,
+                    lateDeduction, attendance.getLateMinutes(), undertimeDeduction, attendance.getUndertimeMinutes(),
+                    unpaidLeaveDeduction, unpaidLeaveCount);
+        }
     }
 
-    // Government contribution calculation methods remain the same...
-    private double calculateSSSContribution(double monthlySalary) {
-        if (monthlySalary <= 4000) return 180.00;
-        if (monthlySalary <= 4750) return 202.50;
-        if (monthlySalary <= 5500) return 225.00;
-        if (monthlySalary <= 6250) return 247.50;
-        if (monthlySalary <= 7000) return 270.00;
-        if (monthlySalary <= 7750) return 292.50;
-        if (monthlySalary <= 8500) return 315.00;
-        if (monthlySalary <= 9250) return 337.50;
-        if (monthlySalary <= 10000) return 360.00;
-        if (monthlySalary <= 15000) return 540.00;
-        if (monthlySalary <= 20000) return 720.00;
-        if (monthlySalary <= 25000) return 900.00;
-        return 1125.00;
+    /**
+     * Persist the deduction records of a completed run.
+     * All Late/Undertime/UnpaidLeave records of the period for the run's successfully calculated
+     * employees are replaced in one transaction with one batched insert, so committing the same
+     * run again leaves the table unchanged.
+     * @throws PayrollCalculationException if the deductions could not be written
+     */
+    public void commitDeductions(BatchResult result, LocalDate periodStart, LocalDate periodEnd)
+            throws PayrollCalculationException {
+        commitDeductions(result.getPayrollList(), result.getPayrolls().keySet(), periodStart, periodEnd);
     }
 
-    private double calculatePhilHealthContribution(double monthlySalary) {
-        double rate = 0.05;
-        double employeeShare = (monthlySalary * rate) / 2;
-        double minContribution = 500.00;
-        double maxContribution = 5000.00;
+    private void commitDeductions(List<Payroll> payrolls, Collection<Integer> employeeIds,
+                                  LocalDate periodStart, LocalDate periodEnd) throws PayrollCalculationException {
+        if (deductionDAO == null) {
+            LOGGER.info("Deduction table not available, skipping deduction record saving");
+            return;
+        }
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+
+        List<Deduction> records = new ArrayList<>();
+        for (Payroll payroll : payrolls) {
+            records.addAll(buildDeductionRecords(payroll, periodStart, periodEnd));
+        }
 
-        if (employeeShare < minContribution) return minContribution;
-        if (employeeShare > maxContribution) return maxContribution;
-        return employeeShare;
+        try {
+            deductionDAO.replacePeriodDeductions(employeeIds, PAYROLL_DEDUCTION_TYPES, Date.valueOf(periodEnd), records);
+            LOGGER.info(String.format("Committed %d deduction records for %d employees, period %s to %s",
+                    records.size(), employeeIds.size(), periodStart, periodEnd));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to commit deduction records", e);
+            throw new PayrollCalculationException("Failed to save deduction records: " + e.getMessage(), e);
+        }
     }
 
-    private double calculatePagIBIGContribution(double monthlySalary) {
-        if (monthlySalary <= 1500) {
-            return monthlySalary * 0.01;
-        } else {
-            double contribution = monthlySalary * 0.02;
-            return Math.min(contribution, 200.00);
+    /**
+     * Build the deduction records to persist for a calculated payroll
+     */
+    private List<Deduction> buildDeductionRecords(Payroll payroll, LocalDate periodStart, LocalDate periodEnd) {
+        List<Deduction> records = new ArrayList<>(3);
+        int employeeId = payroll.getEmployeeId();
+        String period = " for period " + periodStart + " to " + periodEnd;
+
+        if (payroll.getLateDeduction() > 0) {
+            records.add(new SimpleDeduction(employeeId, Deduction.TYPE_LATE, payroll.getLateDeduction(),
+                    "Late arrival deduction" + period));
+        }
+        if (payroll.getUndertimeDeduction() > 0) {
+            records.add(new SimpleDeduction(employeeId, Deduction.TYPE_UNDERTIME, payroll.getUndertimeDeduction(),
+                    "Undertime deduction" + period));
+        }
+        if (payroll.getUnpaidLeaveDeduction() > 0) {
+            records.add(new SimpleDeduction(employeeId, Deduction.TYPE_UNPAID_LEAVE, payroll.getUnpaidLeaveDeduction(),
+                    "Unpaid leave deduction" + period));
+        }
+
+        for (Deduction record : records) {
+            record.setDeductionDate(Date.valueOf(periodEnd));
         }
+        return records;
     }
 
-    private double calculateIncomeTax(double monthlySalary) {
-        double annualSalary = monthlySalary * 12;
-        double annualTax = 0.0;
+    /**
+     * Simple concrete implementation of Deduction for database storage
+     */
+    private static class SimpleDeduction extends Deduction {
+        public SimpleDeduction(int employeeId, String type, double amount, String description) {
+            super(employeeId, type, amount, description);
+        }
 
-        if (annualSalary <= 250000) {
-            annualTax = 0.0;
-        } else if (annualSalary <= 400000) {
-            annualTax = (annualSalary - 250000) * 0.15;
-        } else if (annualSalary <= 800000) {
-            annualTax = 22500 + (annualSalary - 400000) * 0.20;
-        } else if (annualSalary <= 2000000) {
-            annualTax = 102500 + (annualSalary - 800000) * 0.25;
-        } else if (annualSalary <= 8000000) {
-            annualTax = 402500 + (annualSalary - 2000000) * 0.30;
-        } else {
-            annualTax = 2202500 + (annualSalary - 8000000) * 0.35;
+        @Override
+        public void calculateDeduction() {
+            // Already calculated, no additional calculation needed
         }
+    }
+
+    /**
+     * Calculate government contributions and tax with the statutory tables in effect for the period
+     */
+    private void calculateGovernmentContributionsAndTax(Payroll payroll, double monthlySalary,
+                                                        ContributionEngine.RateTable rates) {
+        double sss = rates.sss(monthlySalary);
+        double philhealth = rates.philhealth(monthlySalary);
+        double pagibig = rates.pagibig(monthlySalary);
+        double tax = rates.monthlyTax(monthlySalary);
+
+        payroll.setSss(sss);
+        payroll.setPhilhealth(philhealth);
+        payroll.setPagibig(pagibig);
+        payroll.setTax(tax);
 
-        return annualTax / 12;
+        if (trace.isTraced(payroll.getEmployeeId())) {
+            trace.record(payroll.getEmployeeId(), CalculationTrace.Step.CONTRIBUTIONS,
+                    rates.getEffectiveDate(), sss, philhealth, pagibig, tax);
+        }
     }
 
     // Validation methods remain the same...
@@ -530,6 +834,10 @@ public class PayrollCalculator {
         if (employeeId <= 0) {
             throw new PayrollCalculationException("Invalid employee ID: " + employeeId);
         }
+        validatePeriod(periodStart, periodEnd);
+    }
+
+    void validatePeriod(LocalDate periodStart, LocalDate periodEnd) throws PayrollCalculationException {
         if (periodStart == null || periodEnd == null) {
             throw new PayrollCalculationException("Period dates cannot be null");
         }
@@ -544,11 +852,14 @@ public class PayrollCalculator {
             throw new PayrollCalculationException("Employee not found with ID: " + employeeId);
         }
 
+        validateEmployee(employee);
+        return employee;
+    }
+
+    private void validateEmployee(Employee employee) throws PayrollCalculationException {
         if (employee.getBasicSalary() <= 0) {
-            throw new PayrollCalculationException("Employee " + employeeId + " has invalid basic salary");
+            throw new PayrollCalculationException("Employee " + employee.getEmployeeId() + " has invalid basic salary");
         }
-
-        return employee;
     }
 
     private void validatePayroll(Payroll payroll) throws PayrollCalculationException {
@@ -568,6 +879,35 @@ public class PayrollCalculator {
         }
     }
 
+    /**
+     * Result of a batch payroll run: successful payrolls and per-employee failures, both in input order
+     */
+    public static class BatchResult {
+        private final Map<Integer, Payroll> payrolls = new LinkedHashMap<>();
+        private final Map<Integer, Exception> failures = new LinkedHashMap<>();
+        private boolean cancelled;
+
+        void addPayroll(Payroll payroll) {
+            payrolls.put(payroll.getEmployeeId(), payroll);
+        }
+
+        void addFailure(int employeeId, Exception error) {
+            failures.put(employeeId, error);
+        }
+
+        public Map<Integer, Payroll> getPayrolls() { return Collections.unmodifiableMap(payrolls); }
+        public List<Payroll> getPayrollList() { return new ArrayList<>(payrolls.values()); }
+        public Payroll getPayroll(int employeeId) { return payrolls.get(employeeId); }
+        public Map<Integer, Exception> getFailures() { return Collections.unmodifiableMap(failures); }
+        public int getSuccessCount() { return payrolls.size(); }
+        public int getFailureCount() { return failures.size(); }
+        public boolean hasFailures() { return !failures.isEmpty(); }
+
+        /** True if the run was cancelled before every employee was processed */
+        public boolean isCancelled() { return cancelled; }
+        void setCancelled(boolean cancelled) { this.cancelled = cancelled; }
+    }
+
     /**
      * Custom exception for payroll calculation errors
      */
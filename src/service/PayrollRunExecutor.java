@@ -0,0 +1,499 @@
+package service;
+
+import model.Attendance;
+import model.Employee;
+import model.LeaveRequest;
+import model.Overtime;
+import model.Payroll;
+import service.PayrollCalculator.BatchResult;
+import service.PayrollCalculator.PayrollCalculationException;
+import util.ReadIntent;
+import util.UnitOfWork;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs payroll for many employees in parallel.
+ *
+ * The run has two phases:
+ * 1. I/O - the period's attendance, overtime and leave (and the employee list for {@link #runAll})
+ *    are bulk-loaded concurrently on virtual threads, with at most {@code maxDbConnections}
+ *    queries in flight so a run cannot starve the connection pool.
+ * 2. CPU - payrolls are computed on a fork-join pool from the in-memory data.
+ *
+ * Results are returned in input order regardless of completion order. Employees that fail are
+ * collected in the {@link BatchResult} and skipped, like ReportGenerator always did.
+ *
+ * By default cached payrolls are reused; call {@link #setUseCache(boolean)} with false for an
+ * authoritative run straight from the database. Freshly computed results always refresh the cache.
+ *
+ * With {@link #setConsistentSnapshot(boolean)} the I/O phase instead runs its queries one after
+ * another in a single read-only {@link UnitOfWork}, so every table is read from the same snapshot.
+ *
+ * Runs started under a {@link ReadIntent} load from the read replica when it is fresh enough;
+ * results loaded from the replica are returned but not cached.
+ */
+public class PayrollRunExecutor {
+    private static final Logger LOGGER = Logger.getLogger(PayrollRunExecutor.class.getName());
+
+    private static final int DEFAULT_MAX_DB_CONNECTIONS = 4;
+
+    // Employees per fork-join leaf task; small enough to balance, large enough to amortize forking
+    private static final int COMPUTE_CHUNK_SIZE = 16;
+
+    /**
+     * Receives each employee's outcome as soon as it is computed.
+     * Called from worker threads and in completion order, not input order.
+     */
+    @FunctionalInterface
+    public interface RunListener {
+        /**
+         * @param employee Employee that was processed
+         * @param payroll Calculated payroll, or null if the calculation failed
+         * @param error Failure cause, or null on success
+         * @param completed Number of employees finished so far (including this one)
+         * @param total Number of employees in the run
+         */
+        void onEmployeeCompleted(Employee employee, Payroll payroll, Exception error, int completed, int total);
+    }
+
+    /**
+     * Cancels the one run it is passed to. Create it before the run starts, so that a cancel
+     * requested while the caller is still preparing the run is not lost.
+     */
+    public static final class Cancellation {
+        private volatile boolean cancelled;
+
+        /**
+         * Request cancellation. A run in progress skips the employees not yet computed, and a run
+         * that has not started or is still loading returns without computing anyone; either way
+         * the returned result is marked cancelled.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final PayrollCalculator calculator;
+    private final int maxDbConnections;
+    private final int parallelism;
+    private boolean useCache = true;
+    private boolean consistentSnapshot;
+
+    public PayrollRunExecutor() {
+        this(new PayrollCalculator());
+    }
+
+    public PayrollRunExecutor(PayrollCalculator calculator) {
+        this(calculator, DEFAULT_MAX_DB_CONNECTIONS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param calculator Calculator providing data loading and computation
+     * @param maxDbConnections Maximum concurrent database queries during the I/O phase
+     * @param parallelism Number of fork-join worker threads for the CPU phase
+     */
+    public PayrollRunExecutor(PayrollCalculator calculator, int maxDbConnections, int parallelism) {
+        if (calculator == null) {
+            throw new IllegalArgumentException("Payroll calculator cannot be null");
+        }
+        if (maxDbConnections <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Database connections and parallelism must be positive");
+        }
+        this.calculator = calculator;
+        this.maxDbConnections = maxDbConnections;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Whether runs reuse cached payrolls (default true).
+     * With false every payroll is recalculated from the database.
+     */
+    public void setUseCache(boolean useCache) {
+        this.useCache = useCache;
+    }
+
+    public boolean isUseCache() {
+        return useCache;
+    }
+
+    /**
+     * Whether the I/O phase reads all tables from one consistent snapshot (default false).
+     * Trades the concurrent loads for a result that cannot mix data from before and after a
+     * write made during the run.
+     */
+    public void setConsistentSnapshot(boolean consistentSnapshot) {
+        this.consistentSnapshot = consistentSnapshot;
+    }
+
+    public boolean isConsistentSnapshot() {
+        return consistentSnapshot;
+    }
+
+    /**
+     * Run payroll for every employee
+     */
+    public BatchResult runAll(LocalDate periodStart, LocalDate periodEnd, RunListener listener)
+            throws PayrollCalculationException {
+        return execute(null, periodStart, periodEnd, listener, new Cancellation());
+    }
+
+    /**
+     * Run payroll for the given employees
+     */
+    public BatchResult run(List<Employee> employees, LocalDate periodStart, LocalDate periodEnd)
+            throws PayrollCalculationException {
+        return run(employees, periodStart, periodEnd, null);
+    }
+
+    public BatchResult run(List<Employee> employees, LocalDate periodStart, LocalDate periodEnd, RunListener listener)
+            throws PayrollCalculationException {
+        return run(employees, periodStart, periodEnd, listener, new Cancellation());
+    }
+
+    /**
+     * Run payroll for the given employees, stopping early once cancellation is requested
+     */
+    public BatchResult run(List<Employee> employees, LocalDate periodStart, LocalDate periodEnd, RunListener listener,
+                           Cancellation cancellation) throws PayrollCalculationException {
+        if (employees == null) {
+            throw new IllegalArgumentException("Employees cannot be null");
+        }
+        if (cancellation == null) {
+            throw new IllegalArgumentException("Cancellation cannot be null");
+        }
+        return execute(employees, periodStart, periodEnd, listener, cancellation);
+    }
+
+    private BatchResult execute(List<Employee> givenEmployees, LocalDate periodStart, LocalDate periodEnd,
+                                RunListener listener, Cancellation cancellation) throws PayrollCalculationException {
+        // A run of its own tracks whether the replica served any of this run's loads
+        ReadIntent callerIntent = ReadIntent.current();
+        try (ReadIntent readIntent = callerIntent != null ? ReadIntent.begin(callerIntent.getMaxStalenessMillis()) : null) {
+            return execute(givenEmployees, periodStart, periodEnd, listener, cancellation, readIntent);
+        }
+    }
+
+    private BatchResult execute(List<Employee> givenEmployees, LocalDate periodStart, LocalDate periodEnd,
+                                RunListener listener, Cancellation cancellation, ReadIntent readIntent)
+            throws PayrollCalculationException {
+        calculator.validatePeriod(periodStart, periodEnd);
+        if (cancellation.isCancelled()) {
+            return cancelledResult(periodStart, periodEnd);
+        }
+        long startNanos = System.nanoTime();
+
+        PayrollCache cache = calculator.getPayrollCache();
+        long cacheVersion = cache.currentVersion();
+
+        // Skip loading altogether when every requested employee is cached
+        if (useCache && givenEmployees != null) {
+            Payroll[] cached = lookupAll(cache, givenEmployees, periodStart, periodEnd);
+            if (cached != null) {
+                return compute(givenEmployees, cached, Collections.emptyMap(), Collections.emptyMap(),
+                        Collections.emptyMap(), periodStart, periodEnd, listener, cancellation, false, cacheVersion,
+                        startNanos, System.nanoTime());
+            }
+        }
+
+        if (consistentSnapshot) {
+            return executeFromSnapshot(givenEmployees, periodStart, periodEnd, listener, cancellation,
+                    cacheVersion, startNanos);
+        }
+
+        // Phase 1: concurrent bulk loads
+        Semaphore dbPermits = new Semaphore(maxDbConnections);
+        List<Employee> employees;
+        Map<Integer, List<Attendance>> attendance;
+        Map<Integer, List<Overtime>> overtime;
+        Map<Integer, List<LeaveRequest>> leaves;
+
+        try (ExecutorService io = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<Employee>> employeesFuture = givenEmployees != null
+                    ? null : io.submit(limited(dbPermits, readIntent, calculator::loadAllEmployees));
+
+            // Rows are filtered to the run's employees after the fact when the list is loaded here
+            Set<Integer> ids = givenEmployees != null ? employeeIds(givenEmployees) : null;
+            Future<Map<Integer, List<Attendance>>> attendanceFuture = io.submit(limited(dbPermits, readIntent,
+                    () -> calculator.loadAttendanceByEmployee(periodStart, periodEnd, ids)));
+            Future<Map<Integer, List<Overtime>>> overtimeFuture = io.submit(limited(dbPermits, readIntent,
+                    () -> calculator.loadOvertimeByEmployee(periodStart, periodEnd, ids)));
+            Future<Map<Integer, List<LeaveRequest>>> leavesFuture = io.submit(limited(dbPermits, readIntent,
+                    () -> calculator.loadApprovedLeavesByEmployee(periodStart, periodEnd, ids)));
+
+            employees = givenEmployees != null ? givenEmployees : await(employeesFuture);
+            attendance = await(attendanceFuture);
+            overtime = await(overtimeFuture);
+            leaves = await(leavesFuture);
+        }
+
+        // A cancel during the load stops the run before anyone is computed
+        if (cancellation.isCancelled()) {
+            return cancelledResult(periodStart, periodEnd);
+        }
+        return compute(employees, null, attendance, overtime, leaves, periodStart, periodEnd, listener,
+                cancellation, useCache, cacheVersion, startNanos, System.nanoTime());
+    }
+
+    /**
+     * Phase 1 as sequential loads on the snapshot connection, then the usual compute phase
+     */
+    private BatchResult executeFromSnapshot(List<Employee> givenEmployees, LocalDate periodStart, LocalDate periodEnd,
+                                            RunListener listener, Cancellation cancellation,
+                                            long cacheVersion, long startNanos)
+            throws PayrollCalculationException {
+        List<Employee> employees;
+        Map<Integer, List<Attendance>> attendance;
+        Map<Integer, List<Overtime>> overtime;
+        Map<Integer, List<LeaveRequest>> leaves;
+
+        try (UnitOfWork snapshot = calculator.beginSnapshot()) {
+            employees = givenEmployees != null ? givenEmployees : calculator.loadAllEmployees();
+            Set<Integer> ids = givenEmployees != null ? employeeIds(givenEmployees) : null;
+            attendance = calculator.loadAttendanceByEmployee(periodStart, periodEnd, ids);
+            overtime = calculator.loadOvertimeByEmployee(periodStart, periodEnd, ids);
+            leaves = calculator.loadApprovedLeavesByEmployee(periodStart, periodEnd, ids);
+            if (snapshot != null) {
+                snapshot.commit();
+            }
+        } catch (SQLException e) {
+            throw new PayrollCalculationException("Failed to load payroll data: " + e.getMessage(), e);
+        }
+
+        // A cancel during the load stops the run before anyone is computed
+        if (cancellation.isCancelled()) {
+            return cancelledResult(periodStart, periodEnd);
+        }
+        return compute(employees, null, attendance, overtime, leaves, periodStart, periodEnd, listener,
+                cancellation, useCache, cacheVersion, startNanos, System.nanoTime());
+    }
+
+    /**
+     * @param resolved Payrolls already taken from the cache by input position, or null
+     * @param readCache Whether to look up each employee in the cache before computing
+     * @param cacheVersion Cache version read before the data was loaded
+     */
+    private BatchResult compute(List<Employee> employees, Payroll[] resolved, Map<Integer, List<Attendance>> attendance,
+                                Map<Integer, List<Overtime>> overtime, Map<Integer, List<LeaveRequest>> leaves,
+                                LocalDate periodStart, LocalDate periodEnd, RunListener listener,
+                                Cancellation cancellation, boolean readCache, long cacheVersion,
+                                long startNanos, long loadedNanos) {
+        // Phase 2: parallel computation into slots indexed by input position
+        int total = employees.size();
+        Payroll[] payrolls = resolved != null ? resolved : new Payroll[total];
+        Exception[] errors = new Exception[total];
+        AtomicInteger completed = new AtomicInteger();
+
+        ComputeContext context = new ComputeContext(employees, attendance, overtime, leaves,
+                periodStart, periodEnd, payrolls, errors, completed, listener, cancellation,
+                readCache ? calculator.getPayrollCache() : null);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ComputeTask(context, 0, total));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Assemble in input order. The run is a preview; callers persist with
+        // PayrollCalculator.commitDeductions once they accept the result.
+        BatchResult result = new BatchResult();
+        for (int i = 0; i < total; i++) {
+            if (payrolls[i] != null) {
+                result.addPayroll(payrolls[i]);
+            } else if (errors[i] != null) {
+                result.addFailure(employees.get(i).getEmployeeId(), errors[i]);
+            }
+        }
+        result.setCancelled(cancellation.isCancelled() && completed.get() < total);
+
+        ReadIntent readIntent = ReadIntent.current();
+        if (resolved == null && (readIntent == null || !readIntent.isReplicaUsed())) {
+            calculator.cacheResults(result, periodStart, periodEnd, cacheVersion);
+        }
+
+        long endNanos = System.nanoTime();
+        LOGGER.info(String.format(
+                "Payroll run %s to %s: %d calculated, %d failed%s (load %d ms, compute %d ms, %d threads)",
+                periodStart, periodEnd, result.getSuccessCount(), result.getFailureCount(),
+                result.isCancelled() ? ", cancelled" : "",
+                (loadedNanos - startNanos) / 1_000_000, (endNanos - loadedNanos) / 1_000_000, parallelism));
+
+        return result;
+    }
+
+    private static BatchResult cancelledResult(LocalDate periodStart, LocalDate periodEnd) {
+        BatchResult result = new BatchResult();
+        result.setCancelled(true);
+        LOGGER.info(String.format("Payroll run %s to %s cancelled before calculation", periodStart, periodEnd));
+        return result;
+    }
+
+    /**
+     * Cached payrolls of all employees by input position, or null if any is missing
+     */
+    private static Payroll[] lookupAll(PayrollCache cache, List<Employee> employees,
+                                       LocalDate periodStart, LocalDate periodEnd) {
+        Payroll[] payrolls = new Payroll[employees.size()];
+        for (int i = 0; i < payrolls.length; i++) {
+            payrolls[i] = cache.get(employees.get(i).getEmployeeId(), periodStart, periodEnd);
+            if (payrolls[i] == null) {
+                return null;
+            }
+        }
+        return payrolls;
+    }
+
+    private static Set<Integer> employeeIds(List<Employee> employees) {
+        Set<Integer> ids = new HashSet<>();
+        for (Employee employee : employees) {
+            ids.add(employee.getEmployeeId());
+        }
+        return Collections.unmodifiableSet(ids);
+    }
+
+    /**
+     * Wrap a loader so it holds a database permit while running and reads under the run's intent
+     */
+    private static <T> Callable<T> limited(Semaphore permits, ReadIntent readIntent, Callable<T> loader) {
+        return () -> {
+            permits.acquire();
+            try (ReadIntent resumed = ReadIntent.resume(readIntent)) {
+                return loader.call();
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private static <T> T await(Future<T> future) throws PayrollCalculationException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PayrollCalculationException("Payroll run interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PayrollCalculationException) {
+                throw (PayrollCalculationException) cause;
+            }
+            throw new PayrollCalculationException("Failed to load payroll data: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Shared, read-only inputs and output slots of the compute phase
+     */
+    private static class ComputeContext {
+        final List<Employee> employees;
+        final Map<Integer, List<Attendance>> attendance;
+        final Map<Integer, List<Overtime>> overtime;
+        final Map<Integer, List<LeaveRequest>> leaves;
+        final LocalDate periodStart;
+        final LocalDate periodEnd;
+        final Payroll[] payrolls;
+        final Exception[] errors;
+        final AtomicInteger completed;
+        final RunListener listener;
+        final Cancellation cancellation;
+        final PayrollCache cache;
+
+        ComputeContext(List<Employee> employees, Map<Integer, List<Attendance>> attendance,
+                       Map<Integer, List<Overtime>> overtime, Map<Integer, List<LeaveRequest>> leaves,
+                       LocalDate periodStart, LocalDate periodEnd, Payroll[] payrolls, Exception[] errors,
+                       AtomicInteger completed, RunListener listener, Cancellation cancellation,
+                       PayrollCache cache) {
+            this.employees = employees;
+            this.attendance = attendance;
+            this.overtime = overtime;
+            this.leaves = leaves;
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+            this.payrolls = payrolls;
+            this.errors = errors;
+            this.completed = completed;
+            this.listener = listener;
+            this.cancellation = cancellation;
+            this.cache = cache;
+        }
+    }
+
+    /**
+     * Splits the employee index range until it is small enough to compute directly
+     */
+    private class ComputeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ComputeContext ctx;
+        private final int from;
+        private final int to;
+
+        ComputeTask(ComputeContext ctx, int from, int to) {
+            this.ctx = ctx;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= COMPUTE_CHUNK_SIZE) {
+                for (int i = from; i < to && !ctx.cancellation.isCancelled(); i++) {
+                    computeOne(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ComputeTask(ctx, from, mid), new ComputeTask(ctx, mid, to));
+        }
+
+        private void computeOne(int index) {
+            Employee employee = ctx.employees.get(index);
+            int employeeId = employee.getEmployeeId();
+            Payroll cached = ctx.payrolls[index];
+            if (cached == null && ctx.cache != null) {
+                cached = ctx.cache.get(employeeId, ctx.periodStart, ctx.periodEnd);
+            }
+            try {
+                ctx.payrolls[index] = cached != null ? cached : calculator.computePayroll(employee,
+                        ctx.attendance.getOrDefault(employeeId, Collections.emptyList()),
+                        ctx.overtime.getOrDefault(employeeId, Collections.emptyList()),
+                        ctx.leaves.getOrDefault(employeeId, Collections.emptyList()),
+                        ctx.periodStart, ctx.periodEnd);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error calculating payroll for employee " + employeeId, e);
+                ctx.errors[index] = e;
+            }
+
+            int done = ctx.completed.incrementAndGet();
+            if (ctx.listener != null) {
+                try {
+                    ctx.listener.onEmployeeCompleted(employee, ctx.payrolls[index], ctx.errors[index],
+                            done, ctx.employees.size());
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Payroll run listener failed", e);
+                }
+            }
+        }
+    }
+}
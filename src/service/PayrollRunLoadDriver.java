@@ -0,0 +1,151 @@
+package service;
+
+import dao.InMemoryAttendanceDAO;
+import dao.InMemoryEmployeeDAO;
+import dao.InMemoryOvertimeDAO;
+import dao.Repositories;
+import model.Attendance;
+import model.Employee;
+import model.Overtime;
+import model.Payroll;
+import service.PayrollCalculator.BatchResult;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link PayrollRunExecutor} against in-memory stores, with no database.
+ *
+ * Seeds a workforce with a half month of attendance and some overtime, then checks that a run
+ * pays every employee, that cached and uncached runs agree to the centavo, that the listener
+ * sees every employee once and that a cancelled run computes nobody. After the checks it times
+ * the given number of uncached runs.
+ *
+ * Usage: PayrollRunLoadDriver [employees] [runs]. Exits with status 1 if a check fails.
+ */
+public class PayrollRunLoadDriver {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2024, 6, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2024, 6, 15);
+
+    public static void main(String[] args) throws Exception {
+        int employeeCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Repositories repositories = seed(employeeCount, new Random(42));
+        PayrollRunExecutor executor = new PayrollRunExecutor(new PayrollCalculator(repositories));
+        List<Employee> employees = repositories.getEmployees().getAllEmployees();
+
+        List<String> failures = new ArrayList<>();
+
+        executor.setUseCache(false);
+        AtomicInteger notified = new AtomicInteger();
+        BatchResult fresh = executor.runAll(PERIOD_START, PERIOD_END,
+                (employee, payroll, error, completed, total) -> notified.incrementAndGet());
+        check(failures, fresh.getSuccessCount() == employeeCount,
+                "uncached run paid " + fresh.getSuccessCount() + " of " + employeeCount + " employees");
+        check(failures, !fresh.hasFailures(), "uncached run failed for " + fresh.getFailures().keySet());
+        check(failures, notified.get() == employeeCount,
+                "listener saw " + notified.get() + " of " + employeeCount + " employees");
+
+        executor.setUseCache(true);
+        BatchResult cached = executor.run(employees, PERIOD_START, PERIOD_END);
+        for (Payroll payroll : fresh.getPayrollList()) {
+            Payroll other = cached.getPayroll(payroll.getEmployeeId());
+            if (other == null || other.getNetPayCentavos() != payroll.getNetPayCentavos()) {
+                failures.add("cached net pay differs for employee " + payroll.getEmployeeId());
+                break;
+            }
+        }
+
+        PayrollRunExecutor.Cancellation cancellation = new PayrollRunExecutor.Cancellation();
+        cancellation.cancel();
+        BatchResult cancelled = executor.run(employees, PERIOD_START, PERIOD_END, null, cancellation);
+        check(failures, cancelled.isCancelled() && cancelled.getSuccessCount() == 0,
+                "cancelled run computed " + cancelled.getSuccessCount() + " employees");
+
+        executor.setUseCache(false);
+        long totalNanos = 0;
+        for (int run = 1; run <= runs; run++) {
+            long start = System.nanoTime();
+            BatchResult result = executor.run(employees, PERIOD_START, PERIOD_END);
+            long elapsed = System.nanoTime() - start;
+            totalNanos += elapsed;
+            check(failures, result.getSuccessCount() == employeeCount,
+                    "timed run " + run + " paid " + result.getSuccessCount() + " of " + employeeCount + " employees");
+            System.out.printf("Run %d: %d employees in %d ms%n", run, employeeCount, elapsed / 1_000_000);
+        }
+        if (runs > 0) {
+            double averageMillis = totalNanos / 1_000_000.0 / runs;
+            System.out.printf("Average %.1f ms, %.0f employees/s%n", averageMillis, employeeCount * 1000 / averageMillis);
+        }
+
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            System.exit(1);
+        }
+        System.out.println("All checks passed");
+        System.exit(0);
+    }
+
+    /**
+     * Employees with a salary, weekday attendance with occasional lateness and absences, and
+     * overtime on some Fridays
+     */
+    private static Repositories seed(int employeeCount, Random random) {
+        Repositories repositories = Repositories.inMemory();
+
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        for (int id = 1; id <= employeeCount; id++) {
+            Employee employee = new Employee("First" + id, "Last" + id, LocalDate.of(1990, 1, 1).plusDays(id % 3650));
+            employee.setEmployeeId(id);
+            employee.setStatus(id % 4 == 0 ? "Probationary" : "Regular");
+            employee.setPosition("Staff");
+            employee.setBasicSalary(20_000 + random.nextInt(60_000));
+            employee.setRiceSubsidy(1_500);
+            employee.setPhoneAllowance(1_000);
+            employee.setClothingAllowance(1_000);
+            employee.setGrossSemiMonthlyRate(employee.getBasicSalary() / 2);
+            employee.setHourlyRate(employee.getBasicSalary() / 21 / 8);
+            employees.add(employee);
+        }
+        ((InMemoryEmployeeDAO) repositories.getEmployees()).load(employees);
+
+        List<Attendance> attendance = new ArrayList<>();
+        List<Overtime> overtime = new ArrayList<>();
+        for (Employee employee : employees) {
+            for (LocalDate day = PERIOD_START; !day.isAfter(PERIOD_END); day = day.plusDays(1)) {
+                if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY
+                        || random.nextInt(20) == 0) {
+                    continue;
+                }
+                LocalTime logIn = LocalTime.of(8, 0).plusMinutes(random.nextInt(10) == 0 ? random.nextInt(60) : 0);
+                LocalTime logOut = LocalTime.of(17, 0).plusMinutes(random.nextInt(30));
+                attendance.add(new Attendance(employee.getEmployeeId(), Date.valueOf(day),
+                        Time.valueOf(logIn), Time.valueOf(logOut)));
+                if (day.getDayOfWeek() == DayOfWeek.FRIDAY && random.nextInt(3) == 0) {
+                    overtime.add(new Overtime(employee.getEmployeeId(), Date.valueOf(day), 1 + random.nextInt(3)));
+                }
+            }
+        }
+        ((InMemoryAttendanceDAO) repositories.getAttendance()).load(attendance);
+        ((InMemoryOvertimeDAO) repositories.getOvertime()).load(overtime);
+
+        System.out.printf("Seeded %d employees, %d attendance and %d overtime records%n",
+                employees.size(), attendance.size(), overtime.size());
+        return repositories;
+    }
+
+    private static void check(List<String> failures, boolean passed, String failure) {
+        if (!passed) {
+            failures.add(failure);
+        }
+    }
+}
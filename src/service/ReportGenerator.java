@@ -4,9 +4,11 @@ package service;
 import dao.*;
 import model.*;
 import util.DBConnection;
+import util.ReadIntent;
 
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.logging.Logger;
@@ -15,25 +17,50 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
+/**
+ * Builds and exports payroll and attendance reports.
+ * Reports only read data, so their queries run under a {@link ReadIntent} and may be served
+ * by the read replica.
+ */
 public class ReportGenerator {
     private static final Logger logger = Logger.getLogger(ReportGenerator.class.getName());
 
-    private final EmployeeDAO employeeDAO;
-    private final PayrollDAO payrollDAO;
-    private final AttendanceDAO attendanceDAO;
+    private final EmployeeRepository employeeDAO;
+    private final PayrollRepository payrollDAO;
+    private final AttendanceRepository attendanceDAO;
     private final PayrollCalculator payrollCalculator;
+    private final PayrollRunExecutor payrollRunExecutor;
 
     public ReportGenerator() {
         this.employeeDAO = new EmployeeDAO();
         this.payrollDAO = new PayrollDAO();
         this.attendanceDAO = new AttendanceDAO();
         this.payrollCalculator = new PayrollCalculator();
+        this.payrollRunExecutor = new PayrollRunExecutor(payrollCalculator);
+    }
+
+    /**
+     * Reports over the given stores, e.g. {@link Repositories#inMemory()} for load tests
+     */
+    public ReportGenerator(Repositories repositories) {
+        if (repositories == null) {
+            throw new IllegalArgumentException("Repositories cannot be null");
+        }
+        this.employeeDAO = repositories.getEmployees();
+        this.payrollDAO = repositories.getPayrolls();
+        this.attendanceDAO = repositories.getAttendance();
+        this.payrollCalculator = new PayrollCalculator(repositories);
+        this.payrollRunExecutor = new PayrollRunExecutor(payrollCalculator);
     }
 
     /**
      * Generate monthly payroll report for all employees
      */
     public PayrollReport generateMonthlyPayrollReport(LocalDate month, String generatedBy) {
+        return ReadIntent.call(() -> createMonthlyPayrollReport(month, generatedBy));
+    }
+
+    private PayrollReport createMonthlyPayrollReport(LocalDate month, String generatedBy) {
         LocalDate periodStart = month.withDayOfMonth(1);
         LocalDate periodEnd = month.withDayOfMonth(month.lengthOfMonth());
 
@@ -47,17 +74,12 @@ public class ReportGenerator {
         report.setPeriodEnd(periodEnd);
 
         try {
-            List<Employee> employees = employeeDAO.getAllEmployees();
-            List<Payroll> payrollData = new ArrayList<>();
+            PayrollCalculator.BatchResult batch = payrollRunExecutor.runAll(periodStart, periodEnd, null);
+            List<Payroll> payrollData = batch.getPayrollList();
 
-            for (Employee emp : employees) {
-                try {
-                    Payroll payroll = payrollCalculator.calculatePayroll(
-                            emp.getEmployeeId(), periodStart, periodEnd);
-                    payrollData.add(payroll);
-                } catch (Exception e) {
-                    logger.log(Level.WARNING, "Error calculating payroll for employee " + emp.getEmployeeId(), e);
-                }
+            if (batch.hasFailures()) {
+                logger.warning(String.format("Skipped %d employees with payroll errors: %s",
+                        batch.getFailureCount(), batch.getFailures().keySet()));
             }
 
             report.setPayrollData(payrollData);
@@ -75,6 +97,10 @@ public class ReportGenerator {
      * Generate payroll report for specific employee
      */
     public PayrollReport generateEmployeePayrollReport(int employeeId, LocalDate periodStart, LocalDate periodEnd, String generatedBy) {
+        return ReadIntent.call(() -> createEmployeePayrollReport(employeeId, periodStart, periodEnd, generatedBy));
+    }
+
+    private PayrollReport createEmployeePayrollReport(int employeeId, LocalDate periodStart, LocalDate periodEnd, String generatedBy) {
         Employee employee = employeeDAO.getEmployeeById(employeeId);
         if (employee == null) {
             throw new IllegalArgumentException("Employee not found with ID: " + employeeId);
@@ -114,6 +140,10 @@ public class ReportGenerator {
      * Generate attendance summary report
      */
     public AttendanceReport generateAttendanceSummaryReport(LocalDate periodStart, LocalDate periodEnd, String generatedBy) {
+        return ReadIntent.call(() -> createAttendanceSummaryReport(periodStart, periodEnd, generatedBy));
+    }
+
+    private AttendanceReport createAttendanceSummaryReport(LocalDate periodStart, LocalDate periodEnd, String generatedBy) {
         AttendanceReport report = new AttendanceReport();
         report.setReportTitle("Attendance Summary Report");
         report.setPeriodStart(periodStart);
@@ -123,12 +153,14 @@ public class ReportGenerator {
 
         try {
             List<Employee> employees = employeeDAO.getAllEmployees();
+            Map<Integer, List<Attendance>> recorded =
+                    attendanceDAO.getAttendanceGroupedByEmployee(periodStart, periodEnd);
             Map<Integer, List<Attendance>> attendanceMap = new HashMap<>();
 
+            // Every employee counts towards the summary, including those with no records
             for (Employee emp : employees) {
-                List<Attendance> attendanceList = attendanceDAO.getAttendanceByEmployeeIdBetweenDates(
-                        emp.getEmployeeId(), periodStart, periodEnd);
-                attendanceMap.put(emp.getEmployeeId(), attendanceList);
+                attendanceMap.put(emp.getEmployeeId(),
+                        recorded.getOrDefault(emp.getEmployeeId(), new ArrayList<>()));
             }
 
             report.setAttendanceData(attendanceMap);
@@ -142,6 +174,50 @@ public class ReportGenerator {
         return report;
     }
 
+    /**
+     * Generate the attendance summary report from a loaded history. The report carries the summary
+     * only, without per-record data, so it suits periods too long to hold as Attendance objects.
+     */
+    public AttendanceReport generateAttendanceSummaryReport(AttendanceHistory history, LocalDate periodStart,
+                                                            LocalDate periodEnd, String generatedBy) {
+        if (history == null) {
+            throw new IllegalArgumentException("Attendance history cannot be null");
+        }
+        return ReadIntent.call(() -> createAttendanceSummaryReport(history, periodStart, periodEnd, generatedBy));
+    }
+
+    private AttendanceReport createAttendanceSummaryReport(AttendanceHistory history, LocalDate periodStart,
+                                                           LocalDate periodEnd, String generatedBy) {
+        AttendanceReport report = new AttendanceReport();
+        report.setReportTitle("Attendance Summary Report");
+        report.setPeriodStart(periodStart);
+        report.setPeriodEnd(periodEnd);
+        report.setGeneratedBy(generatedBy);
+        report.setGeneratedDate(LocalDate.now());
+
+        try {
+            List<Employee> employees = employeeDAO.getAllEmployees();
+
+            // Attendance.isLate counts any log in after 08:00, with no grace period
+            AttendanceAggregate totals = new AttendanceAggregate(
+                    LocalTime.of(8, 0), LocalTime.of(8, 0), LocalTime.of(17, 0));
+            for (Employee emp : employees) {
+                history.aggregate(emp.getEmployeeId(), periodStart, periodEnd, totals);
+            }
+
+            if (!employees.isEmpty()) {
+                report.calculateSummaryStatistics(employees.size(), totals.getRecordCount(),
+                        totals.getLateDays(), totals.getTotalWorkHours());
+            }
+
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error generating attendance summary report", e);
+            throw new RuntimeException("Failed to generate attendance summary report", e);
+        }
+
+        return report;
+    }
+
     /**
      * Generate government contributions report
      */
@@ -158,6 +234,10 @@ public class ReportGenerator {
      * Export report to CSV format
      */
     public void exportReportToCSV(PayrollReport report, String filePath) throws IOException {
+        ReadIntent.run(() -> writeReportToCSV(report, filePath));
+    }
+
+    private void writeReportToCSV(PayrollReport report, String filePath) throws IOException {
         try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(filePath)))) {
             // Write header
             writer.println("Employee ID,Name,Period,Gross Pay,Deductions,Net Pay,SSS,PhilHealth,Pag-IBIG,Tax");
@@ -189,10 +269,48 @@ public class ReportGenerator {
         }
     }
 
+    /**
+     * Export every attendance record in the period to CSV, streamed from the database so that
+     * periods spanning years need no more memory than a short one
+     * @return number of records written
+     */
+    public long exportAttendanceToCSV(LocalDate periodStart, LocalDate periodEnd, String filePath) throws IOException {
+        return ReadIntent.call(() -> writeAttendanceToCSV(periodStart, periodEnd, filePath));
+    }
+
+    private long writeAttendanceToCSV(LocalDate periodStart, LocalDate periodEnd, String filePath) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(filePath)))) {
+            Map<Integer, String> names = new HashMap<>();
+            for (Employee emp : employeeDAO.getAllEmployees()) {
+                names.put(emp.getEmployeeId(), emp.getFullName());
+            }
+
+            writer.println("Employee ID,Name,Date,Log In,Log Out,Work Hours");
+            long rows = attendanceDAO.forEachAttendanceInRange(periodStart, periodEnd, attendance ->
+                    writer.printf("%d,%s,%s,%s,%s,%.2f%n",
+                            attendance.getEmployeeId(),
+                            names.getOrDefault(attendance.getEmployeeId(), "Unknown"),
+                            attendance.getDate(),
+                            attendance.getLogIn() != null ? attendance.getLogIn().toString() : "",
+                            attendance.getLogOut() != null ? attendance.getLogOut().toString() : "",
+                            attendance.getWorkHours()));
+            if (writer.checkError()) {
+                throw new IOException("Failed to write attendance export to " + filePath);
+            }
+            logger.info(String.format("Exported %d attendance records for %s to %s to %s",
+                    rows, periodStart, periodEnd, filePath));
+            return rows;
+        }
+    }
+
     /**
      * Export report to HTML format
      */
     public void exportReportToHTML(PayrollReport report, String filePath) throws IOException {
+        ReadIntent.run(() -> writeReportToHTML(report, filePath));
+    }
+
+    private void writeReportToHTML(PayrollReport report, String filePath) throws IOException {
         StringBuilder html = new StringBuilder();
 
         html.append("<!DOCTYPE html><html><head>");
@@ -252,14 +370,26 @@ public class ReportGenerator {
             return summary;
         }
 
+        // One pass, exact centavo sums
+        long grossPay = 0, deductions = 0, netPay = 0, sss = 0, philhealth = 0, pagibig = 0, tax = 0;
+        for (Payroll payroll : payrollData) {
+            grossPay += payroll.getGrossPayCentavos();
+            deductions += payroll.getTotalDeductionsCentavos();
+            netPay += payroll.getNetPayCentavos();
+            sss += payroll.getSssCentavos();
+            philhealth += payroll.getPhilhealthCentavos();
+            pagibig += payroll.getPagibigCentavos();
+            tax += payroll.getTaxCentavos();
+        }
+
         summary.setTotalEmployees(payrollData.size());
-        summary.setTotalGrossPay(payrollData.stream().mapToDouble(Payroll::getGrossPay).sum());
-        summary.setTotalDeductions(payrollData.stream().mapToDouble(Payroll::getTotalDeductions).sum());
-        summary.setTotalNetPay(payrollData.stream().mapToDouble(Payroll::getNetPay).sum());
-        summary.setTotalSSSContributions(payrollData.stream().mapToDouble(Payroll::getSss).sum());
-        summary.setTotalPhilHealthContributions(payrollData.stream().mapToDouble(Payroll::getPhilhealth).sum());
-        summary.setTotalPagIBIGContributions(payrollData.stream().mapToDouble(Payroll::getPagibig).sum());
-        summary.setTotalTax(payrollData.stream().mapToDouble(Payroll::getTax).sum());
+        summary.setTotalGrossPayCentavos(grossPay);
+        summary.setTotalDeductionsCentavos(deductions);
+        summary.setTotalNetPayCentavos(netPay);
+        summary.setTotalSSSContributionsCentavos(sss);
+        summary.setTotalPhilHealthContributionsCentavos(philhealth);
+        summary.setTotalPagIBIGContributionsCentavos(pagibig);
+        summary.setTotalTaxCentavos(tax);
 
         return summary;
     }
@@ -268,10 +398,16 @@ public class ReportGenerator {
      * Generate daily attendance report
      */
     public String generateDailyAttendanceReport(LocalDate date) {
+        return ReadIntent.call(() -> createDailyAttendanceReport(date));
+    }
+
+    private String createDailyAttendanceReport(LocalDate date) {
         StringBuilder report = new StringBuilder();
 
         try {
             List<Employee> employees = employeeDAO.getAllEmployees();
+            Map<Integer, List<Attendance>> attendanceByEmployee =
+                    attendanceDAO.getAttendanceGroupedByEmployee(date, date);
 
             report.append("DAILY ATTENDANCE REPORT\n");
             report.append("Date: ").append(date.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"))).append("\n");
@@ -285,8 +421,8 @@ public class ReportGenerator {
             int absentCount = 0;
 
             for (Employee emp : employees) {
-                Attendance attendance = attendanceDAO.getAttendanceByEmployeeAndDate(
-                        emp.getEmployeeId(), date);
+                List<Attendance> records = attendanceByEmployee.get(emp.getEmployeeId());
+                Attendance attendance = records != null ? records.get(0) : null;
 
                 if (attendance != null) {
                     presentCount++;
@@ -1,10 +1,12 @@
 // AttendanceManagementDialog.java - Fixed version without compilation errors
 package ui;
 
+import dao.AsyncDAO;
 import dao.AttendanceDAO;
 import dao.EmployeeDAO;
 import model.Employee;
 import model.Attendance;
+import service.AttendanceImporter;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -12,11 +14,15 @@ import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
 import java.sql.Date;
 import java.sql.Time;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Dialog for managing employee attendance records
@@ -39,11 +45,15 @@ public class AttendanceManagementDialog extends JDialog {
     private JButton deleteButton;
     private JButton refreshButton;
     private JButton clearButton;
+    private JButton clockInButton;
+    private JButton clockOutButton;
+    private JButton importButton;
     private JLabel statusLabel;
 
     // Form state
     private boolean isEditMode = false;
     private int editingAttendanceId = -1;
+    private CompletableFuture<?> attendanceLoad;
 
     public AttendanceManagementDialog(Frame parent, Employee currentUser) {
         super(parent, "Attendance Management", true);
@@ -143,6 +153,9 @@ public class AttendanceManagementDialog extends JDialog {
         deleteButton = createStyledButton("Delete", new Color(220, 20, 60), Color.WHITE);
         refreshButton = createStyledButton("Refresh", new Color(128, 128, 128), Color.WHITE);
         clearButton = createStyledButton("Clear Form", new Color(255, 140, 0), Color.WHITE);
+        clockInButton = createStyledButton("Clock In", new Color(0, 128, 128), Color.WHITE);
+        clockOutButton = createStyledButton("Clock Out", new Color(0, 128, 128), Color.WHITE);
+        importButton = createStyledButton("Import...", new Color(128, 128, 128), Color.WHITE);
 
         // Set button sizes
         Dimension buttonSize = new Dimension(100, 30);
@@ -151,6 +164,9 @@ public class AttendanceManagementDialog extends JDialog {
         deleteButton.setPreferredSize(buttonSize);
         refreshButton.setPreferredSize(buttonSize);
         clearButton.setPreferredSize(buttonSize);
+        clockInButton.setPreferredSize(buttonSize);
+        clockOutButton.setPreferredSize(buttonSize);
+        importButton.setPreferredSize(buttonSize);
     }
 
     private JButton createStyledButton(String text, Color backgroundColor, Color foregroundColor) {
@@ -276,6 +292,11 @@ public class AttendanceManagementDialog extends JDialog {
         buttonPanel.add(Box.createHorizontalStrut(20));
         buttonPanel.add(clearButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(Box.createHorizontalStrut(20));
+        buttonPanel.add(clockInButton);
+        buttonPanel.add(clockOutButton);
+        buttonPanel.add(Box.createHorizontalStrut(20));
+        buttonPanel.add(importButton);
 
         return buttonPanel;
     }
@@ -298,6 +319,9 @@ public class AttendanceManagementDialog extends JDialog {
             setStatus("Records refreshed");
         });
         clearButton.addActionListener(e -> clearForm());
+        clockInButton.addActionListener(e -> recordPunch(true));
+        clockOutButton.addActionListener(e -> recordPunch(false));
+        importButton.addActionListener(e -> importAttendance());
 
         // Table selection listener
         attendanceTable.getSelectionModel().addListSelectionListener(e -> {
@@ -325,42 +349,65 @@ public class AttendanceManagementDialog extends JDialog {
     }
 
     private void loadAttendanceRecords() {
+        // A refresh supersedes any load still in progress
+        if (attendanceLoad != null) {
+            attendanceLoad.cancel(true);
+        }
         tableModel.setRowCount(0);
+        setStatus("Loading attendance records...");
 
-        try {
-            // Load recent attendance records (last 30 days)
-            LocalDate endDate = LocalDate.now();
-            LocalDate startDate = endDate.minusDays(30);
+        // Load recent attendance records (last 30 days) of all employees in one query, while
+        // the employee list loads alongside
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(30);
 
-            List<Employee> employees = employeeDAO.getAllEmployees();
-            int totalRecords = 0;
+        AsyncDAO async = AsyncDAO.shared();
+        CompletableFuture<LoadedAttendance> load = async.call(employeeDAO::getAllEmployees).thenCombine(
+                async.call(() -> attendanceDAO.getAttendanceGroupedByEmployee(startDate, endDate)),
+                LoadedAttendance::new);
+        attendanceLoad = load;
 
-            for (Employee emp : employees) {
-                List<Attendance> records = attendanceDAO.getAttendanceByEmployeeIdBetweenDates(
-                        emp.getEmployeeId(), startDate, endDate);
-
-                for (Attendance attendance : records) {
-                    String status = determineAttendanceStatus(attendance);
-
-                    Object[] row = {
-                            attendance.getId(),
-                            emp.getFullName(),
-                            attendance.getDate(),
-                            attendance.getLogIn(),
-                            attendance.getLogOut(),
-                            String.format("%.2f", attendance.getWorkHours()),
-                            status
-                    };
-                    tableModel.addRow(row);
-                    totalRecords++;
-                }
+        load.whenCompleteAsync((loaded, error) -> {
+            if (load != attendanceLoad || load.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                showError("Error loading attendance records: " + AsyncDAO.describeFailure(error));
+                return;
             }
+            showAttendanceRecords(loaded.employees(), loaded.recordsByEmployee());
+        }, SwingUtilities::invokeLater);
+    }
 
-            setStatus("Loaded " + totalRecords + " attendance records");
+    /**
+     * The employee list and their records, loaded together
+     */
+    private record LoadedAttendance(List<Employee> employees, Map<Integer, List<Attendance>> recordsByEmployee) {
+    }
 
-        } catch (Exception e) {
-            showError("Error loading attendance records: " + e.getMessage());
+    private void showAttendanceRecords(List<Employee> employees, Map<Integer, List<Attendance>> recordsByEmployee) {
+        tableModel.setRowCount(0);
+        int totalRecords = 0;
+
+        for (Employee emp : employees) {
+            for (Attendance attendance : recordsByEmployee.getOrDefault(emp.getEmployeeId(), List.of())) {
+                String status = determineAttendanceStatus(attendance);
+
+                Object[] row = {
+                        attendance.getId(),
+                        emp.getFullName(),
+                        attendance.getDate(),
+                        attendance.getLogIn(),
+                        attendance.getLogOut(),
+                        String.format("%.2f", attendance.getWorkHours()),
+                        status
+                };
+                tableModel.addRow(row);
+                totalRecords++;
+            }
         }
+
+        setStatus("Loaded " + totalRecords + " attendance records");
     }
 
     private String determineAttendanceStatus(Attendance attendance) {
@@ -418,6 +465,85 @@ public class AttendanceManagementDialog extends JDialog {
         }
     }
 
+    /**
+     * Clock the selected employee in or out at the current time
+     */
+    private void recordPunch(boolean logIn) {
+        Employee selectedEmployee = (Employee) employeeComboBox.getSelectedItem();
+        if (selectedEmployee == null) {
+            showWarning("Please select an employee");
+            return;
+        }
+        int employeeId = selectedEmployee.getEmployeeId();
+        LocalDateTime now = LocalDateTime.now();
+        String punch = logIn ? "Clock in" : "Clock out";
+
+        AsyncDAO.shared().call(() -> logIn
+                        ? attendanceDAO.recordLogIn(employeeId, now)
+                        : attendanceDAO.recordLogOut(employeeId, now))
+                .whenCompleteAsync((id, error) -> {
+                    if (error != null) {
+                        if (AsyncDAO.unwrap(error) instanceof IllegalArgumentException) {
+                            showWarning(AsyncDAO.describeFailure(error));
+                        } else {
+                            showError("Error recording " + punch.toLowerCase() + ": " + AsyncDAO.describeFailure(error));
+                        }
+                        return;
+                    }
+                    if (id == 0) {
+                        showWarning(punch + " at " + now.toLocalTime().withNano(0) + " was not recorded for " +
+                                selectedEmployee.getFullName() + ": it would put the log out before the log in");
+                        return;
+                    }
+                    loadAttendanceRecords();
+                    setStatus(punch + " recorded for " + selectedEmployee.getFullName() + " at " + now.toLocalTime().withNano(0));
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Import a CSV file or time-clock export in the background. Rejected rows go to a
+     * .rejects.csv file next to the source.
+     */
+    private void importAttendance() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Attendance");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File source = chooser.getSelectedFile();
+        File rejects = new File(source.getParentFile(), source.getName() + ".rejects.csv");
+
+        importButton.setEnabled(false);
+        setStatus("Importing " + source.getName() + "...");
+
+        new SwingWorker<AttendanceImporter.ImportResult, Void>() {
+            @Override
+            protected AttendanceImporter.ImportResult doInBackground() throws Exception {
+                return new AttendanceImporter().importFile(source.toPath(), rejects.toPath());
+            }
+
+            @Override
+            protected void done() {
+                importButton.setEnabled(true);
+                try {
+                    AttendanceImporter.ImportResult result = get();
+                    loadAttendanceRecords();
+                    String message = "Imported " + result.getRowsImported() + " attendance records from "
+                            + source.getName() + " (" + result.getRowsRead() + " rows read).";
+                    if (result.getRowsRejected() > 0) {
+                        showWarning(message + "\n" + result.getRowsRejected() + " rows were rejected; see "
+                                + rejects.getPath());
+                    } else {
+                        showSuccess(message);
+                    }
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    showError("Error importing attendance: " + cause.getMessage());
+                }
+            }
+        }.execute();
+    }
+
     private void updateAttendanceRecord() {
         if (!isEditMode || editingAttendanceId == -1) {
             showWarning("Please select a record to update");
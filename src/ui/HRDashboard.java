@@ -1,11 +1,16 @@
 package ui;
 
+import dao.AsyncDAO;
 import dao.EmployeeDAO;
 import dao.AttendanceDAO;
 import model.Employee;
 import model.Attendance;
 import model.Payroll;
 import service.PayrollCalculator;
+import service.PayrollRunExecutor;
+import util.CircuitBreaker;
+import util.DBConnection;
+import util.ReadIntent;
 import ui.LoginForm;
 import ui.EmployeeDetailsDialog;
 import ui.PasswordChangeDialog;
@@ -24,6 +29,7 @@ import java.awt.event.MouseEvent;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.Comparator;
 
 public class HRDashboard extends JFrame {
@@ -55,6 +61,16 @@ public class HRDashboard extends JFrame {
     private AttendanceDAO attendanceDAO;
     private PayrollCalculator payrollCalculator;
 
+    // Background payroll work; at most one table load runs at a time
+    private SwingWorker<?, ?> payrollLoadWorker;
+    private CompletableFuture<?> employeeLoad;
+    private CompletableFuture<?> attendanceLoad;
+
+    // Degraded-mode indicator driven by the database circuit breaker
+    private JLabel databaseStatusLabel;
+    private final CircuitBreaker.StateListener databaseStateListener =
+            (breaker, previous, current) -> SwingUtilities.invokeLater(() -> showDatabaseState(breaker, current));
+
     public HRDashboard(Employee user) {
         this.currentUser = user;
 
@@ -294,7 +310,43 @@ public class HRDashboard extends JFrame {
         statusPanel.setBorder(BorderFactory.createLoweredBevelBorder());
         JLabel statusLabel = new JLabel("Ready | Logged in as: " + currentUser.getFullName() + " (" + currentUser.getPosition() + ")");
         statusPanel.add(statusLabel);
+        databaseStatusLabel = new JLabel();
+        databaseStatusLabel.setFont(new Font("Arial", Font.BOLD, 12));
+        databaseStatusLabel.setForeground(new Color(220, 53, 69));
+        statusPanel.add(databaseStatusLabel);
         add(statusPanel, BorderLayout.SOUTH);
+
+        CircuitBreaker breaker = DBConnection.getCircuitBreaker();
+        breaker.addListener(databaseStateListener);
+        showDatabaseState(breaker, breaker.getState());
+    }
+
+    private void showDatabaseState(CircuitBreaker breaker, CircuitBreaker.State state) {
+        switch (state) {
+            case OPEN:
+                databaseStatusLabel.setText(String.format(
+                        "| ⚠️ Database unavailable - degraded mode, retrying in %ds",
+                        (breaker.getRetryAfterMillis() + 999) / 1000));
+                databaseStatusLabel.setVisible(true);
+                break;
+            case HALF_OPEN:
+                databaseStatusLabel.setText("| 🔄 Checking database connection...");
+                databaseStatusLabel.setVisible(true);
+                break;
+            default:
+                if (databaseStatusLabel.isVisible() && !databaseStatusLabel.getText().isEmpty()) {
+                    showStatus("Database connection restored");
+                }
+                databaseStatusLabel.setText("");
+                databaseStatusLabel.setVisible(false);
+                break;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        DBConnection.getCircuitBreaker().removeListener(databaseStateListener);
+        super.dispose();
     }
 
     private JPanel createHeaderPanel() {
@@ -837,43 +889,63 @@ public class HRDashboard extends JFrame {
 
     // Data loading methods
     private void loadData() {
+        // Dashboard tables only read data and may be served by the read replica.
+        // Employees, payroll and attendance load concurrently off the EDT.
+        ReadIntent.run(this::loadTables);
+
+        // Apply default sorting after loading data
+        applySorting();
+    }
+
+    private void loadTables() {
         loadEmployeeData();
         loadEmployeeComboBox();
         loadPayrollData();
         loadAttendanceData();
-
-        // Apply default sorting after loading data
-        applySorting();
     }
 
     private void loadEmployeeData() {
+        // A newer load supersedes any load still in progress
+        if (employeeLoad != null) {
+            employeeLoad.cancel(true);
+        }
         employeeTableModel.setRowCount(0);
 
-        try {
-            List<Employee> employees = employeeDAO.getAllEmployees();
-
-            for (Employee emp : employees) {
-                Object[] row = {
-                        emp.getEmployeeId(), // This will be treated as Integer for proper sorting
-                        emp.getFullName(),
-                        emp.getPosition(),
-                        emp.getStatus(),
-                        String.format("₱%.2f", emp.getBasicSalary()),
-                        emp.getPhoneNumber() != null ? emp.getPhoneNumber() : "N/A",
-                        "Actions" // This will be rendered as a button
-                };
-                employeeTableModel.addRow(row);
+        CompletableFuture<List<Employee>> load = AsyncDAO.shared().call(employeeDAO::getAllEmployees);
+        employeeLoad = load;
+        load.whenCompleteAsync((employees, error) -> {
+            if (load != employeeLoad || load.isCancelled()) {
+                return;
             }
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading employee data: " + AsyncDAO.describeFailure(error),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                AsyncDAO.unwrap(error).printStackTrace();
+                showStatus("Error loading employee data");
+                return;
+            }
+            showEmployees(employees);
+        }, SwingUtilities::invokeLater);
+    }
 
-            // Update status after loading
-            showStatus("Loaded " + employees.size() + " employees");
+    private void showEmployees(List<Employee> employees) {
+        employeeTableModel.setRowCount(0);
 
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading employee data: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-            showStatus("Error loading employee data");
+        for (Employee emp : employees) {
+            Object[] row = {
+                    emp.getEmployeeId(), // This will be treated as Integer for proper sorting
+                    emp.getFullName(),
+                    emp.getPosition(),
+                    emp.getStatus(),
+                    String.format("₱%.2f", emp.getBasicSalary()),
+                    emp.getPhoneNumber() != null ? emp.getPhoneNumber() : "N/A",
+                    "Actions" // This will be rendered as a button
+            };
+            employeeTableModel.addRow(row);
         }
+
+        // Update status after loading
+        showStatus("Loaded " + employees.size() + " employees");
     }
 
     private void loadEmployeeComboBox() {
@@ -892,61 +964,111 @@ public class HRDashboard extends JFrame {
     private void loadPayrollData() {
         payrollTableModel.setRowCount(0);
 
-        try {
-            List<Employee> employees = employeeDAO.getAllEmployees();
+        // Get selected period
+        int selectedMonth = monthComboBox.getSelectedIndex() + 1;
+        int selectedYear = Integer.parseInt((String) yearComboBox.getSelectedItem());
 
-            // Get selected period
-            int selectedMonth = monthComboBox.getSelectedIndex() + 1;
-            int selectedYear = Integer.parseInt((String) yearComboBox.getSelectedItem());
+        LocalDate periodStart = LocalDate.of(selectedYear, selectedMonth, 1);
+        LocalDate periodEnd = periodStart.withDayOfMonth(periodStart.lengthOfMonth());
 
-            LocalDate periodStart = LocalDate.of(selectedYear, selectedMonth, 1);
-            LocalDate periodEnd = periodStart.withDayOfMonth(periodStart.lengthOfMonth());
+        // A newer period selection supersedes any load still in progress
+        if (payrollLoadWorker != null && !payrollLoadWorker.isDone()) {
+            payrollLoadWorker.cancel(true);
+        }
 
-            for (Employee emp : employees) {
+        SwingWorker<PayrollCalculator.BatchResult, Void> worker = new SwingWorker<PayrollCalculator.BatchResult, Void>() {
+            private List<Employee> employees;
+
+            @Override
+            protected PayrollCalculator.BatchResult doInBackground() throws Exception {
+                // A read-only preview, so the replica may serve it
+                return ReadIntent.call(() -> {
+                    employees = employeeDAO.getAllEmployees();
+                    return new PayrollRunExecutor(payrollCalculator).run(employees, periodStart, periodEnd);
+                });
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
                 try {
-                    Payroll payroll = payrollCalculator.calculatePayroll(emp.getEmployeeId(), periodStart, periodEnd);
-
-                    Object[] row = {
-                            emp.getEmployeeId(),
-                            emp.getFullName(),
-                            periodStart.format(DateTimeFormatter.ofPattern("MMM yyyy")),
-                            payroll.getDaysWorked(),
-                            String.format("₱%.2f", payroll.getGrossPay()),
-                            String.format("₱%.2f", payroll.getTotalDeductions()),
-                            String.format("₱%.2f", payroll.getNetPay()),
-                            "View Payslip" // This will be rendered as a button
-                    };
-                    payrollTableModel.addRow(row);
+                    fillPayrollTable(employees, get(), periodStart);
+                    showStatus("Payroll loaded for " + periodStart.format(DateTimeFormatter.ofPattern("MMMM yyyy")));
                 } catch (Exception e) {
-                    // Add row with error status
-                    Object[] row = {
-                            emp.getEmployeeId(),
-                            emp.getFullName(),
-                            periodStart.format(DateTimeFormatter.ofPattern("MMM yyyy")),
-                            "Error",
-                            "Error",
-                            "Error",
-                            "Error",
-                            "View Error"
-                    };
-                    payrollTableModel.addRow(row);
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(HRDashboard.this, "Error loading payroll data: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
                 }
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading payroll data: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+        };
+
+        payrollLoadWorker = worker;
+        showStatus("Loading payroll data...");
+        worker.execute();
+    }
+
+    private void fillPayrollTable(List<Employee> employees, PayrollCalculator.BatchResult batch, LocalDate periodStart) {
+        payrollTableModel.setRowCount(0);
+        for (Employee emp : employees) {
+            Payroll payroll = batch.getPayroll(emp.getEmployeeId());
+            if (payroll != null || batch.getFailures().containsKey(emp.getEmployeeId())) {
+                payrollTableModel.addRow(createPayrollRow(emp, payroll, periodStart));
+            }
         }
     }
 
+    private Object[] createPayrollRow(Employee emp, Payroll payroll, LocalDate periodStart) {
+        if (payroll == null) {
+            // Row with error status
+            return new Object[]{
+                    emp.getEmployeeId(),
+                    emp.getFullName(),
+                    periodStart.format(DateTimeFormatter.ofPattern("MMM yyyy")),
+                    "Error",
+                    "Error",
+                    "Error",
+                    "Error",
+                    "View Error"
+            };
+        }
+        return new Object[]{
+                emp.getEmployeeId(),
+                emp.getFullName(),
+                periodStart.format(DateTimeFormatter.ofPattern("MMM yyyy")),
+                payroll.getDaysWorked(),
+                String.format("₱%.2f", payroll.getGrossPay()),
+                String.format("₱%.2f", payroll.getTotalDeductions()),
+                String.format("₱%.2f", payroll.getNetPay()),
+                "View Payslip" // This will be rendered as a button
+        };
+    }
+
     private void loadAttendanceData() {
+        // Selecting another employee supersedes any load still in progress
+        if (attendanceLoad != null) {
+            attendanceLoad.cancel(true);
+        }
         attendanceTableModel.setRowCount(0);
 
         Employee selectedEmployee = (Employee) employeeComboBox.getSelectedItem();
         if (selectedEmployee == null) return;
 
-        try {
-            List<Attendance> attendanceList = attendanceDAO.getAttendanceByEmployeeId(selectedEmployee.getEmployeeId());
+        CompletableFuture<List<Attendance>> load = AsyncDAO.shared().call(
+                () -> attendanceDAO.getAttendanceByEmployeeId(selectedEmployee.getEmployeeId()));
+        attendanceLoad = load;
+        load.whenCompleteAsync((attendanceList, error) -> {
+            if (load != attendanceLoad || load.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading attendance data: " + AsyncDAO.describeFailure(error),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                AsyncDAO.unwrap(error).printStackTrace();
+                return;
+            }
 
             for (Attendance att : attendanceList) {
                 Object[] row = {
@@ -960,11 +1082,7 @@ public class HRDashboard extends JFrame {
                 };
                 attendanceTableModel.addRow(row);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading attendance data: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+        }, SwingUtilities::invokeLater);
     }
 
     private void searchEmployees() {
@@ -975,6 +1093,10 @@ public class HRDashboard extends JFrame {
             return;
         }
 
+        // Search results replace the full list, so a full load still in progress must not land on top
+        if (employeeLoad != null) {
+            employeeLoad.cancel(true);
+        }
         employeeTableModel.setRowCount(0);
 
         try {
@@ -1020,49 +1142,177 @@ public class HRDashboard extends JFrame {
                 "This will calculate payroll for all employees. Continue?",
                 "Confirm Calculation", JOptionPane.YES_NO_OPTION);
 
-        if (confirm == JOptionPane.YES_OPTION) {
-            // Show progress dialog
-            JProgressBar progressBar = new JProgressBar(0, employeeTableModel.getRowCount());
-            progressBar.setStringPainted(true);
-
-            JDialog progressDialog = new JDialog(this, "Calculating Payrolls", true);
-            progressDialog.add(new JLabel("Calculating payrolls for all employees..."), BorderLayout.NORTH);
-            progressDialog.add(progressBar, BorderLayout.CENTER);
-            progressDialog.setSize(400, 100);
-            progressDialog.setLocationRelativeTo(this);
-
-            SwingWorker<Void, Integer> worker = new SwingWorker<Void, Integer>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    List<Employee> employees = employeeDAO.getAllEmployees();
-
-                    for (int i = 0; i < employees.size(); i++) {
-                        // Simulate calculation time
-                        Thread.sleep(100);
-                        publish(i + 1);
-                    }
-                    return null;
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        int selectedMonth = monthComboBox.getSelectedIndex() + 1;
+        int selectedYear = Integer.parseInt((String) yearComboBox.getSelectedItem());
+        LocalDate periodStart = LocalDate.of(selectedYear, selectedMonth, 1);
+        LocalDate periodEnd = periodStart.withDayOfMonth(periodStart.lengthOfMonth());
+
+        if (payrollLoadWorker != null && !payrollLoadWorker.isDone()) {
+            payrollLoadWorker.cancel(true);
+        }
+        payrollTableModel.setRowCount(0);
+
+        PayrollRunExecutor executor = new PayrollRunExecutor(payrollCalculator);
+        // Deductions are committed from this run, so recalculate everyone from one consistent
+        // snapshot of the database
+        executor.setUseCache(false);
+        executor.setConsistentSnapshot(true);
+        PayrollRunExecutor.Cancellation cancellation = new PayrollRunExecutor.Cancellation();
+
+        // Progress dialog with live throughput, ETA and a cancel button
+        JProgressBar progressBar = new JProgressBar(0, 1);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Loading payroll data...");
+        progressBar.setIndeterminate(true);
+
+        JLabel rateLabel = new JLabel(" ");
+        JButton cancelButton = new JButton("Cancel");
+
+        JDialog progressDialog = new JDialog(this, "Calculating Payrolls", true);
+        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        progressDialog.add(new JLabel("Calculating payrolls for all employees..."), BorderLayout.NORTH);
+        progressDialog.add(progressBar, BorderLayout.CENTER);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(rateLabel, BorderLayout.CENTER);
+        southPanel.add(cancelButton, BorderLayout.EAST);
+        progressDialog.add(southPanel, BorderLayout.SOUTH);
+        progressDialog.setSize(450, 130);
+        progressDialog.setLocationRelativeTo(this);
+
+        cancelButton.addActionListener(e -> {
+            cancellation.cancel();
+            cancelButton.setEnabled(false);
+            cancelButton.setText("Cancelling...");
+        });
+
+        long startNanos = System.nanoTime();
+
+        SwingWorker<PayrollCalculator.BatchResult, PayrollRunProgress> worker =
+                new SwingWorker<PayrollCalculator.BatchResult, PayrollRunProgress>() {
+            private List<Employee> employees;
+            private boolean committed;
+
+            @Override
+            protected PayrollCalculator.BatchResult doInBackground() throws Exception {
+                employees = employeeDAO.getAllEmployees();
+                PayrollCalculator.BatchResult result = executor.run(employees, periodStart, periodEnd,
+                        (employee, payroll, error, completed, total) ->
+                                publish(new PayrollRunProgress(employee, payroll, completed, total)),
+                        cancellation);
+
+                // Only a completed run is committed; a cancelled run stays a preview
+                if (!result.isCancelled() && !cancellation.isCancelled()) {
+                    payrollCalculator.commitDeductions(result, periodStart, periodEnd);
+                    committed = true;
                 }
+                return result;
+            }
 
-                @Override
-                protected void process(java.util.List<Integer> chunks) {
-                    int latest = chunks.get(chunks.size() - 1);
-                    progressBar.setValue(latest);
-                    progressBar.setString(latest + " / " + employeeTableModel.getRowCount() + " completed");
+            @Override
+            protected void process(java.util.List<PayrollRunProgress> chunks) {
+                for (PayrollRunProgress progress : chunks) {
+                    payrollTableModel.addRow(createPayrollRow(progress.employee, progress.payroll, periodStart));
                 }
 
-                @Override
-                protected void done() {
-                    progressDialog.dispose();
-                    loadPayrollData();
+                PayrollRunProgress latest = chunks.get(chunks.size() - 1);
+                double elapsedSeconds = Math.max((System.nanoTime() - startNanos) / 1_000_000_000.0, 0.001);
+                double rate = latest.completed / elapsedSeconds;
+                long etaSeconds = rate > 0 ? Math.round((latest.total - latest.completed) / rate) : 0;
+
+                progressBar.setIndeterminate(false);
+                progressBar.setMaximum(latest.total);
+                progressBar.setValue(latest.completed);
+                progressBar.setString(String.format("%d / %d completed  |  %.1f employees/sec  |  ETA %s",
+                        latest.completed, latest.total, rate, formatDuration(etaSeconds)));
+                rateLabel.setText(String.format(" Elapsed: %s", formatDuration(Math.round(elapsedSeconds))));
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+                try {
+                    PayrollCalculator.BatchResult result = get();
+
+                    // Rows streamed in completion order; redisplay in employee order
+                    fillPayrollTable(employees, result, periodStart);
+                    showPayrollRunSummary(result, committed, employees.size(), elapsedSeconds);
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
                     JOptionPane.showMessageDialog(HRDashboard.this,
-                            "Payroll calculation completed for all employees!",
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                            "Payroll calculation failed: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
                 }
-            };
+            }
+        };
+
+        payrollLoadWorker = worker;
+        worker.execute();
+        progressDialog.setVisible(true);
+    }
+
+    private void showPayrollRunSummary(PayrollCalculator.BatchResult result, boolean committed,
+                                       int totalEmployees, double elapsedSeconds) {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Calculated %d of %d employees in %s (%.1f employees/sec).",
+                result.getSuccessCount(), totalEmployees, formatDuration(Math.round(elapsedSeconds)),
+                result.getSuccessCount() / Math.max(elapsedSeconds, 0.001)));
+
+        if (result.isCancelled()) {
+            summary.append("\n\nThe run was cancelled; remaining employees were not calculated and no deductions were saved.");
+        } else if (!committed) {
+            summary.append("\n\nThe run was cancelled before its deductions were saved.");
+        } else {
+            summary.append("\nDeduction records were saved for the calculated employees.");
+        }
+
+        if (result.hasFailures()) {
+            summary.append("\n\nFailed: ").append(result.getFailureCount()).append("\n");
+            int shown = 0;
+            for (java.util.Map.Entry<Integer, Exception> failure : result.getFailures().entrySet()) {
+                if (shown++ == 10) {
+                    summary.append("  ... and ").append(result.getFailureCount() - 10).append(" more\n");
+                    break;
+                }
+                summary.append("  • Employee ").append(failure.getKey()).append(": ")
+                        .append(failure.getValue().getMessage()).append("\n");
+            }
+        }
+
+        int messageType = result.hasFailures() || !committed
+                ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE;
+        String title = !committed ? "Calculation Cancelled"
+                : result.hasFailures() ? "Completed with Errors" : "Success";
+        JOptionPane.showMessageDialog(this, summary.toString().trim(), title, messageType);
+    }
+
+    private static String formatDuration(long totalSeconds) {
+        return totalSeconds >= 60
+                ? String.format("%dm %02ds", totalSeconds / 60, totalSeconds % 60)
+                : totalSeconds + "s";
+    }
 
-            worker.execute();
-            progressDialog.setVisible(true);
+    /**
+     * One employee's result, published from the payroll run to the EDT
+     */
+    private static class PayrollRunProgress {
+        final Employee employee;
+        final Payroll payroll;
+        final int completed;
+        final int total;
+
+        PayrollRunProgress(Employee employee, Payroll payroll, int completed, int total) {
+            this.employee = employee;
+            this.payroll = payroll;
+            this.completed = completed;
+            this.total = total;
         }
     }
 
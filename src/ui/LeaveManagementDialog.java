@@ -1,5 +1,6 @@
 package ui;
 
+import dao.AsyncDAO;
 import dao.LeaveRequestDAO;
 import dao.EmployeeDAO;
 import model.Employee;
@@ -10,7 +11,11 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class LeaveManagementDialog extends JDialog {
     private Employee currentUser;
@@ -24,6 +29,7 @@ public class LeaveManagementDialog extends JDialog {
     private JButton rejectButton;
     private JButton refreshButton;
     private JButton closeButton;
+    private CompletableFuture<?> leaveRequestLoad;
 
     public LeaveManagementDialog(Frame parent, Employee currentUser) {
         super(parent, "Leave Request Management", true);
@@ -136,43 +142,71 @@ public class LeaveManagementDialog extends JDialog {
     }
 
     private void loadLeaveRequests() {
+        // A newer filter or refresh supersedes any load still in progress
+        if (leaveRequestLoad != null) {
+            leaveRequestLoad.cancel(true);
+        }
         tableModel.setRowCount(0);
 
-        try {
-            String selectedStatus = (String) statusFilter.getSelectedItem();
-            List<LeaveRequest> requests;
-
-            if ("All".equals(selectedStatus)) {
-                // Get all leave requests (you might want to implement this in DAO)
-                requests = leaveRequestDAO.getLeaveRequestsByStatus("Pending");
-                requests.addAll(leaveRequestDAO.getLeaveRequestsByStatus("Approved"));
-                requests.addAll(leaveRequestDAO.getLeaveRequestsByStatus("Rejected"));
-            } else {
-                requests = leaveRequestDAO.getLeaveRequestsByStatus(selectedStatus);
+        String selectedStatus = (String) statusFilter.getSelectedItem();
+        List<String> statuses = "All".equals(selectedStatus)
+                ? List.of("Pending", "Approved", "Rejected")
+                : List.of(selectedStatus);
+
+        // The status queries and the employee names load concurrently
+        AsyncDAO async = AsyncDAO.shared();
+        CompletableFuture<List<List<LeaveRequest>>> requestsLoad =
+                async.forEach(statuses, leaveRequestDAO::getLeaveRequestsByStatus);
+        CompletableFuture<List<Employee>> employeesLoad = async.call(employeeDAO::getAllEmployees);
+        CompletableFuture<Void> load = CompletableFuture.allOf(requestsLoad, employeesLoad);
+        load.whenComplete((ignored, error) -> {
+            if (error != null) {
+                requestsLoad.cancel(true);
+                employeesLoad.cancel(true);
             }
+        });
+        leaveRequestLoad = load;
 
-            for (LeaveRequest request : requests) {
-                Employee emp = employeeDAO.getEmployeeById(request.getEmployeeId());
-                String employeeName = emp != null ? emp.getFullName() : "Unknown";
-
-                Object[] row = {
-                        request.getLeaveId(),
-                        employeeName,
-                        request.getLeaveType(),
-                        request.getStartDate(),
-                        request.getEndDate(),
-                        request.getLeaveDays(),
-                        request.getStatus(),
-                        "N/A" // You might want to add created_at to the model
-                };
-                tableModel.addRow(row);
+        load.whenCompleteAsync((ignored, error) -> {
+            if (load != leaveRequestLoad || load.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                JOptionPane.showMessageDialog(this,
+                        "Error loading leave requests: " + AsyncDAO.describeFailure(error),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                AsyncDAO.unwrap(error).printStackTrace();
+                return;
+            }
+            List<LeaveRequest> requests = new ArrayList<>();
+            for (List<LeaveRequest> byStatus : requestsLoad.join()) {
+                requests.addAll(byStatus);
             }
+            showLeaveRequests(requests, employeesLoad.join());
+        }, SwingUtilities::invokeLater);
+    }
 
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading leave requests: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+    private void showLeaveRequests(List<LeaveRequest> requests, List<Employee> employees) {
+        Map<Integer, String> employeeNames = new HashMap<>();
+        for (Employee emp : employees) {
+            employeeNames.put(emp.getEmployeeId(), emp.getFullName());
+        }
+
+        tableModel.setRowCount(0);
+        for (LeaveRequest request : requests) {
+            String employeeName = employeeNames.getOrDefault(request.getEmployeeId(), "Unknown");
+
+            Object[] row = {
+                    request.getLeaveId(),
+                    employeeName,
+                    request.getLeaveType(),
+                    request.getStartDate(),
+                    request.getEndDate(),
+                    request.getLeaveDays(),
+                    request.getStatus(),
+                    "N/A" // You might want to add created_at to the model
+            };
+            tableModel.addRow(row);
         }
     }
 
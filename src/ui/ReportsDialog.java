@@ -3,10 +3,16 @@ package ui;
 import dao.EmployeeDAO;
 import dao.PayrollDAO;
 import dao.AttendanceDAO;
+import dao.Repositories;
 import model.Employee;
 import model.Payroll;
 import model.Attendance;
+import service.AttendanceBitmapIndex;
+import service.ContributionEngine;
 import service.PayrollCalculator;
+import service.PayrollRunExecutor;
+import util.Money;
+import util.ReadIntent;
 
 import javax.swing.*;
 import java.awt.*;
@@ -18,14 +24,22 @@ import java.io.File;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class ReportsDialog extends JDialog {
+    // Employees late on more days than this are listed in the attendance summary
+    private static final int FREQUENT_LATE_DAYS = 3;
+
     private Employee currentUser;
     private EmployeeDAO employeeDAO;
     private PayrollDAO payrollDAO;
     private AttendanceDAO attendanceDAO;
     private PayrollCalculator payrollCalculator;
+    private PayrollRunExecutor payrollRunExecutor;
+    private AttendanceBitmapIndex attendanceIndex;
 
     private JComboBox<String> reportTypeComboBox;
     private JComboBox<String> monthComboBox;
@@ -49,6 +63,7 @@ public class ReportsDialog extends JDialog {
         this.payrollDAO = new PayrollDAO();
         this.attendanceDAO = new AttendanceDAO();
         this.payrollCalculator = new PayrollCalculator();
+        this.payrollRunExecutor = new PayrollRunExecutor(payrollCalculator);
 
         initializeComponents();
         setupLayout();
@@ -222,18 +237,19 @@ public class ReportsDialog extends JDialog {
             String reportType = (String) reportTypeComboBox.getSelectedItem();
             String format = (String) formatComboBox.getSelectedItem();
 
+            // Reports only read data, so the read replica may serve them
             switch (reportType) {
                 case "Monthly Payroll Report":
-                    generatePayrollReport(format);
+                    ReadIntent.run(() -> generatePayrollReport(format));
                     break;
                 case "Employee Directory Report":
-                    generateEmployeeDirectoryReport(format);
+                    ReadIntent.run(() -> generateEmployeeDirectoryReport(format));
                     break;
                 case "Government Contributions Report":
-                    generateGovernmentContributionsReport(format);
+                    ReadIntent.run(() -> generateGovernmentContributionsReport(format));
                     break;
                 case "Attendance Summary Report":
-                    generateAttendanceReport(format);
+                    ReadIntent.run(() -> generateAttendanceReport(format));
                     break;
                 default:
                     JOptionPane.showMessageDialog(this, "Selected report type not yet implemented.",
@@ -272,19 +288,21 @@ public class ReportsDialog extends JDialog {
                     "ID", "Name", "Basic Pay", "Allowances", "Deductions", "Net Pay"));
             report.append("-".repeat(80)).append("\n");
 
-            double totalGross = 0, totalDeductions = 0, totalNet = 0;
+            // Totals in centavos so they add up exactly
+            long totalGross = 0, totalDeductions = 0, totalNet = 0;
 
-            for (Employee emp : employees) {
-                try {
-                    Payroll payroll = payrollCalculator.calculatePayroll(emp.getEmployeeId(), periodStart, periodEnd);
+            PayrollCalculator.BatchResult batch =
+                    payrollRunExecutor.run(employees, periodStart, periodEnd);
 
-                    double grossPay = payroll.getGrossPay();
+            for (Employee emp : employees) {
+                Payroll payroll = batch.getPayroll(emp.getEmployeeId());
+                if (payroll != null) {
                     double deductions = payroll.getTotalDeductions();
                     double netPay = payroll.getNetPay();
 
-                    totalGross += grossPay;
-                    totalDeductions += deductions;
-                    totalNet += netPay;
+                    totalGross += payroll.getGrossPayCentavos();
+                    totalDeductions += payroll.getTotalDeductionsCentavos();
+                    totalNet += payroll.getNetPayCentavos();
 
                     String name = emp.getFullName();
                     if (name.length() > 25) name = name.substring(0, 22) + "...";
@@ -293,7 +311,7 @@ public class ReportsDialog extends JDialog {
                             emp.getEmployeeId(), name, payroll.getGrossEarnings(),
                             payroll.getRiceSubsidy() + payroll.getPhoneAllowance() + payroll.getClothingAllowance(),
                             deductions, netPay));
-                } catch (Exception e) {
+                } else {
                     report.append(String.format("%-6d %-25s %-12s %-12s %-12s %-12s%n",
                             emp.getEmployeeId(), emp.getFullName(), "Error", "Error", "Error", "Error"));
                 }
@@ -301,7 +319,8 @@ public class ReportsDialog extends JDialog {
 
             report.append("-".repeat(80)).append("\n");
             report.append(String.format("%-31s ₱%-11.2f ₱%-11.2f ₱%-11.2f ₱%-11.2f%n",
-                    "TOTALS:", totalGross - totalDeductions, 0.0, totalDeductions, totalNet));
+                    "TOTALS:", Money.toPesos(totalGross - totalDeductions), 0.0,
+                    Money.toPesos(totalDeductions), Money.toPesos(totalNet)));
 
             if ("Preview Only".equals(format)) {
                 previewArea.setText(report.toString());
@@ -348,38 +367,51 @@ public class ReportsDialog extends JDialog {
             report.append("GOVERNMENT CONTRIBUTIONS REPORT\n");
             report.append("Period: ").append(periodStart.format(DateTimeFormatter.ofPattern("MMMM yyyy"))).append("\n");
             report.append("Generated: ").append(LocalDate.now().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"))).append("\n");
+            report.append("Rates effective: ").append(ContributionEngine.shared().forPeriod(periodStart, periodEnd)
+                    .getEffectiveDate().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"))).append("\n");
             report.append("=".repeat(80)).append("\n\n");
 
             report.append(String.format("%-6s %-20s %-10s %-12s %-10s %-10s%n",
                     "ID", "Name", "SSS", "PhilHealth", "Pag-IBIG", "Tax"));
             report.append("-".repeat(80)).append("\n");
 
-            double totalSSS = 0, totalPhilHealth = 0, totalPagIBIG = 0, totalTax = 0;
-
-            for (Employee emp : employees) {
-                try {
-                    Payroll payroll = payrollCalculator.calculatePayroll(emp.getEmployeeId(), periodStart, periodEnd);
+            long totalSSS = 0, totalPhilHealth = 0, totalPagIBIG = 0, totalTax = 0;
 
-                    totalSSS += payroll.getSss();
-                    totalPhilHealth += payroll.getPhilhealth();
-                    totalPagIBIG += payroll.getPagibig();
-                    totalTax += payroll.getTax();
-
-                    String name = emp.getFullName();
-                    if (name.length() > 20) name = name.substring(0, 17) + "...";
+            // Contributions depend only on the monthly salary, so evaluate them all at once
+            // without a payroll run
+            double[] salaries = new double[employees.size()];
+            for (int i = 0; i < salaries.length; i++) {
+                salaries[i] = employees.get(i).getBasicSalary();
+            }
+            ContributionEngine.Contributions contributions =
+                    ContributionEngine.shared().forPeriod(periodStart, periodEnd).calculate(salaries);
 
-                    report.append(String.format("%-6d %-20s ₱%-9.2f ₱%-11.2f ₱%-9.2f ₱%-9.2f%n",
-                            emp.getEmployeeId(), name, payroll.getSss(), payroll.getPhilhealth(),
-                            payroll.getPagibig(), payroll.getTax()));
-                } catch (Exception e) {
+            for (int i = 0; i < salaries.length; i++) {
+                Employee emp = employees.get(i);
+                // Rejected by payroll validation, so no contributions are due
+                if (emp.getBasicSalary() <= 0) {
                     report.append(String.format("%-6d %-20s %-10s %-12s %-10s %-10s%n",
                             emp.getEmployeeId(), emp.getFullName(), "Error", "Error", "Error", "Error"));
+                    continue;
                 }
+                // Round each row as printed, then sum exactly
+                totalSSS += Money.toCentavos(contributions.getSss(i));
+                totalPhilHealth += Money.toCentavos(contributions.getPhilhealth(i));
+                totalPagIBIG += Money.toCentavos(contributions.getPagibig(i));
+                totalTax += Money.toCentavos(contributions.getTax(i));
+
+                String name = emp.getFullName();
+                if (name.length() > 20) name = name.substring(0, 17) + "...";
+
+                report.append(String.format("%-6d %-20s ₱%-9.2f ₱%-11.2f ₱%-9.2f ₱%-9.2f%n",
+                        emp.getEmployeeId(), name, contributions.getSss(i), contributions.getPhilhealth(i),
+                        contributions.getPagibig(i), contributions.getTax(i)));
             }
 
             report.append("-".repeat(80)).append("\n");
             report.append(String.format("%-26s ₱%-9.2f ₱%-11.2f ₱%-9.2f ₱%-9.2f%n",
-                    "TOTALS:", totalSSS, totalPhilHealth, totalPagIBIG, totalTax));
+                    "TOTALS:", Money.toPesos(totalSSS), Money.toPesos(totalPhilHealth),
+                    Money.toPesos(totalPagIBIG), Money.toPesos(totalTax)));
 
             if ("Preview Only".equals(format)) {
                 previewArea.setText(report.toString());
@@ -400,6 +432,8 @@ public class ReportsDialog extends JDialog {
             LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
 
             List<Employee> employees = employeeDAO.getAllEmployees();
+            Map<Integer, List<Attendance>> attendanceByEmployee =
+                    attendanceDAO.getAttendanceGroupedByEmployee(startDate, endDate);
             StringBuilder report = new StringBuilder();
 
             report.append("ATTENDANCE SUMMARY REPORT\n");
@@ -417,38 +451,44 @@ public class ReportsDialog extends JDialog {
             double totalHours = 0;
 
             for (Employee emp : employees) {
-                try {
-                    List<Attendance> attendanceList = attendanceDAO.getAttendanceByEmployeeIdBetweenDates(
-                            emp.getEmployeeId(), startDate, endDate);
+                List<Attendance> attendanceList =
+                        attendanceByEmployee.getOrDefault(emp.getEmployeeId(), Collections.emptyList());
 
-                    int daysPresent = attendanceList.size();
-                    double empTotalHours = 0;
+                int daysPresent = attendanceList.size();
+                double empTotalHours = 0;
 
-                    for (Attendance att : attendanceList) {
-                        empTotalHours += att.getWorkHours();
-                    }
+                for (Attendance att : attendanceList) {
+                    empTotalHours += att.getWorkHours();
+                }
 
-                    double avgHours = daysPresent > 0 ? empTotalHours / daysPresent : 0;
+                double avgHours = daysPresent > 0 ? empTotalHours / daysPresent : 0;
 
-                    totalEmployees++;
-                    totalDaysPresent += daysPresent;
-                    totalHours += empTotalHours;
+                totalEmployees++;
+                totalDaysPresent += daysPresent;
+                totalHours += empTotalHours;
 
-                    String name = emp.getFullName();
-                    if (name.length() > 25) name = name.substring(0, 22) + "...";
+                String name = emp.getFullName();
+                if (name.length() > 25) name = name.substring(0, 22) + "...";
 
-                    report.append(String.format("%-6d %-25s %-12d %-12.2f %-12.2f%n",
-                            emp.getEmployeeId(), name, daysPresent, empTotalHours, avgHours));
-                } catch (Exception e) {
-                    report.append(String.format("%-6d %-25s %-12s %-12s %-12s%n",
-                            emp.getEmployeeId(), emp.getFullName(), "Error", "Error", "Error"));
-                }
+                report.append(String.format("%-6d %-25s %-12d %-12.2f %-12.2f%n",
+                        emp.getEmployeeId(), name, daysPresent, empTotalHours, avgHours));
             }
 
             report.append("-".repeat(80)).append("\n");
             report.append(String.format("TOTALS: %d employees, %d total days present, %.2f total hours%n",
                     totalEmployees, totalDaysPresent, totalHours));
 
+            AttendanceBitmapIndex index = attendanceIndexFor(startDate, endDate);
+            report.append(String.format("Attendance rate: %.1f%% of working days%n",
+                    index.getAttendanceRate(startDate, endDate)));
+            int[] frequentlyLate = index.getEmployeesLateMoreThan(FREQUENT_LATE_DAYS, startDate, endDate);
+            report.append(String.format("Late more than %d times: %d employee(s)",
+                    FREQUENT_LATE_DAYS, frequentlyLate.length));
+            if (frequentlyLate.length > 0) {
+                report.append(" - IDs ").append(Arrays.toString(frequentlyLate));
+            }
+            report.append("\n");
+
             if ("Preview Only".equals(format)) {
                 previewArea.setText(report.toString());
             } else {
@@ -460,6 +500,30 @@ public class ReportsDialog extends JDialog {
         }
     }
 
+    /**
+     * Index of the period's attendance, kept across reports of the same month and brought up to
+     * date from data change events instead of being reloaded
+     */
+    private AttendanceBitmapIndex attendanceIndexFor(LocalDate startDate, LocalDate endDate) {
+        if (attendanceIndex == null || !attendanceIndex.getPeriodStart().equals(startDate)
+                || !attendanceIndex.getPeriodEnd().equals(endDate)) {
+            if (attendanceIndex != null) {
+                attendanceIndex.close();
+            }
+            attendanceIndex = AttendanceBitmapIndex.build(Repositories.jdbc(), startDate, endDate);
+        }
+        return attendanceIndex;
+    }
+
+    @Override
+    public void dispose() {
+        if (attendanceIndex != null) {
+            attendanceIndex.close();
+            attendanceIndex = null;
+        }
+        super.dispose();
+    }
+
     private void showEmployeeDirectoryPreview(List<Employee> employees) {
         StringBuilder preview = new StringBuilder();
 
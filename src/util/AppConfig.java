@@ -0,0 +1,339 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Application settings: datasource, connection pool, caches and batch sizes.
+ *
+ * Values come from the bundled payroll.properties, overridden by an external properties file,
+ * then by environment variables and finally by system properties (see payroll.properties for
+ * the naming). An instance is an immutable snapshot; {@link #get()} returns the current one.
+ *
+ * When an external file is used it is polled for changes and re-read; listeners registered with
+ * {@link #addListener} receive the previous and the new snapshot and apply what they can change
+ * safely at runtime. Settings that need a restart are only reported.
+ */
+public final class AppConfig {
+    private static final Logger LOGGER = Logger.getLogger(AppConfig.class.getName());
+
+    private static final String DEFAULT_RESOURCE = "payroll.properties";
+    private static final String CONFIG_FILE_PROPERTY = "payroll.config.file";
+    private static final String SYSTEM_PROPERTY_PREFIX = "payroll.";
+    private static final String ENV_PREFIX = "PAYROLL_";
+    private static final String RELOAD_INTERVAL_KEY = "config.reloadIntervalMillis";
+
+    // Sources in increasing order of precedence
+    public static final String SOURCE_DEFAULT = "default";
+    public static final String SOURCE_FILE = "file";
+    public static final String SOURCE_ENVIRONMENT = "environment";
+    public static final String SOURCE_SYSTEM = "system property";
+
+    /**
+     * Notified after the configuration was reloaded with at least one changed value
+     */
+    @FunctionalInterface
+    public interface ConfigListener {
+        void onConfigChanged(AppConfig previous, AppConfig current);
+    }
+
+    private static final List<ConfigListener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static volatile AppConfig current;
+    private static ScheduledExecutorService watcher;
+    private static long fileLastModified;
+
+    private final Map<String, String> values;
+    private final Map<String, String> sources;
+    private final Path file;
+    private final long loadedAt;
+
+    private AppConfig(Map<String, String> values, Map<String, String> sources, Path file) {
+        this.values = Collections.unmodifiableMap(values);
+        this.sources = Collections.unmodifiableMap(sources);
+        this.file = file;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * The current configuration, loaded on first use
+     */
+    public static AppConfig get() {
+        AppConfig config = current;
+        if (config == null) {
+            synchronized (AppConfig.class) {
+                if (current == null) {
+                    current = load();
+                    startWatching(current);
+                }
+                config = current;
+            }
+        }
+        return config;
+    }
+
+    public static void addListener(ConfigListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(ConfigListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Re-read all sources now and notify listeners if anything changed
+     * @return the new configuration
+     */
+    public static AppConfig reload() {
+        AppConfig previous;
+        AppConfig next;
+        synchronized (AppConfig.class) {
+            previous = current;
+            next = load();
+            current = next;
+        }
+        if (previous != null && !previous.values.equals(next.values)) {
+            LOGGER.info("🔄 Configuration reloaded, changed: " + next.changedKeys(previous));
+            for (ConfigListener listener : LISTENERS) {
+                try {
+                    listener.onConfigChanged(previous, next);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Configuration listener failed", e);
+                }
+            }
+        }
+        return next;
+    }
+
+    // Loading
+
+    private static AppConfig load() {
+        Map<String, String> values = new TreeMap<>();
+        Map<String, String> sources = new TreeMap<>();
+
+        try (InputStream in = AppConfig.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Default configuration not found: " + DEFAULT_RESOURCE);
+            }
+            merge(read(new InputStreamReader(in, StandardCharsets.UTF_8)), SOURCE_DEFAULT, values, sources);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read default configuration: " + e.getMessage(), e);
+        }
+
+        Path file = externalFile();
+        if (file != null) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                merge(read(reader), SOURCE_FILE, values, sources);
+            } catch (IOException e) {
+                // Keep running on the other sources; a half-written file is picked up on the next poll
+                LOGGER.log(Level.WARNING, "Could not read configuration file " + file + ": " + e.getMessage());
+            }
+        }
+
+        // Environment and system properties can only override known keys or add db.connection.* ones
+        Set<String> keys = new LinkedHashSet<>(values.keySet());
+        for (String key : keys) {
+            String env = System.getenv(environmentName(key));
+            if (env != null) {
+                values.put(key, env.trim());
+                sources.put(key, SOURCE_ENVIRONMENT);
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(SYSTEM_PROPERTY_PREFIX) && !name.equals(CONFIG_FILE_PROPERTY)) {
+                String key = name.substring(SYSTEM_PROPERTY_PREFIX.length());
+                values.put(key, System.getProperty(name).trim());
+                sources.put(key, SOURCE_SYSTEM);
+            }
+        }
+
+        return new AppConfig(values, sources, file);
+    }
+
+    private static Properties read(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        return properties;
+    }
+
+    private static void merge(Properties properties, String source, Map<String, String> values,
+                              Map<String, String> sources) {
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key).trim());
+            sources.put(key, source);
+        }
+    }
+
+    /**
+     * The external file named by -Dpayroll.config.file, else payroll.properties in the working directory
+     */
+    private static Path externalFile() {
+        String name = System.getProperty(CONFIG_FILE_PROPERTY);
+        if (name != null && !name.trim().isEmpty()) {
+            return Paths.get(name.trim());
+        }
+        Path local = Paths.get(DEFAULT_RESOURCE);
+        return Files.isRegularFile(local) ? local : null;
+    }
+
+    static String environmentName(String key) {
+        return ENV_PREFIX + key.toUpperCase().replace('.', '_');
+    }
+
+    // Hot reload
+
+    private static void startWatching(AppConfig config) {
+        long interval = config.getLong(RELOAD_INTERVAL_KEY, 0);
+        if (config.file == null || interval <= 0) {
+            return;
+        }
+        fileLastModified = lastModified(config.file);
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payroll-config-watcher");
+            t.setDaemon(true);
+            return t;
+        });
+        watcher.scheduleWithFixedDelay(AppConfig::checkForChanges, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private static void checkForChanges() {
+        try {
+            Path file = current.file;
+            long modified = lastModified(file);
+            if (modified != fileLastModified) {
+                fileLastModified = modified;
+                reload();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Configuration reload failed", e);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Accessors
+
+    public String getString(String key, String defaultValue) {
+        String value = values.get(key);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid integer for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = values.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid number for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = values.get(key);
+        return value == null || value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * All settings under a prefix, with the prefix removed (e.g. "db.connection.")
+     */
+    public Properties getProperties(String prefix) {
+        Properties properties = new Properties();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                properties.setProperty(entry.getKey().substring(prefix.length()), entry.getValue());
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Where a setting's effective value came from, or null if it is not set
+     */
+    public String getSource(String key) {
+        return sources.get(key);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Keys whose values differ from another snapshot
+     */
+    public Set<String> changedKeys(AppConfig other) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (String key : values.keySet()) {
+            if (!values.get(key).equals(other.values.get(key))) {
+                changed.add(key);
+            }
+        }
+        for (String key : other.values.keySet()) {
+            if (!values.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Every effective setting with its source, one per line; passwords are masked
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String key = entry.getKey();
+            String value = key.toLowerCase().contains("password") && !entry.getValue().isEmpty()
+                    ? "********" : entry.getValue();
+            sb.append(key).append('=').append(value)
+                    .append("  (").append(sources.get(key)).append(")\n");
+        }
+        return sb.toString();
+    }
+}
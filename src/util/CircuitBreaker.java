@@ -0,0 +1,275 @@
+package util;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stops callers from waiting on a database that keeps failing.
+ *
+ * CLOSED: calls go through. When {@code failureThreshold} failures happen within
+ * {@code failureWindowMillis} the breaker opens.
+ * OPEN: calls are rejected at once with a {@link CircuitOpenException} until the open period
+ * ends. The period starts at {@code baseOpenMillis}, doubles each time a probe fails, is capped
+ * at {@code maxOpenMillis} and is jittered so that several clients do not probe in step.
+ * HALF_OPEN: a single caller is let through as a probe; its success closes the breaker, its
+ * failure opens it again for a longer period. Other callers are rejected meanwhile.
+ *
+ * Callers ask {@link #tryAcquire()} before the call and report {@link #onSuccess()} or
+ * {@link #onFailure(Throwable)} after it. State changes go to {@link StateListener}s, which the
+ * UI uses to show that the application is running degraded.
+ */
+public class CircuitBreaker {
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Notified after every state change, on the thread that caused it
+     */
+    @FunctionalInterface
+    public interface StateListener {
+        void onStateChanged(CircuitBreaker breaker, State previous, State current);
+    }
+
+    /**
+     * Thrown instead of attempting a call while the breaker is open
+     */
+    public static class CircuitOpenException extends SQLTransientConnectionException {
+        private static final long serialVersionUID = 1L;
+
+        private final long retryAfterMillis;
+
+        public CircuitOpenException(String message, long retryAfterMillis) {
+            super(message, "08001");
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long failureWindowMillis;
+    private final long baseOpenMillis;
+    private final long maxOpenMillis;
+    private final List<StateListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private final long[] failureTimes;
+    private int failureIndex;
+    private int consecutiveOpens;
+    private long openUntil;
+    private boolean probeInFlight;
+    private long probeStartedAt;
+    private Throwable lastFailure;
+    private long stateChangedAt = System.currentTimeMillis();
+
+    // Statistics
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong openedCount = new AtomicLong();
+
+    /**
+     * @param failureThreshold Failures within the window that open the breaker
+     * @param failureWindowMillis Window the failures are counted in
+     * @param baseOpenMillis First open period
+     * @param maxOpenMillis Longest open period after repeated failed probes
+     */
+    public CircuitBreaker(String name, int failureThreshold, long failureWindowMillis,
+                          long baseOpenMillis, long maxOpenMillis) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        if (failureWindowMillis <= 0 || baseOpenMillis <= 0) {
+            throw new IllegalArgumentException("Failure window and open period must be positive");
+        }
+        if (maxOpenMillis < baseOpenMillis) {
+            throw new IllegalArgumentException("Max open period cannot be shorter than the base open period");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.failureWindowMillis = failureWindowMillis;
+        this.baseOpenMillis = baseOpenMillis;
+        this.maxOpenMillis = maxOpenMillis;
+        this.failureTimes = new long[failureThreshold];
+    }
+
+    public void addListener(StateListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(StateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Ask to make a call
+     * @return true if the call may proceed; it must then be reported with onSuccess or onFailure
+     */
+    public boolean tryAcquire() {
+        State previous;
+        synchronized (this) {
+            previous = state;
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.currentTimeMillis() < openUntil) {
+                        rejectedCount.incrementAndGet();
+                        return false;
+                    }
+                    transition(State.HALF_OPEN);
+                    startProbe();
+                    break;
+                default:
+                    // A probe that never reported back does not hold the breaker half-open forever
+                    if (probeInFlight && System.currentTimeMillis() - probeStartedAt < maxOpenMillis) {
+                        rejectedCount.incrementAndGet();
+                        return false;
+                    }
+                    startProbe();
+                    return true;
+            }
+        }
+        notifyListeners(previous, State.HALF_OPEN);
+        return true;
+    }
+
+    private void startProbe() {
+        probeInFlight = true;
+        probeStartedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Like {@link #tryAcquire()}, but throws when the call is rejected
+     */
+    public void acquire() throws CircuitOpenException {
+        if (!tryAcquire()) {
+            long retryAfter = getRetryAfterMillis();
+            Throwable cause = getLastFailure();
+            throw new CircuitOpenException(String.format(
+                    "%s is unavailable; not retrying for another %dms%s", name, retryAfter,
+                    cause != null ? " (last error: " + cause.getMessage() + ")" : ""), retryAfter);
+        }
+    }
+
+    public void onSuccess() {
+        State previous;
+        synchronized (this) {
+            previous = state;
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            probeInFlight = false;
+            consecutiveOpens = 0;
+            failureIndex = 0;
+            Arrays.fill(failureTimes, 0);
+            transition(State.CLOSED);
+        }
+        LOGGER.info("✅ " + name + " recovered, circuit closed");
+        notifyListeners(previous, State.CLOSED);
+    }
+
+    /**
+     * Report a permitted call that says nothing about the resource's health (e.g. it was
+     * cancelled); a probe is released so the next caller can probe instead
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public void onFailure(Throwable error) {
+        State previous;
+        long openMillis;
+        synchronized (this) {
+            previous = state;
+            lastFailure = error;
+            long now = System.currentTimeMillis();
+            if (state == State.CLOSED) {
+                failureTimes[failureIndex] = now;
+                failureIndex = (failureIndex + 1) % failureThreshold;
+                // The slot about to be overwritten holds the oldest of the last failureThreshold failures
+                long oldest = failureTimes[failureIndex];
+                if (oldest == 0 || now - oldest > failureWindowMillis) {
+                    return;
+                }
+            } else if (state == State.HALF_OPEN) {
+                probeInFlight = false;
+            } else {
+                return;
+            }
+            openMillis = nextOpenPeriod();
+            openUntil = now + openMillis;
+            consecutiveOpens++;
+            openedCount.incrementAndGet();
+            transition(State.OPEN);
+        }
+        LOGGER.log(Level.WARNING, String.format("⚠️ %s failing, circuit open for %dms: %s",
+                name, openMillis, error != null ? error.getMessage() : "unknown error"));
+        notifyListeners(previous, State.OPEN);
+    }
+
+    /**
+     * Base period doubled per consecutive opening, capped, then jittered down by up to half
+     */
+    private long nextOpenPeriod() {
+        long period = baseOpenMillis << Math.min(consecutiveOpens, 20);
+        period = Math.min(period, maxOpenMillis);
+        long half = period / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private void transition(State next) {
+        state = next;
+        stateChangedAt = System.currentTimeMillis();
+    }
+
+    private void notifyListeners(State previous, State current) {
+        if (previous == current) {
+            return;
+        }
+        for (StateListener listener : listeners) {
+            try {
+                listener.onStateChanged(this, previous, current);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Circuit breaker listener failed", e);
+            }
+        }
+    }
+
+    public String getName() { return name; }
+    public synchronized State getState() { return state; }
+    public synchronized long getStateChangedAt() { return stateChangedAt; }
+    public synchronized Throwable getLastFailure() { return lastFailure; }
+    public long getRejectedCount() { return rejectedCount.get(); }
+    public long getOpenedCount() { return openedCount.get(); }
+
+    /**
+     * Time until the next probe is allowed, or 0 if calls may proceed
+     */
+    public synchronized long getRetryAfterMillis() {
+        return state == State.OPEN ? Math.max(0, openUntil - System.currentTimeMillis()) : 0;
+    }
+
+    public synchronized boolean isDegraded() {
+        return state != State.CLOSED;
+    }
+
+    public String getStats() {
+        return String.format("circuit=%s, opened=%d, rejected=%d, retry in=%dms",
+                getState(), getOpenedCount(), getRejectedCount(), getRetryAfterMillis());
+    }
+}
@@ -0,0 +1,951 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool used behind {@link DBConnection#getConnection()}.
+ *
+ * Connections handed out by {@link #borrow()} are proxies: calling close() returns the
+ * physical connection to the pool instead of closing it, so existing try-with-resources
+ * DAO code keeps working unchanged. A background housekeeper evicts idle and expired
+ * connections, keeps the pool at its minimum size and reports leaked connections together
+ * with the stack trace of the code that borrowed them.
+ *
+ * When a statement cache size is configured, every physical connection also keeps an LRU
+ * cache of its prepared and callable statements, keyed by SQL text and result-set options.
+ * prepareStatement() hands out a cached statement when one is available and close() puts it
+ * back with its parameters cleared, so DAOs that prepare the same SQL on every call reuse the
+ * already prepared statement without any code changes.
+ */
+public class ConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * Creates new physical connections for the pool
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * Told about connection-level failures (SQLState class 08) raised while a connection was in use
+     */
+    @FunctionalInterface
+    public interface ConnectionErrorListener {
+        void onConnectionError(SQLException error);
+    }
+
+    /**
+     * Pool sizing and timeout settings.
+     * A running pool reads these on every use, so {@link #reconfigure} changes take effect immediately.
+     */
+    public static class Config {
+        private volatile int minSize = 2;
+        private volatile int maxSize = 10;
+        private volatile long borrowTimeoutMillis = 5_000;
+        private volatile long idleTimeoutMillis = 5 * 60_000;
+        private volatile long maxLifetimeMillis = 30 * 60_000;
+        private volatile long validationIntervalMillis = 30_000;
+        private volatile int validationTimeoutSeconds = 2;
+        private volatile long leakDetectionThresholdMillis = 60_000;
+        private volatile long housekeepingIntervalMillis = 15_000;
+        private volatile int statementCacheSize = 0;
+
+        public int getMinSize() { return minSize; }
+        public Config setMinSize(int minSize) { this.minSize = minSize; return this; }
+
+        public int getMaxSize() { return maxSize; }
+        public Config setMaxSize(int maxSize) { this.maxSize = maxSize; return this; }
+
+        public long getBorrowTimeoutMillis() { return borrowTimeoutMillis; }
+        public Config setBorrowTimeoutMillis(long borrowTimeoutMillis) { this.borrowTimeoutMillis = borrowTimeoutMillis; return this; }
+
+        public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+        public Config setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = idleTimeoutMillis; return this; }
+
+        public long getMaxLifetimeMillis() { return maxLifetimeMillis; }
+        public Config setMaxLifetimeMillis(long maxLifetimeMillis) { this.maxLifetimeMillis = maxLifetimeMillis; return this; }
+
+        public long getValidationIntervalMillis() { return validationIntervalMillis; }
+        public Config setValidationIntervalMillis(long validationIntervalMillis) { this.validationIntervalMillis = validationIntervalMillis; return this; }
+
+        public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+        public Config setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; return this; }
+
+        /** 0 disables leak detection (and the borrow-site stack capture) */
+        public long getLeakDetectionThresholdMillis() { return leakDetectionThresholdMillis; }
+        public Config setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) { this.leakDetectionThresholdMillis = leakDetectionThresholdMillis; return this; }
+
+        public long getHousekeepingIntervalMillis() { return housekeepingIntervalMillis; }
+        public Config setHousekeepingIntervalMillis(long housekeepingIntervalMillis) { this.housekeepingIntervalMillis = housekeepingIntervalMillis; return this; }
+
+        /** Prepared statements cached per physical connection; 0 disables the statement cache */
+        public int getStatementCacheSize() { return statementCacheSize; }
+        public Config setStatementCacheSize(int statementCacheSize) { this.statementCacheSize = statementCacheSize; return this; }
+
+        Config copyFrom(Config other) {
+            minSize = other.minSize;
+            maxSize = other.maxSize;
+            borrowTimeoutMillis = other.borrowTimeoutMillis;
+            idleTimeoutMillis = other.idleTimeoutMillis;
+            maxLifetimeMillis = other.maxLifetimeMillis;
+            validationIntervalMillis = other.validationIntervalMillis;
+            validationTimeoutSeconds = other.validationTimeoutSeconds;
+            leakDetectionThresholdMillis = other.leakDetectionThresholdMillis;
+            housekeepingIntervalMillis = other.housekeepingIntervalMillis;
+            statementCacheSize = other.statementCacheSize;
+            return this;
+        }
+
+        private void validate() {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("Pool max size must be positive");
+            }
+            if (minSize < 0 || minSize > maxSize) {
+                throw new IllegalArgumentException("Pool min size must be between 0 and max size");
+            }
+            if (borrowTimeoutMillis <= 0) {
+                throw new IllegalArgumentException("Borrow timeout must be positive");
+            }
+            if (statementCacheSize < 0) {
+                throw new IllegalArgumentException("Statement cache size cannot be negative");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "min=" + minSize + ", max=" + maxSize +
+                    ", borrowTimeout=" + borrowTimeoutMillis + "ms" +
+                    ", idleTimeout=" + idleTimeoutMillis + "ms" +
+                    ", maxLifetime=" + maxLifetimeMillis + "ms" +
+                    ", leakThreshold=" + leakDetectionThresholdMillis + "ms" +
+                    ", statementCache=" + statementCacheSize;
+        }
+    }
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final Config config;
+
+    // LIFO: hot connections are reused first, cold ones age out at the tail
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ResizableSemaphore borrowPermits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    private volatile ConnectionErrorListener connectionErrorListener;
+
+    // Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    public ConnectionPool(String name, ConnectionFactory factory, Config config) {
+        if (factory == null || config == null) {
+            throw new IllegalArgumentException("Connection factory and config cannot be null");
+        }
+        config.validate();
+        this.name = name;
+        this.factory = factory;
+        this.config = config;
+        this.borrowPermits = new ResizableSemaphore(config.getMaxSize());
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1_000, config.getHousekeepingIntervalMillis());
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the configured borrow timeout
+     * @return pooled connection proxy; close() returns it to the pool
+     * @throws SQLTimeoutException if no connection became available in time
+     * @throws SQLException if a new physical connection could not be created
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' has been shut down", "08003");
+        }
+
+        long timeoutMillis = config.getBorrowTimeoutMillis();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        try {
+            if (!borrowPermits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw borrowTimeout();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            while (true) {
+                PooledConnection pc = idle.pollFirst();
+
+                if (pc == null && reserveSlot()) {
+                    try {
+                        pc = createPooledConnection();
+                    } catch (SQLException e) {
+                        totalConnections.decrementAndGet();
+                        throw e;
+                    }
+                    return checkout(pc);
+                }
+
+                if (pc == null) {
+                    // Pool is at max size but a permit was free: a connection is on its way back
+                    long remaining = deadline - System.nanoTime();
+                    pc = remaining > 0 ? idle.pollFirst(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (pc == null) {
+                        throw borrowTimeout();
+                    }
+                }
+
+                if (isUsable(pc)) {
+                    return checkout(pc);
+                }
+                destroy(pc, "failed validation or expired");
+            }
+        } catch (InterruptedException e) {
+            borrowPermits.release();
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } catch (SQLException | RuntimeException e) {
+            borrowPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Set the listener told about connection-level failures on borrowed connections, or null
+     */
+    public void setConnectionErrorListener(ConnectionErrorListener listener) {
+        this.connectionErrorListener = listener;
+    }
+
+    /**
+     * Close all idle connections and stop accepting borrows.
+     * Borrowed connections are closed physically when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc, "pool shutdown");
+        }
+        LOGGER.info("Connection pool '" + name + "' shut down");
+    }
+
+    /**
+     * Apply new settings to the running pool. Growing the pool takes effect at once; when it
+     * shrinks, borrowers wait until enough connections are returned and surplus idle connections
+     * are closed. The housekeeping interval is fixed when the pool is created.
+     * @throws IllegalArgumentException if the new settings are invalid
+     */
+    public synchronized void reconfigure(Config updated) {
+        if (updated == null) {
+            throw new IllegalArgumentException("Config cannot be null");
+        }
+        updated.validate();
+        int oldMax = config.getMaxSize();
+        long housekeepingInterval = config.getHousekeepingIntervalMillis();
+        config.copyFrom(updated).setHousekeepingIntervalMillis(housekeepingInterval);
+
+        int delta = config.getMaxSize() - oldMax;
+        if (delta > 0) {
+            borrowPermits.release(delta);
+        } else if (delta < 0) {
+            borrowPermits.reducePermits(-delta);
+            PooledConnection pc;
+            while (totalConnections.get() > config.getMaxSize() && (pc = idle.pollLast()) != null) {
+                destroy(pc, "pool shrunk");
+            }
+        }
+        LOGGER.info("Connection pool '" + name + "' reconfigured (" + config + ")");
+    }
+
+    public Config getConfig() { return config; }
+    public int getActiveCount() { return borrowed.size(); }
+    public int getIdleCount() { return idle.size(); }
+    public int getTotalCount() { return totalConnections.get(); }
+    public int getWaitingCount() { return borrowPermits.getQueueLength(); }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getDestroyedCount() { return destroyedCount.get(); }
+    public long getTimeoutCount() { return timeoutCount.get(); }
+    public long getLeakCount() { return leakCount.get(); }
+    public long getStatementCacheHitCount() { return statementCacheHits.get(); }
+    public long getStatementCacheMissCount() { return statementCacheMisses.get(); }
+    public long getStatementCacheEvictionCount() { return statementCacheEvictions.get(); }
+
+    public double getStatementCacheHitRate() {
+        long hits = statementCacheHits.get();
+        long lookups = hits + statementCacheMisses.get();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Get a one-line summary of the pool state
+     */
+    public String getStats() {
+        return String.format("%s: total=%d, active=%d, idle=%d, waiting=%d, borrows=%d, created=%d, destroyed=%d, timeouts=%d, leaks=%d, " +
+                        "statement cache hits=%d, misses=%d (%.1f%% hit rate), evictions=%d",
+                name, getTotalCount(), getActiveCount(), getIdleCount(), getWaitingCount(),
+                getBorrowCount(), getCreatedCount(), getDestroyedCount(), getTimeoutCount(), getLeakCount(),
+                getStatementCacheHitCount(), getStatementCacheMissCount(), getStatementCacheHitRate() * 100,
+                getStatementCacheEvictionCount());
+    }
+
+    // Internal helpers
+
+    private SQLTimeoutException borrowTimeout() {
+        timeoutCount.incrementAndGet();
+        return new SQLTimeoutException(String.format(
+                "Timed out after %dms waiting for a database connection from pool '%s' (active=%d, idle=%d, max=%d)",
+                config.getBorrowTimeoutMillis(), name, getActiveCount(), getIdleCount(), config.getMaxSize()));
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = totalConnections.get();
+            if (current >= config.getMaxSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /** Caller must already hold a reserved slot in totalConnections */
+    private PooledConnection createPooledConnection() throws SQLException {
+        Connection physical = factory.create();
+        if (physical == null) {
+            throw new SQLException("Connection factory returned null");
+        }
+        createdCount.incrementAndGet();
+        LOGGER.fine(() -> "Opened new physical connection for pool '" + name + "' (total=" + totalConnections.get() + ")");
+        return new PooledConnection(physical);
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        long now = System.currentTimeMillis();
+        if (pc.isExpired(now)) {
+            return false;
+        }
+        // Cheap validation: only ping connections that have been sitting idle for a while
+        if (now - pc.lastReturnedAt < config.getValidationIntervalMillis()) {
+            return true;
+        }
+        try {
+            return pc.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection checkout(PooledConnection pc) {
+        pc.borrowedAt = System.currentTimeMillis();
+        pc.borrowingThread = Thread.currentThread().getName();
+        pc.borrowSite = config.getLeakDetectionThresholdMillis() > 0
+                ? new Throwable("Connection borrowed here") : null;
+        pc.leakReported = false;
+        borrowed.add(pc);
+        borrowCount.incrementAndGet();
+        return pc.newHandle();
+    }
+
+    private void release(PooledConnection pc, Handle handle) {
+        try {
+            handle.closeTrackedStatements();
+            if (!pc.broken) {
+                handle.resetSessionState();
+            }
+        } catch (SQLException e) {
+            pc.broken = true;
+            LOGGER.log(Level.FINE, "Discarding connection that failed to reset", e);
+        } finally {
+            borrowed.remove(pc);
+            pc.borrowSite = null;
+            pc.lastReturnedAt = System.currentTimeMillis();
+
+            if (closed || pc.broken || pc.isExpired(pc.lastReturnedAt)) {
+                destroy(pc, closed ? "pool shutdown" : pc.broken ? "broken" : "max lifetime reached");
+            } else {
+                idle.offerFirst(pc);
+            }
+            borrowPermits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pc, String reason) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        pc.closeCachedStatements();
+        try {
+            pc.physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing pooled connection", e);
+        }
+        LOGGER.fine(() -> "Closed pooled connection (" + reason + ") for pool '" + name + "'");
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // Retire expired connections and trim idle ones above the minimum size
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pc = it.next();
+                boolean expired = pc.isExpired(now);
+                boolean idleTooLong = now - pc.lastReturnedAt > config.getIdleTimeoutMillis()
+                        && totalConnections.get() > config.getMinSize();
+                if ((expired || idleTooLong) && idle.remove(pc)) {
+                    destroy(pc, expired ? "max lifetime reached" : "idle timeout");
+                }
+            }
+
+            // Close connections above a reduced maximum once they are back
+            PooledConnection surplus;
+            while (totalConnections.get() > config.getMaxSize() && (surplus = idle.pollLast()) != null) {
+                destroy(surplus, "pool shrunk");
+            }
+
+            // Leak detection
+            long threshold = config.getLeakDetectionThresholdMillis();
+            if (threshold > 0) {
+                for (PooledConnection pc : borrowed) {
+                    Throwable site = pc.borrowSite;
+                    if (!pc.leakReported && site != null && now - pc.borrowedAt > threshold) {
+                        pc.leakReported = true;
+                        leakCount.incrementAndGet();
+                        LOGGER.log(Level.WARNING, String.format(
+                                "⚠️ Possible connection leak in pool '%s': connection held for %dms by thread '%s' without being closed",
+                                name, now - pc.borrowedAt, pc.borrowingThread), site);
+                    }
+                }
+            }
+
+            // Keep the pool warm
+            while (!closed && totalConnections.get() < config.getMinSize() && reserveSlot()) {
+                try {
+                    PooledConnection pc = createPooledConnection();
+                    pc.lastReturnedAt = System.currentTimeMillis();
+                    idle.offerLast(pc);
+                } catch (SQLException e) {
+                    totalConnections.decrementAndGet();
+                    LOGGER.log(Level.FINE, "Could not pre-fill connection pool '" + name + "'", e);
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool
+     */
+    private class PooledConnection {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastReturnedAt = createdAt;
+        volatile long borrowedAt;
+        volatile String borrowingThread;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+        volatile boolean broken;
+        private Integer defaultIsolation;
+
+        // Statements currently handed out are removed, so one statement is never shared by two callers
+        private final LinkedHashMap<StatementKey, PreparedStatement> statementCache =
+                new LinkedHashMap<StatementKey, PreparedStatement>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+                        if (size() > config.getStatementCacheSize()) {
+                            statementCacheEvictions.incrementAndGet();
+                            closeQuietly(eldest.getValue());
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Take a cached statement for the key or prepare a new one
+         */
+        PreparedStatement prepare(StatementKey key) throws SQLException {
+            synchronized (statementCache) {
+                PreparedStatement cached = statementCache.remove(key);
+                if (cached != null) {
+                    statementCacheHits.incrementAndGet();
+                    return cached;
+                }
+            }
+            statementCacheMisses.incrementAndGet();
+            try {
+                return key.prepare(physical);
+            } catch (SQLException e) {
+                markIfBroken(e);
+                throw e;
+            }
+        }
+
+        /**
+         * Put a statement the caller closed back into the cache, or close it if it cannot be reused
+         */
+        void giveBack(StatementKey key, PreparedStatement stmt, boolean reusable) {
+            boolean keep = reusable && !broken && !ConnectionPool.this.closed && config.getStatementCacheSize() > 0;
+            if (keep) {
+                try {
+                    keep = !stmt.isClosed();
+                    if (keep) {
+                        stmt.clearParameters();
+                        stmt.clearBatch();
+                        stmt.clearWarnings();
+                    }
+                } catch (SQLException e) {
+                    keep = false;
+                }
+            }
+            if (keep) {
+                synchronized (statementCache) {
+                    // A second copy of the same SQL (prepared while the first was in use) is not kept
+                    keep = statementCache.putIfAbsent(key, stmt) == null;
+                }
+            }
+            if (!keep) {
+                closeQuietly(stmt);
+            }
+        }
+
+        void closeCachedStatements() {
+            synchronized (statementCache) {
+                for (PreparedStatement stmt : statementCache.values()) {
+                    closeQuietly(stmt);
+                }
+                statementCache.clear();
+            }
+        }
+
+        void markIfBroken(SQLException e) {
+            String state = e.getSQLState();
+            if (state != null && state.startsWith("08")) {
+                broken = true; // connection-level failure
+                ConnectionErrorListener listener = connectionErrorListener;
+                if (listener != null) {
+                    listener.onConnectionError(e);
+                }
+            }
+        }
+
+        boolean isExpired(long now) {
+            long maxLifetime = config.getMaxLifetimeMillis();
+            return maxLifetime > 0 && now - createdAt > maxLifetime;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Per-borrow view of a pooled connection. A fresh handle is created for every borrow,
+     * so a stale reference kept after close() cannot touch the next borrower's session.
+     */
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean closed;
+        private boolean autoCommitChanged;
+        private boolean readOnlyChanged;
+        private boolean isolationChanged;
+        private boolean catalogChanged;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+
+            switch (methodName) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pc, this);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + name + "]" + (closed ? " (closed)" : "") + " -> " + pc.physical;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "abort":
+                    if (!closed) {
+                        closed = true;
+                        pc.broken = true;
+                        release(pc, this);
+                    }
+                    return null;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection is closed", "08003");
+            }
+
+            switch (methodName) {
+                case "setAutoCommit": autoCommitChanged = true; break;
+                case "setReadOnly": readOnlyChanged = true; break;
+                case "setCatalog": catalogChanged = true; break;
+                case "setTransactionIsolation":
+                    if (pc.defaultIsolation == null) {
+                        pc.defaultIsolation = pc.physical.getTransactionIsolation();
+                    }
+                    isolationChanged = true;
+                    break;
+                default:
+                    break;
+            }
+
+            if (config.getStatementCacheSize() > 0) {
+                StatementKey key = StatementKey.of(methodName, args);
+                if (key != null) {
+                    Statement stmt = newCachedStatement(key, pc.prepare(key), (Connection) proxy);
+                    statements.add(stmt);
+                    return stmt;
+                }
+            }
+
+            try {
+                Object result = method.invoke(pc.physical, args);
+                if (result instanceof Statement) {
+                    statements.add((Statement) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    pc.markIfBroken((SQLException) cause);
+                }
+                throw cause;
+            }
+        }
+
+        private Statement newCachedStatement(StatementKey key, PreparedStatement physical, Connection connection) {
+            Class<?> type = key.callable ? CallableStatement.class : PreparedStatement.class;
+            return (Statement) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{type},
+                    new CachedStatement(pc, key, physical, connection));
+        }
+
+        void closeTrackedStatements() {
+            for (Statement stmt : statements) {
+                try {
+                    if (!stmt.isClosed()) {
+                        stmt.close();
+                    }
+                } catch (SQLException e) {
+                    LOGGER.log(Level.FINE, "Error closing statement left open by caller", e);
+                }
+            }
+            statements.clear();
+        }
+
+        void resetSessionState() throws SQLException {
+            Connection c = pc.physical;
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            } else if (autoCommitChanged) {
+                c.setAutoCommit(true);
+            }
+            if (readOnlyChanged) {
+                c.setReadOnly(false);
+            }
+            if (isolationChanged && pc.defaultIsolation != null) {
+                c.setTransactionIsolation(pc.defaultIsolation);
+            }
+            if (catalogChanged) {
+                pc.broken = true; // schema switched; safer to discard than to guess the original
+            }
+            c.clearWarnings();
+        }
+    }
+
+    /**
+     * Caller's view of a cached statement; close() returns the physical statement to the cache
+     */
+    private class CachedStatement implements InvocationHandler {
+        private final PooledConnection pc;
+        private final StatementKey key;
+        private final PreparedStatement physical;
+        private final Connection connection;
+        private final List<ResultSet> resultSets = new ArrayList<>(1);
+        private boolean closed;
+        private boolean settingsChanged;
+
+        CachedStatement(PooledConnection pc, StatementKey key, PreparedStatement physical, Connection connection) {
+            this.pc = pc;
+            this.key = key;
+            this.physical = physical;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+
+            switch (methodName) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        closeResultSets();
+                        pc.giveBack(key, physical, !settingsChanged);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + key.sql + "]" + (closed ? " (closed)" : "");
+                case "getConnection":
+                    return connection;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            if (STATEMENT_SETTINGS.contains(methodName)) {
+                settingsChanged = true; // would leak into the next user, so this statement is not cached again
+            }
+            if (methodName.startsWith("execute")) {
+                resultSets.clear(); // re-executing closes the previous result set
+            }
+
+            try {
+                Object result = method.invoke(physical, args);
+                if (result instanceof ResultSet) {
+                    resultSets.add((ResultSet) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    pc.markIfBroken((SQLException) cause);
+                }
+                throw cause;
+            }
+        }
+
+        private void closeResultSets() {
+            for (ResultSet rs : resultSets) {
+                try {
+                    rs.close();
+                } catch (SQLException e) {
+                    settingsChanged = true;
+                    LOGGER.log(Level.FINE, "Error closing result set of cached statement", e);
+                }
+            }
+            resultSets.clear();
+        }
+    }
+
+    // Statement setters whose effect outlives the caller
+    private static final Set<String> STATEMENT_SETTINGS = new HashSet<>(Arrays.asList(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setLargeMaxRows", "setMaxFieldSize",
+            "setQueryTimeout", "setEscapeProcessing", "setCursorName", "setPoolable", "closeOnCompletion"));
+
+    /**
+     * SQL text plus the options it was prepared with
+     */
+    private static final class StatementKey {
+        final boolean callable;
+        final String sql;
+        final int resultSetType;
+        final int resultSetConcurrency;
+        final int resultSetHoldability;
+        final int autoGeneratedKeys;
+
+        private StatementKey(boolean callable, String sql, int resultSetType, int resultSetConcurrency,
+                             int resultSetHoldability, int autoGeneratedKeys) {
+            this.callable = callable;
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.resultSetConcurrency = resultSetConcurrency;
+            this.resultSetHoldability = resultSetHoldability;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        /**
+         * Key for a prepareStatement/prepareCall call, or null if the call is not cacheable
+         * (column index or name arrays for generated keys are rare enough to always prepare)
+         */
+        static StatementKey of(String methodName, Object[] args) {
+            boolean callable = "prepareCall".equals(methodName);
+            if (!callable && !"prepareStatement".equals(methodName)) {
+                return null;
+            }
+            if (args == null || !(args[0] instanceof String)) {
+                return null;
+            }
+            String sql = (String) args[0];
+            switch (args.length) {
+                case 1:
+                    return new StatementKey(callable, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                            -1, Statement.NO_GENERATED_KEYS);
+                case 2:
+                    if (args[1] instanceof Integer) {
+                        return new StatementKey(callable, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                                -1, (Integer) args[1]);
+                    }
+                    return null;
+                case 3:
+                    return new StatementKey(callable, sql, (Integer) args[1], (Integer) args[2],
+                            -1, Statement.NO_GENERATED_KEYS);
+                case 4:
+                    return new StatementKey(callable, sql, (Integer) args[1], (Integer) args[2],
+                            (Integer) args[3], Statement.NO_GENERATED_KEYS);
+                default:
+                    return null;
+            }
+        }
+
+        PreparedStatement prepare(Connection physical) throws SQLException {
+            if (callable) {
+                return resultSetHoldability >= 0
+                        ? physical.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability)
+                        : physical.prepareCall(sql, resultSetType, resultSetConcurrency);
+            }
+            if (autoGeneratedKeys != Statement.NO_GENERATED_KEYS) {
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            return resultSetHoldability >= 0
+                    ? physical.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability)
+                    : physical.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof StatementKey)) return false;
+            StatementKey other = (StatementKey) obj;
+            return callable == other.callable &&
+                    resultSetType == other.resultSetType &&
+                    resultSetConcurrency == other.resultSetConcurrency &&
+                    resultSetHoldability == other.resultSetHoldability &&
+                    autoGeneratedKeys == other.autoGeneratedKeys &&
+                    sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(callable, sql, resultSetType, resultSetConcurrency, resultSetHoldability, autoGeneratedKeys);
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing cached statement", e);
+        }
+    }
+
+    /**
+     * Fair semaphore whose permit count can shrink while permits are held
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -3,6 +3,9 @@ package util;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
 import java.sql.Statement;
 import java.sql.ResultSet;
 import java.util.Properties;
@@ -13,18 +16,34 @@ import java.util.logging.Logger;
 public class DBConnection {
     private static final Logger LOGGER = Logger.getLogger(DBConnection.class.getName());
 
-    // Database configuration constants
-    private static final String DATABASE_NAME = "aoopdatabase_payroll";
-    private static final String HOST = "localhost";
-    private static final String PORT = "3306";
+    // Datasource settings (see AppConfig); read once, changing them needs a restart
+    private static final AppConfig STARTUP_CONFIG = AppConfig.get();
+    private static final String DATABASE_NAME = STARTUP_CONFIG.getString("db.name", "aoopdatabase_payroll");
+    private static final String HOST = STARTUP_CONFIG.getString("db.host", "localhost");
+    private static final String PORT = STARTUP_CONFIG.getString("db.port", "3306");
     private static final String URL = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE_NAME;
-    private static final String USER = "root";
-    private static final String PASSWORD = "admin";
+    private static final String USER = STARTUP_CONFIG.getString("db.user", "root");
+    private static final String PASSWORD = STARTUP_CONFIG.getString("db.password", "");
     private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
 
-    // Connection properties for better performance and compatibility
-    private static final String CONNECTION_PROPERTIES =
-            "?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&useUnicode=true&characterEncoding=UTF-8&autoReconnect=true&failOverReadOnly=false&maxReconnects=3&initialTimeout=2";
+    // Time every statement into SqlMetrics (see sql.* settings)
+    private static final boolean SQL_METRICS_ENABLED = STARTUP_CONFIG.getBoolean("sql.metrics.enabled", true);
+
+    // Read replica; no replica unless db.replica.url is set
+    private static final long REPLICA_LAG_CHECK_INTERVAL_MS = 2_000;
+    private static final long REPLICA_RETRY_AFTER_FAILURE_MS = 30_000;
+
+    // Seconds a half-open probe waits for the database to answer isValid()
+    private static final int BREAKER_PROBE_TIMEOUT_SECONDS = 2;
+
+    /**
+     * Fails calls fast while the primary database is unreachable (see breaker.* settings)
+     */
+    private static final CircuitBreaker BREAKER = new CircuitBreaker("Database",
+            STARTUP_CONFIG.getInt("breaker.failureThreshold", 5),
+            STARTUP_CONFIG.getLong("breaker.failureWindowMillis", 10_000),
+            STARTUP_CONFIG.getLong("breaker.openMillis", 2_000),
+            STARTUP_CONFIG.getLong("breaker.maxOpenMillis", 60_000));
 
     // Error message constants
     private static final String DRIVER_NOT_FOUND_ERROR =
@@ -72,44 +91,282 @@ public class DBConnection {
                     "   5. 💻 Check if another application is using port %s";
 
     /**
-     * Get database connection with enhanced error handling
+     * Get database connection with enhanced error handling.
+     * Connections are borrowed from a shared pool; close() returns them to the pool.
+     * Inside a {@link UnitOfWork} the unit's shared connection is returned instead.
      * @return Connection object
      * @throws SQLException if connection fails with detailed error information
      */
     public static Connection getConnection() throws SQLException {
+        Connection bound = UnitOfWork.boundConnection();
+        if (bound != null) {
+            return bound;
+        }
+        return borrowConnection();
+    }
+
+    /**
+     * Get a connection for a read-only query.
+     * Inside a {@link ReadIntent} this is a read replica connection when a replica is configured
+     * and fresh enough, otherwise it is the same as {@link #getConnection()}.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        Connection bound = UnitOfWork.boundConnection();
+        if (bound != null) {
+            return bound;
+        }
+        return borrowReadConnection();
+    }
+
+    /**
+     * Borrow a replica connection if the thread has a read intent and the replica can serve it,
+     * otherwise a primary connection
+     */
+    static Connection borrowReadConnection() throws SQLException {
+        ReadIntent intent = ReadIntent.current();
+        if (intent != null && !intent.isPrimaryOnly()) {
+            ReadReplica replica = getReadReplica();
+            if (replica != null) {
+                Connection conn = replica.borrow(intent.getMaxStalenessMillis());
+                if (conn != null) {
+                    intent.markReplicaUsed();
+                    return conn;
+                }
+            }
+        }
+        return borrowConnection();
+    }
+
+    /**
+     * Borrow a pooled connection, ignoring any unit of work on this thread.
+     * While the circuit breaker is open this fails at once with a CircuitOpenException.
+     */
+    static Connection borrowConnection() throws SQLException {
+        BREAKER.acquire();
         try {
-            // Load MySQL JDBC Driver with better error handling
-            loadJDBCDriver();
+            Connection conn = PoolHolder.POOL.borrow();
+            if (BREAKER.getState() == CircuitBreaker.State.HALF_OPEN) {
+                probe(conn);
+            }
+            return conn;
+        } catch (SQLTimeoutException e) {
+            // Pool exhausted: the message already carries the pool state
+            BREAKER.onIgnored();
+            LOGGER.log(Level.WARNING, "⏱️ " + e.getMessage());
+            throw e;
+        } catch (CircuitBreaker.CircuitOpenException e) {
+            throw e;
+        } catch (SQLException e) {
+            // Connection failures were already counted by the pool's factory
+            BREAKER.onIgnored();
+            LOGGER.log(Level.SEVERE, "Database connection failed", e);
+            if (e.getCause() instanceof ClassNotFoundException) {
+                throw e;
+            }
+            throw new SQLException(generateDetailedErrorMessage(e), e.getSQLState(), e.getErrorCode(), e);
+        }
+    }
 
-            // Create connection properties
-            Properties props = createConnectionProperties();
+    /**
+     * Half-open: the borrowed connection may be an idle one from before the outage, so ask the
+     * server before declaring the database healthy again
+     */
+    private static void probe(Connection conn) throws SQLException {
+        boolean valid;
+        try {
+            valid = conn.isValid(BREAKER_PROBE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            valid = false;
+        }
+        if (valid) {
+            BREAKER.onSuccess();
+            return;
+        }
+        closeConnection(conn);
+        SQLException failure = new SQLException("Database did not answer the recovery probe", "08S01");
+        BREAKER.onFailure(failure);
+        BREAKER.acquire(); // now open: throws with the retry delay
+        throw failure;
+    }
+
+    /**
+     * Whether a failure means the database could not be reached (rather than e.g. bad credentials)
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return (state != null && state.startsWith("08"))
+                || e instanceof SQLTransientException
+                || e instanceof SQLRecoverableException;
+    }
 
-            // Attempt to establish connection
-            Connection conn = DriverManager.getConnection(URL + CONNECTION_PROPERTIES, props);
+    /**
+     * The circuit breaker guarding the primary database; register a listener to follow degraded mode
+     */
+    public static CircuitBreaker getCircuitBreaker() {
+        return BREAKER;
+    }
+
+    /**
+     * Lazily created pool so that merely referencing DBConnection does not open connections
+     */
+    private static class PoolHolder {
+        static final ConnectionPool POOL = createPool();
+    }
 
-            // Validate connection
-            if (conn == null || !conn.isValid(5)) {
-                throw new SQLException("Connection established but validation failed");
+    private static ConnectionPool createPool() {
+        ConnectionPool.Config config = poolConfig(AppConfig.get());
+        ConnectionPool pool = new ConnectionPool("payroll-db", () -> {
+            try {
+                Connection conn = openPhysicalConnection();
+                BREAKER.onSuccess();
+                return conn;
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    BREAKER.onFailure(e);
+                }
+                throw e;
             }
+        }, config);
+        // Queries that lose their connection (socket timeouts, resets) count against the breaker too
+        pool.setConnectionErrorListener(BREAKER::onFailure);
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "payroll-db-pool-shutdown"));
+        AppConfig.addListener((previous, current) -> applyConfig(pool, previous, current));
+        LOGGER.info("✅ Database connection pool initialized (" + config + ")");
+        return pool;
+    }
 
-            LOGGER.info("✅ Database connection established successfully to: " + URL);
-            return conn;
+    /**
+     * Pool settings from the pool.* keys
+     */
+    private static ConnectionPool.Config poolConfig(AppConfig config) {
+        return new ConnectionPool.Config()
+                .setMinSize(config.getInt("pool.minSize", 2))
+                .setMaxSize(config.getInt("pool.maxSize", 10))
+                .setBorrowTimeoutMillis(config.getLong("pool.borrowTimeoutMillis", 10_000))
+                .setIdleTimeoutMillis(config.getLong("pool.idleTimeoutMillis", 5 * 60_000))
+                .setMaxLifetimeMillis(config.getLong("pool.maxLifetimeMillis", 30 * 60_000))
+                .setValidationIntervalMillis(config.getLong("pool.validationIntervalMillis", 30_000))
+                .setLeakDetectionThresholdMillis(config.getLong("pool.leakDetectionThresholdMillis", 60_000))
+                .setStatementCacheSize(config.getInt("pool.statementCacheSize", 64));
+    }
+
+    /**
+     * Apply reloaded pool settings; datasource changes are only reported
+     */
+    private static void applyConfig(ConnectionPool pool, AppConfig previous, AppConfig current) {
+        for (String key : current.changedKeys(previous)) {
+            if (key.startsWith("db.")) {
+                LOGGER.warning("⚠️ Configuration change to " + key + " takes effect after a restart");
+            }
+        }
+        try {
+            pool.reconfigure(poolConfig(current));
+            ReadReplica replica = readReplica;
+            if (replica != null) {
+                replica.getPool().reconfigure(poolConfig(current).setMinSize(0));
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("⚠️ Ignoring invalid pool configuration: " + e.getMessage());
+        }
+    }
+
+    private static volatile ReadReplica readReplica;
+    private static volatile boolean readReplicaInitialized;
+
+    /**
+     * The configured read replica, or null when reads always go to the primary
+     */
+    public static ReadReplica getReadReplica() {
+        if (!readReplicaInitialized) {
+            synchronized (DBConnection.class) {
+                if (!readReplicaInitialized) {
+                    readReplica = createReadReplica();
+                    readReplicaInitialized = true;
+                }
+            }
+        }
+        return readReplica;
+    }
+
+    /**
+     * Replace the read replica, e.g. with a local stand-in; null disables replica reads.
+     * The previous replica's pool is shut down.
+     */
+    public static void setReadReplica(ReadReplica replica) {
+        ReadReplica previous;
+        synchronized (DBConnection.class) {
+            previous = readReplica;
+            readReplica = replica;
+            readReplicaInitialized = true;
+        }
+        if (previous != null && previous != replica) {
+            previous.shutdown();
+        }
+    }
+
+    private static ReadReplica createReadReplica() {
+        String url = STARTUP_CONFIG.getString("db.replica.url", null);
+        if (url == null) {
+            return null;
+        }
+        String user = STARTUP_CONFIG.getString("db.replica.user", USER);
+        String password = STARTUP_CONFIG.getString("db.replica.password", PASSWORD);
+        long maxLag = STARTUP_CONFIG.getLong("db.replica.maxLagMillis", 5_000);
 
+        ConnectionPool.Config config = poolConfig(AppConfig.get()).setMinSize(0);
+
+        ReadReplica replica = new ReadReplica("payroll-db-replica", () -> {
+            try {
+                loadJDBCDriver();
+            } catch (ClassNotFoundException e) {
+                throw new SQLException(DRIVER_NOT_FOUND_ERROR, e);
+            }
+            Properties props = createConnectionProperties();
+            props.setProperty("user", user);
+            props.setProperty("password", password);
+            return instrument(DriverManager.getConnection(url, props));
+        }, config, ReadReplica.MYSQL_LAG_PROBE, maxLag, REPLICA_LAG_CHECK_INTERVAL_MS, REPLICA_RETRY_AFTER_FAILURE_MS);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(replica::shutdown, "payroll-db-replica-shutdown"));
+        LOGGER.info("✅ Read replica configured at " + url + " (max lag " + maxLag + "ms)");
+        return replica;
+    }
+
+    /**
+     * Open a new physical connection; only called by the pool
+     */
+    private static Connection openPhysicalConnection() throws SQLException {
+        try {
+            loadJDBCDriver();
         } catch (ClassNotFoundException e) {
             LOGGER.log(Level.SEVERE, "JDBC Driver not found", e);
             throw new SQLException(DRIVER_NOT_FOUND_ERROR, e);
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Database connection failed", e);
-            throw new SQLException(generateDetailedErrorMessage(e), e);
         }
+
+        Connection conn = DriverManager.getConnection(URL, createConnectionProperties());
+        LOGGER.fine("✅ Database connection established successfully to: " + URL);
+        return instrument(conn);
+    }
+
+    /**
+     * Wrap a new physical connection so its statements are recorded in SqlMetrics
+     */
+    private static Connection instrument(Connection conn) {
+        return SQL_METRICS_ENABLED ? SqlInstrumentation.wrap(conn) : conn;
     }
 
+    private static volatile boolean driverLoaded = false;
+
     /**
-     * Load JDBC driver with specific error handling
+     * Load JDBC driver with specific error handling (once per JVM)
      */
     private static void loadJDBCDriver() throws ClassNotFoundException {
+        if (driverLoaded) {
+            return;
+        }
         try {
             Class.forName(DRIVER);
+            driverLoaded = true;
             LOGGER.info("✅ MySQL JDBC Driver loaded successfully");
         } catch (ClassNotFoundException e) {
             LOGGER.severe("❌ MySQL JDBC Driver not found: " + DRIVER);
@@ -118,23 +375,32 @@ public class DBConnection {
     }
 
     /**
-     * Create optimized connection properties
+     * Get a one-line summary of the connection pool state
+     */
+    public static String getPoolStats() {
+        ReadReplica replica = readReplica;
+        String stats = PoolHolder.POOL.getStats() + ", " + BREAKER.getStats();
+        return replica == null ? stats : stats + " | " + replica.getStats();
+    }
+
+    /**
+     * Close all pooled connections. Called automatically on JVM shutdown.
+     */
+    public static void shutdownPool() {
+        PoolHolder.POOL.shutdown();
+        ReadReplica replica = readReplica;
+        if (replica != null) {
+            replica.shutdown();
+        }
+    }
+
+    /**
+     * Create connection properties from the db.connection.* settings
      */
     private static Properties createConnectionProperties() {
-        Properties props = new Properties();
+        Properties props = STARTUP_CONFIG.getProperties("db.connection.");
         props.setProperty("user", USER);
         props.setProperty("password", PASSWORD);
-        props.setProperty("useSSL", "false");
-        props.setProperty("serverTimezone", "UTC");
-        props.setProperty("allowPublicKeyRetrieval", "true");
-        props.setProperty("useUnicode", "true");
-        props.setProperty("characterEncoding", "UTF-8");
-        props.setProperty("autoReconnect", "true");
-        props.setProperty("failOverReadOnly", "false");
-        props.setProperty("maxReconnects", "3");
-        props.setProperty("initialTimeout", "2");
-        props.setProperty("connectTimeout", "10000");
-        props.setProperty("socketTimeout", "30000");
         return props;
     }
 
@@ -369,9 +635,9 @@ public class DBConnection {
      * Attempt to create database if it doesn't exist
      */
     public static boolean createDatabaseIfNotExists() {
-        String serverUrl = "jdbc:mysql://" + HOST + ":" + PORT + "/" + CONNECTION_PROPERTIES;
+        String serverUrl = "jdbc:mysql://" + HOST + ":" + PORT + "/";
 
-        try (Connection conn = DriverManager.getConnection(serverUrl, USER, PASSWORD);
+        try (Connection conn = DriverManager.getConnection(serverUrl, createConnectionProperties());
              Statement stmt = conn.createStatement()) {
 
             // Check if database exists
@@ -393,9 +659,11 @@ public class DBConnection {
     }
 
     /**
-     * Get connection configuration summary
+     * Get connection configuration summary, including every effective setting and its source
      */
     public static String getConnectionInfo() {
+        AppConfig config = AppConfig.get();
+        ConnectionPool.Config pool = poolConfig(config);
         return String.format(
                 "📊 Connection Configuration:\n" +
                         "   🏠 Host: %s\n" +
@@ -403,10 +671,16 @@ public class DBConnection {
                         "   🗄️ Database: %s\n" +
                         "   👤 User: %s\n" +
                         "   🔑 Password: %s\n" +
-                        "   📡 URL: %s",
+                        "   📡 URL: %s\n" +
+                        "   🏊 Pool: min=%d, max=%d, borrow timeout=%dms, statement cache=%d per connection\n" +
+                        "   📄 Config file: %s (loaded %s)\n" +
+                        "⚙️ Effective settings:\n%s",
                 HOST, PORT, DATABASE_NAME, USER,
                 PASSWORD.replaceAll(".", "*"), // Mask password
-                URL
+                URL, pool.getMinSize(), pool.getMaxSize(), pool.getBorrowTimeoutMillis(), pool.getStatementCacheSize(),
+                config.getFile() != null ? config.getFile().toAbsolutePath() : "none (bundled defaults)",
+                new java.util.Date(config.getLoadedAt()),
+                config.describe().replaceAll("(?m)^", "   ")
         );
     }
 
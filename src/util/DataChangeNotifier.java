@@ -0,0 +1,143 @@
+package util;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process notification of data written by the DAOs.
+ *
+ * DAOs publish an event after a successful write describing which employee and which dates
+ * were affected, so caches of derived data (e.g. calculated payroll) can drop exactly the
+ * entries that became stale. Listeners run synchronously on the writing thread and must be quick.
+ * Writes made inside a {@link UnitOfWork} are only published once the unit commits.
+ */
+public final class DataChangeNotifier {
+    private static final Logger LOGGER = Logger.getLogger(DataChangeNotifier.class.getName());
+
+    /**
+     * Tables whose changes affect derived data
+     */
+    public enum Table {
+        EMPLOYEE,
+        ATTENDANCE,
+        OVERTIME,
+        LEAVE_REQUEST
+    }
+
+    /**
+     * A write to one of the tracked tables.
+     * An employee ID of 0 means any employee; null dates mean the change is not limited to a period.
+     */
+    public static final class DataChangeEvent {
+        private final Table table;
+        private final int employeeId;
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+
+        public DataChangeEvent(Table table, int employeeId, LocalDate fromDate, LocalDate toDate) {
+            this.table = table;
+            this.employeeId = employeeId;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+        }
+
+        public Table getTable() { return table; }
+        public int getEmployeeId() { return employeeId; }
+        public LocalDate getFromDate() { return fromDate; }
+        public LocalDate getToDate() { return toDate; }
+
+        public boolean isAllEmployees() {
+            return employeeId <= 0;
+        }
+
+        /**
+         * Check whether this change can affect data of an employee in a period
+         */
+        public boolean affects(int otherEmployeeId, LocalDate periodStart, LocalDate periodEnd) {
+            if (!isAllEmployees() && employeeId != otherEmployeeId) {
+                return false;
+            }
+            boolean startsAfterPeriod = fromDate != null && periodEnd != null && fromDate.isAfter(periodEnd);
+            boolean endsBeforePeriod = toDate != null && periodStart != null && toDate.isBefore(periodStart);
+            return !startsAfterPeriod && !endsBeforePeriod;
+        }
+
+        @Override
+        public String toString() {
+            return table + "{employee=" + (isAllEmployees() ? "*" : employeeId) +
+                    ", from=" + (fromDate != null ? fromDate : "*") +
+                    ", to=" + (toDate != null ? toDate : "*") + "}";
+        }
+    }
+
+    @FunctionalInterface
+    public interface DataChangeListener {
+        void onDataChanged(DataChangeEvent event);
+    }
+
+    private static final List<DataChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private DataChangeNotifier() {
+    }
+
+    public static void addListener(DataChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(DataChangeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * DAOs use this to skip extra lookups (e.g. reading a row before deleting it) when nobody listens
+     */
+    public static boolean hasListeners() {
+        return !LISTENERS.isEmpty();
+    }
+
+    /**
+     * Publish a change to one employee's data on the given dates
+     */
+    public static void publish(Table table, int employeeId, LocalDate fromDate, LocalDate toDate) {
+        publish(new DataChangeEvent(table, employeeId, fromDate, toDate));
+    }
+
+    /**
+     * Publish a change to one employee's data on a single date
+     */
+    public static void publish(Table table, int employeeId, LocalDate date) {
+        publish(new DataChangeEvent(table, employeeId, date, date));
+    }
+
+    /**
+     * Publish a change affecting every period of an employee (0 for all employees)
+     */
+    public static void publishEmployeeChange(Table table, int employeeId) {
+        publish(new DataChangeEvent(table, employeeId, null, null));
+    }
+
+    /**
+     * Publish an event now, or when the thread's {@link UnitOfWork} commits if one is active
+     */
+    public static void publish(DataChangeEvent event) {
+        if (!UnitOfWork.deferUntilCommit(event)) {
+            dispatch(event);
+        }
+    }
+
+    static void dispatch(DataChangeEvent event) {
+        for (DataChangeListener listener : LISTENERS) {
+            try {
+                listener.onDataChanged(event);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Data change listener failed for " + event, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Peso amounts as long centavos.
+ *
+ * Payroll amounts are rounded to centavos once, when a computed value is stored, and from then
+ * on are only added and subtracted as longs, so totals over any number of rows are exact.
+ * Rounding is half away from zero (0.005 becomes 0.01, -0.005 becomes -0.01), applied to the
+ * shortest decimal that prints as the double, so 1.005 becomes 1.01 even though the double
+ * is slightly below it.
+ *
+ * Apart from that one rounding, methods work on primitives, so they are cheap in per-employee loops.
+ */
+public final class Money {
+
+    public static final long CENTAVOS_PER_PESO = 100;
+
+    private Money() {
+    }
+
+    /**
+     * Round a peso amount to centavos
+     */
+    public static long toCentavos(double pesos) {
+        if (Double.isNaN(pesos) || Double.isInfinite(pesos)) {
+            throw new IllegalArgumentException("Amount must be a finite number: " + pesos);
+        }
+        return BigDecimal.valueOf(pesos).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static double toPesos(long centavos) {
+        return centavos / (double) CENTAVOS_PER_PESO;
+    }
+
+    /**
+     * Format as 1,234.56 without going through floating point
+     */
+    public static String format(long centavos) {
+        long abs = Math.abs(centavos);
+        long pesos = abs / CENTAVOS_PER_PESO;
+        long cents = abs % CENTAVOS_PER_PESO;
+
+        StringBuilder sb = new StringBuilder(24);
+        if (centavos < 0) {
+            sb.append('-');
+        }
+        String digits = Long.toString(pesos);
+        int firstGroup = digits.length() % 3;
+        if (firstGroup == 0) {
+            firstGroup = 3;
+        }
+        sb.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < digits.length(); i += 3) {
+            sb.append(',').append(digits, i, i + 3);
+        }
+        sb.append('.');
+        if (cents < 10) {
+            sb.append('0');
+        }
+        return sb.append(cents).toString();
+    }
+}
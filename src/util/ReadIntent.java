@@ -0,0 +1,170 @@
+package util;
+
+/**
+ * Marks a block of work on the current thread as read-only, allowing its queries to be served
+ * by the read replica.
+ *
+ * <pre>
+ * try (ReadIntent ignored = ReadIntent.begin()) {
+ *     List&lt;Employee&gt; employees = employeeDAO.getAllEmployees();
+ * }
+ * </pre>
+ *
+ * DAO read methods obtain their connection from {@link DBConnection#getReadConnection()}, which
+ * uses the replica only while an intent is active, a replica is configured and its replication
+ * lag is within the intent's staleness limit; otherwise the primary is used. Writes always go to
+ * the primary. Scopes nest; the innermost one applies until it is closed, so code that must see
+ * the latest data can open {@link #beginPrimaryOnly()} inside a caller's read intent.
+ *
+ * Like {@link UnitOfWork}, an intent belongs to the thread that began it; code that hands reads
+ * to other threads continues it there with {@link #resume(ReadIntent)}.
+ *
+ * {@link #isReplicaUsed()} tells whether any read under the intent (including resumed copies)
+ * was served by the replica, so callers can avoid caching results that may be stale.
+ */
+public final class ReadIntent implements AutoCloseable {
+
+    /** Use the replica's configured maximum lag */
+    public static final long DEFAULT_STALENESS = -1;
+
+    private static final ThreadLocal<ReadIntent> CURRENT = new ThreadLocal<>();
+
+    private final ReadIntent previous;
+    private final ReadIntent origin;
+    private final long maxStalenessMillis;
+    private final boolean primaryOnly;
+    private volatile boolean replicaUsed;
+    private boolean closed;
+
+    private ReadIntent(ReadIntent previous, ReadIntent origin, long maxStalenessMillis, boolean primaryOnly) {
+        this.previous = previous;
+        this.origin = origin != null ? origin : this;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.primaryOnly = primaryOnly;
+    }
+
+    /**
+     * Begin a read-intent scope accepting the replica's configured maximum lag
+     */
+    public static ReadIntent begin() {
+        return begin(DEFAULT_STALENESS);
+    }
+
+    /**
+     * Begin a read-intent scope
+     * @param maxStalenessMillis Maximum replication lag the reads tolerate, or {@link #DEFAULT_STALENESS}
+     */
+    public static ReadIntent begin(long maxStalenessMillis) {
+        if (maxStalenessMillis < 0 && maxStalenessMillis != DEFAULT_STALENESS) {
+            throw new IllegalArgumentException("Max staleness cannot be negative");
+        }
+        ReadIntent intent = new ReadIntent(CURRENT.get(), null, maxStalenessMillis, false);
+        CURRENT.set(intent);
+        return intent;
+    }
+
+    /**
+     * Begin a scope whose reads go to the primary even inside a caller's read intent
+     */
+    public static ReadIntent beginPrimaryOnly() {
+        ReadIntent intent = new ReadIntent(CURRENT.get(), null, 0, true);
+        CURRENT.set(intent);
+        return intent;
+    }
+
+    /**
+     * Reads returning a result, for {@link #call(Reads)}
+     */
+    @FunctionalInterface
+    public interface Reads<T, E extends Exception> {
+        T read() throws E;
+    }
+
+    /**
+     * Reads without a result, for {@link #run(ReadAction)}
+     */
+    @FunctionalInterface
+    public interface ReadAction<E extends Exception> {
+        void read() throws E;
+    }
+
+    /**
+     * Run reads in a read-intent scope accepting the replica's configured maximum lag
+     */
+    public static <T, E extends Exception> T call(Reads<T, E> reads) throws E {
+        ReadIntent intent = begin();
+        try {
+            return reads.read();
+        } finally {
+            intent.close();
+        }
+    }
+
+    /**
+     * Run reads in a read-intent scope accepting the replica's configured maximum lag
+     */
+    public static <E extends Exception> void run(ReadAction<E> reads) throws E {
+        ReadIntent intent = begin();
+        try {
+            reads.read();
+        } finally {
+            intent.close();
+        }
+    }
+
+    /**
+     * Continue an intent begun on another thread; replica use is reported to the original
+     * @return the scope to close on this thread, or null if intent is null
+     */
+    public static ReadIntent resume(ReadIntent intent) {
+        if (intent == null) {
+            return null;
+        }
+        ReadIntent resumed = new ReadIntent(CURRENT.get(), intent.origin, intent.maxStalenessMillis, intent.primaryOnly);
+        CURRENT.set(resumed);
+        return resumed;
+    }
+
+    /**
+     * The innermost intent active on this thread, or null
+     */
+    public static ReadIntent current() {
+        return CURRENT.get();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public long getMaxStalenessMillis() {
+        return maxStalenessMillis;
+    }
+
+    public boolean isPrimaryOnly() {
+        return primaryOnly;
+    }
+
+    /**
+     * Whether a read under this intent was served by the replica
+     */
+    public boolean isReplicaUsed() {
+        return origin.replicaUsed;
+    }
+
+    void markReplicaUsed() {
+        origin.replicaUsed = true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-only datasource used for queries made under a {@link ReadIntent}.
+ *
+ * Connections come from a separate pool and are opened read-only. Before handing one out the
+ * replica's replication lag is compared with the caller's staleness limit; the lag is measured
+ * by a {@link LagProbe} at most once per check interval and shared by all callers. When the
+ * replica lags too far, its lag is unknown or it cannot be reached, {@link #borrow(long)} returns
+ * null and the caller falls back to the primary. After a connection failure the replica is
+ * skipped for a retry interval instead of making every read wait for the failure again.
+ *
+ * The connection factory and probe are pluggable, so a second local MySQL instance or an
+ * in-process stand-in can play the replica.
+ */
+public class ReadReplica {
+    private static final Logger LOGGER = Logger.getLogger(ReadReplica.class.getName());
+
+    /** Lag reported when it cannot be determined */
+    public static final long UNKNOWN_LAG = -1;
+
+    /**
+     * Measures how far the replica is behind the primary
+     */
+    @FunctionalInterface
+    public interface LagProbe {
+        /**
+         * @return Replication lag in milliseconds, or {@link #UNKNOWN_LAG}
+         */
+        long lagMillis(Connection replica) throws SQLException;
+    }
+
+    /**
+     * Probe for MySQL replicas: Seconds_Behind_Source from SHOW REPLICA STATUS (or
+     * Seconds_Behind_Master from SHOW SLAVE STATUS on servers before 8.0.22). A server that is
+     * not configured as a replica reports no status row and is treated as current.
+     */
+    public static final LagProbe MYSQL_LAG_PROBE = replica -> {
+        try (Statement stmt = replica.createStatement()) {
+            ResultSet rs;
+            String column;
+            try {
+                rs = stmt.executeQuery("SHOW REPLICA STATUS");
+                column = "Seconds_Behind_Source";
+            } catch (SQLException e) {
+                rs = stmt.executeQuery("SHOW SLAVE STATUS");
+                column = "Seconds_Behind_Master";
+            }
+            try (ResultSet status = rs) {
+                if (!status.next()) {
+                    return 0;
+                }
+                long seconds = status.getLong(column);
+                return status.wasNull() ? UNKNOWN_LAG : seconds * 1000;
+            }
+        }
+    };
+
+    private final String name;
+    private final ConnectionPool pool;
+    private final LagProbe lagProbe;
+    private final long defaultMaxLagMillis;
+    private final long lagCheckIntervalMillis;
+    private final long retryAfterFailureMillis;
+
+    private volatile long lagMillis = UNKNOWN_LAG;
+    private volatile long lagCheckedAt;
+    private volatile long unavailableUntil;
+    private final AtomicBoolean lagCheckRunning = new AtomicBoolean();
+
+    // Statistics
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong staleFallbacks = new AtomicLong();
+    private final AtomicLong unavailableFallbacks = new AtomicLong();
+
+    /**
+     * @param factory Opens physical connections to the replica
+     * @param poolConfig Sizing of the replica's connection pool
+     * @param lagProbe Measures replication lag, e.g. {@link #MYSQL_LAG_PROBE}
+     * @param defaultMaxLagMillis Staleness limit for intents that do not set their own
+     * @param lagCheckIntervalMillis How long a lag measurement is reused
+     * @param retryAfterFailureMillis How long the replica is skipped after a connection failure
+     */
+    public ReadReplica(String name, ConnectionPool.ConnectionFactory factory, ConnectionPool.Config poolConfig,
+                       LagProbe lagProbe, long defaultMaxLagMillis, long lagCheckIntervalMillis,
+                       long retryAfterFailureMillis) {
+        if (factory == null || poolConfig == null || lagProbe == null) {
+            throw new IllegalArgumentException("Connection factory, pool config and lag probe cannot be null");
+        }
+        if (defaultMaxLagMillis < 0 || lagCheckIntervalMillis < 0 || retryAfterFailureMillis < 0) {
+            throw new IllegalArgumentException("Lag limit and intervals cannot be negative");
+        }
+        this.name = name;
+        this.lagProbe = lagProbe;
+        this.defaultMaxLagMillis = defaultMaxLagMillis;
+        this.lagCheckIntervalMillis = lagCheckIntervalMillis;
+        this.retryAfterFailureMillis = retryAfterFailureMillis;
+        this.pool = new ConnectionPool(name, () -> {
+            Connection conn = factory.create();
+            if (conn != null) {
+                conn.setReadOnly(true);
+            }
+            return conn;
+        }, poolConfig);
+    }
+
+    /**
+     * Borrow a replica connection if the replica is reachable and fresh enough
+     * @param maxStalenessMillis Tolerated lag, or {@link ReadIntent#DEFAULT_STALENESS}
+     * @return pooled replica connection, or null to use the primary
+     */
+    public Connection borrow(long maxStalenessMillis) {
+        long now = System.currentTimeMillis();
+        if (now < unavailableUntil) {
+            unavailableFallbacks.incrementAndGet();
+            return null;
+        }
+
+        long limit = maxStalenessMillis == ReadIntent.DEFAULT_STALENESS ? defaultMaxLagMillis : maxStalenessMillis;
+        if (now - lagCheckedAt >= lagCheckIntervalMillis) {
+            refreshLag(now);
+        }
+        long lag = lagMillis;
+        if (lag == UNKNOWN_LAG || lag > limit) {
+            staleFallbacks.incrementAndGet();
+            return null;
+        }
+
+        try {
+            Connection conn = pool.borrow();
+            replicaReads.incrementAndGet();
+            return conn;
+        } catch (SQLException e) {
+            markUnavailable(e);
+            unavailableFallbacks.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Measure the lag; only one caller measures at a time, the others keep the previous value
+     */
+    private void refreshLag(long now) {
+        if (!lagCheckRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try (Connection conn = pool.borrow()) {
+            lagMillis = lagProbe.lagMillis(conn);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(String.format("Replica '%s' lag: %s", name,
+                        lagMillis == UNKNOWN_LAG ? "unknown" : lagMillis + "ms"));
+            }
+        } catch (SQLException e) {
+            lagMillis = UNKNOWN_LAG;
+            markUnavailable(e);
+        } finally {
+            lagCheckedAt = now;
+            lagCheckRunning.set(false);
+        }
+    }
+
+    private void markUnavailable(SQLException e) {
+        unavailableUntil = System.currentTimeMillis() + retryAfterFailureMillis;
+        LOGGER.log(Level.WARNING, String.format("Read replica '%s' unavailable, using the primary for %dms: %s",
+                name, retryAfterFailureMillis, e.getMessage()));
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public String getName() { return name; }
+    public long getDefaultMaxLagMillis() { return defaultMaxLagMillis; }
+    public long getLastLagMillis() { return lagMillis; }
+    public long getReplicaReadCount() { return replicaReads.get(); }
+    public long getStaleFallbackCount() { return staleFallbacks.get(); }
+    public long getUnavailableFallbackCount() { return unavailableFallbacks.get(); }
+    public ConnectionPool getPool() { return pool; }
+
+    public String getStats() {
+        long lag = lagMillis;
+        return String.format("replica reads=%d, stale fallbacks=%d, unavailable fallbacks=%d, lag=%s; %s",
+                getReplicaReadCount(), getStaleFallbackCount(), getUnavailableFallbackCount(),
+                lag == UNKNOWN_LAG ? "unknown" : lag + "ms", pool.getStats());
+    }
+}
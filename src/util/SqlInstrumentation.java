@@ -0,0 +1,301 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps a physical JDBC connection so that every statement it runs is timed into {@link SqlMetrics}.
+ *
+ * The wrapper sits below the connection pool: DBConnection wraps each physical connection once
+ * when it is opened, so statements cached by the pool stay instrumented and borrowing adds no
+ * extra proxy. Prepared and callable statements remember their SQL and the shapes of their bind
+ * parameters; plain statements are timed against the SQL passed to execute. Result sets count
+ * the rows read and estimate the bytes fetched from the values the caller reads.
+ */
+public final class SqlInstrumentation {
+
+    private SqlInstrumentation() {
+    }
+
+    /**
+     * Instrument a physical connection
+     */
+    public static Connection wrap(Connection connection) {
+        if (connection == null || Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof InstrumentedConnection) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                SqlInstrumentation.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new InstrumentedConnection(connection));
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class InstrumentedConnection implements InvocationHandler {
+        private final Connection physical;
+
+        InstrumentedConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            switch (methodName) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Instrumented -> " + physical;
+                default:
+                    break;
+            }
+
+            Object result = forward(physical, method, args);
+            switch (methodName) {
+                case "createStatement":
+                    return statement(Statement.class, (Statement) result, null, proxy);
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, (Statement) result, (String) args[0], proxy);
+                case "prepareCall":
+                    return statement(CallableStatement.class, (Statement) result, (String) args[0], proxy);
+                default:
+                    return result;
+            }
+        }
+
+        private static Statement statement(Class<? extends Statement> type, Statement physical, String sql,
+                                           Object connection) {
+            return (Statement) Proxy.newProxyInstance(
+                    SqlInstrumentation.class.getClassLoader(),
+                    new Class<?>[]{type},
+                    new InstrumentedStatement(physical, sql, (Connection) connection));
+        }
+    }
+
+    private static class InstrumentedStatement implements InvocationHandler {
+        private final Statement physical;
+        private final Connection connection;
+        // Prepared statements: fixed for the statement's life; plain statements: none
+        private final SqlMetrics.TemplateStats preparedStats;
+        private final List<String> parameterShapes = new ArrayList<>();
+        private int batchSize;
+
+        InstrumentedStatement(Statement physical, String sql, Connection connection) {
+            this.physical = physical;
+            this.connection = connection;
+            this.preparedStats = sql != null ? SqlMetrics.statsFor(sql) : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            switch (methodName) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Instrumented -> " + physical;
+                case "getConnection":
+                    return connection;
+                case "clearParameters":
+                    parameterShapes.clear();
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearBatch":
+                    batchSize = 0;
+                    break;
+                default:
+                    if (methodName.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer && preparedStats != null) {
+                        recordParameter((Integer) args[0], methodName, args[1]);
+                    }
+                    break;
+            }
+
+            if (!methodName.startsWith("execute")) {
+                Object result = forward(physical, method, args);
+                if (result instanceof ResultSet && preparedStats != null
+                        && (methodName.equals("getResultSet") || methodName.equals("getGeneratedKeys"))) {
+                    return resultSet((ResultSet) result, preparedStats);
+                }
+                return result;
+            }
+
+            SqlMetrics.TemplateStats stats = preparedStats;
+            if (stats == null) {
+                if (args == null || !(args[0] instanceof String)) {
+                    return forward(physical, method, args); // e.g. executeBatch of a plain statement
+                }
+                stats = SqlMetrics.statsFor((String) args[0]);
+            }
+
+            long start = System.nanoTime();
+            boolean failed = true;
+            Object result = null;
+            try {
+                result = forward(physical, method, args);
+                failed = false;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                SqlMetrics.recordExecution(stats, elapsed, failed, affectedRows(result), describeParameters());
+                if (methodName.startsWith("executeBatch") || methodName.startsWith("executeLargeBatch")) {
+                    batchSize = 0;
+                }
+            }
+            return result instanceof ResultSet ? resultSet((ResultSet) result, stats) : result;
+        }
+
+        private void recordParameter(int index, String setter, Object value) {
+            String shape;
+            if (value == null || setter.equals("setNull")) {
+                shape = "NULL";
+            } else if (value instanceof CharSequence) {
+                shape = "STRING(" + ((CharSequence) value).length() + ")";
+            } else if (value instanceof byte[]) {
+                shape = "BYTES(" + ((byte[]) value).length + ")";
+            } else {
+                shape = setter.substring(3).toUpperCase();
+                if (shape.equals("OBJECT")) {
+                    shape = value.getClass().getSimpleName().toUpperCase();
+                }
+            }
+            while (parameterShapes.size() < index) {
+                parameterShapes.add("?");
+            }
+            parameterShapes.set(index - 1, shape);
+        }
+
+        private String describeParameters() {
+            if (parameterShapes.isEmpty() && batchSize == 0) {
+                return "";
+            }
+            String shapes = "[" + String.join(", ", parameterShapes) + "]";
+            return batchSize > 0 ? shapes + " x " + batchSize + " batched" : shapes;
+        }
+
+        private static long affectedRows(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof int[]) {
+                long total = 0;
+                for (int count : (int[]) result) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            if (result instanceof long[]) {
+                long total = 0;
+                for (long count : (long[]) result) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            return -1;
+        }
+
+        private static ResultSet resultSet(ResultSet physical, SqlMetrics.TemplateStats stats) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    SqlInstrumentation.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    new InstrumentedResultSet(physical, stats));
+        }
+    }
+
+    /**
+     * Counts rows and estimates bytes read; reported once, when the result set is exhausted or closed
+     */
+    private static class InstrumentedResultSet implements InvocationHandler {
+        private final ResultSet physical;
+        private final SqlMetrics.TemplateStats stats;
+        private long rows;
+        private long bytes;
+        private boolean reported;
+
+        InstrumentedResultSet(ResultSet physical, SqlMetrics.TemplateStats stats) {
+            this.physical = physical;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            switch (methodName) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Instrumented -> " + physical;
+                case "close":
+                    report();
+                    break;
+                default:
+                    break;
+            }
+
+            Object result = forward(physical, method, args);
+            if (methodName.equals("next")) {
+                if ((Boolean) result) {
+                    rows++;
+                } else {
+                    report();
+                }
+            } else if (methodName.startsWith("get") && args != null && args.length == 1) {
+                bytes += estimateBytes(result);
+            }
+            return result;
+        }
+
+        private void report() {
+            if (!reported) {
+                reported = true;
+                SqlMetrics.recordFetch(stats, rows, bytes);
+            }
+        }
+
+        private static long estimateBytes(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof CharSequence) {
+                return ((CharSequence) value).length();
+            }
+            if (value instanceof byte[]) {
+                return ((byte[]) value).length;
+            }
+            if (value instanceof Integer || value instanceof Float || value instanceof java.sql.Date) {
+                return 4;
+            }
+            if (value instanceof Boolean || value instanceof Byte) {
+                return 1;
+            }
+            if (value instanceof Short) {
+                return 2;
+            }
+            return 8;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Latency, row and byte statistics for every SQL statement run through {@link SqlInstrumentation}.
+ *
+ * Statements are grouped by template: the SQL text with whitespace collapsed and IN lists of
+ * placeholders folded, so "IN (?, ?, ?)" and "IN (?, ?)" count as one statement. Each template
+ * keeps a latency histogram, execution and error counts, the rows read or affected and the
+ * approximate bytes read from its result sets.
+ *
+ * Executions slower than sql.slowQueryThresholdMillis are logged with the shapes of their bind
+ * parameters (types and lengths, never values). {@link #snapshot()} returns the current figures,
+ * {@link #report()} formats them, and when sql.metrics.dumpFile is set the report is appended to
+ * that file every sql.metrics.dumpIntervalMillis. Both settings are reloadable.
+ */
+public final class SqlMetrics {
+    private static final Logger LOGGER = Logger.getLogger(SqlMetrics.class.getName());
+
+    // Histogram bucket upper bounds in microseconds; one more bucket holds everything slower
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+            250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000,
+            250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000};
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final int MAX_TEMPLATES = 1_000;
+
+    private static final ConcurrentMap<String, TemplateStats> TEMPLATES = new ConcurrentHashMap<>();
+    private static volatile long slowQueryThresholdNanos;
+    private static volatile long sinceMillis = System.currentTimeMillis();
+
+    private static ScheduledExecutorService dumper;
+    private static ScheduledFuture<?> dumpTask;
+
+    static {
+        applyConfig(AppConfig.get());
+        AppConfig.addListener((previous, current) -> applyConfig(current));
+    }
+
+    private SqlMetrics() {
+    }
+
+    // Recording (called by SqlInstrumentation)
+
+    /**
+     * Statistics for a statement's SQL, created on first use
+     */
+    static TemplateStats statsFor(String sql) {
+        String template = template(sql);
+        TemplateStats stats = TEMPLATES.get(template);
+        if (stats == null) {
+            if (TEMPLATES.size() >= MAX_TEMPLATES) {
+                // Dynamically built SQL must not grow the map without bound
+                template = "(other statements)";
+            }
+            stats = TEMPLATES.computeIfAbsent(template, TemplateStats::new);
+        }
+        return stats;
+    }
+
+    /**
+     * Record one execution and log it if it was slow
+     * @param rowCount Rows affected by an update, or -1 for queries and unknown counts
+     */
+    static void recordExecution(TemplateStats stats, long elapsedNanos, boolean failed, long rowCount,
+                                String parameterShapes) {
+        stats.record(elapsedNanos, failed, rowCount);
+        long threshold = slowQueryThresholdNanos;
+        if (threshold > 0 && elapsedNanos >= threshold) {
+            stats.slowCount.increment();
+            LOGGER.warning(String.format("🐢 Slow SQL (%dms%s%s): %s%s",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    rowCount >= 0 ? ", " + rowCount + " rows" : "",
+                    failed ? ", failed" : "",
+                    stats.template,
+                    parameterShapes.isEmpty() ? "" : " " + parameterShapes));
+        }
+    }
+
+    static void recordFetch(TemplateStats stats, long rows, long bytes) {
+        stats.rows.add(rows);
+        stats.bytes.add(bytes);
+    }
+
+    /**
+     * The SQL text grouped statements are reported under
+     */
+    public static String template(String sql) {
+        if (sql == null) {
+            return "(null)";
+        }
+        String collapsed = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PLACEHOLDER_LIST.matcher(collapsed).replaceAll("(?, ...)");
+    }
+
+    // Reading
+
+    /**
+     * Current statistics of every template, slowest total time first
+     */
+    public static List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>(TEMPLATES.size());
+        for (TemplateStats stats : TEMPLATES.values()) {
+            snapshots.add(stats.snapshot());
+        }
+        snapshots.sort(Comparator.comparingLong(Snapshot::getTotalNanos).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Forget all statistics
+     */
+    public static void reset() {
+        TEMPLATES.clear();
+        sinceMillis = System.currentTimeMillis();
+    }
+
+    public static long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+    }
+
+    /**
+     * @param thresholdMillis Executions at least this slow are logged; 0 disables the slow-query log
+     */
+    public static void setSlowQueryThresholdMillis(long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            throw new IllegalArgumentException("Slow query threshold cannot be negative");
+        }
+        slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    /**
+     * Statistics table of all templates, slowest total time first
+     */
+    public static String report() {
+        List<Snapshot> snapshots = snapshot();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("SQL statistics since %s (%d statements, slow threshold %dms)%n",
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(sinceMillis), ZoneId.systemDefault())
+                        .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                snapshots.size(), getSlowQueryThresholdMillis()));
+        sb.append(String.format("%8s %6s %6s %9s %8s %8s %8s %8s %10s %12s  %s%n",
+                "count", "errors", "slow", "total ms", "mean ms", "p95 ms", "p99 ms", "max ms", "rows", "bytes", "statement"));
+        for (Snapshot s : snapshots) {
+            sb.append(String.format("%8d %6d %6d %9d %8.2f %8.2f %8.2f %8.2f %10d %12d  %s%n",
+                    s.getCount(), s.getErrorCount(), s.getSlowCount(), TimeUnit.NANOSECONDS.toMillis(s.getTotalNanos()),
+                    s.getMeanMillis(), s.getPercentileMillis(95), s.getPercentileMillis(99), s.getMaxMillis(),
+                    s.getRows(), s.getBytes(), s.getTemplate()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Append the report to a file
+     */
+    public static void dump(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(report());
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    // Configuration
+
+    private static synchronized void applyConfig(AppConfig config) {
+        long threshold = config.getLong("sql.slowQueryThresholdMillis", 500);
+        setSlowQueryThresholdMillis(Math.max(0, threshold));
+
+        if (dumpTask != null) {
+            dumpTask.cancel(false);
+            dumpTask = null;
+        }
+        String file = config.getString("sql.metrics.dumpFile", null);
+        long interval = config.getLong("sql.metrics.dumpIntervalMillis", 0);
+        if (file == null || interval <= 0) {
+            return;
+        }
+        if (dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "payroll-sql-metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        Path path = Paths.get(file);
+        dumpTask = dumper.scheduleWithFixedDelay(() -> {
+            try {
+                dump(path);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not write SQL statistics to " + path + ": " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        LOGGER.info("SQL statistics will be written to " + path.toAbsolutePath() + " every " + interval + "ms");
+    }
+
+    // Statistics
+
+    /**
+     * Live counters for one template
+     */
+    static final class TemplateStats {
+        final String template;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slowCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+
+        TemplateStats(String template) {
+            this.template = template;
+        }
+
+        void record(long elapsedNanos, boolean failed, long rowCount) {
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            buckets.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+        }
+
+        Snapshot snapshot() {
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new Snapshot(template, count.sum(), errors.sum(), slowCount.sum(), totalNanos.sum(),
+                    maxNanos.get(), rows.sum(), bytes.sum(), counts);
+        }
+
+        private static int bucketOf(long micros) {
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                if (micros <= BUCKET_BOUNDS_MICROS[i]) {
+                    return i;
+                }
+            }
+            return BUCKET_BOUNDS_MICROS.length;
+        }
+    }
+
+    /**
+     * Statistics of one template at the time of {@link #snapshot()}
+     */
+    public static final class Snapshot {
+        private final String template;
+        private final long count;
+        private final long errorCount;
+        private final long slowCount;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long rows;
+        private final long bytes;
+        private final long[] bucketCounts;
+
+        private Snapshot(String template, long count, long errorCount, long slowCount, long totalNanos,
+                         long maxNanos, long rows, long bytes, long[] bucketCounts) {
+            this.template = template;
+            this.count = count;
+            this.errorCount = errorCount;
+            this.slowCount = slowCount;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.rows = rows;
+            this.bytes = bytes;
+            this.bucketCounts = bucketCounts;
+        }
+
+        public String getTemplate() { return template; }
+        public long getCount() { return count; }
+        public long getErrorCount() { return errorCount; }
+        public long getSlowCount() { return slowCount; }
+        public long getTotalNanos() { return totalNanos; }
+        public double getMaxMillis() { return maxNanos / 1_000_000.0; }
+        public long getRows() { return rows; }
+        public long getBytes() { return bytes; }
+
+        public double getMeanMillis() {
+            return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+        }
+
+        /**
+         * Upper bound of the histogram bucket holding the given percentile, capped at the maximum
+         */
+        public double getPercentileMillis(double percentile) {
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in (0, 100]");
+            }
+            long histogramCount = 0;
+            for (long bucketCount : bucketCounts) {
+                histogramCount += bucketCount;
+            }
+            if (histogramCount == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(histogramCount * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank) {
+                    double bound = i < BUCKET_BOUNDS_MICROS.length
+                            ? BUCKET_BOUNDS_MICROS[i] / 1_000.0 : Double.MAX_VALUE;
+                    return Math.min(bound, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        /**
+         * Executions per latency bucket; see {@link #getBucketBoundsMillis()}
+         */
+        public long[] getBucketCounts() {
+            return bucketCounts.clone();
+        }
+
+        /**
+         * Upper bounds of the histogram buckets; the last bucket (not listed) is unbounded
+         */
+        public static double[] getBucketBoundsMillis() {
+            double[] bounds = new double[BUCKET_BOUNDS_MICROS.length];
+            for (int i = 0; i < bounds.length; i++) {
+                bounds[i] = BUCKET_BOUNDS_MICROS[i] / 1_000.0;
+            }
+            return bounds;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package util;
+
+import util.DataChangeNotifier.DataChangeEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Binds one database connection to the current thread for a block of work.
+ *
+ * While a unit of work is active, {@link DBConnection#getConnection()} returns the unit's
+ * connection instead of borrowing a new one, so every DAO call inside the block shares one
+ * connection and one transaction without any change to the DAO code. Closing that connection
+ * is a no-op, and commit()/rollback()/setAutoCommit() issued by a DAO are absorbed: the unit
+ * decides the outcome. A DAO rollback() marks the unit rollback-only.
+ *
+ * <pre>
+ * try (UnitOfWork work = UnitOfWork.begin()) {
+ *     employeeDAO.updateEmployee(employee);
+ *     deductionDAO.addDeductionBatch(deductions);
+ *     work.commit();
+ * } // rolled back if commit() was not reached
+ * </pre>
+ *
+ * Units nest: begin() while a unit is active joins it, and only the outermost unit commits.
+ * A nested unit closed without commit() marks the whole unit rollback-only.
+ *
+ * {@link #beginReadOnlySnapshot()} opens a read-only REPEATABLE READ transaction, so all reads
+ * in the block see the database as of the first read. Payroll calculations use it to load an
+ * employee's data consistently on a single connection.
+ *
+ * Data change events published by DAOs inside a unit are held back until it commits and are
+ * discarded on rollback, so caches never drop or keep entries based on uncommitted writes.
+ *
+ * A unit belongs to the thread that began it; work handed to other threads does not join it.
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(UnitOfWork.class.getName());
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    /**
+     * A block of work run inside a unit
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute() throws SQLException;
+    }
+
+    private final UnitOfWork root;
+    private final boolean readOnly;
+    private final Thread owner = Thread.currentThread();
+    private boolean completed;
+
+    // Root-only state
+    private Connection connection;
+    private Connection view;
+    private boolean rollbackOnly;
+    private List<DataChangeEvent> pendingEvents;
+
+    private UnitOfWork(UnitOfWork root, boolean readOnly) {
+        this.root = root;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Start a read-write unit, or join the one already active on this thread
+     * @throws IllegalStateException if the active unit is a read-only snapshot
+     * @throws SQLException if no connection could be obtained
+     */
+    public static UnitOfWork begin() throws SQLException {
+        return start(false);
+    }
+
+    /**
+     * Start a read-only consistent snapshot, or join the unit already active on this thread
+     * @throws SQLException if no connection could be obtained
+     */
+    public static UnitOfWork beginReadOnlySnapshot() throws SQLException {
+        return start(true);
+    }
+
+    /**
+     * Run work in a read-write unit and commit it if the work completes normally
+     */
+    public static <T> T inTransaction(Work<T> work) throws SQLException {
+        try (UnitOfWork unit = begin()) {
+            T result = work.execute();
+            unit.commit();
+            return result;
+        }
+    }
+
+    /**
+     * Run read-only work against one consistent snapshot
+     */
+    public static <T> T inSnapshot(Work<T> work) throws SQLException {
+        try (UnitOfWork unit = beginReadOnlySnapshot()) {
+            T result = work.execute();
+            unit.commit();
+            return result;
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * The unit active on this thread (the outermost one when nested), or null
+     */
+    public static UnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    private static UnitOfWork start(boolean readOnly) throws SQLException {
+        UnitOfWork active = CURRENT.get();
+        if (active != null) {
+            if (active.readOnly && !readOnly) {
+                throw new IllegalStateException("Cannot start a read-write unit of work inside a read-only snapshot");
+            }
+            return new UnitOfWork(active, readOnly);
+        }
+
+        UnitOfWork unit = new UnitOfWork(null, readOnly);
+        // A snapshot started under a ReadIntent may be served by the read replica
+        Connection conn = readOnly ? DBConnection.borrowReadConnection() : DBConnection.borrowConnection();
+        try {
+            if (readOnly) {
+                conn.setReadOnly(true);
+                conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            }
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+        unit.connection = conn;
+        unit.view = (Connection) Proxy.newProxyInstance(
+                UnitOfWork.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                unit.new SharedConnection());
+        CURRENT.set(unit);
+        LOGGER.fine(() -> "Began " + (readOnly ? "read-only snapshot" : "unit of work") + " on " + Thread.currentThread().getName());
+        return unit;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public boolean isNested() {
+        return root != null;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Make the outermost unit roll back instead of committing
+     */
+    public void setRollbackOnly() {
+        outermost().rollbackOnly = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return outermost().rollbackOnly;
+    }
+
+    /**
+     * Commit the work. For a nested unit this only marks it finished; the outermost unit commits.
+     * @throws SQLException if the commit fails or the unit was marked rollback-only (it is rolled back)
+     */
+    public void commit() throws SQLException {
+        checkOpen();
+        completed = true;
+        if (root != null) {
+            return;
+        }
+
+        List<DataChangeEvent> events = pendingEvents;
+        try {
+            if (rollbackOnly) {
+                connection.rollback();
+                throw new SQLException("Unit of work was marked rollback-only and has been rolled back");
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            events = null;
+            rollbackQuietly();
+            throw e;
+        } finally {
+            release();
+        }
+        publish(events);
+    }
+
+    /**
+     * Roll back the work. A nested unit marks the outermost one rollback-only.
+     */
+    public void rollback() throws SQLException {
+        checkOpen();
+        completed = true;
+        if (root != null) {
+            root.rollbackOnly = true;
+            return;
+        }
+        try {
+            connection.rollback();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Roll back unless commit() or rollback() was called
+     */
+    @Override
+    public void close() throws SQLException {
+        if (completed) {
+            return;
+        }
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Unit of work must be closed by the thread that began it");
+        }
+        rollback();
+    }
+
+    // Internal helpers
+
+    /**
+     * Connection DBConnection should hand out on this thread, or null outside a unit
+     */
+    static Connection boundConnection() {
+        UnitOfWork unit = CURRENT.get();
+        return unit != null ? unit.view : null;
+    }
+
+    /**
+     * Hold a data change event until the active unit commits
+     * @return false if no unit is active and the event should be published now
+     */
+    static boolean deferUntilCommit(DataChangeEvent event) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit == null) {
+            return false;
+        }
+        if (unit.pendingEvents == null) {
+            unit.pendingEvents = new ArrayList<>();
+        }
+        unit.pendingEvents.add(event);
+        return true;
+    }
+
+    private UnitOfWork outermost() {
+        return root != null ? root : this;
+    }
+
+    private void checkOpen() {
+        if (completed) {
+            throw new IllegalStateException("Unit of work has already completed");
+        }
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Unit of work belongs to thread " + owner.getName());
+        }
+    }
+
+    private void release() {
+        CURRENT.remove();
+        closeQuietly(connection);
+        LOGGER.fine(() -> "Ended " + (readOnly ? "read-only snapshot" : "unit of work") + " on " + owner.getName());
+    }
+
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error rolling back unit of work", e);
+        }
+    }
+
+    private static void publish(List<DataChangeEvent> events) {
+        if (events != null) {
+            for (DataChangeEvent event : events) {
+                DataChangeNotifier.dispatch(event);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error releasing unit of work connection", e);
+        }
+    }
+
+    /**
+     * Connection handed to DAOs inside the unit; transaction control stays with the unit
+     */
+    private class SharedConnection implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    return null;
+                case "isClosed":
+                    return completed || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "UnitOfWork[" + (readOnly ? "read-only" : "read-write") + "] -> " + connection;
+                case "commit":
+                case "setAutoCommit":
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                    return null;
+                case "getAutoCommit":
+                    return false;
+                case "rollback":
+                    if (args == null) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            if (completed) {
+                throw new SQLException("Unit of work has already completed", "08003");
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}